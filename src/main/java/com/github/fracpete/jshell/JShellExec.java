@@ -20,24 +20,66 @@
 
 package com.github.fracpete.jshell;
 
+import com.github.fracpete.jshell.compile.JarUtils;
+import com.github.fracpete.jshell.compile.PreflightCheck;
+import com.github.fracpete.jshell.compile.ScriptDiagnostic;
+import com.github.fracpete.jshell.deps.ClassPathCache;
+import com.github.fracpete.jshell.deps.DependencyDirective;
 import com.github.fracpete.jshell.event.JShellErrorEvent;
 import com.github.fracpete.jshell.event.JShellErrorListener;
 import com.github.fracpete.jshell.event.JShellExecEvent;
 import com.github.fracpete.jshell.event.JShellExecEvent.EventType;
 import com.github.fracpete.jshell.event.JShellExecListener;
+import com.github.fracpete.jshell.event.JShellTelemetryEvent;
+import com.github.fracpete.jshell.event.JShellTelemetryListener;
+import com.github.fracpete.jshell.event.JShellTriggerEvent;
+import com.github.fracpete.jshell.event.JShellTriggerListener;
+import com.github.fracpete.jshell.history.RunJournal;
+import com.github.fracpete.jshell.history.RunRecord;
+import com.github.fracpete.jshell.pipeline.ScriptPipeline;
+import com.github.fracpete.jshell.prelude.CompiledPrelude;
+import com.github.fracpete.jshell.prelude.Prelude;
+import com.github.fracpete.jshell.prelude.PreludeCache;
+import com.github.fracpete.jshell.process.ChannelOutputConsumer;
+import com.github.fracpete.jshell.process.CoreAllocator;
+import com.github.fracpete.jshell.process.CoreAllocator.CoreSet;
+import com.github.fracpete.jshell.process.ExecutableResolver;
+import com.github.fracpete.jshell.process.FlowControlledOwner;
+import com.github.fracpete.jshell.process.JdkExecutableResolver;
+import com.github.fracpete.jshell.process.LineForwardingOutputStream;
+import com.github.fracpete.jshell.process.LineSplitter;
+import com.github.fracpete.jshell.process.MonitoredProcess;
+import com.github.fracpete.jshell.process.ProcessAccounting;
+import com.github.fracpete.jshell.process.ProcessMultiplexer;
+import com.github.fracpete.jshell.process.RawForwardingOutputStream;
+import com.github.fracpete.jshell.process.RawOutputConsumer;
+import com.github.fracpete.jshell.session.SessionSettings;
+import com.github.fracpete.jshell.target.ExecutionTarget;
+import com.github.fracpete.jshell.telemetry.TelemetryMonitor;
+import com.github.fracpete.jshell.trigger.Trigger;
+import com.github.fracpete.jshell.trigger.TriggerMatcher;
+import com.github.fracpete.jshell.trigger.TriggerMatcher.Match;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
-import com.github.fracpete.processoutput4j.output.StreamingProcessOutput;
 import nz.ac.waikato.cms.core.FileUtils;
-import org.apache.commons.lang3.JavaVersion;
-import org.apache.commons.lang3.SystemUtils;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Attributes;
 
 /**
  * For executing code via JShell.
@@ -45,7 +87,170 @@ import java.util.Set;
  * @author FracPete (fracpete at waikato dot ac dot nz)
  */
 public class JShellExec
-  implements Serializable, StreamingProcessOwner {
+  implements Serializable, StreamingProcessOwner, RawOutputConsumer, FlowControlledOwner {
+
+  /**
+   * The state of a single run. Output of the run's process gets routed
+   * through it, so that a process that is still terminating cannot mix its
+   * output or its result into the run that replaced it.
+   */
+  protected class Run
+    implements StreamingProcessOwner, RawOutputConsumer, FlowControlledOwner {
+
+    /** the start of the run (msec since epoch), 0 if recorded already. */
+    protected long m_Start;
+
+    /** the hash of the script. */
+    protected long m_Hash;
+
+    /** the flags of the run. */
+    protected String m_Flags;
+
+    /** the number of bytes output by the run. */
+    protected AtomicLong m_OutputBytes;
+
+    /** for splitting raw stdout into lines. */
+    protected LineSplitter m_StdoutLines;
+
+    /** for splitting raw stderr into lines. */
+    protected LineSplitter m_StderrLines;
+
+    /** the pipeline of the run, null if none. */
+    protected ScriptPipeline m_Pipeline;
+
+    /**
+     * Initializes the run.
+     *
+     * @param hash	the hash of the script
+     * @param flags	the flags of the run
+     */
+    protected Run(long hash, String flags) {
+      m_Start       = System.currentTimeMillis();
+      m_Hash        = hash;
+      m_Flags       = flags;
+      m_OutputBytes = new AtomicLong();
+      m_StdoutLines = new LineSplitter((String line) -> processLine(line, true));
+      m_StderrLines = new LineSplitter((String line) -> processLine(line, false));
+      m_Pipeline    = null;
+    }
+
+    /**
+     * Returns what output from the process to forward.
+     *
+     * @return 		the output type
+     */
+    public StreamingProcessOutputType getOutputType() {
+      return JShellExec.this.getOutputType();
+    }
+
+    /**
+     * Returns whether more output can be accepted at the moment.
+     *
+     * @param stdout	whether stdout or stderr
+     * @return		true if output can be accepted
+     */
+    public boolean canAcceptOutput(boolean stdout) {
+      return JShellExec.this.canAcceptOutput(stdout);
+    }
+
+    /**
+     * Processes the incoming line.
+     *
+     * @param line	the line to process
+     * @param stdout	whether stdout or stderr
+     */
+    public void processOutput(String line, boolean stdout) {
+      if (isRawOutput()) {
+	processOutput(ByteBuffer.wrap((line + "\n").getBytes(Charset.defaultCharset())), stdout);
+	return;
+      }
+      m_OutputBytes.addAndGet(line.length() + 1);
+      processLine(line, stdout);
+    }
+
+    /**
+     * Processes the incoming chunk of raw output. Gets split into lines
+     * if necessary.
+     *
+     * @param data	the data
+     * @param stdout	whether stdout or stderr
+     */
+    public void processOutput(ByteBuffer data, boolean stdout) {
+      RawOutputConsumer	consumer;
+
+      m_OutputBytes.addAndGet(data.remaining());
+      if (needsRawLines())
+	(stdout ? m_StdoutLines : m_StderrLines).feed(data);
+      consumer = m_RawOutputConsumer;
+      if (consumer != null)
+	consumer.processOutput(data, stdout);
+    }
+
+    /**
+     * Forwards any incomplete lines.
+     */
+    protected void flush() {
+      m_StdoutLines.flush();
+      m_StderrLines.flush();
+    }
+  }
+
+  /**
+   * Transfers the output of the jshell process straight to the raw
+   * consumer, keeping track of the number of bytes.
+   */
+  protected static class TransferringConsumer
+    implements ChannelOutputConsumer {
+
+    /** the consumer to transfer the output to. */
+    protected ChannelOutputConsumer m_Consumer;
+
+    /** the number of bytes output by the run. */
+    protected AtomicLong m_OutputBytes;
+
+    /**
+     * Initializes the consumer.
+     *
+     * @param consumer	the consumer to transfer the output to
+     * @param outputBytes	the counter for the bytes output by the run
+     */
+    protected TransferringConsumer(ChannelOutputConsumer consumer, AtomicLong outputBytes) {
+      m_Consumer    = consumer;
+      m_OutputBytes = outputBytes;
+    }
+
+    /**
+     * Forwards the chunk of output.
+     *
+     * @param data	the data
+     * @param stdout	whether stdout or stderr
+     */
+    public void processOutput(ByteBuffer data, boolean stdout) {
+      m_OutputBytes.addAndGet(data.remaining());
+      m_Consumer.processOutput(data, stdout);
+    }
+
+    /**
+     * Transfers the output from the channel.
+     *
+     * @param channel	the channel to read from
+     * @param count	the number of bytes to transfer
+     * @param stdout	whether stdout or stderr
+     * @return		the number of bytes transferred
+     * @throws IOException	if transfer fails
+     */
+    public long transferFrom(ReadableByteChannel channel, long count, boolean stdout) throws IOException {
+      long	result;
+
+      result = m_Consumer.transferFrom(channel, count, stdout);
+      m_OutputBytes.addAndGet(result);
+
+      return result;
+    }
+  }
+
+  /** the main class of the JVM that jshell launches for running the code. */
+  public final static String REMOTE_AGENT = "jdk.jshell.execution.RemoteExecutionControl";
 
   /** whether debugging is on. */
   protected boolean m_Debug;
@@ -54,7 +259,10 @@ public class JShellExec
   protected Boolean m_Available;
 
   /** executes the script. */
-  protected transient StreamingProcessOutput m_Execution;
+  protected transient MonitoredProcess m_Execution;
+
+  /** determines the command for launching jshell. */
+  protected ExecutableResolver m_ExecutableResolver;
 
   /** the listeners that listen for changes. */
   protected Set<JShellExecListener> m_JShellExecListeners;
@@ -65,16 +273,89 @@ public class JShellExec
   /** the streaming process owner to forward the process output to. */
   protected StreamingProcessOwner m_StreamingProcessOwner;
 
+  /** the alternative execution target, null for spawning jshell processes. */
+  protected ExecutionTarget m_ExecutionTarget;
+
+  /** the triggers to look for in the output. */
+  protected List<Trigger> m_Triggers;
+
+  /** the compiled triggers, null if needs compiling. */
+  protected transient volatile TriggerMatcher m_TriggerMatcher;
+
+  /** the listeners for triggers. */
+  protected Set<JShellTriggerListener> m_JShellTriggerListeners;
+
+  /** the interval in msec for sampling the JVM executing the code, 0 to turn off. */
+  protected int m_TelemetryInterval;
+
+  /** the telemetry monitor of the current execution. */
+  protected transient TelemetryMonitor m_TelemetryMonitor;
+
+  /** the listeners for telemetry. */
+  protected Set<JShellTelemetryListener> m_JShellTelemetryListeners;
+
+  /** the resources consumed by the last jshell process and its descendants. */
+  protected transient ProcessAccounting m_LastAccounting;
+
+  /** the number of CPUs to pin each run to, 0 to turn off. */
+  protected int m_CoresPerRun;
+
+  /** the currently running pipeline. */
+  protected transient ScriptPipeline m_Pipeline;
+
+  /** the journal to record the runs in, null if not recording. */
+  protected RunJournal m_RunJournal;
+
+  /** the current (or last) run. */
+  protected transient volatile Run m_Run;
+
+  /** the registered preludes (name / prelude). */
+  protected Map<String,Prelude> m_Preludes;
+
+  /** the compiled preludes of the current run. */
+  protected transient List<CompiledPrelude> m_ActivePreludes;
+
+  /** the classpath of the current run. */
+  protected transient String m_ActiveClassPath;
+
+  /** the consumer of the raw output, null if output gets forwarded line by line. */
+  protected transient RawOutputConsumer m_RawOutputConsumer;
+
+  /** whether to split raw output into lines for the streaming process owner as well. */
+  protected boolean m_RawLineSplitting;
+
+  /** whether to compile-check scripts in the host before running them. */
+  protected boolean m_PreflightCheck;
+
   /**
    * Initializes the execution.
    */
   public JShellExec() {
-    m_Available             = null;
-    m_StreamingProcessOwner = null;
-    m_JShellExecListeners   = new HashSet<>();
-    m_JShellErrorListeners  = new HashSet<>();
-    m_Execution             = null;
-    m_Debug                 = false;
+    m_Available                = null;
+    m_StreamingProcessOwner    = null;
+    m_JShellExecListeners      = new HashSet<>();
+    m_JShellErrorListeners     = new HashSet<>();
+    m_Execution                = null;
+    m_ExecutableResolver       = new JdkExecutableResolver();
+    m_ExecutionTarget          = null;
+    m_Triggers                 = new ArrayList<>();
+    m_TriggerMatcher           = null;
+    m_JShellTriggerListeners   = new HashSet<>();
+    m_TelemetryInterval        = 0;
+    m_TelemetryMonitor         = null;
+    m_JShellTelemetryListeners = new HashSet<>();
+    m_LastAccounting           = null;
+    m_CoresPerRun              = 0;
+    m_Pipeline                 = null;
+    m_RunJournal               = null;
+    m_Run                      = null;
+    m_Preludes                 = new LinkedHashMap<>();
+    m_ActivePreludes           = new ArrayList<>();
+    m_ActiveClassPath          = System.getProperty("java.class.path");
+    m_RawOutputConsumer        = null;
+    m_RawLineSplitting         = false;
+    m_PreflightCheck           = false;
+    m_Debug                    = false;
   }
 
   /**
@@ -100,7 +381,7 @@ public class JShellExec
    *
    * @param msg		the message output
    */
-  protected void debugMsg(String msg) {
+  public void debugMsg(String msg) {
     if (m_Debug)
       System.out.println("[DEBUG] " + msg);
   }
@@ -125,12 +406,135 @@ public class JShellExec
     return m_StreamingProcessOwner;
   }
 
+  /**
+   * Sets the consumer for the raw output. Instead of being decoded into
+   * lines for the streaming process owner, the output gets handed on as
+   * byte chunks. If the consumer is a {@link ChannelOutputConsumer} (e.g.,
+   * a {@link com.github.fracpete.jshell.process.FileOutputSink}), the output
+   * of the jshell process gets transferred straight from the process'
+   * channel. Lines only get decoded if line splitting is turned on or
+   * trigger listeners are registered.
+   *
+   * @param value	the consumer, null for forwarding output line by line
+   * @see		#setRawLineSplitting(boolean)
+   */
+  public void setRawOutputConsumer(RawOutputConsumer value) {
+    m_RawOutputConsumer = value;
+  }
+
+  /**
+   * Returns the consumer for the raw output.
+   *
+   * @return		the consumer, null if output gets forwarded line by line
+   */
+  public RawOutputConsumer getRawOutputConsumer() {
+    return m_RawOutputConsumer;
+  }
+
+  /**
+   * Returns whether the output gets handed on as raw bytes.
+   *
+   * @return		true if raw output
+   */
+  public boolean isRawOutput() {
+    return (m_RawOutputConsumer != null);
+  }
+
+  /**
+   * Sets whether raw output also gets split into lines and forwarded to
+   * the streaming process owner (or stdout/stderr).
+   *
+   * @param value	true if to split
+   */
+  public void setRawLineSplitting(boolean value) {
+    m_RawLineSplitting = value;
+  }
+
+  /**
+   * Returns whether raw output also gets split into lines and forwarded to
+   * the streaming process owner (or stdout/stderr).
+   *
+   * @return		true if split
+   */
+  public boolean getRawLineSplitting() {
+    return m_RawLineSplitting;
+  }
+
+  /**
+   * Sets whether to compile-check scripts in the host before running them,
+   * failing fast with the diagnostics rather than launching a process.
+   *
+   * @param value	true if to check
+   * @see		PreflightCheck
+   */
+  public void setPreflightCheck(boolean value) {
+    m_PreflightCheck = value;
+  }
+
+  /**
+   * Returns whether to compile-check scripts in the host before running them.
+   *
+   * @return		true if to check
+   */
+  public boolean getPreflightCheck() {
+    return m_PreflightCheck;
+  }
+
+  /**
+   * Returns whether the raw output has to be split into lines, i.e., for
+   * line splitting or triggers.
+   *
+   * @return		true if lines are required
+   */
+  protected boolean needsRawLines() {
+    return m_RawLineSplitting || !m_JShellTriggerListeners.isEmpty();
+  }
+
+  /**
+   * Returns the output stream for forwarding the output of code that is
+   * executed without a separate process, either raw or line by line,
+   * depending on the raw output consumer.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		the stream
+   * @see		#setRawOutputConsumer(RawOutputConsumer)
+   */
+  public OutputStream createOutputStream(boolean stdout) {
+    if (isRawOutput())
+      return new RawForwardingOutputStream(this, stdout);
+    else
+      return new LineForwardingOutputStream(this, stdout);
+  }
+
+  /**
+   * Sets the alternative target for executing scripts, eg a running JVM.
+   *
+   * @param value	the target, null for spawning jshell processes
+   */
+  public void setExecutionTarget(ExecutionTarget value) {
+    stopScript();
+    m_ExecutionTarget = value;
+  }
+
+  /**
+   * Returns the alternative target for executing scripts.
+   *
+   * @return		the target, null if spawning jshell processes
+   */
+  public ExecutionTarget getExecutionTarget() {
+    return m_ExecutionTarget;
+  }
+
   /**
    * Returns whether a script is currently running.
    *
    * @return		true if a script is running
    */
   public boolean isRunning() {
+    if (m_Pipeline != null)
+      return true;
+    if (m_ExecutionTarget != null)
+      return m_ExecutionTarget.isRunning();
     return (m_Execution != null);
   }
 
@@ -155,10 +559,27 @@ public class JShellExec
     List<String> 	cmd;
     final File 		tmpFile;
     String		msg;
-    ProcessBuilder 	builder;
-    Runnable		run;
+    CoreSet		cores;
 
     stopScript();
+    startRun(code, runtimeFlags, remoteRuntimeFlags, compilerFlags);
+
+    // preludes and dependencies
+    if (!resolveClassPath(code) || !compilePreludes() || !preflightCheck(code, compilerFlags)) {
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+
+    // alternative target
+    if (m_ExecutionTarget != null) {
+      if (m_ExecutionTarget.execute(this, code, runtimeFlags, remoteRuntimeFlags, compilerFlags)) {
+	startTelemetry();
+	notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN));
+      }
+      else
+	notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
 
     // create tmp file name
     try {
@@ -185,10 +606,18 @@ public class JShellExec
     }
 
     // build commandline for jshell
-    cmd = new ArrayList<>();
-    cmd.add(getExecutable());
+    cores = allocateCores();
+    cmd   = new ArrayList<>();
+    if (cores != null)
+      cmd.addAll(cores.getAffinityCommand());
+    cmd.addAll(m_ExecutableResolver.getCommand());
+    if (cores != null) {
+      cmd.add("-J" + cores.getJVMOption());
+      cmd.add("-R" + cores.getJVMOption());
+    }
     cmd.add("--class-path");
-    cmd.add(System.getProperty("java.class.path"));
+    cmd.add(PreludeCache.getClassPath(m_ActiveClassPath, m_ActivePreludes));
+    cmd.addAll(PreludeCache.getStartupOptions(m_ActivePreludes));
     if (runtimeFlags != null) {
       for (String runtimeFlag: runtimeFlags)
         cmd.add("-J" + runtimeFlag);
@@ -202,39 +631,285 @@ public class JShellExec
         cmd.add("-C" + compilerFlag);
     }
     cmd.add(tmpFile.getAbsolutePath());
+
+    launch(cmd, tmpFile, cores);
+  }
+
+  /**
+   * Executes the scripts as a pipeline with no flags.
+   *
+   * @param scripts 	the scripts of the stages, in order
+   * @see		#runPipeline(List, List, List, List)
+   */
+  public void runPipeline(List<String> scripts) {
+    runPipeline(scripts, null, null, null);
+  }
+
+  /**
+   * Executes the scripts concurrently as a pipeline, each in its own jshell
+   * process. The stdout of a stage gets streamed into the next stage, which
+   * can read it via {@link com.github.fracpete.jshell.pipeline.PipelineInput}.
+   * The stdout of the last stage and stderr of all stages get output. If
+   * one stage fails, all others get stopped. The events are sent for the
+   * pipeline as a whole. Not available for execution targets.
+   *
+   * @param scripts 	the scripts of the stages, in order
+   * @param runtimeFlags 	optional runtime flags to pass through (-J gets prefixed automatically) - for JShell (eg -verbose)
+   * @param remoteRuntimeFlags 	optional runtime flags to pass through (-R gets prefixed automatically) - for JVM that runs code (eg -javaagent:...)
+   * @param compilerFlags 	optional runtime flags to pass through (-C gets prefixed automatically)
+   * @see		ScriptPipeline
+   */
+  public void runPipeline(List<String> scripts, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    ScriptPipeline	pipeline;
+    String		msg;
+
+    stopScript();
+
+    if (m_ExecutionTarget != null) {
+      showErrorMessage("Pipelines are not supported by execution targets!");
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+    if (scripts.isEmpty()) {
+      showErrorMessage("No scripts provided for pipeline!");
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+
+    startRun(String.join("\n", scripts), runtimeFlags, remoteRuntimeFlags, compilerFlags);
+    pipeline               = new ScriptPipeline(this, scripts);
+    m_Pipeline             = pipeline;
+    m_Run.m_Pipeline       = pipeline;
+    debugMsg("Pipeline with " + pipeline.size() + " stage(s)");
+    msg = pipeline.start(runtimeFlags, remoteRuntimeFlags, compilerFlags);
+    if (msg != null) {
+      m_Pipeline = null;
+      showErrorMessage(msg);
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+    notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN));
+  }
+
+  /**
+   * Notifies the listeners that all stages of the pipeline finished.
+   *
+   * @param pipeline	the pipeline that finished
+   * @param success	whether all stages finished successfully
+   */
+  public void pipelineFinished(ScriptPipeline pipeline, boolean success) {
+    Run		run;
+
+    synchronized (this) {
+      if (m_Pipeline == pipeline)
+	m_Pipeline = null;
+    }
+    run = m_Run;
+    if ((run == null) || (run.m_Pipeline != pipeline)) {
+      debugMsg("Ignoring pipeline that got replaced by another run");
+      return;
+    }
+    scriptFinished(run, success);
+  }
+
+  /**
+   * Executes a script that was compiled into a jar with plain java instead of
+   * jshell.
+   *
+   * @param jar		the jar with the compiled script
+   * @param runtimeFlags 	optional runtime flags for the JVM (eg -Xmx1g)
+   * @see		com.github.fracpete.jshell.compile.ScriptCompiler
+   */
+  public void runJar(File jar, List<String> runtimeFlags) {
+    List<String> 	cmd;
+    String		mainClass;
+    CoreSet		cores;
+
+    stopScript();
+    startRun(jar.getAbsolutePath(), runtimeFlags, null, null);
+
+    try {
+      mainClass = JarUtils.getMainAttribute(jar, Attributes.Name.MAIN_CLASS);
+    }
+    catch (Exception e) {
+      showErrorMessage("Failed to read manifest of jar: " + jar, e);
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+    if (mainClass == null) {
+      showErrorMessage("No main class defined in jar: " + jar);
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+
+    // build commandline for java
+    cores = allocateCores();
+    cmd   = new ArrayList<>();
+    if (cores != null)
+      cmd.addAll(cores.getAffinityCommand());
+    cmd.add(getJavaExecutable());
+    if (cores != null)
+      cmd.add(cores.getJVMOption());
+    if (runtimeFlags != null)
+      cmd.addAll(runtimeFlags);
+    cmd.add("-cp");
+    cmd.add(jar.getAbsolutePath() + File.pathSeparator + System.getProperty("java.class.path"));
+    cmd.add(mainClass);
+
+    launch(cmd, null, cores);
+  }
+
+  /**
+   * Returns the consumer for the raw output of the jshell process. Output
+   * gets transferred straight from the process to a {@link ChannelOutputConsumer}
+   * if no lines are required.
+   *
+   * @param run		the run the process belongs to
+   * @return		the consumer, null if output gets forwarded line by line
+   */
+  protected RawOutputConsumer getProcessRawOutputConsumer(Run run) {
+    if (!isRawOutput())
+      return null;
+    if ((m_RawOutputConsumer instanceof ChannelOutputConsumer) && !needsRawLines())
+      return new TransferringConsumer((ChannelOutputConsumer) m_RawOutputConsumer, run.m_OutputBytes);
+    return run;
+  }
+
+  /**
+   * Launches the command and notifies the listeners. The output and the
+   * termination of the process are handled by the {@link ProcessMultiplexer},
+   * i.e., no additional threads are required per execution. Once finished,
+   * any descendants of the process that are still alive (eg the JVM executing
+   * the code) get killed and reported as leaked. If the process got replaced
+   * by another run in the meantime, only its own run gets recorded, no
+   * events get sent.
+   *
+   * @param cmd		the command to execute
+   * @param tmpFile	the temporary file to delete after execution, can be null
+   * @param cores	the CPUs the command is pinned to, released after execution, can be null
+   */
+  protected void launch(List<String> cmd, final File tmpFile, final CoreSet cores) {
+    ProcessBuilder 	builder;
+    MonitoredProcess	execution;
+    final Run		run;
+
     debugMsg("Command: " + cmd);
 
+    run     = m_Run;
     builder = new ProcessBuilder();
     builder.command(cmd);
-    m_Execution = new StreamingProcessOutput(this);
-
-    run = new Runnable() {
-      @Override
-      public void run() {
-	try {
-	  m_Execution.monitor(builder);
-	  if (m_Execution.getExitCode() != 0)
-	    notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_RUN_FAILURE));
-	  else
-	    notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_RUN_SUCCESS));
+    try {
+      execution = ProcessMultiplexer.getSingleton().create(builder, run, getProcessRawOutputConsumer(run), (MonitoredProcess process) -> {
+	ProcessAccounting	accounting;
+	boolean			current;
+
+	accounting = process.getProcessTree().finish();
+	CoreAllocator.getSingleton().release(cores);
+	if (tmpFile != null)
+	  tmpFile.delete();
+	finishRun(run, process.getExitCode(), accounting);
+	debugMsg("Processes: " + accounting);
+	synchronized (JShellExec.this) {
+	  current = (m_Run == run);
+	  if (m_Execution == process)
+	    m_Execution = null;
 	}
-	catch (Throwable t) {
-	  showErrorMessage("Failed to execute script!", t);
-	  notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_RUN_FAILURE));
+	if (!current) {
+	  debugMsg("Process got replaced by another run, no events sent");
+	  return;
 	}
-	m_Execution = null;
+	stopTelemetry();
+	m_LastAccounting = accounting;
+	if (accounting.hasLeaked()) {
+	  debugMsg("Killed leaked processes: " + accounting.getLeaked());
+	  notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.PROCESSES_LEAKED));
+	}
+	if (process.getExitCode() != 0)
+	  notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_RUN_FAILURE));
+	else
+	  notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_RUN_SUCCESS));
 	notifyJShellExecListeners(new JShellExecEvent(JShellExec.this, EventType.SCRIPT_FINISHED));
+      });
+    }
+    catch (Throwable t) {
+      CoreAllocator.getSingleton().release(cores);
+      if (tmpFile != null)
 	tmpFile.delete();
-      }
-    };
-    new Thread(run).start();
+      showErrorMessage("Failed to execute script!", t);
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SETUP_FAILURE));
+      return;
+    }
+
+    // register the process before the finished callback can get called
+    synchronized (this) {
+      m_Execution = execution;
+    }
+    startTelemetry();
     notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN));
+    ProcessMultiplexer.getSingleton().monitor(execution);
+  }
+
+  /**
+   * Returns the resources (CPU time, peak RSS) consumed by the last jshell
+   * process and its descendants, as well as any processes that outlived it.
+   * Only available for the jshell executable, not for execution targets.
+   * Peak RSS requires /proc (ie Linux).
+   *
+   * @return		the accounting, null if not available
+   */
+  public ProcessAccounting getLastAccounting() {
+    return m_LastAccounting;
+  }
+
+  /**
+   * Notifies the listeners that the script finished. Used by execution
+   * targets.
+   *
+   * @param success	whether the script finished successfully
+   * @see		ExecutionTarget
+   */
+  public void scriptFinished(boolean success) {
+    scriptFinished(m_Run, success);
+  }
+
+  /**
+   * Notifies the listeners that the run finished, unless it got replaced by
+   * another run already.
+   *
+   * @param run		the run that finished
+   * @param success	whether the script finished successfully
+   */
+  protected void scriptFinished(Run run, boolean success) {
+    if (run == null)
+      return;
+    finishRun(run, success ? 0 : 1, null);
+    if (m_Run != run)
+      return;
+    stopTelemetry();
+    if (success)
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_SUCCESS));
+    else
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_RUN_FAILURE));
+    notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_FINISHED));
   }
 
   /**
    * Stops a running script.
    */
   public void stopScript() {
+    ScriptPipeline	pipeline;
+
+    stopTelemetry();
+    pipeline = m_Pipeline;
+    if (pipeline != null) {
+      m_Pipeline = null;
+      pipeline.stop();
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_STOP));
+    }
+    if ((m_ExecutionTarget != null) && m_ExecutionTarget.isRunning()) {
+      m_ExecutionTarget.stop();
+      notifyJShellExecListeners(new JShellExecEvent(this, EventType.SCRIPT_STOP));
+    }
     if (m_Execution != null) {
       m_Execution.destroy();
       m_Execution = null;
@@ -242,21 +917,372 @@ public class JShellExec
     }
   }
 
+  /**
+   * Sets the interval for sampling heap, GC, CPU and thread statistics of
+   * the JVM that executes the code.
+   *
+   * @param value	the interval in msec, 0 to turn off
+   * @see		#addJShellTelemetryListener(JShellTelemetryListener)
+   */
+  public void setTelemetryInterval(int value) {
+    m_TelemetryInterval = Math.max(0, value);
+  }
+
+  /**
+   * Returns the interval for sampling heap, GC, CPU and thread statistics of
+   * the JVM that executes the code.
+   *
+   * @return		the interval in msec, 0 if turned off
+   */
+  public int getTelemetryInterval() {
+    return m_TelemetryInterval;
+  }
+
+  /**
+   * Sets the journal to record all runs in.
+   *
+   * @param value	the journal, null to turn off
+   */
+  public void setRunJournal(RunJournal value) {
+    m_RunJournal = value;
+  }
+
+  /**
+   * Returns the journal that records all runs.
+   *
+   * @return		the journal, null if not recording
+   */
+  public RunJournal getRunJournal() {
+    return m_RunJournal;
+  }
+
+  /**
+   * Initializes the information about the current run.
+   *
+   * @param code	the script (or jar)
+   * @param runtimeFlags 	the runtime flags, can be null
+   * @param remoteRuntimeFlags 	the remote runtime flags, can be null
+   * @param compilerFlags 	the compiler flags, can be null
+   */
+  protected void startRun(String code, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    StringBuilder	flags;
+
+    flags = new StringBuilder();
+    if (runtimeFlags != null)
+      runtimeFlags.forEach((String flag) -> flags.append(" -J").append(flag));
+    if (remoteRuntimeFlags != null)
+      remoteRuntimeFlags.forEach((String flag) -> flags.append(" -R").append(flag));
+    if (compilerFlags != null)
+      compilerFlags.forEach((String flag) -> flags.append(" -C").append(flag));
+
+    m_Run = new Run(RunJournal.hash(code), flags.toString().trim());
+  }
+
+  /**
+   * Records the run in the journal, if any (only once).
+   *
+   * @param run		the run to record
+   * @param exitCode	the exit code
+   * @param accounting	the resources consumed, null if not available
+   */
+  protected void finishRun(Run run, int exitCode, ProcessAccounting accounting) {
+    RunRecord	record;
+    String	msg;
+
+    run.flush();
+
+    synchronized (run) {
+      if ((m_RunJournal == null) || (run.m_Start == 0))
+	return;
+      record = new RunRecord(
+	run.m_Start, run.m_Hash, run.m_Flags, System.currentTimeMillis() - run.m_Start, exitCode, run.m_OutputBytes.get(),
+	(accounting == null) ? -1 : accounting.getCpuTime(),
+	(accounting == null) ? -1 : accounting.getPeakRSS());
+      run.m_Start = 0;
+    }
+    debugMsg("Run: " + record);
+    msg = m_RunJournal.append(record);
+    if (msg != null)
+      showErrorMessage(msg);
+  }
+
+  /**
+   * Sets the number of CPUs to pin each run of the jshell executable (or
+   * compiled jar) to. Concurrent runs get disjoint CPUs assigned as long as
+   * possible and the JVMs are told to size their GC and compiler threads
+   * accordingly. Requires taskset (Linux).
+   *
+   * @param value	the number of CPUs, 0 to turn off
+   * @see		CoreAllocator
+   */
+  public void setCoresPerRun(int value) {
+    m_CoresPerRun = Math.max(0, value);
+  }
+
+  /**
+   * Returns the number of CPUs to pin each run of the jshell executable (or
+   * compiled jar) to.
+   *
+   * @return		the number of CPUs, 0 if turned off
+   */
+  public int getCoresPerRun() {
+    return m_CoresPerRun;
+  }
+
+  /**
+   * Allocates the CPUs for a run, if enabled and supported.
+   *
+   * @return		the CPUs, null if not pinning
+   */
+  protected CoreSet allocateCores() {
+    CoreSet	result;
+
+    if (m_CoresPerRun == 0)
+      return null;
+    result = CoreAllocator.getSingleton().allocate(m_CoresPerRun);
+    if (result == null)
+      debugMsg("Pinning to CPUs not supported!");
+    else
+      debugMsg("CPUs: " + result);
+
+    return result;
+  }
+
+  /**
+   * Registers the prelude, replacing any prelude with the same name. Preludes
+   * get compiled once and loaded into every session before the script.
+   *
+   * @param prelude	the prelude to add
+   * @see		PreludeCache
+   */
+  public synchronized void addPrelude(Prelude prelude) {
+    m_Preludes.put(prelude.getName(), prelude);
+  }
+
+  /**
+   * Removes the prelude with the specified name.
+   *
+   * @param name	the name of the prelude to remove
+   */
+  public synchronized void removePrelude(String name) {
+    m_Preludes.remove(name);
+  }
+
+  /**
+   * Removes all preludes.
+   */
+  public synchronized void clearPreludes() {
+    m_Preludes.clear();
+  }
+
+  /**
+   * Returns the registered preludes, in the order they get loaded.
+   *
+   * @return		the preludes
+   */
+  public synchronized List<Prelude> getPreludes() {
+    return new ArrayList<>(m_Preludes.values());
+  }
+
+  /**
+   * Compiles the registered preludes (if necessary) for the current run,
+   * against the classpath of the run, i.e., the preludes can use the
+   * dependencies of the script.
+   *
+   * @return		true if successful
+   * @see		#resolveClassPath(String)
+   */
+  protected boolean compilePreludes() {
+    List<CompiledPrelude>	result;
+    CompiledPrelude		compiled;
+
+    result = new ArrayList<>();
+    for (Prelude prelude: getPreludes()) {
+      try {
+	compiled = PreludeCache.getSingleton().compile(prelude, m_ActiveClassPath);
+	debugMsg("Prelude: " + compiled);
+	result.add(compiled);
+      }
+      catch (Exception e) {
+	showErrorMessage("Failed to compile prelude: " + prelude.getName(), e);
+	return false;
+      }
+    }
+    m_ActivePreludes = result;
+
+    return true;
+  }
+
+  /**
+   * Determines the classpath for the current run: the jars of the
+   * dependencies declared in the header of the script (//DEPS ...) or,
+   * without such a directive, the classpath of the current JVM.
+   *
+   * @param code	the script
+   * @return		true if successful
+   * @see		DependencyDirective
+   * @see		ClassPathCache
+   */
+  protected boolean resolveClassPath(String code) {
+    if (!DependencyDirective.hasDirective(code)) {
+      m_ActiveClassPath = System.getProperty("java.class.path");
+      return true;
+    }
+
+    try {
+      m_ActiveClassPath = ClassPathCache.getSingleton().getClassPath(DependencyDirective.parse(code));
+      debugMsg("Dependencies: " + m_ActiveClassPath);
+      return true;
+    }
+    catch (Exception e) {
+      showErrorMessage("Failed to resolve dependencies of script!", e);
+      return false;
+    }
+  }
+
+  /**
+   * Compile-checks the script in the host, using classpath and preludes of
+   * the current run, if enabled. If the check itself cannot be performed,
+   * the script gets run regardless.
+   *
+   * @param code	the script
+   * @param compilerFlags	the compiler flags, can be null
+   * @return		true if no errors found
+   * @see		PreflightCheck
+   */
+  protected boolean preflightCheck(String code, List<String> compilerFlags) {
+    PreflightCheck		check;
+    List<ScriptDiagnostic>	diagnostics;
+    long			start;
+
+    if (!m_PreflightCheck)
+      return true;
+
+    start = System.currentTimeMillis();
+    check = new PreflightCheck(new SessionSettings(
+      PreludeCache.getClassPath(m_ActiveClassPath, m_ActivePreludes),
+      null,
+      compilerFlags,
+      PreludeCache.getStartupFiles(m_ActivePreludes),
+      PreludeCache.getDefaultStartup(m_ActivePreludes)));
+    try {
+      diagnostics = check.check(code);
+    }
+    catch (Exception e) {
+      debugMsg("Failed to perform pre-flight check: " + e);
+      return true;
+    }
+    debugMsg("Pre-flight check: " + diagnostics.size() + " diagnostic(s) in " + (System.currentTimeMillis() - start) + "ms");
+    if (!PreflightCheck.hasErrors(diagnostics))
+      return true;
+
+    showDiagnostics("Pre-flight check of script failed!", diagnostics);
+    return false;
+  }
+
+  /**
+   * Returns the classpath of the current run.
+   *
+   * @return		the classpath
+   */
+  public String getActiveClassPath() {
+    return m_ActiveClassPath;
+  }
+
+  /**
+   * Returns the compiled preludes of the current run.
+   *
+   * @return		the preludes
+   */
+  public List<CompiledPrelude> getActivePreludes() {
+    return m_ActivePreludes;
+  }
+
+  /**
+   * Returns the process ID of the JVM that executes the code. For jshell
+   * processes, this is the remote agent that jshell launches.
+   *
+   * @return		the ID, -1 if not known (yet)
+   */
+  public long getProcessID() {
+    MonitoredProcess		execution;
+    Optional<ProcessHandle>	agent;
+
+    if (m_ExecutionTarget != null)
+      return m_ExecutionTarget.getProcessID();
+
+    execution = m_Execution;
+    if (execution == null)
+      return -1;
+    agent = execution.getProcess().toHandle().descendants()
+      .filter((ProcessHandle h) -> h.info().arguments().map((String[] args) -> Arrays.asList(args).contains(REMOTE_AGENT)).orElse(false))
+      .findFirst();
+
+    return agent.map(ProcessHandle::pid).orElse(-1L);
+  }
+
+  /**
+   * Starts sampling the JVM that executes the code, if enabled.
+   */
+  protected synchronized void startTelemetry() {
+    stopTelemetry();
+    if (m_TelemetryInterval <= 0)
+      return;
+    m_TelemetryMonitor = new TelemetryMonitor(
+      this::getProcessID,
+      m_TelemetryInterval,
+      sample -> notifyJShellTelemetryListeners(new JShellTelemetryEvent(this, sample)),
+      e -> debugMsg("Telemetry stopped: " + e));
+    m_TelemetryMonitor.start();
+  }
+
+  /**
+   * Stops sampling the JVM that executes the code.
+   */
+  protected synchronized void stopTelemetry() {
+    if (m_TelemetryMonitor != null) {
+      m_TelemetryMonitor.stop();
+      m_TelemetryMonitor = null;
+    }
+  }
+
+  /**
+   * Sets the resolver for the command that launches jshell.
+   *
+   * @param value	the resolver
+   * @see		com.github.fracpete.jshell.fake.FakeJShellResolver
+   */
+  public void setExecutableResolver(ExecutableResolver value) {
+    m_ExecutableResolver = value;
+    m_Available          = null;
+  }
+
+  /**
+   * Returns the resolver for the command that launches jshell.
+   *
+   * @return		the resolver
+   */
+  public ExecutableResolver getExecutableResolver() {
+    return m_ExecutableResolver;
+  }
+
   /**
    * Returns the jshell executable.
    *
    * @return the executable path
+   * @see #getExecutableResolver()
    */
   public String getExecutable() {
-    String result;
-    String home;
-
-    home = System.getProperty("java.home");
-    result = home + File.separator + "bin" + File.separator + "jshell";
-    if (SystemUtils.IS_OS_WINDOWS)
-      result += ".exe";
+    return m_ExecutableResolver.getCommand().get(0);
+  }
 
-    return result;
+  /**
+   * Returns the java executable.
+   *
+   * @return the executable path
+   */
+  public String getJavaExecutable() {
+    return JdkExecutableResolver.getExecutable("java");
   }
 
   /**
@@ -265,9 +1291,10 @@ public class JShellExec
    * @return true if available
    */
   public boolean isAvailable() {
+    if (m_ExecutionTarget != null)
+      return m_ExecutionTarget.isAvailable();
     if (m_Available == null) {
-      m_Available = JavaVersion.JAVA_RECENT.atLeast(JavaVersion.JAVA_9)
-	&& new File(getExecutable()).exists()
+      m_Available = m_ExecutableResolver.isAvailable()
 	&& !System.getProperty("java.class.path").isEmpty();
     }
     return m_Available;
@@ -285,6 +1312,22 @@ public class JShellExec
       return StreamingProcessOutputType.BOTH;
   }
 
+  /**
+   * Returns whether more output can be accepted at the moment. Delegates
+   * to the streaming process owner, if it applies backpressure.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		true if output can be accepted
+   */
+  public boolean canAcceptOutput(boolean stdout) {
+    StreamingProcessOwner	owner;
+
+    owner = m_StreamingProcessOwner;
+    if (owner instanceof FlowControlledOwner)
+      return ((FlowControlledOwner) owner).canAcceptOutput(stdout);
+    return true;
+  }
+
   /**
    * Processes the incoming line.
    *
@@ -292,17 +1335,130 @@ public class JShellExec
    * @param stdout	whether stdout or stderr
    */
   public void processOutput(String line, boolean stdout) {
-    if (m_StreamingProcessOwner != null) {
-      m_StreamingProcessOwner.processOutput(line, stdout);
+    Run		run;
+
+    run = m_Run;
+    if (run != null)
+      run.processOutput(line, stdout);
+    else
+      processLine(line, stdout);
+  }
+
+  /**
+   * Processes the incoming chunk of raw output. Gets split into lines
+   * if necessary.
+   *
+   * @param data	the data
+   * @param stdout	whether stdout or stderr
+   * @see		#setRawOutputConsumer(RawOutputConsumer)
+   */
+  public void processOutput(ByteBuffer data, boolean stdout) {
+    Run			run;
+    RawOutputConsumer	consumer;
+
+    run = m_Run;
+    if (run != null) {
+      run.processOutput(data, stdout);
     }
     else {
-      if (stdout)
-	System.out.println(line);
-      else
-	System.err.println(line);
+      consumer = m_RawOutputConsumer;
+      if (consumer != null)
+	consumer.processOutput(data, stdout);
     }
   }
 
+  /**
+   * Forwards the line and checks it for triggers.
+   *
+   * @param line	the line to process
+   * @param stdout	whether stdout or stderr
+   */
+  protected void processLine(String line, boolean stdout) {
+    // in raw mode, lines only get forwarded if splitting is turned on
+    if (!isRawOutput() || m_RawLineSplitting) {
+      if (m_StreamingProcessOwner != null) {
+	m_StreamingProcessOwner.processOutput(line, stdout);
+      }
+      else {
+	if (stdout)
+	  System.out.println(line);
+	else
+	  System.err.println(line);
+      }
+    }
+    checkTriggers(line, stdout);
+  }
+
+  /**
+   * Adds the trigger to look for in the output.
+   *
+   * @param trigger	the trigger to add
+   * @see		#addJShellTriggerListener(JShellTriggerListener)
+   */
+  public synchronized void addTrigger(Trigger trigger) {
+    m_Triggers.add(trigger);
+    m_TriggerMatcher = null;
+  }
+
+  /**
+   * Removes the trigger.
+   *
+   * @param trigger	the trigger to remove
+   */
+  public synchronized void removeTrigger(Trigger trigger) {
+    m_Triggers.remove(trigger);
+    m_TriggerMatcher = null;
+  }
+
+  /**
+   * Removes all triggers.
+   */
+  public synchronized void clearTriggers() {
+    m_Triggers.clear();
+    m_TriggerMatcher = null;
+  }
+
+  /**
+   * Returns the triggers.
+   *
+   * @return		the triggers
+   */
+  public synchronized List<Trigger> getTriggers() {
+    return new ArrayList<>(m_Triggers);
+  }
+
+  /**
+   * Returns the compiled triggers, compiles them if necessary.
+   *
+   * @return		the matcher
+   */
+  protected synchronized TriggerMatcher getTriggerMatcher() {
+    if (m_TriggerMatcher == null)
+      m_TriggerMatcher = new TriggerMatcher(m_Triggers);
+    return m_TriggerMatcher;
+  }
+
+  /**
+   * Scans the line with all the triggers at once and notifies the listeners
+   * about any matches.
+   *
+   * @param line	the line to scan
+   * @param stdout	whether stdout or stderr
+   */
+  protected void checkTriggers(String line, boolean stdout) {
+    TriggerMatcher	matcher;
+
+    if (m_JShellTriggerListeners.isEmpty())
+      return;
+    matcher = m_TriggerMatcher;
+    if (matcher == null)
+      matcher = getTriggerMatcher();
+    if (matcher.getTriggers().isEmpty())
+      return;
+    for (Match match: matcher.match(line, stdout))
+      notifyJShellTriggerListeners(new JShellTriggerEvent(this, line, stdout, match));
+  }
+
   /**
    * Outputs the error message.
    *
@@ -329,6 +1485,24 @@ public class JShellExec
     }
   }
 
+  /**
+   * Outputs the error message along with the diagnostics of the script.
+   *
+   * @param msg		the message to output
+   * @param diagnostics	the diagnostics
+   */
+  public void showDiagnostics(String msg, List<ScriptDiagnostic> diagnostics) {
+    StringBuilder	full;
+
+    full = new StringBuilder(msg);
+    for (ScriptDiagnostic diagnostic: diagnostics)
+      full.append("\n").append(diagnostic);
+    if (m_JShellErrorListeners.isEmpty())
+      System.err.println(full);
+    else
+      notifyJShellErrorListeners(new JShellErrorEvent(this, full.toString(), null, diagnostics));
+  }
+
   /**
    * Adds the exec listener to the internal list.
    *
@@ -386,4 +1560,62 @@ public class JShellExec
     for (JShellErrorListener l: m_JShellErrorListeners)
       l.jshellErrorOccurred(e);
   }
+
+  /**
+   * Adds the trigger listener to the internal list.
+   *
+   * @param l		the listener to add
+   */
+  public void addJShellTriggerListener(JShellTriggerListener l) {
+    m_JShellTriggerListeners.add(l);
+  }
+
+  /**
+   * Removes the trigger listener from the internal list.
+   *
+   * @param l		the listener to remove
+   */
+  public void removeJShellTriggerListener(JShellTriggerListener l) {
+    m_JShellTriggerListeners.remove(l);
+  }
+
+  /**
+   * Notifies all the trigger listeners with the specified event.
+   *
+   * @param e		the event to send
+   */
+  public synchronized void notifyJShellTriggerListeners(JShellTriggerEvent e) {
+    debugMsg("TriggerEvent: " + e.toString());
+    for (JShellTriggerListener l: m_JShellTriggerListeners)
+      l.jshellTriggerOccurred(e);
+  }
+
+  /**
+   * Adds the telemetry listener to the internal list.
+   *
+   * @param l		the listener to add
+   */
+  public void addJShellTelemetryListener(JShellTelemetryListener l) {
+    m_JShellTelemetryListeners.add(l);
+  }
+
+  /**
+   * Removes the telemetry listener from the internal list.
+   *
+   * @param l		the listener to remove
+   */
+  public void removeJShellTelemetryListener(JShellTelemetryListener l) {
+    m_JShellTelemetryListeners.remove(l);
+  }
+
+  /**
+   * Notifies all the telemetry listeners with the specified event.
+   *
+   * @param e		the event to send
+   */
+  public synchronized void notifyJShellTelemetryListeners(JShellTelemetryEvent e) {
+    debugMsg("TelemetryEvent: " + e.toString());
+    for (JShellTelemetryListener l: m_JShellTelemetryListeners)
+      l.jshellTelemetryOccurred(e);
+  }
 }
@@ -20,6 +20,7 @@
 
 package com.github.fracpete.jshell;
 
+import com.github.fracpete.jshell.compile.ScriptCompiler;
 import com.github.fracpete.jshell.event.JShellErrorEvent;
 import com.github.fracpete.jshell.event.JShellErrorListener;
 import com.github.fracpete.jshell.event.JShellExecEvent;
@@ -27,41 +28,88 @@ import com.github.fracpete.jshell.event.JShellExecListener;
 import com.github.fracpete.jshell.event.JShellPanelEvent;
 import com.github.fracpete.jshell.event.JShellPanelEvent.EventType;
 import com.github.fracpete.jshell.event.JShellPanelListener;
+import com.github.fracpete.jshell.event.JShellStallEvent;
+import com.github.fracpete.jshell.event.JShellStallListener;
+import com.github.fracpete.jshell.event.JShellTelemetryEvent;
+import com.github.fracpete.jshell.history.HistoryPanel;
+import com.github.fracpete.jshell.history.RunJournal;
+import com.github.fracpete.jshell.history.RunRecord;
+import com.github.fracpete.jshell.io.ScriptIO;
+import com.github.fracpete.jshell.output.OutputIndex;
+import com.github.fracpete.jshell.output.OutputRecords;
+import com.github.fracpete.jshell.output.OutputView;
+import com.github.fracpete.jshell.prelude.Prelude;
+import com.github.fracpete.jshell.process.ExecutableResolver;
+import com.github.fracpete.jshell.profile.ProfileIcon;
+import com.github.fracpete.jshell.profile.SnippetProfile;
+import com.github.fracpete.jshell.target.ExecutionTarget;
+import com.github.fracpete.jshell.target.ProfilingTarget;
+import com.github.fracpete.jshell.target.SessionTarget;
+import com.github.fracpete.jshell.telemetry.EventThreadMonitor;
+import com.github.fracpete.jshell.telemetry.EventThreadStall;
+import com.github.fracpete.jshell.telemetry.TelemetrySample;
+import com.github.fracpete.jshell.watch.ScriptWatcher;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
 import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
 import nz.ac.waikato.cms.core.FileUtils;
-import nz.ac.waikato.cms.core.Utils;
 import nz.ac.waikato.cms.gui.core.BaseFileChooser;
 import nz.ac.waikato.cms.gui.core.BaseFrame;
 import nz.ac.waikato.cms.gui.core.BasePanel;
 import nz.ac.waikato.cms.gui.core.ExtensionFileFilter;
 import nz.ac.waikato.cms.gui.core.GUIHelper;
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
 import org.fife.ui.rsyntaxtextarea.RSyntaxTextArea;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.fife.ui.rsyntaxtextarea.Theme;
+import org.fife.ui.rtextarea.Gutter;
 import org.fife.ui.rtextarea.RTextScrollPane;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
+import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
-import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultHighlighter.DefaultHighlightPainter;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Style;
+import javax.swing.text.StyleConstants;
 import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dialog.ModalityType;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
+import java.awt.geom.Rectangle2D;
+import java.beans.PropertyChangeEvent;
 import java.io.File;
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Panel for performing scripting via jshell. Requires Java 9.
@@ -88,6 +136,29 @@ public class JShellPanel
   /** the default theme. */
   public final static String DEFAULT_THEME = "default";
 
+  /** the suggested interval in msec for sampling the JVM executing the code (off by default). */
+  public final static int DEFAULT_TELEMETRY_INTERVAL = 1000;
+
+  /** the heap usage from which on to highlight the telemetry. */
+  public final static double HEAP_WARNING = 0.85;
+
+  /** the default size (in characters) from which on a script is considered large. */
+  public final static int DEFAULT_LARGE_SCRIPT_THRESHOLD = 1024 * 1024;
+
+  /** the delay in msec for updating the buttons when editing large scripts. */
+  public final static int LARGE_SCRIPT_UPDATE_DELAY = 300;
+
+  /** the classes to load in the background. */
+  protected final static String[] PREWARM_CLASSES = {
+    "org.fife.ui.rsyntaxtextarea.RSyntaxTextArea",
+    "org.fife.ui.rsyntaxtextarea.RSyntaxDocument",
+    "org.fife.ui.rtextarea.RTextScrollPane",
+    "org.fife.ui.rtextarea.Gutter",
+  };
+
+  /** the cache for the parsed themes. */
+  protected static Map<String,Theme> m_ThemeCache = new HashMap<>();
+
   /** for splitting code and output. */
   protected JSplitPane m_SplitPane;
 
@@ -97,7 +168,31 @@ public class JShellPanel
   /** the text area for the script. */
   protected RSyntaxTextArea m_TextCode;
 
-  /** the filechooser for scripts. */
+  /** the scroll pane for the script. */
+  protected RTextScrollPane m_ScrollPaneCode;
+
+  /** whether to profile the snippets. */
+  protected JCheckBox m_CheckBoxProfile;
+
+  /** whether to re-run the script whenever its file changes. */
+  protected JCheckBox m_CheckBoxWatch;
+
+  /** the file the script was last loaded from/saved to, null if none. */
+  protected File m_CurrentFile;
+
+  /** the watcher for the current file, null if not watching. */
+  protected ScriptWatcher m_Watcher;
+
+  /** the warm sessions for executing the script in watch mode. */
+  protected SessionTarget m_WatchTarget;
+
+  /** whether to run the script once it has been loaded. */
+  protected boolean m_RunAfterLoad;
+
+  /** the button for showing the history of the script. */
+  protected JButton m_ButtonHistory;
+
+  /** the filechooser for scripts, created on demand. */
   protected BaseFileChooser m_FileChooserScript;
 
   /** the button for loading a script. */
@@ -112,7 +207,28 @@ public class JShellPanel
   /** the button for stopping a script. */
   protected JButton m_ButtonScriptStop;
 
-  /** the filechooser for the output. */
+  /** the progress of loading/saving the script. */
+  protected JProgressBar m_ProgressBarScript;
+
+  /** the listener for changes to the script. */
+  protected DocumentListener m_DocumentListener;
+
+  /** for coalescing the button updates while editing large scripts. */
+  protected Timer m_TimerUpdateButtons;
+
+  /** the size (in characters) from which on a script is considered large. */
+  protected int m_LargeScriptThreshold;
+
+  /** whether the script is currently considered large. */
+  protected boolean m_LargeScript;
+
+  /** the worker for loading/saving the script, null if none active. */
+  protected SwingWorker<?,?> m_ScriptWorker;
+
+  /** the watched file that changed while loading/saving, null if none. */
+  protected File m_PendingReload;
+
+  /** the filechooser for the output, created on demand. */
   protected BaseFileChooser m_FileChooserOutput;
 
   /** the button for clearing the output. */
@@ -121,8 +237,77 @@ public class JShellPanel
   /** the button for saving the output. */
   protected JButton m_ButtonOutputSave;
 
+  /** the combobox for selecting the streams to show. */
+  protected JComboBox<OutputView> m_ComboBoxOutputView;
+
   /** for the jshell output. */
-  protected JTextArea m_TextOutput;
+  protected JTextPane m_TextOutput;
+
+  /** the style for stdout. */
+  protected Style m_StyleStdout;
+
+  /** the style for stderr. */
+  protected Style m_StyleStderr;
+
+  /** the output records. */
+  protected OutputRecords m_OutputRecords;
+
+  /** the number of records that have been rendered in the output. */
+  protected int m_OutputRendered;
+
+  /** whether rendering of new records is already pending. */
+  protected AtomicBoolean m_OutputRenderPending;
+
+  /** the field for the search text. */
+  protected JTextField m_TextSearch;
+
+  /** whether the search text is a regular expression. */
+  protected JCheckBox m_CheckBoxSearchRegex;
+
+  /** whether to search case-sensitive. */
+  protected JCheckBox m_CheckBoxSearchCase;
+
+  /** whether to show only matching lines. */
+  protected JCheckBox m_CheckBoxSearchFilter;
+
+  /** the button for jumping to the previous match. */
+  protected JButton m_ButtonSearchPrevious;
+
+  /** the button for jumping to the next match. */
+  protected JButton m_ButtonSearchNext;
+
+  /** for showing the current match. */
+  protected JLabel m_LabelSearch;
+
+  /** the index over the output records. */
+  protected OutputIndex m_OutputIndex;
+
+  /** the active search, null if none. */
+  protected Predicate<String> m_SearchPredicate;
+
+  /** the search text of the active search. */
+  protected String m_SearchText;
+
+  /** the sequence numbers of the matching records in the current view. */
+  protected int[] m_SearchMatches;
+
+  /** the number of matching records. */
+  protected int m_SearchMatchCount;
+
+  /** the number of records that have been checked for matches. */
+  protected int m_SearchChecked;
+
+  /** the current match, -1 if none. */
+  protected int m_SearchCurrent;
+
+  /** the number of matches that have been rendered when filtering. */
+  protected int m_SearchRendered;
+
+  /** the worker performing the search, null if none. */
+  protected SwingWorker<int[],Object> m_SearchWorker;
+
+  /** for the statistics of the JVM executing the code. */
+  protected JLabel m_LabelTelemetry;
 
   /** for executing the script. */
   protected JShellExec m_Exec;
@@ -130,6 +315,12 @@ public class JShellPanel
   /** the listeners that listen for changes. */
   protected Set<JShellPanelListener> m_JShellPanelListeners;
 
+  /** the listeners for stalls of the event dispatch thread. */
+  protected Set<JShellStallListener> m_JShellStallListeners;
+
+  /** monitors the event dispatch thread, null if turned off. */
+  protected EventThreadMonitor m_EventThreadMonitor;
+
   /** additional runtime flags to supply to JShell (-J). */
   protected List<String> m_RuntimeFlags;
 
@@ -139,28 +330,58 @@ public class JShellPanel
   /** additional compiler flags to supply to JShell (-C). */
   protected List<String> m_CompilerFlags;
 
+  /** the alternative execution target, null for spawning jshell processes. */
+  protected ExecutionTarget m_ExecutionTarget;
+
+  /** the target for profiling the snippets. */
+  protected ProfilingTarget m_ProfilingTarget;
+
   /**
    * Initializes the members.
    */
   protected void initialize() {
-    m_FileChooserScript = new BaseFileChooser();
-    m_FileChooserScript.addChoosableFileFilter(new ExtensionFileFilter("JShell script", new String[]{"jsh", "jshell"}));
-    m_FileChooserScript.setAcceptAllFileFilterUsed(true);
-
-    m_FileChooserOutput = new BaseFileChooser();
-    m_FileChooserOutput.addChoosableFileFilter(new ExtensionFileFilter("Text file", "txt"));
-    m_FileChooserOutput.setAcceptAllFileFilterUsed(true);
+    // file choosers get created on demand
+    m_FileChooserScript = null;
+    m_FileChooserOutput = null;
 
     m_Exec = new JShellExec();
     m_Exec.addJShellErrorListener(this);
     m_Exec.addJShellExecListener(this);
     m_Exec.setStreamingProcessOwner(this);
+    m_Exec.addJShellTelemetryListener((JShellTelemetryEvent e) -> SwingUtilities.invokeLater(() -> showTelemetry(e.getSample())));
 
     m_JShellPanelListeners = new HashSet<>();
+    m_JShellStallListeners = new HashSet<>();
+    m_EventThreadMonitor   = null;
 
     m_RuntimeFlags       = new ArrayList<>();
     m_RemoteRuntimeFlags = new ArrayList<>();
     m_CompilerFlags      = new ArrayList<>();
+
+    m_ExecutionTarget = null;
+    m_ProfilingTarget = new ProfilingTarget();
+
+    m_OutputRecords       = new OutputRecords();
+    m_OutputRendered      = 0;
+    m_OutputRenderPending = new AtomicBoolean(false);
+    m_OutputIndex         = new OutputIndex(m_OutputRecords);
+    m_SearchPredicate     = null;
+    m_SearchText          = null;
+    m_SearchMatches       = new int[0];
+    m_SearchMatchCount    = 0;
+    m_SearchChecked       = 0;
+    m_SearchCurrent       = -1;
+    m_SearchRendered      = 0;
+    m_SearchWorker        = null;
+
+    m_LargeScriptThreshold = DEFAULT_LARGE_SCRIPT_THRESHOLD;
+    m_CurrentFile          = null;
+    m_Watcher              = null;
+    m_WatchTarget          = null;
+    m_RunAfterLoad         = false;
+    m_LargeScript          = false;
+    m_ScriptWorker         = null;
+    m_PendingReload        = null;
   }
 
   /**
@@ -200,27 +421,47 @@ public class JShellPanel
     m_TextCode.setAntiAliasingEnabled(true);
     m_TextCode.setCodeFoldingEnabled(true);
     m_TextCode.setBracketMatchingEnabled(false);
-    m_TextCode.getDocument().addDocumentListener(new DocumentListener() {
+    m_TimerUpdateButtons = new Timer(LARGE_SCRIPT_UPDATE_DELAY, (ActionEvent e) -> updateButtons());
+    m_TimerUpdateButtons.setRepeats(false);
+    m_DocumentListener = new DocumentListener() {
       @Override
       public void insertUpdate(DocumentEvent e) {
-        updateButtons();
+        scriptChanged();
       }
       @Override
       public void removeUpdate(DocumentEvent e) {
-        updateButtons();
+        scriptChanged();
       }
       @Override
       public void changedUpdate(DocumentEvent e) {
-        updateButtons();
+        scriptChanged();
       }
-    });
-    panel.add(new RTextScrollPane(m_TextCode), BorderLayout.CENTER);
+    };
+    m_TextCode.getDocument().addDocumentListener(m_DocumentListener);
+    m_ScrollPaneCode = new RTextScrollPane(m_TextCode);
+    m_ScrollPaneCode.getGutter().setIconRowHeaderEnabled(true);
+    panel.add(m_ScrollPaneCode, BorderLayout.CENTER);
     panelTop = new JPanel(new BorderLayout());
     panel.add(panelTop, BorderLayout.NORTH);
     panelText = new JPanel(new FlowLayout(FlowLayout.LEFT));
     panelTop.add(panelText, BorderLayout.WEST);
     label = new JLabel("JShell");
     panelText.add(label);
+    m_CheckBoxProfile = new JCheckBox("Profile");
+    m_CheckBoxProfile.setToolTipText("Measures time and memory of each snippet, shown next to the code");
+    panelText.add(m_CheckBoxProfile);
+    m_CheckBoxWatch = new JCheckBox("Watch");
+    m_CheckBoxWatch.setToolTipText("Reloads and re-runs the script whenever its file changes");
+    m_CheckBoxWatch.addActionListener((ActionEvent e) -> setWatching(m_CheckBoxWatch.isSelected()));
+    panelText.add(m_CheckBoxWatch);
+    m_ButtonHistory = new JButton("History...");
+    m_ButtonHistory.setToolTipText("Shows the past runs of the script");
+    m_ButtonHistory.addActionListener((ActionEvent e) -> showHistory());
+    panelText.add(m_ButtonHistory);
+    m_ProgressBarScript = new JProgressBar(0, 100);
+    m_ProgressBarScript.setStringPainted(true);
+    m_ProgressBarScript.setVisible(false);
+    panelText.add(m_ProgressBarScript);
     panelThemes = new JPanel(new FlowLayout(FlowLayout.RIGHT));
     panelTop.add(panelThemes, BorderLayout.EAST);
     m_ComboBoxThemes = new JComboBox<>(THEMES);
@@ -255,13 +496,70 @@ public class JShellPanel
     // output
     panel = new JPanel(new BorderLayout());
     m_SplitPane.setBottomComponent(panel);
-    m_TextOutput = new JTextArea(20, 80);
+    m_TextOutput = new JTextPane() {
+      @Override
+      public boolean getScrollableTracksViewportWidth() {
+	// no line wrap
+	return (getParent() == null) || (getUI().getPreferredSize(this).width <= getParent().getSize().width);
+      }
+    };
     m_TextOutput.setFont(new Font("monospaced", Font.PLAIN, 10));
+    m_TextOutput.setEditable(false);
+    m_StyleStdout = m_TextOutput.addStyle("stdout", null);
+    m_StyleStderr = m_TextOutput.addStyle("stderr", m_StyleStdout);
+    StyleConstants.setForeground(m_StyleStderr, Color.RED.darker());
     panel.add(new JScrollPane(m_TextOutput), BorderLayout.CENTER);
+    m_LabelTelemetry = new JLabel(" ");
+    m_LabelTelemetry.setFont(new Font("monospaced", Font.PLAIN, 10));
+    m_LabelTelemetry.setToolTipText("Statistics of the JVM executing the code");
+    panel.add(m_LabelTelemetry, BorderLayout.SOUTH);
     panelText = new JPanel(new FlowLayout(FlowLayout.LEFT));
     panel.add(panelText, BorderLayout.NORTH);
     label = new JLabel("Output");
     panelText.add(label);
+    m_ComboBoxOutputView = new JComboBox<>(OutputView.values());
+    m_ComboBoxOutputView.setToolTipText("The streams to show, stderr is shown in red");
+    m_ComboBoxOutputView.addActionListener((ActionEvent e) -> {
+      rerenderOutput();
+      if (m_SearchPredicate != null)
+	searchOutput();
+    });
+    panelText.add(m_ComboBoxOutputView);
+    m_TextSearch = new JTextField(20);
+    m_TextSearch.setToolTipText("Text to search for in the output, Enter jumps to the next match");
+    m_TextSearch.addActionListener((ActionEvent e) -> {
+      if (m_TextSearch.getText().equals(m_SearchText) && (m_SearchWorker == null))
+	nextMatch(true);
+      else
+	searchOutput();
+    });
+    label = new JLabel("Search");
+    label.setDisplayedMnemonic('e');
+    label.setLabelFor(m_TextSearch);
+    panelText.add(label);
+    panelText.add(m_TextSearch);
+    m_CheckBoxSearchRegex = new JCheckBox("Regex");
+    m_CheckBoxSearchRegex.setToolTipText("Whether the search text is a regular expression");
+    m_CheckBoxSearchRegex.addActionListener((ActionEvent e) -> searchOutput());
+    panelText.add(m_CheckBoxSearchRegex);
+    m_CheckBoxSearchCase = new JCheckBox("Case");
+    m_CheckBoxSearchCase.setToolTipText("Whether to search case-sensitive");
+    m_CheckBoxSearchCase.addActionListener((ActionEvent e) -> searchOutput());
+    panelText.add(m_CheckBoxSearchCase);
+    m_CheckBoxSearchFilter = new JCheckBox("Filter");
+    m_CheckBoxSearchFilter.setToolTipText("Shows only the matching lines");
+    m_CheckBoxSearchFilter.addActionListener((ActionEvent e) -> rerenderOutput());
+    panelText.add(m_CheckBoxSearchFilter);
+    m_ButtonSearchPrevious = new JButton("<");
+    m_ButtonSearchPrevious.setToolTipText("Jump to previous match");
+    m_ButtonSearchPrevious.addActionListener((ActionEvent e) -> nextMatch(false));
+    panelText.add(m_ButtonSearchPrevious);
+    m_ButtonSearchNext = new JButton(">");
+    m_ButtonSearchNext.setToolTipText("Jump to next match");
+    m_ButtonSearchNext.addActionListener((ActionEvent e) -> nextMatch(true));
+    panelText.add(m_ButtonSearchNext);
+    m_LabelSearch = new JLabel(" ");
+    panelText.add(m_LabelSearch);
     panelRight = new JPanel(new BorderLayout());
     panel.add(panelRight, BorderLayout.EAST);
     panelButtons = new JPanel(new GridLayout(0, 1));
@@ -284,28 +582,102 @@ public class JShellPanel
   }
 
   /**
-   * Updates the theme.
+   * Returns the file chooser for scripts, creates it if necessary.
    *
-   * @return		true if successfully applied
+   * @return		the file chooser
    */
-  protected boolean updateTheme() {
+  protected BaseFileChooser getFileChooserScript() {
+    if (m_FileChooserScript == null) {
+      m_FileChooserScript = new BaseFileChooser();
+      m_FileChooserScript.addChoosableFileFilter(new ExtensionFileFilter("JShell script", new String[]{"jsh", "jshell"}));
+      m_FileChooserScript.setAcceptAllFileFilterUsed(true);
+    }
+    return m_FileChooserScript;
+  }
+
+  /**
+   * Returns the file chooser for the output, creates it if necessary.
+   *
+   * @return		the file chooser
+   */
+  protected BaseFileChooser getFileChooserOutput() {
+    if (m_FileChooserOutput == null) {
+      m_FileChooserOutput = new BaseFileChooser();
+      m_FileChooserOutput.addChoosableFileFilter(new ExtensionFileFilter("Text file", "txt"));
+      m_FileChooserOutput.setAcceptAllFileFilterUsed(true);
+    }
+    return m_FileChooserOutput;
+  }
+
+  /**
+   * Returns the parsed theme, loads it only the first time.
+   *
+   * @param name	the name of the theme
+   * @return		the theme
+   * @throws Exception	if loading of theme fails
+   * @see		#THEMES
+   */
+  public static Theme loadTheme(String name) throws Exception {
     String	themeURL;
     InputStream	in;
-    Theme	theme;
+    Theme	result;
+
+    synchronized (m_ThemeCache) {
+      result = m_ThemeCache.get(name);
+      if (result == null) {
+	themeURL = "org/fife/ui/rsyntaxtextarea/themes/" + name + ".xml";
+	in       = ClassLoader.getSystemResourceAsStream(themeURL);
+	try {
+	  result = Theme.load(in);
+	  m_ThemeCache.put(name, result);
+	}
+	finally {
+	  FileUtils.closeQuietly(in);
+	}
+      }
+    }
+
+    return result;
+  }
 
-    themeURL = "org/fife/ui/rsyntaxtextarea/themes/" + m_ComboBoxThemes.getSelectedItem() + ".xml";
-    in       = ClassLoader.getSystemResourceAsStream(themeURL);
+  /**
+   * Updates the theme.
+   *
+   * @return		true if successfully applied
+   */
+  protected boolean updateTheme() {
     try {
-      theme = Theme.load(in);
-      theme.apply(m_TextCode);
+      loadTheme("" + m_ComboBoxThemes.getSelectedItem()).apply(m_TextCode);
       return true;
     }
     catch (Exception e) {
       return false;
     }
-    finally {
-      FileUtils.closeQuietly(in);
-    }
+  }
+
+  /**
+   * Performs expensive initializations in a background thread, ie checking
+   * whether jshell is available, parsing the default theme and loading the
+   * classes of the editor. Hosts should call this as early as possible to
+   * speed up the construction of panels later on.
+   */
+  public static void prewarm() {
+    Thread	thread;
+
+    thread = new Thread(() -> {
+      try {
+	new JShellExec().isAvailable();
+	loadTheme(DEFAULT_THEME);
+	for (String cls: PREWARM_CLASSES)
+	  Class.forName(cls, false, JShellPanel.class.getClassLoader());
+      }
+      catch (Throwable t) {
+	// ignored, gets performed again when required
+      }
+    }, "jshell-prewarm");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
   }
 
   /**
@@ -350,6 +722,265 @@ public class JShellPanel
     return m_Exec.getDebug();
   }
 
+  /**
+   * Sets the alternative target for executing scripts, eg a running JVM.
+   *
+   * @param value	the target, null for spawning jshell processes
+   */
+  public void setExecutionTarget(ExecutionTarget value) {
+    m_ExecutionTarget = value;
+    m_Exec.setExecutionTarget(value);
+    updateButtons();
+  }
+
+  /**
+   * Returns the alternative target for executing scripts.
+   *
+   * @return		the target, null if spawning jshell processes
+   */
+  public ExecutionTarget getExecutionTarget() {
+    return m_ExecutionTarget;
+  }
+
+  /**
+   * Sets whether to profile the snippets when executing the script.
+   *
+   * @param value	true if to profile
+   * @see		ProfilingTarget
+   */
+  public void setProfiling(boolean value) {
+    m_CheckBoxProfile.setSelected(value);
+  }
+
+  /**
+   * Returns whether to profile the snippets when executing the script.
+   *
+   * @return		true if to profile
+   */
+  public boolean getProfiling() {
+    return m_CheckBoxProfile.isSelected();
+  }
+
+  /**
+   * Returns the file the script was last loaded from or saved to.
+   *
+   * @return		the file, null if none
+   */
+  public File getCurrentFile() {
+    return m_CurrentFile;
+  }
+
+  /**
+   * Sets the file the script was loaded from or saved to. When watching, the
+   * watcher gets moved to the new file or, if the same file, updated to
+   * ignore the change.
+   *
+   * @param value	the file
+   */
+  protected void setCurrentFile(File value) {
+    File	previous;
+
+    previous      = m_CurrentFile;
+    m_CurrentFile = value.getAbsoluteFile();
+    if (m_Watcher != null) {
+      if (m_CurrentFile.equals(previous)) {
+	m_Watcher.refresh();
+      }
+      else {
+	setWatching(false);
+	setWatching(true);
+      }
+    }
+    updateButtons();
+  }
+
+  /**
+   * Sets whether to watch the file of the script. Whenever the file changes,
+   * any running script gets stopped, the script reloaded and executed again,
+   * using warm sessions (unless profiling or an execution target is set).
+   * Requires the script to have been loaded from or saved to a file.
+   *
+   * @param value	true to watch
+   * @see		ScriptWatcher
+   * @see		SessionTarget
+   */
+  public void setWatching(boolean value) {
+    if (value && (m_Watcher == null) && (m_CurrentFile != null)) {
+      m_Watcher = new ScriptWatcher(m_CurrentFile, ScriptWatcher.DEFAULT_DEBOUNCE, (File file) -> SwingUtilities.invokeLater(() -> scriptFileChanged(file)));
+      try {
+	m_Watcher.start();
+	if (m_WatchTarget == null)
+	  m_WatchTarget = new SessionTarget();
+	m_WatchTarget.warmUp(m_WatchTarget.getSettings(m_Exec, m_RemoteRuntimeFlags, m_CompilerFlags));
+      }
+      catch (Exception e) {
+	m_Watcher.close();
+	m_Watcher = null;
+	GUIHelper.showErrorMessage(this, "Failed to watch script file: " + m_CurrentFile, e);
+      }
+    }
+    else if (!value && (m_Watcher != null)) {
+      m_Watcher.close();
+      m_Watcher = null;
+      if (m_WatchTarget != null) {
+	if (m_Exec.getExecutionTarget() == m_WatchTarget)
+	  m_Exec.setExecutionTarget(null);
+	m_WatchTarget.close();
+	m_WatchTarget = null;
+      }
+    }
+    m_CheckBoxWatch.setSelected(m_Watcher != null);
+  }
+
+  /**
+   * Returns whether the file of the script is being watched.
+   *
+   * @return		true if watching
+   */
+  public boolean isWatching() {
+    return (m_Watcher != null);
+  }
+
+  /**
+   * Gets called when the watched file has changed: stops any running
+   * script, reloads the script and executes it again. While the script
+   * is being loaded/saved, the reload gets postponed until the worker
+   * has finished.
+   *
+   * @param file	the file that changed
+   * @see		#finishScriptWorker()
+   */
+  protected void scriptFileChanged(File file) {
+    if ((m_Watcher == null) || !file.equals(m_CurrentFile))
+      return;
+    if (m_ScriptWorker != null) {
+      m_PendingReload = file;
+      return;
+    }
+
+    notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_FILE_CHANGED));
+    if (isRunning())
+      stopScript();
+    m_RunAfterLoad = true;
+    loadScript(file);
+  }
+
+  /**
+   * Sets the resolver for the command that launches jshell.
+   *
+   * @param value	the resolver
+   * @see		JShellExec#setExecutableResolver(ExecutableResolver)
+   */
+  public void setExecutableResolver(ExecutableResolver value) {
+    m_Exec.setExecutableResolver(value);
+  }
+
+  /**
+   * Returns the resolver for the command that launches jshell.
+   *
+   * @return		the resolver
+   */
+  public ExecutableResolver getExecutableResolver() {
+    return m_Exec.getExecutableResolver();
+  }
+
+  /**
+   * Registers the prelude, replacing any prelude with the same name.
+   *
+   * @param prelude	the prelude to add
+   * @see		JShellExec#addPrelude(Prelude)
+   */
+  public void addPrelude(Prelude prelude) {
+    m_Exec.addPrelude(prelude);
+  }
+
+  /**
+   * Removes the prelude with the specified name.
+   *
+   * @param name	the name of the prelude to remove
+   */
+  public void removePrelude(String name) {
+    m_Exec.removePrelude(name);
+  }
+
+  /**
+   * Removes all preludes.
+   */
+  public void clearPreludes() {
+    m_Exec.clearPreludes();
+  }
+
+  /**
+   * Returns the registered preludes, in the order they get loaded.
+   *
+   * @return		the preludes
+   */
+  public List<Prelude> getPreludes() {
+    return m_Exec.getPreludes();
+  }
+
+  /**
+   * Sets the journal to record the runs in.
+   *
+   * @param value	the journal, null to turn off
+   */
+  public void setRunJournal(RunJournal value) {
+    m_Exec.setRunJournal(value);
+    updateButtons();
+  }
+
+  /**
+   * Returns the journal that records the runs.
+   *
+   * @return		the journal, null if not recording
+   */
+  public RunJournal getRunJournal() {
+    return m_Exec.getRunJournal();
+  }
+
+  /**
+   * Displays the past runs of the current script in a dialog. The journal
+   * gets read in the background.
+   */
+  public void showHistory() {
+    final RunJournal	journal;
+    final long		hash;
+
+    journal = getRunJournal();
+    if (journal == null)
+      return;
+
+    hash = RunJournal.hash(getCode());
+    m_ButtonHistory.setEnabled(false);
+    new SwingWorker<List<RunRecord>,Object>() {
+      @Override
+      protected List<RunRecord> doInBackground() throws Exception {
+	return journal.query(hash);
+      }
+      @Override
+      protected void done() {
+	HistoryPanel	panel;
+	JDialog		dialog;
+
+	updateButtons();
+	panel = new HistoryPanel();
+	try {
+	  panel.setRecords(get());
+	}
+	catch (Exception e) {
+	  GUIHelper.showErrorMessage(JShellPanel.this, "Failed to read run history from: " + journal.getFile(), (e instanceof ExecutionException) ? e.getCause() : e);
+	  return;
+	}
+	dialog = new JDialog(SwingUtilities.getWindowAncestor(JShellPanel.this), "Run history", ModalityType.MODELESS);
+	dialog.getContentPane().setLayout(new BorderLayout());
+	dialog.getContentPane().add(panel, BorderLayout.CENTER);
+	dialog.setSize(800, 500);
+	dialog.setLocationRelativeTo(JShellPanel.this);
+	dialog.setVisible(true);
+      }
+    }.execute();
+  }
+
   /**
    * Returns whether a script is currently running.
    *
@@ -364,21 +995,27 @@ public class JShellPanel
    */
   protected void updateButtons() {
     boolean     running;
+    boolean	busy;
 
     if (!isAvailable())
       return;
 
     running = isRunning();
+    busy    = (m_ScriptWorker != null);
 
     // script
-    m_ButtonScriptLoad.setEnabled(!running);
-    m_ButtonScriptSave.setEnabled(!running);
-    m_ButtonScriptRun.setEnabled(!running && (m_TextCode.getDocument().getLength() > 0));
+    m_ButtonScriptLoad.setEnabled(!running && !busy);
+    m_ButtonScriptSave.setEnabled(!running && !busy);
+    m_ButtonScriptRun.setEnabled(!running && !busy && (m_TextCode.getDocument().getLength() > 0));
     m_ButtonScriptStop.setEnabled(running);
+    m_ButtonHistory.setEnabled(getRunJournal() != null);
+    m_CheckBoxWatch.setEnabled(m_CurrentFile != null);
 
     // output
-    m_ButtonOutputClear.setEnabled(m_TextOutput.getDocument().getLength() > 0);
-    m_ButtonOutputSave.setEnabled(m_TextOutput.getDocument().getLength() > 0);
+    m_ButtonOutputClear.setEnabled(m_OutputRecords.size() > 0);
+    m_ButtonOutputSave.setEnabled(m_OutputRecords.size() > 0);
+    m_ButtonSearchPrevious.setEnabled(m_SearchMatchCount > 0);
+    m_ButtonSearchNext.setEnabled(m_SearchMatchCount > 0);
   }
 
   /**
@@ -387,32 +1024,59 @@ public class JShellPanel
   public void loadScript() {
     int		retVal;
 
-    retVal = m_FileChooserScript.showOpenDialog(this);
+    retVal = getFileChooserScript().showOpenDialog(this);
     if (retVal != BaseFileChooser.APPROVE_OPTION)
       return;
 
-    loadScript(m_FileChooserScript.getSelectedFile());
+    loadScript(getFileChooserScript().getSelectedFile());
   }
 
   /**
-   * Loads the specified file.
+   * Loads the specified file in the background. Files larger than the
+   * threshold get loaded in large script mode.
    *
    * @param script	the script to load
+   * @see		#setLargeScriptThreshold(int)
    */
   public void loadScript(File script) {
-    List<String> 	lines;
+    final boolean	large;
 
-    try {
-      lines = Files.readAllLines(script.toPath());
-      m_TextCode.setText(Utils.flatten(lines, "\n"));
-      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_LOAD_SUCCESS));
-    }
-    catch (Exception e) {
-      GUIHelper.showErrorMessage(this, "Failed to load script from: " + script, e);
-      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_LOAD_FAILURE));
-    }
+    if (m_ScriptWorker != null)
+      return;
 
-    updateButtons();
+    large = (script.length() > m_LargeScriptThreshold);
+    startScriptWorker("Loading", new SwingWorker<RSyntaxDocument,Object>() {
+      @Override
+      protected RSyntaxDocument doInBackground() throws Exception {
+	return ScriptIO.read(script, large ? SyntaxConstants.SYNTAX_STYLE_NONE : SyntaxConstants.SYNTAX_STYLE_JAVA, this::setProgress);
+      }
+      @Override
+      protected void done() {
+	RSyntaxDocument	doc;
+
+	try {
+	  doc = get();
+	  m_TextCode.getDocument().removeDocumentListener(m_DocumentListener);
+	  setLargeScript(large);
+	  m_TextCode.setDocument(doc);
+	  doc.addDocumentListener(m_DocumentListener);
+	  m_TextCode.setCaretPosition(0);
+	  setCurrentFile(script);
+	  finishScriptWorker();
+	  notifyJShellPanelListeners(new JShellPanelEvent(JShellPanel.this, EventType.SCRIPT_LOAD_SUCCESS));
+	  if (m_RunAfterLoad) {
+	    m_RunAfterLoad = false;
+	    runScript();
+	  }
+	}
+	catch (Exception e) {
+	  m_RunAfterLoad = false;
+	  finishScriptWorker();
+	  GUIHelper.showErrorMessage(JShellPanel.this, "Failed to load script from: " + script, (e instanceof ExecutionException) ? e.getCause() : e);
+	  notifyJShellPanelListeners(new JShellPanelEvent(JShellPanel.this, EventType.SCRIPT_LOAD_FAILURE));
+	}
+      }
+    });
   }
 
   /**
@@ -420,30 +1084,201 @@ public class JShellPanel
    */
   public void saveScript() {
     int		retVal;
-    File	script;
-    String	msg;
 
-    retVal = m_FileChooserScript.showSaveDialog(this);
+    retVal = getFileChooserScript().showSaveDialog(this);
     if (retVal != BaseFileChooser.APPROVE_OPTION)
       return;
 
-    script = m_FileChooserScript.getSelectedFile();
-    msg    = FileUtils.writeToFileMsg(script.getAbsolutePath(), m_TextCode.getText(), false, null);
+    saveScript(getFileChooserScript().getSelectedFile());
+  }
+
+  /**
+   * Saves the script to the specified file in the background.
+   *
+   * @param script	the file to save the script to
+   */
+  public void saveScript(File script) {
+    final AbstractDocument	doc;
+
+    if (m_ScriptWorker != null)
+      return;
+
+    doc = (AbstractDocument) m_TextCode.getDocument();
+    startScriptWorker("Saving", new SwingWorker<Object,Object>() {
+      @Override
+      protected Object doInBackground() throws Exception {
+	ScriptIO.write(doc, script, this::setProgress);
+	return null;
+      }
+      @Override
+      protected void done() {
+	finishScriptWorker();
+	try {
+	  get();
+	  setCurrentFile(script);
+	  notifyJShellPanelListeners(new JShellPanelEvent(JShellPanel.this, EventType.SCRIPT_SAVE_SUCCESS));
+	}
+	catch (Exception e) {
+	  GUIHelper.showErrorMessage(JShellPanel.this, "Failed to save script to: " + script, (e instanceof ExecutionException) ? e.getCause() : e);
+	  notifyJShellPanelListeners(new JShellPanelEvent(JShellPanel.this, EventType.SCRIPT_SAVE_FAILURE));
+	}
+      }
+    });
+  }
+
+  /**
+   * Starts the worker for loading/saving the script, displaying its progress.
+   *
+   * @param action	the action to display
+   * @param worker	the worker to start
+   */
+  protected void startScriptWorker(String action, SwingWorker<?,?> worker) {
+    m_ScriptWorker = worker;
+    m_ProgressBarScript.setValue(0);
+    m_ProgressBarScript.setString(action + "...");
+    m_ProgressBarScript.setVisible(true);
+    worker.addPropertyChangeListener((PropertyChangeEvent e) -> {
+      if (e.getPropertyName().equals("progress"))
+	m_ProgressBarScript.setValue((Integer) e.getNewValue());
+    });
+    updateButtons();
+    worker.execute();
+  }
+
+  /**
+   * Hides the progress once the loading/saving worker has finished and
+   * performs any reload that got postponed in the meantime.
+   *
+   * @see		#scriptFileChanged(File)
+   */
+  protected void finishScriptWorker() {
+    final File	file;
+
+    m_ScriptWorker = null;
+    m_ProgressBarScript.setVisible(false);
+    updateButtons();
+
+    if (m_PendingReload != null) {
+      file            = m_PendingReload;
+      m_PendingReload = null;
+      // let the worker complete its done() first
+      SwingUtilities.invokeLater(() -> scriptFileChanged(file));
+    }
+  }
+
+  /**
+   * Returns whether the script is currently being loaded or saved.
+   *
+   * @return		true if loading/saving
+   */
+  public boolean isScriptBusy() {
+    return (m_ScriptWorker != null);
+  }
+
+  /**
+   * Called whenever the script gets modified. Switches in/out of large
+   * script mode and updates the buttons (coalesced for large scripts).
+   */
+  protected void scriptChanged() {
+    int		length;
+
+    length = m_TextCode.getDocument().getLength();
+    // switch back only well below the threshold, to avoid toggling
+    if (!m_LargeScript && (length > m_LargeScriptThreshold))
+      SwingUtilities.invokeLater(() -> setLargeScript(true));
+    else if (m_LargeScript && (length < m_LargeScriptThreshold / 2))
+      SwingUtilities.invokeLater(() -> setLargeScript(false));
+
+    if (m_LargeScript)
+      m_TimerUpdateButtons.restart();
+    else
+      updateButtons();
+  }
+
+  /**
+   * Sets the size (in characters) from which on a script gets edited in
+   * large script mode.
+   *
+   * @param value	the threshold
+   */
+  public void setLargeScriptThreshold(int value) {
+    m_LargeScriptThreshold = value;
+  }
+
+  /**
+   * Returns the size (in characters) from which on a script gets edited in
+   * large script mode.
+   *
+   * @return		the threshold
+   */
+  public int getLargeScriptThreshold() {
+    return m_LargeScriptThreshold;
+  }
+
+  /**
+   * Switches the editor in/out of large script mode, which turns off
+   * syntax highlighting, code folding and current line highlighting.
+   *
+   * @param value	true for large script mode
+   */
+  protected void setLargeScript(boolean value) {
+    if (value == m_LargeScript)
+      return;
+    m_LargeScript = value;
+    m_TextCode.setSyntaxEditingStyle(value ? SyntaxConstants.SYNTAX_STYLE_NONE : SyntaxConstants.SYNTAX_STYLE_JAVA);
+    m_TextCode.setCodeFoldingEnabled(!value);
+    m_TextCode.setHighlightCurrentLine(!value);
+    if (value)
+      m_TextCode.setToolTipText("Large script - highlighting and folding disabled");
+    else
+      m_TextCode.setToolTipText(null);
+  }
+
+  /**
+   * Returns whether the script is edited in large script mode.
+   *
+   * @return		true if large script
+   */
+  public boolean isLargeScript() {
+    return m_LargeScript;
+  }
+
+  /**
+   * Compiles the current script into a jar with a main class, which can be
+   * run with plain java (eg via {@link JShellExec#runJar(File, List)}).
+   *
+   * @param jar		the jar to generate
+   * @return		true if successfully compiled
+   */
+  public boolean exportScript(File jar) {
+    ScriptCompiler	compiler;
+    String		msg;
+
+    compiler = new ScriptCompiler();
+    compiler.setCompilerFlags(m_CompilerFlags);
+    msg = compiler.compile(m_TextCode.getText(), jar);
     if (msg != null) {
-      GUIHelper.showErrorMessage(this, "Failed to save script to : " + script + "\n" + msg);
-      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_SAVE_FAILURE));
+      GUIHelper.showErrorMessage(this, "Failed to export script to: " + jar + "\n" + msg);
+      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_EXPORT_FAILURE));
     }
     else {
-      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_SAVE_SUCCESS));
+      notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.SCRIPT_EXPORT_SUCCESS));
     }
 
-    updateButtons();
+    return (msg == null);
   }
 
   /**
    * Executes the script.
    */
   public void runScript() {
+    clearProfiles();
+    if (m_CheckBoxProfile.isSelected())
+      m_Exec.setExecutionTarget(m_ProfilingTarget);
+    else if ((m_ExecutionTarget == null) && (m_WatchTarget != null))
+      m_Exec.setExecutionTarget(m_WatchTarget);
+    else
+      m_Exec.setExecutionTarget(m_ExecutionTarget);
     m_Exec.runScript(m_TextCode.getText(), m_RuntimeFlags, m_RemoteRuntimeFlags, m_CompilerFlags);
     updateButtons();
   }
@@ -456,11 +1291,137 @@ public class JShellPanel
     updateButtons();
   }
 
+  /**
+   * Sets the interval for sampling the JVM executing the code, displayed
+   * below the output.
+   *
+   * @param value	the interval in msec, 0 to turn off
+   */
+  public void setTelemetryInterval(int value) {
+    m_Exec.setTelemetryInterval(value);
+  }
+
+  /**
+   * Returns the interval for sampling the JVM executing the code.
+   *
+   * @return		the interval in msec, 0 if turned off
+   */
+  public int getTelemetryInterval() {
+    return m_Exec.getTelemetryInterval();
+  }
+
+  /**
+   * Sets the threshold after which the event dispatch thread is considered
+   * stalled. While stalled, its stack gets sampled and the stall gets
+   * reported to the stall listeners (or stderr if there are none).
+   *
+   * @param value	the threshold in msec, 0 to turn off
+   * @see		EventThreadMonitor
+   */
+  public synchronized void setStallThreshold(int value) {
+    if (m_EventThreadMonitor != null) {
+      m_EventThreadMonitor.stop();
+      m_EventThreadMonitor = null;
+    }
+    if (value > 0) {
+      m_EventThreadMonitor = new EventThreadMonitor(value, (EventThreadStall stall) -> notifyJShellStallListeners(new JShellStallEvent(this, stall)));
+      m_EventThreadMonitor.start();
+    }
+  }
+
+  /**
+   * Returns the threshold after which the event dispatch thread is
+   * considered stalled.
+   *
+   * @return		the threshold in msec, 0 if turned off
+   */
+  public synchronized int getStallThreshold() {
+    return (m_EventThreadMonitor == null) ? 0 : m_EventThreadMonitor.getThreshold();
+  }
+
+  /**
+   * Returns the monitor of the event dispatch thread, eg for its latency
+   * statistics.
+   *
+   * @return		the monitor, null if turned off
+   */
+  public synchronized EventThreadMonitor getEventThreadMonitor() {
+    return m_EventThreadMonitor;
+  }
+
+  /**
+   * Sets whether to compile-check scripts before running them, reporting
+   * errors without launching jshell.
+   *
+   * @param value	true if to check
+   */
+  public void setPreflightCheck(boolean value) {
+    m_Exec.setPreflightCheck(value);
+  }
+
+  /**
+   * Returns whether to compile-check scripts before running them.
+   *
+   * @return		true if to check
+   */
+  public boolean getPreflightCheck() {
+    return m_Exec.getPreflightCheck();
+  }
+
+  /**
+   * Displays the statistics of the JVM executing the code.
+   *
+   * @param sample	the statistics
+   */
+  protected void showTelemetry(TelemetrySample sample) {
+    m_LabelTelemetry.setText(sample.toString());
+    m_LabelTelemetry.setForeground(sample.getHeapUsage() >= HEAP_WARNING ? Color.RED : null);
+  }
+
+  /**
+   * Removes the profiling annotations from the gutter.
+   */
+  public void clearProfiles() {
+    m_ScrollPaneCode.getGutter().removeAllTrackingIcons();
+  }
+
+  /**
+   * Displays the profiles as annotations in the gutter, next to the lines
+   * where the snippets start.
+   *
+   * @param profiles	the profiles to display
+   */
+  public void showProfiles(List<SnippetProfile> profiles) {
+    Gutter	gutter;
+    long	max;
+
+    gutter = m_ScrollPaneCode.getGutter();
+    gutter.removeAllTrackingIcons();
+    max = 1;
+    for (SnippetProfile profile: profiles)
+      max = Math.max(max, profile.getWallTime());
+    for (SnippetProfile profile: profiles) {
+      try {
+	gutter.addLineTrackingIcon(profile.getLine(), new ProfileIcon((double) profile.getWallTime() / max), profile.toString());
+      }
+      catch (Exception e) {
+	// code changed in the meantime
+      }
+    }
+  }
+
   /**
    * Clears the output of the script.
    */
   public void clearScriptOutput() {
+    m_OutputRecords.clear();
+    m_OutputRendered   = 0;
+    m_SearchMatchCount = 0;
+    m_SearchChecked    = 0;
+    m_SearchCurrent    = -1;
+    m_SearchRendered   = 0;
     m_TextOutput.setText("");
+    updateSearchLabel();
     notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.OUTPUT_CLEARED));
     updateButtons();
   }
@@ -472,11 +1433,11 @@ public class JShellPanel
     int     retVal;
     String msg;
 
-    retVal = m_FileChooserOutput.showSaveDialog(this);
+    retVal = getFileChooserOutput().showSaveDialog(this);
     if (retVal != BaseFileChooser.APPROVE_OPTION)
       return;
 
-    msg = FileUtils.writeToFileMsg(m_FileChooserOutput.getSelectedFile().getAbsolutePath(), m_TextOutput.getText(), false, null);
+    msg = FileUtils.writeToFileMsg(getFileChooserOutput().getSelectedFile().getAbsolutePath(), m_OutputRecords.toString(getOutputView()), false, null);
     if (msg != null) {
       GUIHelper.showErrorMessage(this, msg, "Failed saving output");
       notifyJShellPanelListeners(new JShellPanelEvent(this, EventType.OUTPUT_SAVE_FAILURE));
@@ -498,12 +1459,331 @@ public class JShellPanel
   }
 
   /**
-   * Returns the current output.
+   * Returns the current output, i.e., the records of the current view.
    *
    * @return		the output
+   * @see		#getOutputView()
    */
   public String getOutput() {
-    return m_TextOutput.getText();
+    return m_OutputRecords.toString(getOutputView());
+  }
+
+  /**
+   * Returns the output records.
+   *
+   * @return		the records
+   */
+  public OutputRecords getOutputRecords() {
+    return m_OutputRecords;
+  }
+
+  /**
+   * Sets the streams to show in the output.
+   *
+   * @param value	the view
+   */
+  public void setOutputView(OutputView value) {
+    m_ComboBoxOutputView.setSelectedItem(value);
+  }
+
+  /**
+   * Returns the streams shown in the output.
+   *
+   * @return		the view
+   */
+  public OutputView getOutputView() {
+    if (m_ComboBoxOutputView == null)
+      return OutputView.ALL;
+    return (OutputView) m_ComboBoxOutputView.getSelectedItem();
+  }
+
+  /**
+   * Renders the records that were added since the last call, using the
+   * stdout/stderr styles. Must be called from the event dispatch thread.
+   */
+  protected void renderOutput() {
+    Document		doc;
+    OutputView		view;
+    StringBuilder	run;
+    boolean		moveToEnd;
+    boolean		stdout;
+    boolean		runStdout;
+    int			count;
+    int			end;
+    int			i;
+
+    m_OutputRenderPending.set(false);
+    doc       = m_TextOutput.getDocument();
+    view      = getOutputView();
+    run       = new StringBuilder();
+    moveToEnd = (doc.getLength() == m_TextOutput.getCaretPosition());
+    end       = m_OutputRecords.size();
+    count     = m_SearchMatchCount;
+    checkMatches(end);
+
+    if (isFilteringOutput()) {
+      // only the matches, one insert per run of records from the same stream
+      runStdout = true;
+      for (i = m_SearchRendered; i < m_SearchMatchCount; i++) {
+	stdout = m_OutputRecords.isStdout(m_SearchMatches[i]);
+	if ((stdout != runStdout) && (run.length() > 0)) {
+	  insertOutput(doc, run, runStdout);
+	  run.setLength(0);
+	}
+	runStdout = stdout;
+	run.append(m_OutputRecords.getText(m_SearchMatches[i])).append('\n');
+      }
+      insertOutput(doc, run, runStdout);
+      m_SearchRendered = m_SearchMatchCount;
+    }
+    else {
+      // one insert per run of records from the same stream
+      i = m_OutputRendered;
+      while (i < end) {
+	run.setLength(0);
+	stdout = m_OutputRecords.isStdout(i);
+	i      = m_OutputRecords.append(i, end, view, stdout, run);
+	insertOutput(doc, run, stdout);
+      }
+    }
+    m_OutputRendered = end;
+    if (moveToEnd)
+      m_TextOutput.setCaretPosition(doc.getLength());
+    if (count != m_SearchMatchCount)
+      updateSearchLabel();
+  }
+
+  /**
+   * Appends the text to the output.
+   *
+   * @param doc		the document to append to
+   * @param text	the text to append, ignored if empty
+   * @param stdout	whether to use the stdout or stderr style
+   */
+  protected void insertOutput(Document doc, CharSequence text, boolean stdout) {
+    if (text.length() == 0)
+      return;
+    try {
+      doc.insertString(doc.getLength(), text.toString(), stdout ? m_StyleStdout : m_StyleStderr);
+    }
+    catch (BadLocationException e) {
+      // can't happen, appending
+    }
+  }
+
+  /**
+   * Renders all records again, e.g., after the view changed.
+   */
+  protected void rerenderOutput() {
+    m_TextOutput.setText("");
+    m_OutputRendered = 0;
+    m_SearchRendered = 0;
+    renderOutput();
+    if (m_SearchCurrent > -1)
+      showMatch();
+  }
+
+  /**
+   * Returns whether only the matching lines are shown.
+   *
+   * @return		true if filtering
+   */
+  protected boolean isFilteringOutput() {
+    return (m_SearchPredicate != null) && m_CheckBoxSearchFilter.isSelected();
+  }
+
+  /**
+   * Checks the records that have been added since the search for matches.
+   *
+   * @param end		the number of records to check
+   */
+  protected void checkMatches(int end) {
+    OutputView	view;
+    int		i;
+
+    if (m_SearchPredicate == null)
+      return;
+    view = getOutputView();
+    for (i = m_SearchChecked; i < end; i++) {
+      if (view.accept(m_OutputRecords.isStdout(i)) && m_SearchPredicate.test(m_OutputRecords.getText(i))) {
+	if (m_SearchMatchCount == m_SearchMatches.length)
+	  m_SearchMatches = Arrays.copyOf(m_SearchMatches, Math.max(16, m_SearchMatchCount * 2));
+	m_SearchMatches[m_SearchMatchCount++] = i;
+      }
+    }
+    m_SearchChecked = Math.max(m_SearchChecked, end);
+  }
+
+  /**
+   * Searches the output for the text in the search field, using the index
+   * in the background. Clears the search if the field is empty.
+   */
+  public void searchOutput() {
+    final String		text;
+    final Predicate<String>	predicate;
+    final Pattern		pattern;
+    final boolean		caseSensitive;
+    final OutputView		view;
+    final int[]			checked;
+    SwingWorker<int[],Object>	worker;
+
+    text          = m_TextSearch.getText();
+    caseSensitive = m_CheckBoxSearchCase.isSelected();
+    view          = getOutputView();
+    if (text.isEmpty()) {
+      clearSearch();
+      return;
+    }
+    if (m_CheckBoxSearchRegex.isSelected()) {
+      try {
+	pattern = Pattern.compile(text, caseSensitive ? 0 : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+      }
+      catch (PatternSyntaxException e) {
+	m_LabelSearch.setText("Invalid expression");
+	return;
+      }
+      predicate = (String line) -> pattern.matcher(line).find();
+    }
+    else {
+      pattern   = null;
+      predicate = (String line) -> OutputIndex.contains(line, text, caseSensitive);
+    }
+
+    m_LabelSearch.setText("Searching...");
+    // the number of lines covered by the index at the time of the search
+    checked = new int[1];
+    worker  = new SwingWorker<int[],Object>() {
+      @Override
+      protected int[] doInBackground() throws Exception {
+	int[]	matches;
+	int	size;
+
+	synchronized(m_OutputIndex) {
+	  matches    = (pattern != null) ? m_OutputIndex.search(pattern) : m_OutputIndex.search(text, caseSensitive);
+	  checked[0] = m_OutputIndex.getIndexed();
+	}
+	// restrict to view
+	size = 0;
+	for (int index: matches) {
+	  if (view.accept(m_OutputRecords.isStdout(index)))
+	    matches[size++] = index;
+	}
+	return Arrays.copyOf(matches, size);
+      }
+      @Override
+      protected void done() {
+	int[]	matches;
+
+	if (m_SearchWorker != this)
+	  return;
+	m_SearchWorker = null;
+	try {
+	  matches = get();
+	}
+	catch (Exception e) {
+	  m_LabelSearch.setText("Search failed");
+	  updateButtons();
+	  return;
+	}
+	m_SearchText       = text;
+	m_SearchPredicate  = predicate;
+	m_SearchMatches    = matches;
+	m_SearchMatchCount = matches.length;
+	m_SearchChecked    = checked[0];
+	m_SearchCurrent    = -1;
+	if (m_CheckBoxSearchFilter.isSelected())
+	  rerenderOutput();
+	else
+	  renderOutput();
+	nextMatch(true);
+	updateSearchLabel();
+	updateButtons();
+      }
+    };
+    m_SearchWorker = worker;
+    worker.execute();
+  }
+
+  /**
+   * Removes the search, showing all lines again.
+   */
+  public void clearSearch() {
+    boolean	filtering;
+
+    filtering          = isFilteringOutput();
+    m_SearchWorker     = null;
+    m_SearchText       = null;
+    m_SearchPredicate  = null;
+    m_SearchMatches    = new int[0];
+    m_SearchMatchCount = 0;
+    m_SearchChecked    = 0;
+    m_SearchCurrent    = -1;
+    m_TextOutput.getHighlighter().removeAllHighlights();
+    if (filtering)
+      rerenderOutput();
+    updateSearchLabel();
+    updateButtons();
+  }
+
+  /**
+   * Jumps to the next/previous match, wrapping around.
+   *
+   * @param forward	whether to jump to the next or previous match
+   */
+  public void nextMatch(boolean forward) {
+    if (m_SearchMatchCount == 0)
+      return;
+    if (m_SearchCurrent == -1)
+      m_SearchCurrent = forward ? 0 : m_SearchMatchCount - 1;
+    else
+      m_SearchCurrent = (m_SearchCurrent + (forward ? 1 : m_SearchMatchCount - 1)) % m_SearchMatchCount;
+    showMatch();
+    updateSearchLabel();
+  }
+
+  /**
+   * Highlights the current match and scrolls it into view.
+   */
+  protected void showMatch() {
+    Element	root;
+    Element	line;
+    int		index;
+    Rectangle2D	rect;
+
+    if ((m_SearchCurrent < 0) || (m_SearchCurrent >= m_SearchMatchCount))
+      return;
+    renderOutput();
+    if (isFilteringOutput())
+      index = m_SearchCurrent;
+    else
+      index = m_OutputRecords.rank(m_SearchMatches[m_SearchCurrent], getOutputView());
+    root = m_TextOutput.getDocument().getDefaultRootElement();
+    if (index >= root.getElementCount())
+      return;
+    line = root.getElement(index);
+    try {
+      m_TextOutput.getHighlighter().removeAllHighlights();
+      m_TextOutput.getHighlighter().addHighlight(line.getStartOffset(), line.getEndOffset(), new DefaultHighlightPainter(Color.YELLOW));
+      m_TextOutput.setCaretPosition(line.getStartOffset());
+      rect = m_TextOutput.modelToView2D(line.getStartOffset());
+      if (rect != null)
+	m_TextOutput.scrollRectToVisible(rect.getBounds());
+    }
+    catch (BadLocationException e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Updates the label with the current match.
+   */
+  protected void updateSearchLabel() {
+    if (m_SearchPredicate == null)
+      m_LabelSearch.setText(" ");
+    else if (m_SearchMatchCount == 0)
+      m_LabelSearch.setText("No matches");
+    else
+      m_LabelSearch.setText((m_SearchCurrent + 1) + "/" + m_SearchMatchCount);
   }
 
   /**
@@ -531,12 +1811,10 @@ public class JShellPanel
    * @param stdout	whether stdout or stderr
    */
   public void processOutput(String line, boolean stdout) {
-    boolean	moveToEnd;
-
-    moveToEnd = (m_TextOutput.getDocument().getLength() == m_TextOutput.getCaretPosition());
-    m_TextOutput.append((stdout ? "[OUT] " : "[ERR] ") + line + "\n");
-    if (moveToEnd)
-      m_TextOutput.setCaretPosition(m_TextOutput.getDocument().getLength());
+    m_OutputRecords.add(line, stdout, System.currentTimeMillis());
+    // coalesce the rendering of lines that arrive in quick succession
+    if (m_OutputRenderPending.compareAndSet(false, true))
+      SwingUtilities.invokeLater(this::renderOutput);
   }
 
   /**
@@ -585,6 +1863,52 @@ public class JShellPanel
       l.jshellPanelEventOccurred(e);
   }
 
+  /**
+   * Adds the stall listener to the internal list.
+   *
+   * @param l		the listener to add
+   */
+  public void addJShellStallListener(JShellStallListener l) {
+    synchronized(m_JShellStallListeners) {
+      m_JShellStallListeners.add(l);
+    }
+  }
+
+  /**
+   * Removes the stall listener from the internal list.
+   *
+   * @param l		the listener to remove
+   */
+  public void removeJShellStallListener(JShellStallListener l) {
+    synchronized(m_JShellStallListeners) {
+      m_JShellStallListeners.remove(l);
+    }
+  }
+
+  /**
+   * Notifies all the listeners with the specified stall event, outputs the
+   * stall on stderr if there are no listeners. Does not lock the panel, as
+   * the event dispatch thread may hold that lock while stalled.
+   *
+   * @param e		the event to send
+   */
+  public void notifyJShellStallListeners(JShellStallEvent e) {
+    List<JShellStallListener>	listeners;
+
+    synchronized(m_JShellStallListeners) {
+      listeners = new ArrayList<>(m_JShellStallListeners);
+    }
+    if (listeners.isEmpty()) {
+      if (e.getType() == JShellStallEvent.EventType.STALL_FINISHED)
+	System.err.println(e.getStall().toReport());
+      else
+	System.err.println(e.getStall());
+      return;
+    }
+    for (JShellStallListener l: listeners)
+      l.jshellStallOccurred(e);
+  }
+
   /**
    * Gets called when an error occurred.
    *
@@ -604,6 +1928,10 @@ public class JShellPanel
    */
   public void jshellExecEventOccurred(JShellExecEvent e) {
     updateButtons();
+    if ((e.getType() == JShellExecEvent.EventType.SCRIPT_RUN) && (getTelemetryInterval() > 0))
+      SwingUtilities.invokeLater(() -> m_LabelTelemetry.setText("Waiting for JVM..."));
+    if ((e.getType() == JShellExecEvent.EventType.SCRIPT_FINISHED) && (m_Exec.getExecutionTarget() == m_ProfilingTarget))
+      SwingUtilities.invokeLater(() -> showProfiles(m_ProfilingTarget.getProfiles()));
   }
 
   /**
@@ -0,0 +1,182 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JarUtils.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.compile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Helper methods for writing and inspecting jars.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JarUtils {
+
+  /**
+   * Creates a new manifest with the manifest version already set.
+   *
+   * @return		the manifest
+   */
+  public static Manifest newManifest() {
+    Manifest	result;
+
+    result = new Manifest();
+    result.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+    return result;
+  }
+
+  /**
+   * Writes the entries to the specified jar.
+   *
+   * @param jar		the jar to write
+   * @param manifest	the manifest to use
+   * @param entries	the entries (path in jar / content)
+   * @return		null if successful, otherwise error message
+   */
+  public static String writeJarMsg(File jar, Manifest manifest, Map<String,byte[]> entries) {
+    JarOutputStream	out;
+    JarEntry		entry;
+
+    try {
+      out = new JarOutputStream(new FileOutputStream(jar), manifest);
+      try {
+	for (String name: entries.keySet()) {
+	  entry = new JarEntry(name);
+	  out.putNextEntry(entry);
+	  out.write(entries.get(name));
+	  out.closeEntry();
+	}
+      }
+      finally {
+	out.close();
+      }
+      return null;
+    }
+    catch (Exception e) {
+      return "Failed to write jar '" + jar + "': " + e;
+    }
+  }
+
+  /**
+   * Reads the bytes of a class available from the given class loader.
+   *
+   * @param cls		the class to read the bytes for
+   * @return		the bytes
+   * @throws IOException	if class file cannot be read
+   */
+  public static byte[] readClass(Class<?> cls) throws IOException {
+    return readResource(cls.getClassLoader(), toResource(cls.getName()));
+  }
+
+  /**
+   * Adds the class and any of its anonymous/synthetic inner classes
+   * (eg generated for switch statements over enums) to the entries.
+   *
+   * @param entries	the entries to add to
+   * @param cls		the class to add
+   * @throws IOException	if class file cannot be read
+   */
+  public static void addClass(Map<String,byte[]> entries, Class<?> cls) throws IOException {
+    ClassLoader		loader;
+    String		resource;
+    int			i;
+
+    loader = cls.getClassLoader();
+    if (loader == null)
+      loader = ClassLoader.getSystemClassLoader();
+    entries.put(toResource(cls.getName()), readClass(cls));
+    i = 1;
+    while (true) {
+      resource = toResource(cls.getName() + "$" + i);
+      if (loader.getResource(resource) == null)
+	break;
+      entries.put(resource, readResource(loader, resource));
+      i++;
+    }
+  }
+
+  /**
+   * Reads the bytes of a resource.
+   *
+   * @param loader	the class loader to use
+   * @param resource	the resource path
+   * @return		the bytes
+   * @throws IOException	if resource cannot be read
+   */
+  public static byte[] readResource(ClassLoader loader, String resource) throws IOException {
+    InputStream		in;
+
+    if (loader == null)
+      loader = ClassLoader.getSystemClassLoader();
+    in = loader.getResourceAsStream(resource);
+    if (in == null)
+      throw new IOException("Resource not found: " + resource);
+    try {
+      return in.readAllBytes();
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Turns a class name into a class file path in a jar.
+   *
+   * @param classname	the class name
+   * @return		the path
+   */
+  public static String toResource(String classname) {
+    return classname.replace('.', '/') + ".class";
+  }
+
+  /**
+   * Returns the value of the specified main attribute from the jar's manifest.
+   *
+   * @param jar		the jar to inspect
+   * @param name	the attribute
+   * @return		the value, null if not available
+   * @throws IOException	if jar cannot be read
+   */
+  public static String getMainAttribute(File jar, Attributes.Name name) throws IOException {
+    JarFile	jarFile;
+    Manifest	manifest;
+
+    jarFile = new JarFile(jar);
+    try {
+      manifest = jarFile.getManifest();
+      if (manifest == null)
+	return null;
+      return manifest.getMainAttributes().getValue(name);
+    }
+    finally {
+      jarFile.close();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MemoryClass.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.compile;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * Compiled class that is held in memory.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class MemoryClass
+  extends SimpleJavaFileObject {
+
+  /** the name of the class. */
+  protected String m_ClassName;
+
+  /** the byte code. */
+  protected ByteArrayOutputStream m_Bytes;
+
+  /**
+   * Initializes the class.
+   *
+   * @param classname	the fully qualified name of the class
+   */
+  public MemoryClass(String classname) {
+    super(URI.create("bytes:///" + classname.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+    m_ClassName = classname;
+    m_Bytes     = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Returns the name of the class.
+   *
+   * @return		the class name
+   */
+  public String getClassName() {
+    return m_ClassName;
+  }
+
+  /**
+   * Returns the stream for the compiler to write the byte code to.
+   *
+   * @return		the stream
+   */
+  @Override
+  public OutputStream openOutputStream() {
+    return m_Bytes;
+  }
+
+  /**
+   * Returns the byte code.
+   *
+   * @return		the byte code
+   */
+  public byte[] getBytes() {
+    return m_Bytes.toByteArray();
+  }
+}
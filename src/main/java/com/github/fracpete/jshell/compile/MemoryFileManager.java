@@ -0,0 +1,86 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MemoryFileManager.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.compile;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File manager that keeps the generated classes in memory.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class MemoryFileManager
+  extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+  /** the generated classes. */
+  protected Map<String,MemoryClass> m_Classes;
+
+  /**
+   * Initializes the manager.
+   *
+   * @param fileManager	the manager to delegate to
+   */
+  public MemoryFileManager(StandardJavaFileManager fileManager) {
+    super(fileManager);
+    m_Classes = new LinkedHashMap<>();
+  }
+
+  /**
+   * Returns the in-memory file object for the class.
+   *
+   * @param location	the location
+   * @param className	the name of the class
+   * @param kind	the kind of file
+   * @param sibling	ignored
+   * @return		the file object
+   */
+  @Override
+  public JavaFileObject getJavaFileForOutput(Location location, String className, Kind kind, FileObject sibling) {
+    MemoryClass	result;
+
+    result = new MemoryClass(className);
+    m_Classes.put(className, result);
+
+    return result;
+  }
+
+  /**
+   * Returns the generated classes as jar entries.
+   *
+   * @return		the entries (class file path / byte code)
+   */
+  public Map<String,byte[]> getEntries() {
+    Map<String,byte[]>	result;
+
+    result = new LinkedHashMap<>();
+    for (MemoryClass cls: m_Classes.values())
+      result.put(JarUtils.toResource(cls.getClassName()), cls.getBytes());
+
+    return result;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MemorySource.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.compile;
+
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+
+/**
+ * Java source code that is held in memory.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class MemorySource
+  extends SimpleJavaFileObject {
+
+  /** the source code. */
+  protected String m_Code;
+
+  /**
+   * Initializes the source.
+   *
+   * @param classname	the fully qualified name of the class
+   * @param code	the source code
+   */
+  public MemorySource(String classname, String code) {
+    super(URI.create("string:///" + classname.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+    m_Code = code;
+  }
+
+  /**
+   * Returns the source code.
+   *
+   * @param ignoreEncodingErrors	ignored
+   * @return				the code
+   */
+  @Override
+  public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+    return m_Code;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PreflightCheck.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.compile;
+
+import com.github.fracpete.jshell.remote.ScriptEvaluator;
+import com.github.fracpete.jshell.session.SessionSettings;
+import jdk.jshell.Diag;
+import jdk.jshell.JShell;
+import jdk.jshell.Snippet;
+import jdk.jshell.Snippet.Status;
+import jdk.jshell.SnippetEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiles the snippets of a script in the host JVM without executing
+ * them, to catch scripts that could never compile before launching a
+ * jshell process. Uses the same classpath, startup (default imports,
+ * preludes) and compiler flags as the actual run and the same snippet
+ * semantics as jshell, via an execution control that does nothing.
+ * <br>
+ * Only rejected snippets are reported, unresolved references that jshell
+ * tolerates (eg methods that get defined later on) are not considered
+ * errors.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see PreflightExecutionControl
+ */
+public class PreflightCheck {
+
+  /** the settings (classpath, compiler flags, startup). */
+  protected SessionSettings m_Settings;
+
+  /**
+   * Initializes the check.
+   *
+   * @param settings	the settings to use
+   */
+  public PreflightCheck(SessionSettings settings) {
+    m_Settings = settings;
+  }
+
+  /**
+   * Returns the settings in use.
+   *
+   * @return		the settings
+   */
+  public SessionSettings getSettings() {
+    return m_Settings;
+  }
+
+  /**
+   * Adds the errors of the rejected snippets to the diagnostics.
+   *
+   * @param jshell	the JShell instance
+   * @param snippet	the snippet of the script
+   * @param events	the events generated by the snippet
+   * @param diagnostics	the diagnostics to add to
+   */
+  protected void addErrors(JShell jshell, ScriptSnippet snippet, List<SnippetEvent> events, List<ScriptDiagnostic> diagnostics) {
+    Snippet	rejected;
+
+    for (SnippetEvent event: events) {
+      if ((event.status() != Status.REJECTED) || (event.causeSnippet() != null))
+	continue;
+      rejected = event.snippet();
+      jshell.diagnostics(rejected).forEach((Diag diag) -> {
+	if (diag.isError())
+	  diagnostics.add(new ScriptDiagnostic(snippet, (int) diag.getPosition(), diag.getMessage(Locale.getDefault()), true));
+      });
+    }
+  }
+
+  /**
+   * Compile-checks the script.
+   *
+   * @param code	the script to check
+   * @return		the diagnostics, empty if none
+   * @throws Exception	if setting up the compiler or the startup fails
+   */
+  public List<ScriptDiagnostic> check(String code) throws Exception {
+    List<ScriptDiagnostic>	result;
+    PrintStream			discard;
+    JShell			jshell;
+    ScriptEvaluator		evaluator;
+    String			source;
+
+    result  = new ArrayList<>();
+    discard = new PrintStream(new ByteArrayOutputStream());
+    jshell  = JShell.builder()
+      .executionEngine(new PreflightExecutionControlProvider(), null)
+      .in(new ByteArrayInputStream(new byte[0]))
+      .out(discard)
+      .err(discard)
+      .compilerOptions(m_Settings.getCompilerFlags().toArray(new String[0]))
+      .build();
+    try {
+      for (String path: m_Settings.getClassPath().split(File.pathSeparator)) {
+	if (!path.isEmpty())
+	  jshell.addToClasspath(path);
+      }
+      evaluator = new ScriptEvaluator(jshell, discard);
+      evaluator.startup(m_Settings.getDefaultStartup(), m_Settings.getStartup());
+      for (ScriptSnippet snippet: ScriptParser.parse(jshell.sourceCodeAnalysis(), code)) {
+	source = snippet.getSource();
+	if (snippet.isCommand()) {
+	  if (source.equals("/exit") || source.startsWith("/exit "))
+	    break;
+	  continue;
+	}
+	addErrors(jshell, snippet, jshell.eval(source), result);
+      }
+    }
+    finally {
+      jshell.close();
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether any of the diagnostics is an error.
+   *
+   * @param diagnostics	the diagnostics to check
+   * @return		true if at least one error
+   */
+  public static boolean hasErrors(List<ScriptDiagnostic> diagnostics) {
+    for (ScriptDiagnostic diagnostic: diagnostics) {
+      if (diagnostic.isError())
+	return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PreflightExecutionControl.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.compile;
+
+import jdk.jshell.spi.ExecutionControl;
+
+/**
+ * Execution control that does not execute anything, used for compiling
+ * snippets without side effects.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see PreflightCheck
+ */
+public class PreflightExecutionControl
+  implements ExecutionControl {
+
+  /**
+   * Ignores the classes.
+   *
+   * @param cbcs	the class bytecodes
+   */
+  @Override
+  public void load(ClassBytecodes[] cbcs) {
+  }
+
+  /**
+   * Ignores the classes.
+   *
+   * @param cbcs	the class bytecodes
+   */
+  @Override
+  public void redefine(ClassBytecodes[] cbcs) {
+  }
+
+  /**
+   * Does not invoke anything.
+   *
+   * @param className	the class to invoke
+   * @param methodName	the method to invoke
+   * @return		always empty string
+   */
+  @Override
+  public String invoke(String className, String methodName) {
+    return "";
+  }
+
+  /**
+   * Does not determine the value.
+   *
+   * @param className	the class of the variable
+   * @param varName	the name of the variable
+   * @return		always empty string
+   */
+  @Override
+  public String varValue(String className, String varName) {
+    return "";
+  }
+
+  /**
+   * Ignores the path, as the compiler has its own classpath.
+   *
+   * @param path	the path to add
+   */
+  @Override
+  public void addToClasspath(String path) {
+  }
+
+  /**
+   * Does nothing.
+   */
+  @Override
+  public void stop() {
+  }
+
+  /**
+   * Does not support extension commands.
+   *
+   * @param command	the command
+   * @param arg		the argument
+   * @return		nothing
+   * @throws NotImplementedException	always
+   */
+  @Override
+  public Object extensionCommand(String command, Object arg) throws NotImplementedException {
+    throw new NotImplementedException("Command not supported: " + command);
+  }
+
+  /**
+   * Does nothing.
+   */
+  @Override
+  public void close() {
+  }
+}
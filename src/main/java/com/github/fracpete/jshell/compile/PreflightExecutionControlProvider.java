@@ -0,0 +1,71 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PreflightExecutionControlProvider.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.compile;
+
+import jdk.jshell.spi.ExecutionControl;
+import jdk.jshell.spi.ExecutionControlProvider;
+import jdk.jshell.spi.ExecutionEnv;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provider for the {@link PreflightExecutionControl}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class PreflightExecutionControlProvider
+  implements ExecutionControlProvider {
+
+  /**
+   * Returns the name of the provider.
+   *
+   * @return		the name
+   */
+  @Override
+  public String name() {
+    return "preflight";
+  }
+
+  /**
+   * Returns the default parameters.
+   *
+   * @return		the parameters, none
+   */
+  @Override
+  public Map<String,String> defaultParameters() {
+    return new HashMap<>();
+  }
+
+  /**
+   * Generates the execution control.
+   *
+   * @param env		the execution environment
+   * @param parameters	the parameters
+   * @return		the execution control
+   */
+  @Override
+  public ExecutionControl generate(ExecutionEnv env, Map<String,String> parameters) {
+    return new PreflightExecutionControl();
+  }
+}
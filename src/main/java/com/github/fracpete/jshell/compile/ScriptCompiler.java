@@ -0,0 +1,835 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptCompiler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.compile;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewArrayTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * Turns a jshell script into an ordinary Java class with a main method
+ * and compiles it into a jar, which can be run with plain java.
+ * <br>
+ * Imports get moved to the top, variables become static fields (initialized
+ * in the order of the script), methods and types become static members and
+ * all other statements make up the main method. Unlike jshell, the compiled
+ * script stops at the first uncaught exception.
+ * <br>
+ * The types of variables declared with <code>var</code> get inferred by
+ * analyzing the script first. Variables whose type cannot be written down
+ * (eg anonymous classes) and variables that get re-declared with a
+ * different type are not supported and get rejected with an error message.
+ * <br>
+ * In library mode, the members are public and the statements make up the
+ * static {@link #LIBRARY_INIT} method instead, so that the class can be
+ * used via static imports (eg for preludes).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptCompiler
+  implements Serializable {
+
+  /**
+   * A variable declaration of the script, which becomes a static field.
+   */
+  protected static class Declaration
+    implements Serializable {
+
+    /** the name of the variable. */
+    protected String m_Name;
+
+    /** the type, null if declared with var and not inferred (yet). */
+    protected String m_Type;
+
+    /** whether declared with var. */
+    protected boolean m_Var;
+
+    /** the initializer, null if none. */
+    protected String m_Init;
+
+    /** the line (0-based) of the declaration. */
+    protected int m_Line;
+
+    /** the name of the variable when analyzing the script. */
+    protected String m_Probe;
+
+    /**
+     * Initializes the declaration.
+     *
+     * @param name	the name of the variable
+     * @param type	the type, null if declared with var
+     * @param init	the initializer, null if none
+     * @param line	the line (0-based) of the declaration
+     */
+    protected Declaration(String name, String type, String init, int line) {
+      m_Name  = name;
+      m_Type  = type;
+      m_Var   = (type == null);
+      m_Init  = init;
+      m_Line  = line;
+      m_Probe = name;
+    }
+
+    /**
+     * Returns whether the variable stays a local variable of the main
+     * method, as its type could not be inferred.
+     *
+     * @return		true if local variable
+     */
+    protected boolean isLocal() {
+      return (m_Type == null);
+    }
+  }
+
+  /** the default name for the generated class. */
+  public final static String DEFAULT_CLASSNAME = "JShellScript";
+
+  /** the imports that jshell performs by default. */
+  public final static String[] DEFAULT_IMPORTS = new String[]{
+    "java.io.*",
+    "java.math.*",
+    "java.net.*",
+    "java.nio.file.*",
+    "java.util.*",
+    "java.util.concurrent.*",
+    "java.util.function.*",
+    "java.util.prefs.*",
+    "java.util.regex.*",
+    "java.util.stream.*",
+  };
+
+  /** the name of the method that executes the statements in library mode. */
+  public final static String LIBRARY_INIT = "init";
+
+  /** the name of the wrapper class used for parsing declarations. */
+  protected final static String WRAPPER = "$Wrapper";
+
+  /** the name of the class to generate. */
+  protected String m_ClassName;
+
+  /** the package of the class to generate, null for the default package. */
+  protected String m_PackageName;
+
+  /** whether to generate a library rather than a class with a main method. */
+  protected boolean m_Library;
+
+  /** the classpath to compile against, null for the current one. */
+  protected String m_ClassPath;
+
+  /** additional compiler flags. */
+  protected List<String> m_CompilerFlags;
+
+  /**
+   * Initializes the compiler.
+   */
+  public ScriptCompiler() {
+    m_ClassName     = DEFAULT_CLASSNAME;
+    m_PackageName   = null;
+    m_Library       = false;
+    m_ClassPath     = null;
+    m_CompilerFlags = new ArrayList<>();
+  }
+
+  /**
+   * Sets the name of the class to generate.
+   *
+   * @param value	the class name
+   */
+  public void setClassName(String value) {
+    m_ClassName = value;
+  }
+
+  /**
+   * Returns the name of the class to generate.
+   *
+   * @return		the class name
+   */
+  public String getClassName() {
+    return m_ClassName;
+  }
+
+  /**
+   * Sets the package of the class to generate.
+   *
+   * @param value	the package, null for the default package
+   */
+  public void setPackageName(String value) {
+    m_PackageName = value;
+  }
+
+  /**
+   * Returns the package of the class to generate.
+   *
+   * @return		the package, null for the default package
+   */
+  public String getPackageName() {
+    return m_PackageName;
+  }
+
+  /**
+   * Returns the fully qualified name of the class to generate.
+   *
+   * @return		the name
+   */
+  public String getQualifiedClassName() {
+    if (m_PackageName == null)
+      return m_ClassName;
+    else
+      return m_PackageName + "." + m_ClassName;
+  }
+
+  /**
+   * Sets whether to generate a library, ie public members and the
+   * statements in {@link #LIBRARY_INIT} instead of a main method.
+   *
+   * @param value	true for library
+   */
+  public void setLibrary(boolean value) {
+    m_Library = value;
+  }
+
+  /**
+   * Returns whether to generate a library, ie public members and the
+   * statements in {@link #LIBRARY_INIT} instead of a main method.
+   *
+   * @return		true for library
+   */
+  public boolean isLibrary() {
+    return m_Library;
+  }
+
+  /**
+   * Sets the classpath to compile against.
+   *
+   * @param value	the classpath, null to use the one of the current JVM
+   */
+  public void setClassPath(String value) {
+    m_ClassPath = value;
+  }
+
+  /**
+   * Returns the classpath to compile against.
+   *
+   * @return		the classpath, null if using the one of the current JVM
+   */
+  public String getClassPath() {
+    return m_ClassPath;
+  }
+
+  /**
+   * Sets the additional compiler flags.
+   *
+   * @param value	the flags
+   */
+  public void setCompilerFlags(List<String> value) {
+    m_CompilerFlags.clear();
+    if (value != null)
+      m_CompilerFlags.addAll(value);
+  }
+
+  /**
+   * Returns the additional compiler flags.
+   *
+   * @return		the flags
+   */
+  public List<String> getCompilerFlags() {
+    return m_CompilerFlags;
+  }
+
+  /**
+   * Returns the classpath to use for compilation.
+   *
+   * @return		the classpath
+   */
+  protected String getActualClassPath() {
+    if (m_ClassPath == null)
+      return System.getProperty("java.class.path");
+    else
+      return m_ClassPath;
+  }
+
+  /**
+   * Parses the code in the context of a class.
+   *
+   * @param compiler	the compiler to use
+   * @param code	the code to parse
+   * @param trees	for storing the parsed trees
+   * @return		the parsed compilation unit, null if failed to parse
+   * @throws Exception	if parsing fails
+   */
+  protected CompilationUnitTree parse(JavaCompiler compiler, String code, Trees[] trees) throws Exception {
+    DiagnosticCollector<JavaFileObject>	diagnostics;
+    JavacTask				task;
+    CompilationUnitTree			result;
+
+    diagnostics = new DiagnosticCollector<>();
+    task        = (JavacTask) compiler.getTask(
+      null, null, diagnostics, null, null, Collections.singletonList(new MemorySource(WRAPPER, code)));
+    result      = task.parse().iterator().next();
+    for (Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()) {
+      if (d.getKind() == Diagnostic.Kind.ERROR)
+	return null;
+    }
+    trees[0] = Trees.instance(task);
+
+    return result;
+  }
+
+  /**
+   * Turns the script into Java source code.
+   *
+   * @param code	the script to convert
+   * @return		the generated source code
+   * @throws Exception	if conversion fails, eg due to unsupported commands
+   */
+  public String generate(String code) throws Exception {
+    JavaCompiler		compiler;
+    List<ScriptSnippet>		snippets;
+    List<String>		imports;
+    List<String>		members;
+    List<Declaration>		declarations;
+    List<Object>		body;
+    Set<String>			names;
+    boolean			analyze;
+    String			source;
+    String			wrapped;
+    CompilationUnitTree		unit;
+    Trees[]			trees;
+    SourcePositions		positions;
+    ClassTree			cls;
+    VariableTree		var;
+    Declaration			decl;
+    String			init;
+    String			type;
+    boolean			isStatic;
+    int				offset;
+
+    compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null)
+      throw new IllegalStateException("No Java compiler available (JDK required)!");
+
+    snippets     = ScriptParser.parse(code);
+    imports      = new ArrayList<>();
+    members      = new ArrayList<>();
+    declarations = new ArrayList<>();
+    body         = new ArrayList<>();
+    names        = new HashSet<>();
+    analyze      = false;
+    trees        = new Trees[1];
+    for (String imp: DEFAULT_IMPORTS)
+      imports.add("import " + imp + ";");
+
+    for (ScriptSnippet snippet: snippets) {
+      source = snippet.getSource().trim();
+
+      // commands
+      if (snippet.isCommand()) {
+	if (source.equals("/exit"))
+	  break;
+	if (source.startsWith("/exit ")) {
+	  body.add("System.exit(" + source.substring(6).trim() + ");");
+	  break;
+	}
+	throw new IllegalArgumentException("Unsupported jshell command in line " + (snippet.getLine() + 1) + ": " + source);
+      }
+
+      // import
+      if (source.matches("(?s)^import\\s.*")) {
+	imports.add(source.endsWith(";") ? source : source + ";");
+	continue;
+      }
+
+      // declarations
+      wrapped = "class " + WRAPPER + " {\n";
+      offset  = wrapped.length();
+      wrapped += source + "\n}\n";
+      unit    = parse(compiler, wrapped, trees);
+      cls     = (unit == null) ? null : (ClassTree) unit.getTypeDecls().get(0);
+      if ((cls != null) && isDeclaration(cls)) {
+	positions = trees[0].getSourcePositions();
+	for (Tree member: cls.getMembers()) {
+	  switch (member.getKind()) {
+	    case VARIABLE:
+	      var  = (VariableTree) member;
+	      type = var.getType().toString();
+	      init = null;
+	      if (var.getInitializer() != null) {
+		init = wrapped.substring(
+		  (int) positions.getStartPosition(unit, var.getInitializer()),
+		  (int) positions.getEndPosition(unit, var.getInitializer()));
+		if ((var.getInitializer() instanceof NewArrayTree) && (((NewArrayTree) var.getInitializer()).getType() == null))
+		  init = "new " + type + " " + init;
+	      }
+	      decl = new Declaration(var.getName().toString(), type, init, snippet.getLine());
+	      // re-declarations need to be checked
+	      if (!names.add(decl.m_Name))
+		analyze = true;
+	      declarations.add(decl);
+	      body.add(decl);
+	      break;
+
+	    case METHOD:
+	      isStatic = ((MethodTree) member).getModifiers().getFlags().contains(Modifier.STATIC);
+	      members.add(access(((MethodTree) member).getModifiers().getFlags()) + (isStatic ? "" : "static ") + extract(wrapped, unit, positions, member, offset));
+	      break;
+
+	    default:
+	      isStatic = ((ClassTree) member).getModifiers().getFlags().contains(Modifier.STATIC);
+	      members.add(access(((ClassTree) member).getModifiers().getFlags()) + (isStatic ? "" : "static ") + extract(wrapped, unit, positions, member, offset));
+	  }
+	}
+	continue;
+      }
+
+      // statement or expression
+      if (!source.endsWith(";") && !source.endsWith("}"))
+	source += ";";
+      wrapped = "class " + WRAPPER + " {\nvoid run() throws Throwable {\n" + source + "\n}\n}\n";
+      unit    = parse(compiler, wrapped, trees);
+      // var declarations are only allowed in methods
+      var     = (unit == null) ? null : getVarDeclaration(unit);
+      if (var != null) {
+	positions = trees[0].getSourcePositions();
+	init      = wrapped.substring(
+	  (int) positions.getStartPosition(unit, var.getInitializer()),
+	  (int) positions.getEndPosition(unit, var.getInitializer()));
+	decl      = new Declaration(var.getName().toString(), null, init, snippet.getLine());
+	names.add(decl.m_Name);
+	analyze = true;
+	declarations.add(decl);
+	body.add(decl);
+	continue;
+      }
+      if ((unit == null) && source.endsWith(";")) {
+	source = source.substring(0, source.length() - 1);
+	source = "{ Object $value = (" + source + "); }";
+      }
+      body.add(source);
+    }
+
+    if (analyze)
+      analyze(compiler, imports, members, declarations, body);
+
+    return render(imports, members, declarations, body, false);
+  }
+
+  /**
+   * Returns the declaration if the wrapped statement is a single local
+   * variable declaration using var.
+   *
+   * @param unit	the parsed statement, wrapped in a method
+   * @return		the declaration, null if not a var declaration
+   */
+  protected VariableTree getVarDeclaration(CompilationUnitTree unit) {
+    ClassTree			cls;
+    List<? extends StatementTree>	statements;
+    VariableTree		result;
+
+    cls = (ClassTree) unit.getTypeDecls().get(0);
+    if ((cls.getMembers().size() != 1) || !(cls.getMembers().get(0) instanceof MethodTree))
+      return null;
+    statements = ((MethodTree) cls.getMembers().get(0)).getBody().getStatements();
+    if ((statements.size() != 1) || !(statements.get(0) instanceof VariableTree))
+      return null;
+    result = (VariableTree) statements.get(0);
+    // the type is only omitted for var
+    if ((result.getType() != null) || (result.getInitializer() == null))
+      return null;
+
+    return result;
+  }
+
+  /**
+   * Generates the source code of the class.
+   *
+   * @param imports		the imports
+   * @param members		the methods and types
+   * @param declarations	the variable declarations
+   * @param body		the statements (strings) and declarations, in order
+   * @param analysis		whether to generate the code for analyzing the declarations, with each declaration kept apart
+   * @return			the source code
+   */
+  protected String render(List<String> imports, List<String> members, List<Declaration> declarations, List<Object> body, boolean analysis) {
+    StringBuilder	result;
+    Set<String>		fields;
+    Declaration		decl;
+    String		access;
+    String		stmt;
+
+    access = m_Library ? "public " : "";
+    result = new StringBuilder();
+    if (m_PackageName != null)
+      result.append("package ").append(m_PackageName).append(";\n\n");
+    for (String imp: imports)
+      result.append(imp).append("\n");
+    result.append("\n");
+    result.append("public class ").append(m_ClassName).append(" {\n");
+    fields = new HashSet<>();
+    for (Declaration d: declarations) {
+      if (analysis) {
+	if (!d.m_Var)
+	  result.append("\n").append(indent("static " + d.m_Type + " " + d.m_Probe + ";", "  ")).append("\n");
+      }
+      else if (!d.isLocal() && fields.add(d.m_Name)) {
+	result.append("\n").append(indent(access + "static " + d.m_Type + " " + d.m_Name + ";", "  ")).append("\n");
+      }
+    }
+    for (String member: members)
+      result.append("\n").append(indent(member, "  ")).append("\n");
+    result.append("\n");
+    if (m_Library)
+      result.append("  public static void ").append(LIBRARY_INIT).append("() throws Throwable {\n");
+    else
+      result.append("  public static void main(String[] args) throws Throwable {\n");
+    for (Object item: body) {
+      if (item instanceof Declaration) {
+	decl = (Declaration) item;
+	if (decl.m_Var && (analysis || decl.isLocal()))
+	  stmt = "var " + (analysis ? decl.m_Probe : decl.m_Name) + " = " + decl.m_Init + ";";
+	else if (decl.m_Init != null)
+	  stmt = decl.m_Name + " = " + decl.m_Init + ";";
+	else
+	  continue;
+      }
+      else {
+	stmt = (String) item;
+      }
+      result.append(indent(stmt, "    ")).append("\n");
+    }
+    result.append("  }\n");
+    result.append("}\n");
+
+    return result.toString();
+  }
+
+  /**
+   * Infers the types of the variables declared with var and checks that
+   * re-declared variables keep their type. For this, the script gets
+   * analyzed with every declaration using a separate variable. A var whose
+   * type cannot be determined (eg due to errors in its initializer) stays a
+   * local variable, leaving the error to the actual compilation.
+   *
+   * @param compiler		the compiler to use
+   * @param imports		the imports
+   * @param members		the methods and types
+   * @param declarations	the variable declarations, get updated
+   * @param body		the statements and declarations
+   * @throws IllegalArgumentException	if a variable gets re-declared with a different type or its type cannot be declared
+   * @throws Exception		if analysis fails
+   */
+  protected void analyze(JavaCompiler compiler, List<String> imports, List<String> members, List<Declaration> declarations, List<Object> body) throws Exception {
+    Set<String>				fields;
+    Set<String>				used;
+    Declaration				decl;
+    List<String>			options;
+    JavacTask				task;
+    CompilationUnitTree			unit;
+    Trees				trees;
+    Types				types;
+    ClassTree				cls;
+    Map<String,TypeMirror>		probes;
+    Map<String,Declaration>		first;
+    Declaration				prev;
+    TypeMirror				type;
+    int					i;
+
+    // every declaration gets its own variable, the first one keeps the name
+    // (fields take precedence over var)
+    fields = new HashSet<>();
+    used   = new HashSet<>();
+    for (Declaration d: declarations) {
+      if (!d.m_Var)
+	fields.add(d.m_Name);
+    }
+    for (i = 0; i < declarations.size(); i++) {
+      decl = declarations.get(i);
+      if ((!decl.m_Var || !fields.contains(decl.m_Name)) && used.add(decl.m_Name))
+	decl.m_Probe = decl.m_Name;
+      else
+	decl.m_Probe = "$decl" + i;
+    }
+
+    options = new ArrayList<>();
+    options.add("-classpath");
+    options.add(getActualClassPath());
+    options.addAll(m_CompilerFlags);
+    task = (JavacTask) compiler.getTask(
+      null, null, new DiagnosticCollector<>(), options, null,
+      Collections.singletonList(new MemorySource(getQualifiedClassName(), render(imports, members, declarations, body, true))));
+    unit  = task.parse().iterator().next();
+    task.analyze();
+    trees = Trees.instance(task);
+    types = task.getTypes();
+
+    // the types of the fields and the local variables of the main method
+    probes = new HashMap<>();
+    cls    = (ClassTree) unit.getTypeDecls().get(0);
+    for (Tree member: cls.getMembers()) {
+      if (member instanceof VariableTree) {
+	addProbe(probes, trees, unit, member);
+      }
+      else if ((member instanceof MethodTree) && ((MethodTree) member).getName().contentEquals(m_Library ? LIBRARY_INIT : "main")) {
+	for (StatementTree stmt: ((MethodTree) member).getBody().getStatements()) {
+	  if (stmt instanceof VariableTree)
+	    addProbe(probes, trees, unit, stmt);
+	}
+      }
+    }
+
+    first = new HashMap<>();
+    for (Declaration d: declarations) {
+      type = probes.get(d.m_Probe);
+      if ((type == null) || (type.getKind() == TypeKind.ERROR))
+	continue;
+      if (d.m_Var) {
+	if (!isDenotable(type))
+	  throw new IllegalArgumentException(
+	    "Variable '" + d.m_Name + "' in line " + (d.m_Line + 1) + " cannot become a field, as its type cannot be declared: " + type
+	      + "\nDeclare it with an explicit type instead of var.");
+	d.m_Type = type.toString();
+      }
+      prev = first.putIfAbsent(d.m_Name, d);
+      if ((prev != null) && !types.isSameType(probes.get(prev.m_Probe), type))
+	throw new IllegalArgumentException(
+	  "Variable '" + d.m_Name + "' in line " + (d.m_Line + 1) + " re-declares the one in line " + (prev.m_Line + 1)
+	    + " with a different type (" + type + " instead of " + probes.get(prev.m_Probe) + "), which is not supported."
+	    + "\nUse a different name instead.");
+    }
+  }
+
+  /**
+   * Stores the type of the variable under its name.
+   *
+   * @param probes	the types to add to
+   * @param trees	the trees of the analyzed code
+   * @param unit	the compilation unit
+   * @param tree	the variable
+   */
+  protected void addProbe(Map<String,TypeMirror> probes, Trees trees, CompilationUnitTree unit, Tree tree) {
+    Element	element;
+
+    element = trees.getElement(TreePath.getPath(unit, tree));
+    if (element != null)
+      probes.put(((VariableTree) tree).getName().toString(), element.asType());
+  }
+
+  /**
+   * Checks whether the type can be written down in Java, i.e., whether it
+   * can be used for declaring a field.
+   *
+   * @param type	the type to check
+   * @return		true if it can be declared
+   */
+  protected boolean isDenotable(TypeMirror type) {
+    DeclaredType	declared;
+    WildcardType	wildcard;
+    NestingKind		nesting;
+
+    if (type.getKind().isPrimitive())
+      return true;
+
+    switch (type.getKind()) {
+      case ARRAY:
+	return isDenotable(((ArrayType) type).getComponentType());
+
+      case DECLARED:
+	declared = (DeclaredType) type;
+	nesting  = ((TypeElement) declared.asElement()).getNestingKind();
+	if ((nesting == NestingKind.ANONYMOUS) || (nesting == NestingKind.LOCAL))
+	  return false;
+	for (TypeMirror arg: declared.getTypeArguments()) {
+	  if (!isDenotable(arg))
+	    return false;
+	}
+	return true;
+
+      case WILDCARD:
+	wildcard = (WildcardType) type;
+	return ((wildcard.getExtendsBound() == null) || isDenotable(wildcard.getExtendsBound()))
+	  && ((wildcard.getSuperBound() == null) || isDenotable(wildcard.getSuperBound()));
+
+      default:
+	// type variables, intersections, null
+	return false;
+    }
+  }
+
+  /**
+   * Returns the access modifier to add to a member in library mode.
+   *
+   * @param modifiers	the modifiers of the member
+   * @return		"public " if library and no access modifier present, otherwise empty string
+   */
+  protected String access(Set<Modifier> modifiers) {
+    if (!m_Library)
+      return "";
+    if (modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.PROTECTED) || modifiers.contains(Modifier.PRIVATE))
+      return "";
+    return "public ";
+  }
+
+  /**
+   * Checks whether all the members of the wrapper class are declarations
+   * (variables, methods, types), ie the snippet is not a statement.
+   *
+   * @param cls		the wrapper class to check
+   * @return		true if only declarations
+   */
+  protected boolean isDeclaration(ClassTree cls) {
+    if (cls.getMembers().isEmpty())
+      return false;
+
+    for (Tree member: cls.getMembers()) {
+      switch (member.getKind()) {
+	case VARIABLE:
+	case METHOD:
+	case CLASS:
+	case INTERFACE:
+	case ENUM:
+	case ANNOTATION_TYPE:
+	  break;
+	default:
+	  if (!member.getKind().name().equals("RECORD"))
+	    return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Extracts the source code of the tree.
+   *
+   * @param code	the full code
+   * @param unit	the compilation unit
+   * @param positions	the source positions
+   * @param tree	the tree to extract
+   * @param min		the minimum position (start of snippet)
+   * @return		the source code
+   */
+  protected String extract(String code, CompilationUnitTree unit, SourcePositions positions, Tree tree, int min) {
+    int		start;
+    int		end;
+
+    start = (int) positions.getStartPosition(unit, tree);
+    end   = (int) positions.getEndPosition(unit, tree);
+
+    return code.substring(Math.max(min, start), end);
+  }
+
+  /**
+   * Indents all lines of the code.
+   *
+   * @param code	the code to indent
+   * @param indent	the indentation to use
+   * @return		the indented code
+   */
+  protected String indent(String code, String indent) {
+    return indent + code.replace("\n", "\n" + indent);
+  }
+
+  /**
+   * Compiles the script into a jar with the generated class as main class.
+   *
+   * @param code	the script to compile
+   * @param jar		the jar to generate
+   * @return		null if successful, otherwise error message
+   */
+  public String compile(String code, File jar) {
+    String					source;
+    JavaCompiler				compiler;
+    MemoryFileManager				fileManager;
+    DiagnosticCollector<JavaFileObject>		diagnostics;
+    List<String>				options;
+    Boolean					success;
+    StringBuilder				errors;
+    Manifest					manifest;
+
+    try {
+      source = generate(code);
+    }
+    catch (Exception e) {
+      return "Failed to convert script: " + e.getMessage();
+    }
+
+    compiler    = ToolProvider.getSystemJavaCompiler();
+    diagnostics = new DiagnosticCollector<>();
+    fileManager = new MemoryFileManager(compiler.getStandardFileManager(diagnostics, null, null));
+    options     = new ArrayList<>();
+    options.add("-classpath");
+    options.add(getActualClassPath());
+    options.addAll(m_CompilerFlags);
+    success = compiler.getTask(
+      null, fileManager, diagnostics, options, null,
+      Collections.singletonList(new MemorySource(getQualifiedClassName(), source))).call();
+
+    if (!success) {
+      errors = new StringBuilder("Failed to compile script:");
+      for (Diagnostic<? extends JavaFileObject> d: diagnostics.getDiagnostics()) {
+	if (d.getKind() == Diagnostic.Kind.ERROR)
+	  errors.append("\n").append("line ").append(d.getLineNumber()).append(": ").append(d.getMessage(null));
+      }
+      errors.append("\n\nGenerated code:\n").append(source);
+      return errors.toString();
+    }
+
+    manifest = JarUtils.newManifest();
+    if (!m_Library)
+      manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, getQualifiedClassName());
+
+    return JarUtils.writeJarMsg(jar, manifest, fileManager.getEntries());
+  }
+}
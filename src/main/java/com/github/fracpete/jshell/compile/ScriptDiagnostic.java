@@ -0,0 +1,138 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptDiagnostic.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.compile;
+
+import java.io.Serializable;
+
+/**
+ * Diagnostic for a snippet of a script, eg a compilation error.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see PreflightCheck
+ */
+public class ScriptDiagnostic
+  implements Serializable {
+
+  /** the line (0-based) in the script. */
+  protected int m_Line;
+
+  /** the column (0-based) in the line. */
+  protected int m_Column;
+
+  /** the message. */
+  protected String m_Message;
+
+  /** whether it is an error. */
+  protected boolean m_Error;
+
+  /** the snippet the diagnostic belongs to. */
+  protected ScriptSnippet m_Snippet;
+
+  /**
+   * Initializes the diagnostic.
+   *
+   * @param snippet	the snippet the diagnostic belongs to
+   * @param position	the position (0-based) in the snippet, -1 if not available
+   * @param message	the message
+   * @param error	whether it is an error
+   */
+  public ScriptDiagnostic(ScriptSnippet snippet, int position, String message, boolean error) {
+    String	source;
+    int		i;
+
+    m_Snippet = snippet;
+    m_Message = message;
+    m_Error   = error;
+    m_Line    = snippet.getLine();
+    m_Column  = -1;
+    if (position >= 0) {
+      source   = snippet.getSource();
+      m_Column = 0;
+      for (i = 0; (i < position) && (i < source.length()); i++) {
+	if (source.charAt(i) == '\n') {
+	  m_Line++;
+	  m_Column = 0;
+	}
+	else {
+	  m_Column++;
+	}
+      }
+    }
+  }
+
+  /**
+   * Returns the line in the script.
+   *
+   * @return		the line (0-based)
+   */
+  public int getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Returns the column in the line.
+   *
+   * @return		the column (0-based), -1 if not available
+   */
+  public int getColumn() {
+    return m_Column;
+  }
+
+  /**
+   * Returns the message.
+   *
+   * @return		the message
+   */
+  public String getMessage() {
+    return m_Message;
+  }
+
+  /**
+   * Returns whether it is an error.
+   *
+   * @return		true if error
+   */
+  public boolean isError() {
+    return m_Error;
+  }
+
+  /**
+   * Returns the snippet the diagnostic belongs to.
+   *
+   * @return		the snippet
+   */
+  public ScriptSnippet getSnippet() {
+    return m_Snippet;
+  }
+
+  /**
+   * Returns a string representation of the diagnostic, with 1-based line
+   * and column.
+   *
+   * @return		the representation
+   */
+  @Override
+  public String toString() {
+    return "line " + (m_Line + 1) + ((m_Column == -1) ? "" : ", column " + (m_Column + 1)) + ": " + (m_Error ? "" : "warning: ") + m_Message;
+  }
+}
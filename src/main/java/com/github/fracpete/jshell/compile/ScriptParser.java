@@ -0,0 +1,135 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptParser.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.compile;
+
+import jdk.jshell.JShell;
+import jdk.jshell.SourceCodeAnalysis;
+import jdk.jshell.SourceCodeAnalysis.CompletionInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a jshell script into its snippets, the same way the jshell tool
+ * does it: line by line, until a snippet is complete.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptParser {
+
+  /**
+   * Checks whether the line represents a jshell command (eg /exit).
+   *
+   * @param line	the line to check
+   * @return		true if a command
+   */
+  public static boolean isCommand(String line) {
+    String	trimmed;
+
+    trimmed = line.trim();
+    return trimmed.startsWith("/")
+      && !trimmed.startsWith("//")
+      && !trimmed.startsWith("/*");
+  }
+
+  /**
+   * Splits the script into snippets, using a throw-away local JShell
+   * instance for the analysis.
+   *
+   * @param code	the script to split
+   * @return		the snippets
+   */
+  public static List<ScriptSnippet> parse(String code) {
+    JShell	jshell;
+
+    jshell = JShell.builder().executionEngine("local").build();
+    try {
+      return parse(jshell.sourceCodeAnalysis(), code);
+    }
+    finally {
+      jshell.close();
+    }
+  }
+
+  /**
+   * Splits the script into snippets.
+   *
+   * @param analysis	the source code analysis to use
+   * @param code	the script to split
+   * @return		the snippets
+   */
+  public static List<ScriptSnippet> parse(SourceCodeAnalysis analysis, String code) {
+    List<ScriptSnippet>	result;
+    String[]		lines;
+    StringBuilder	buffer;
+    int			start;
+    int			i;
+    CompletionInfo	info;
+    String		remaining;
+
+    result = new ArrayList<>();
+    lines  = code.split("\r?\n", -1);
+    buffer = new StringBuilder();
+    start  = -1;
+    for (i = 0; i < lines.length; i++) {
+      if ((buffer.length() == 0) && isCommand(lines[i])) {
+	result.add(new ScriptSnippet(lines[i].trim(), i, true));
+	continue;
+      }
+      if ((buffer.length() == 0) && lines[i].trim().isEmpty())
+	continue;
+      if (buffer.length() == 0)
+	start = i;
+      buffer.append(lines[i]).append("\n");
+
+      while (buffer.length() > 0) {
+	info = analysis.analyzeCompletion(buffer.toString());
+	switch (info.completeness()) {
+	  case COMPLETE:
+	  case COMPLETE_WITH_SEMI:
+	  case UNKNOWN:
+	    result.add(new ScriptSnippet(info.source().trim(), start, false));
+	    remaining = info.remaining();
+	    buffer.setLength(0);
+	    if (!remaining.trim().isEmpty()) {
+	      buffer.append(remaining);
+	      start = i;
+	    }
+	    break;
+	  case EMPTY:
+	    buffer.setLength(0);
+	    break;
+	  default:
+	    // incomplete, needs more lines
+	    info = null;
+	}
+	if (info == null)
+	  break;
+      }
+    }
+
+    // left-over incomplete snippet, let jshell report the error
+    if (buffer.toString().trim().length() > 0)
+      result.add(new ScriptSnippet(buffer.toString(), start, false));
+
+    return result;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptSnippet.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.compile;
+
+import java.io.Serializable;
+
+/**
+ * A single snippet or jshell command of a script.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptSnippet
+  implements Serializable {
+
+  /** the source code of the snippet. */
+  protected String m_Source;
+
+  /** the line (0-based) the snippet starts on. */
+  protected int m_Line;
+
+  /** whether the snippet is a jshell command (eg /exit). */
+  protected boolean m_Command;
+
+  /**
+   * Initializes the snippet.
+   *
+   * @param source	the source code
+   * @param line	the line the snippet starts on (0-based)
+   * @param command	whether the snippet is a jshell command
+   */
+  public ScriptSnippet(String source, int line, boolean command) {
+    m_Source  = source;
+    m_Line    = line;
+    m_Command = command;
+  }
+
+  /**
+   * Returns the source code.
+   *
+   * @return		the source
+   */
+  public String getSource() {
+    return m_Source;
+  }
+
+  /**
+   * Returns the line the snippet starts on.
+   *
+   * @return		the line (0-based)
+   */
+  public int getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Returns whether this is a jshell command rather than Java code.
+   *
+   * @return		true if command
+   */
+  public boolean isCommand() {
+    return m_Command;
+  }
+
+  /**
+   * Returns a string representation of the snippet.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return (m_Command ? "command" : "snippet") + "@" + m_Line + ": " + m_Source;
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ClassPathCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.deps;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the classpaths resolved for dependency directives, both in memory
+ * and on disk, keyed by the fingerprint of the declared dependencies and
+ * the repository. Resolution only happens again if the declaration changes
+ * or a jar has disappeared from the repository.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ClassPathCache {
+
+  /** the default directory for the cached classpaths. */
+  public final static File DEFAULT_DIR = new File(System.getProperty("user.home") + File.separator + ".jshell-scripting" + File.separator + "classpaths");
+
+  /** the singleton. */
+  protected static ClassPathCache m_Singleton;
+
+  /** the directory to store the classpaths in. */
+  protected File m_Directory;
+
+  /** the resolver to use. */
+  protected DependencyResolver m_Resolver;
+
+  /** the resolved classpaths (fingerprint / jars). */
+  protected Map<String,List<File>> m_ClassPaths;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param dir		the directory to store the classpaths in
+   * @param resolver	the resolver to use
+   */
+  public ClassPathCache(File dir, DependencyResolver resolver) {
+    m_Directory  = dir;
+    m_Resolver   = resolver;
+    m_ClassPaths = new HashMap<>();
+  }
+
+  /**
+   * Returns the directory the classpaths are stored in.
+   *
+   * @return		the directory
+   */
+  public File getDirectory() {
+    return m_Directory;
+  }
+
+  /**
+   * Returns the resolver in use.
+   *
+   * @return		the resolver
+   */
+  public DependencyResolver getResolver() {
+    return m_Resolver;
+  }
+
+  /**
+   * Computes the fingerprint for the dependencies.
+   *
+   * @param dependencies	the dependencies
+   * @return		the fingerprint (hex)
+   */
+  public String getFingerprint(List<Dependency> dependencies) {
+    MessageDigest	digest;
+    byte[]		hash;
+    StringBuilder	result;
+    int			i;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (Exception e) {
+      throw new IllegalStateException("SHA-256 not available!", e);
+    }
+    digest.update(m_Resolver.getRepository().getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+    for (Dependency dep: dependencies) {
+      digest.update((byte) 0);
+      digest.update(dep.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    hash   = digest.digest();
+    result = new StringBuilder();
+    for (i = 0; i < 8; i++)
+      result.append(String.format("%02x", hash[i]));
+
+    return result.toString();
+  }
+
+  /**
+   * Checks whether all the jars are present.
+   *
+   * @param jars	the jars to check
+   * @return		true if all present
+   */
+  protected boolean isValid(List<File> jars) {
+    for (File jar: jars) {
+      if (!jar.exists())
+	return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the jars for the dependencies, resolving them if necessary.
+   *
+   * @param dependencies	the dependencies
+   * @return		the jars, in classpath order
+   * @throws Exception	if resolution fails
+   */
+  public synchronized List<File> getJars(List<Dependency> dependencies) throws Exception {
+    List<File>		result;
+    String		fingerprint;
+    File		file;
+    File		tmpFile;
+    List<String>	lines;
+
+    fingerprint = getFingerprint(dependencies);
+    result      = m_ClassPaths.get(fingerprint);
+    if ((result != null) && isValid(result))
+      return result;
+
+    // resolved by a previous session?
+    file = new File(m_Directory, fingerprint + ".cp");
+    if (file.exists()) {
+      result = new ArrayList<>();
+      for (String line: Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+	if (!line.isEmpty())
+	  result.add(new File(line));
+      }
+      if (!isValid(result))
+	result = null;
+    }
+    else {
+      result = null;
+    }
+
+    if (result == null) {
+      result = m_Resolver.resolve(dependencies);
+      if (!m_Directory.exists() && !m_Directory.mkdirs())
+	throw new IllegalStateException("Failed to create directory for classpaths: " + m_Directory);
+      lines = new ArrayList<>();
+      for (File jar: result)
+	lines.add(jar.getAbsolutePath());
+      tmpFile = new File(file.getAbsolutePath() + ".tmp");
+      Files.write(tmpFile.toPath(), lines, StandardCharsets.UTF_8);
+      try {
+	Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+	Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    m_ClassPaths.put(fingerprint, result);
+
+    return result;
+  }
+
+  /**
+   * Returns the classpath for the dependencies, resolving them if necessary.
+   *
+   * @param dependencies	the dependencies
+   * @return		the classpath
+   * @throws Exception	if resolution fails
+   */
+  public String getClassPath(List<Dependency> dependencies) throws Exception {
+    StringBuilder	result;
+
+    result = new StringBuilder();
+    for (File jar: getJars(dependencies)) {
+      if (result.length() > 0)
+	result.append(File.pathSeparator);
+      result.append(jar.getAbsolutePath());
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Removes all cached classpaths.
+   */
+  public synchronized void clear() {
+    File[]	files;
+
+    m_ClassPaths.clear();
+    files = m_Directory.listFiles();
+    if (files == null)
+      return;
+    for (File file: files) {
+      if (file.getName().endsWith(".cp"))
+	file.delete();
+    }
+  }
+
+  /**
+   * Returns the singleton, using {@link #DEFAULT_DIR} and
+   * {@link DependencyResolver#DEFAULT_REPOSITORY}.
+   *
+   * @return		the singleton
+   */
+  public static synchronized ClassPathCache getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new ClassPathCache(DEFAULT_DIR, new DependencyResolver());
+    return m_Singleton;
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Dependency.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.deps;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Maven coordinates of a dependency: groupId:artifactId:version[:classifier].
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Dependency
+  implements Serializable {
+
+  /** the group ID. */
+  protected String m_GroupId;
+
+  /** the artifact ID. */
+  protected String m_ArtifactId;
+
+  /** the version. */
+  protected String m_Version;
+
+  /** the classifier, null if none. */
+  protected String m_Classifier;
+
+  /**
+   * Initializes the dependency.
+   *
+   * @param groupId	the group ID
+   * @param artifactId	the artifact ID
+   * @param version	the version
+   * @param classifier	the classifier, null if none
+   */
+  public Dependency(String groupId, String artifactId, String version, String classifier) {
+    m_GroupId    = groupId;
+    m_ArtifactId = artifactId;
+    m_Version    = version;
+    m_Classifier = ((classifier == null) || classifier.isEmpty()) ? null : classifier;
+  }
+
+  /**
+   * Returns the group ID.
+   *
+   * @return		the ID
+   */
+  public String getGroupId() {
+    return m_GroupId;
+  }
+
+  /**
+   * Returns the artifact ID.
+   *
+   * @return		the ID
+   */
+  public String getArtifactId() {
+    return m_ArtifactId;
+  }
+
+  /**
+   * Returns the version.
+   *
+   * @return		the version
+   */
+  public String getVersion() {
+    return m_Version;
+  }
+
+  /**
+   * Returns the classifier.
+   *
+   * @return		the classifier, null if none
+   */
+  public String getClassifier() {
+    return m_Classifier;
+  }
+
+  /**
+   * Returns the key for conflict resolution, ie the coordinates without
+   * the version.
+   *
+   * @return		the key
+   */
+  public String getKey() {
+    return m_GroupId + ":" + m_ArtifactId + ((m_Classifier == null) ? "" : ":" + m_Classifier);
+  }
+
+  /**
+   * Returns the directory of the artifact in the repository.
+   *
+   * @param repository	the repository
+   * @return		the directory
+   */
+  public File getDirectory(File repository) {
+    return new File(repository, m_GroupId.replace('.', File.separatorChar) + File.separator + m_ArtifactId + File.separator + m_Version);
+  }
+
+  /**
+   * Returns the jar of the artifact in the repository.
+   *
+   * @param repository	the repository
+   * @return		the jar
+   */
+  public File getJar(File repository) {
+    return new File(getDirectory(repository), m_ArtifactId + "-" + m_Version + ((m_Classifier == null) ? "" : "-" + m_Classifier) + ".jar");
+  }
+
+  /**
+   * Returns the POM of the artifact in the repository.
+   *
+   * @param repository	the repository
+   * @return		the POM
+   */
+  public File getPom(File repository) {
+    return new File(getDirectory(repository), m_ArtifactId + "-" + m_Version + ".pom");
+  }
+
+  /**
+   * Parses the coordinates (groupId:artifactId:version[:classifier]).
+   *
+   * @param coordinates	the coordinates to parse
+   * @return		the dependency
+   * @throws IllegalArgumentException	if invalid coordinates
+   */
+  public static Dependency parse(String coordinates) {
+    String[]	parts;
+
+    parts = coordinates.trim().split(":");
+    if ((parts.length < 3) || (parts.length > 4))
+      throw new IllegalArgumentException("Expected groupId:artifactId:version[:classifier], got: " + coordinates);
+    for (String part: parts) {
+      if (part.isEmpty())
+	throw new IllegalArgumentException("Empty element in coordinates: " + coordinates);
+    }
+
+    return new Dependency(parts[0], parts[1], parts[2], (parts.length == 4) ? parts[3] : null);
+  }
+
+  /**
+   * Compares the dependency with the other object.
+   *
+   * @param obj		the object to compare with
+   * @return		true if the same coordinates
+   */
+  @Override
+  public boolean equals(Object obj) {
+    return (obj instanceof Dependency) && toString().equals(obj.toString());
+  }
+
+  /**
+   * Returns the hashcode of the coordinates.
+   *
+   * @return		the hashcode
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(m_GroupId, m_ArtifactId, m_Version, m_Classifier);
+  }
+
+  /**
+   * Returns the coordinates.
+   *
+   * @return		the coordinates
+   */
+  @Override
+  public String toString() {
+    return m_GroupId + ":" + m_ArtifactId + ":" + m_Version + ((m_Classifier == null) ? "" : ":" + m_Classifier);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DependencyDirective.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.deps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the dependency directives in the header of a script, ie the
+ * leading comment lines of the form:
+ * <pre>
+ * //DEPS groupId:artifactId:version[:classifier] [...]
+ * </pre>
+ * Multiple coordinates per line get separated by blanks or commas.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class DependencyDirective {
+
+  /** the prefix of the directive. */
+  public final static String PREFIX = "//DEPS";
+
+  /**
+   * Returns the header lines of the script, ie the leading blank and
+   * comment lines.
+   *
+   * @param code	the script
+   * @return		the lines
+   */
+  protected static List<String> header(String code) {
+    List<String>	result;
+    String		line;
+    int			start;
+    int			end;
+
+    result = new ArrayList<>();
+    start  = 0;
+    while (start < code.length()) {
+      end = code.indexOf('\n', start);
+      if (end == -1)
+	end = code.length();
+      line  = code.substring(start, end).trim();
+      start = end + 1;
+      if (!line.isEmpty() && !line.startsWith("//"))
+	break;
+      result.add(line);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns whether the script declares any dependencies.
+   *
+   * @param code	the script
+   * @return		true if at least one directive
+   */
+  public static boolean hasDirective(String code) {
+    for (String line: header(code)) {
+      if (isDirective(line))
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether the line is a directive.
+   *
+   * @param line	the (trimmed) line to check
+   * @return		true if directive
+   */
+  protected static boolean isDirective(String line) {
+    return line.startsWith(PREFIX) && ((line.length() == PREFIX.length()) || Character.isWhitespace(line.charAt(PREFIX.length())));
+  }
+
+  /**
+   * Parses the dependencies declared in the header of the script.
+   *
+   * @param code	the script
+   * @return		the dependencies, in the order of declaration
+   * @throws IllegalArgumentException	if invalid coordinates encountered
+   */
+  public static List<Dependency> parse(String code) {
+    List<Dependency>	result;
+    Dependency		dep;
+
+    result = new ArrayList<>();
+    for (String line: header(code)) {
+      if (!isDirective(line))
+	continue;
+      for (String coordinates: line.substring(PREFIX.length()).trim().split("[\\s,]+")) {
+	if (coordinates.isEmpty())
+	  continue;
+	dep = Dependency.parse(coordinates);
+	if (!result.contains(dep))
+	  result.add(dep);
+      }
+    }
+
+    return result;
+  }
+}
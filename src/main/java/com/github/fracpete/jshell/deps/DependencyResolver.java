@@ -0,0 +1,482 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DependencyResolver.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.deps;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves dependencies and their transitive dependencies against a local
+ * Maven repository, without any network access. Only the compile and
+ * runtime scopes are followed and conflicts get resolved like Maven does
+ * (nearest declaration wins). The POMs are evaluated in a simplified
+ * fashion: parents, properties, dependency management (incl imported BOMs)
+ * and exclusions are supported, profiles and version ranges are not.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class DependencyResolver
+  implements Serializable {
+
+  /** the default local repository. */
+  public final static File DEFAULT_REPOSITORY = new File(System.getProperty("maven.repo.local", System.getProperty("user.home") + File.separator + ".m2" + File.separator + "repository"));
+
+  /**
+   * A dependency as declared in a POM.
+   */
+  protected static class Declaration {
+
+    /** the group ID. */
+    public String groupId;
+
+    /** the artifact ID. */
+    public String artifactId;
+
+    /** the version, null if managed. */
+    public String version;
+
+    /** the classifier, null if none. */
+    public String classifier;
+
+    /** the type. */
+    public String type;
+
+    /** the scope, null for compile. */
+    public String scope;
+
+    /** whether optional. */
+    public boolean optional;
+
+    /** the exclusions (groupId:artifactId). */
+    public Set<String> exclusions;
+
+    /**
+     * Returns the key for looking up managed versions.
+     *
+     * @return		the key
+     */
+    public String getKey() {
+      return groupId + ":" + artifactId + ((classifier == null) ? "" : ":" + classifier);
+    }
+  }
+
+  /**
+   * The relevant parts of an (effective) POM.
+   */
+  protected static class Pom {
+
+    /** the properties. */
+    public Map<String,String> properties = new HashMap<>();
+
+    /** the dependency management (key / declaration). */
+    public Map<String,Declaration> management = new LinkedHashMap<>();
+
+    /** the dependencies. */
+    public List<Declaration> dependencies = new ArrayList<>();
+  }
+
+  /**
+   * A dependency to resolve.
+   */
+  protected static class Pending {
+
+    /** the dependency. */
+    public Dependency dependency;
+
+    /** the type. */
+    public String type;
+
+    /** the exclusions inherited from the path to the dependency. */
+    public Set<String> exclusions;
+
+    /**
+     * Initializes the pending dependency.
+     *
+     * @param dependency	the dependency
+     * @param type		the type
+     * @param exclusions	the exclusions
+     */
+    public Pending(Dependency dependency, String type, Set<String> exclusions) {
+      this.dependency = dependency;
+      this.type       = type;
+      this.exclusions = exclusions;
+    }
+  }
+
+  /** for properties. */
+  protected final static Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)\\}");
+
+  /** the local repository. */
+  protected File m_Repository;
+
+  /** the POMs loaded so far (groupId:artifactId:version / POM). */
+  protected transient Map<String,Pom> m_Poms;
+
+  /**
+   * Initializes the resolver with the default repository.
+   *
+   * @see		#DEFAULT_REPOSITORY
+   */
+  public DependencyResolver() {
+    this(DEFAULT_REPOSITORY);
+  }
+
+  /**
+   * Initializes the resolver.
+   *
+   * @param repository	the local repository
+   */
+  public DependencyResolver(File repository) {
+    m_Repository = repository;
+  }
+
+  /**
+   * Returns the local repository.
+   *
+   * @return		the repository
+   */
+  public File getRepository() {
+    return m_Repository;
+  }
+
+  /**
+   * Resolves the dependencies and their transitive dependencies.
+   *
+   * @param dependencies	the dependencies to resolve
+   * @return		the jars, in classpath order
+   * @throws Exception	if resolution fails, eg artifacts not present in the repository
+   */
+  public synchronized List<File> resolve(List<Dependency> dependencies) throws Exception {
+    List<File>		result;
+    Set<String>		resolved;
+    Deque<Pending>		queue;
+    Pending		node;
+    Dependency		dep;
+    File		jar;
+    Pom			pom;
+    String		version;
+    Set<String>		exclusions;
+
+    m_Poms   = new HashMap<>();
+    result   = new ArrayList<>();
+    resolved = new HashSet<>();
+    queue    = new ArrayDeque<>();
+    for (Dependency d: dependencies)
+      queue.add(new Pending(d, "jar", Collections.emptySet()));
+
+    while (!queue.isEmpty()) {
+      node = queue.poll();
+      dep  = node.dependency;
+      // nearest wins
+      if (!resolved.add(dep.getKey()))
+	continue;
+      if (dep.getVersion().startsWith("[") || dep.getVersion().startsWith("("))
+	throw new IllegalStateException("Version ranges are not supported: " + dep);
+
+      if (!node.type.equals("pom")) {
+	jar = dep.getJar(m_Repository);
+	if (!jar.exists())
+	  throw new FileNotFoundException("Artifact " + dep + " not found in local repository: " + jar);
+	result.add(jar);
+      }
+
+      pom = load(dep.getGroupId(), dep.getArtifactId(), dep.getVersion());
+      if (pom == null)
+	continue;
+      for (Declaration decl: pom.dependencies) {
+	if (decl.optional)
+	  continue;
+	if ((decl.scope != null) && !decl.scope.equals("compile") && !decl.scope.equals("runtime"))
+	  continue;
+	if (isExcluded(node.exclusions, decl))
+	  continue;
+	version = decl.version;
+	if ((version == null) && pom.management.containsKey(decl.getKey()))
+	  version = pom.management.get(decl.getKey()).version;
+	if (version == null)
+	  throw new IllegalStateException("No version for " + decl.getKey() + " (required by " + dep + ")");
+	exclusions = new HashSet<>(node.exclusions);
+	exclusions.addAll(decl.exclusions);
+	queue.add(new Pending(new Dependency(decl.groupId, decl.artifactId, version, decl.classifier), decl.type, exclusions));
+      }
+    }
+    m_Poms = null;
+
+    return result;
+  }
+
+  /**
+   * Checks whether the declaration is excluded.
+   *
+   * @param exclusions	the exclusions (groupId:artifactId, with * as wildcard)
+   * @param decl	the declaration to check
+   * @return		true if excluded
+   */
+  protected boolean isExcluded(Set<String> exclusions, Declaration decl) {
+    String[]	parts;
+
+    for (String exclusion: exclusions) {
+      parts = exclusion.split(":");
+      if ((parts.length == 2)
+	&& (parts[0].equals("*") || parts[0].equals(decl.groupId))
+	&& (parts[1].equals("*") || parts[1].equals(decl.artifactId)))
+	return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Loads the (effective) POM of the artifact.
+   *
+   * @param groupId	the group ID
+   * @param artifactId	the artifact ID
+   * @param version	the version
+   * @return		the POM, null if not present in the repository
+   * @throws Exception	if parsing fails
+   */
+  protected Pom load(String groupId, String artifactId, String version) throws Exception {
+    Pom				result;
+    String			key;
+    File			file;
+    DocumentBuilderFactory	factory;
+    DocumentBuilder		builder;
+    Document			doc;
+    Element			project;
+    Element			parentEl;
+    Element			element;
+    Pom				parent;
+    Pom				imported;
+    Declaration			decl;
+    List<Declaration>		imports;
+
+    key = groupId + ":" + artifactId + ":" + version;
+    if (m_Poms.containsKey(key))
+      return m_Poms.get(key);
+
+    file = new Dependency(groupId, artifactId, version, null).getPom(m_Repository);
+    if (!file.exists()) {
+      m_Poms.put(key, null);
+      return null;
+    }
+    // guard against cycles
+    m_Poms.put(key, null);
+
+    factory = DocumentBuilderFactory.newInstance();
+    factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    factory.setExpandEntityReferences(false);
+    builder = factory.newDocumentBuilder();
+    doc     = builder.parse(file);
+    project = doc.getDocumentElement();
+    result  = new Pom();
+
+    // parent
+    parentEl = child(project, "parent");
+    parent   = null;
+    if (parentEl != null)
+      parent = load(text(parentEl, "groupId"), text(parentEl, "artifactId"), text(parentEl, "version"));
+    if (parent != null) {
+      result.properties.putAll(parent.properties);
+      result.management.putAll(parent.management);
+      result.dependencies.addAll(parent.dependencies);
+    }
+
+    // properties
+    element = child(project, "properties");
+    if (element != null) {
+      for (Element prop: children(element, null))
+	result.properties.put(prop.getTagName(), prop.getTextContent().trim());
+    }
+    result.properties.put("project.groupId", groupId);
+    result.properties.put("project.artifactId", artifactId);
+    result.properties.put("project.version", version);
+    result.properties.put("pom.version", version);
+    if (parentEl != null) {
+      result.properties.put("project.parent.groupId", text(parentEl, "groupId"));
+      result.properties.put("project.parent.version", text(parentEl, "version"));
+    }
+
+    // dependency management
+    imports = new ArrayList<>();
+    for (Element dep: children(child(child(project, "dependencyManagement"), "dependencies"), "dependency")) {
+      decl = declaration(dep, result.properties);
+      if ("import".equals(decl.scope) && decl.type.equals("pom"))
+	imports.add(decl);
+      else
+	result.management.put(decl.getKey(), decl);
+    }
+    for (Declaration imp: imports) {
+      imported = load(imp.groupId, imp.artifactId, imp.version);
+      if (imported != null) {
+	for (String managed: imported.management.keySet())
+	  result.management.putIfAbsent(managed, imported.management.get(managed));
+      }
+    }
+
+    // dependencies
+    for (Element dep: children(child(project, "dependencies"), "dependency"))
+      result.dependencies.add(declaration(dep, result.properties));
+
+    m_Poms.put(key, result);
+
+    return result;
+  }
+
+  /**
+   * Reads the dependency declaration.
+   *
+   * @param element	the dependency element
+   * @param properties	the properties for interpolation
+   * @return		the declaration
+   */
+  protected Declaration declaration(Element element, Map<String,String> properties) {
+    Declaration		result;
+    String		type;
+
+    result            = new Declaration();
+    result.groupId    = interpolate(text(element, "groupId"), properties);
+    result.artifactId = interpolate(text(element, "artifactId"), properties);
+    result.version    = interpolate(text(element, "version"), properties);
+    result.classifier = interpolate(text(element, "classifier"), properties);
+    result.scope      = interpolate(text(element, "scope"), properties);
+    result.optional   = "true".equals(interpolate(text(element, "optional"), properties));
+    type              = interpolate(text(element, "type"), properties);
+    result.type       = (type == null) ? "jar" : type;
+    if (result.type.equals("test-jar")) {
+      result.type       = "jar";
+      result.classifier = "tests";
+    }
+    result.exclusions = new HashSet<>();
+    for (Element exclusion: children(child(element, "exclusions"), "exclusion"))
+      result.exclusions.add(text(exclusion, "groupId") + ":" + text(exclusion, "artifactId"));
+
+    return result;
+  }
+
+  /**
+   * Replaces the properties (${...}) in the string.
+   *
+   * @param s		the string to process, can be null
+   * @param properties	the properties
+   * @return		the processed string, null if input null
+   */
+  protected String interpolate(String s, Map<String,String> properties) {
+    Matcher		matcher;
+    StringBuffer	result;
+    String		value;
+    int			i;
+
+    if (s == null)
+      return null;
+
+    // properties can refer to other properties
+    for (i = 0; (i < 10) && s.contains("${"); i++) {
+      matcher = PROPERTY.matcher(s);
+      result  = new StringBuffer();
+      while (matcher.find()) {
+	value = properties.get(matcher.group(1));
+	matcher.appendReplacement(result, Matcher.quoteReplacement((value == null) ? matcher.group() : value));
+      }
+      matcher.appendTail(result);
+      if (result.toString().equals(s))
+	break;
+      s = result.toString();
+    }
+
+    return s;
+  }
+
+  /**
+   * Returns the first child element with the specified name.
+   *
+   * @param parent	the parent, can be null
+   * @param name	the name of the child
+   * @return		the child, null if not found
+   */
+  protected Element child(Element parent, String name) {
+    List<Element>	children;
+
+    children = children(parent, name);
+    return children.isEmpty() ? null : children.get(0);
+  }
+
+  /**
+   * Returns the child elements with the specified name.
+   *
+   * @param parent	the parent, can be null
+   * @param name	the name of the children, null for all
+   * @return		the children
+   */
+  protected List<Element> children(Element parent, String name) {
+    List<Element>	result;
+    NodeList		nodes;
+    int			i;
+
+    result = new ArrayList<>();
+    if (parent == null)
+      return result;
+    nodes = parent.getChildNodes();
+    for (i = 0; i < nodes.getLength(); i++) {
+      if (nodes.item(i).getNodeType() != Node.ELEMENT_NODE)
+	continue;
+      if ((name == null) || ((Element) nodes.item(i)).getTagName().equals(name))
+	result.add((Element) nodes.item(i));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the trimmed text of the child element.
+   *
+   * @param parent	the parent
+   * @param name	the name of the child
+   * @return		the text, null if no such child
+   */
+  protected String text(Element parent, String name) {
+    Element	child;
+
+    child = child(parent, name);
+    return (child == null) ? null : child.getTextContent().trim();
+  }
+}
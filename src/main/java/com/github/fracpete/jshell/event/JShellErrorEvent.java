@@ -21,8 +21,11 @@
 package com.github.fracpete.jshell.event;
 
 import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.compile.ScriptDiagnostic;
 
+import java.util.ArrayList;
 import java.util.EventObject;
+import java.util.List;
 
 /**
  * Event that gets sent if an error occurred during JShell execution.
@@ -38,6 +41,9 @@ public class JShellErrorEvent
   /** the optional exception. */
   protected Throwable m_Exception;
 
+  /** the diagnostics of the script, if any. */
+  protected List<ScriptDiagnostic> m_Diagnostics;
+
   /**
    * Initializes the error message with no exception.
    *
@@ -56,9 +62,24 @@ public class JShellErrorEvent
    * @param exception	the optional execption
    */
   public JShellErrorEvent(JShellExec source, String message, Throwable exception) {
+    this(source, message, exception, null);
+  }
+
+  /**
+   * Initializes the error message with the diagnostics of the script.
+   *
+   * @param source	the source of the error
+   * @param message	the error message
+   * @param exception	the optional execption
+   * @param diagnostics	the diagnostics, can be null
+   */
+  public JShellErrorEvent(JShellExec source, String message, Throwable exception, List<ScriptDiagnostic> diagnostics) {
     super(source);
-    m_Message   = message;
-    m_Exception = exception;
+    m_Message     = message;
+    m_Exception   = exception;
+    m_Diagnostics = new ArrayList<>();
+    if (diagnostics != null)
+      m_Diagnostics.addAll(diagnostics);
   }
 
   /**
@@ -88,12 +109,30 @@ public class JShellErrorEvent
     return m_Exception;
   }
 
+  /**
+   * Checks whether diagnostics of the script are available.
+   *
+   * @return		true if diagnostics available
+   */
+  public boolean hasDiagnostics() {
+    return !m_Diagnostics.isEmpty();
+  }
+
+  /**
+   * Returns the diagnostics of the script.
+   *
+   * @return		the diagnostics, empty if none available
+   */
+  public List<ScriptDiagnostic> getDiagnostics() {
+    return m_Diagnostics;
+  }
+
   /**
    * Returns a string representation of the event.
    *
    * @return		the representation
    */
   public String toString() {
-    return getSource() + ", message=" + m_Message + ", exception=" + m_Exception;
+    return getSource() + ", message=" + m_Message + ", exception=" + m_Exception + ", diagnostics=" + m_Diagnostics.size();
   }
 }
@@ -44,6 +44,7 @@ public class JShellExecEvent
     SCRIPT_RUN_SUCCESS,
     SCRIPT_STOP,
     SCRIPT_FINISHED,
+    PROCESSES_LEAKED,
     OUTPUT_CLEARED,
     OUTPUT_SAVE_SUCESS,
     OUTPUT_SAVE_FAILURE,
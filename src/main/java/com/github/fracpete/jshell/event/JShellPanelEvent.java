@@ -38,9 +38,12 @@ public class JShellPanelEvent
     SCRIPT_LOAD_FAILURE,
     SCRIPT_SAVE_SUCCESS,
     SCRIPT_SAVE_FAILURE,
+    SCRIPT_EXPORT_SUCCESS,
+    SCRIPT_EXPORT_FAILURE,
     OUTPUT_CLEARED,
     OUTPUT_SAVE_SUCESS,
     OUTPUT_SAVE_FAILURE,
+    SCRIPT_FILE_CHANGED,
   }
 
   /** the event type. */
@@ -0,0 +1,193 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellScheduleEvent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.event;
+
+import com.github.fracpete.jshell.schedule.ScheduledScript;
+import com.github.fracpete.jshell.schedule.ScriptScheduler;
+
+import java.util.EventObject;
+
+/**
+ * Event that gets sent by the {@link ScriptScheduler} for each tick of a
+ * scheduled script.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellScheduleEvent
+  extends EventObject {
+
+  /** the type of event. */
+  public enum EventType {
+    TICK_STARTED,
+    TICK_FINISHED,
+    TICK_FAILED,
+    TICK_SKIPPED,
+    TICK_QUEUED,
+  }
+
+  /** the script. */
+  protected ScheduledScript m_Script;
+
+  /** the event type. */
+  protected EventType m_Type;
+
+  /** the time the tick was scheduled for. */
+  protected long m_Scheduled;
+
+  /** the time the tick started, -1 if not started. */
+  protected long m_Started;
+
+  /** the time the tick finished, -1 if not finished. */
+  protected long m_Finished;
+
+  /** the exit code, -1 if not finished. */
+  protected int m_ExitCode;
+
+  /** the error, null if none. */
+  protected Throwable m_Error;
+
+  /**
+   * Initializes the event.
+   *
+   * @param source	the scheduler
+   * @param script	the script the tick is for
+   * @param type	the event type
+   * @param scheduled	the time the tick was scheduled for (msec since epoch)
+   * @param started	the time the tick started (msec since epoch), -1 if not started
+   * @param finished	the time the tick finished (msec since epoch), -1 if not finished
+   * @param exitCode	the exit code, -1 if not finished
+   * @param error	the error, null if none
+   */
+  public JShellScheduleEvent(ScriptScheduler source, ScheduledScript script, EventType type, long scheduled, long started, long finished, int exitCode, Throwable error) {
+    super(source);
+    m_Script    = script;
+    m_Type      = type;
+    m_Scheduled = scheduled;
+    m_Started   = started;
+    m_Finished  = finished;
+    m_ExitCode  = exitCode;
+    m_Error     = error;
+  }
+
+  /**
+   * Returns the scheduler that sent the event.
+   *
+   * @return		the scheduler
+   */
+  public ScriptScheduler getScheduler() {
+    return (ScriptScheduler) getSource();
+  }
+
+  /**
+   * Returns the script the tick is for.
+   *
+   * @return		the script
+   */
+  public ScheduledScript getScript() {
+    return m_Script;
+  }
+
+  /**
+   * Returns the event type.
+   *
+   * @return		the type
+   */
+  public EventType getType() {
+    return m_Type;
+  }
+
+  /**
+   * Returns the time the tick was scheduled for.
+   *
+   * @return		the time (msec since epoch)
+   */
+  public long getScheduled() {
+    return m_Scheduled;
+  }
+
+  /**
+   * Returns the time the tick started.
+   *
+   * @return		the time (msec since epoch), -1 if not started
+   */
+  public long getStarted() {
+    return m_Started;
+  }
+
+  /**
+   * Returns the time the tick finished.
+   *
+   * @return		the time (msec since epoch), -1 if not finished
+   */
+  public long getFinished() {
+    return m_Finished;
+  }
+
+  /**
+   * Returns the exit code.
+   *
+   * @return		the exit code, -1 if not finished
+   */
+  public int getExitCode() {
+    return m_ExitCode;
+  }
+
+  /**
+   * Returns the error that occurred.
+   *
+   * @return		the error, null if none
+   */
+  public Throwable getError() {
+    return m_Error;
+  }
+
+  /**
+   * Returns how long the tick took.
+   *
+   * @return		the latency in msec, -1 if not finished
+   */
+  public long getLatency() {
+    if ((m_Started == -1) || (m_Finished == -1))
+      return -1;
+    return m_Finished - m_Started;
+  }
+
+  /**
+   * Returns how late the tick started compared to when it was scheduled.
+   *
+   * @return		the drift in msec, -1 if not started
+   */
+  public long getDrift() {
+    if (m_Started == -1)
+      return -1;
+    return m_Started - m_Scheduled;
+  }
+
+  /**
+   * Returns a string representation of the event.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return m_Script.getName() + ": " + m_Type + ", drift=" + getDrift() + "ms, latency=" + getLatency() + "ms, exit=" + m_ExitCode;
+  }
+}
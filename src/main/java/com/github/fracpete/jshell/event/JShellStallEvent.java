@@ -0,0 +1,98 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellStallEvent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.event;
+
+import com.github.fracpete.jshell.JShellPanel;
+import com.github.fracpete.jshell.telemetry.EventThreadStall;
+
+import java.util.EventObject;
+
+/**
+ * Event that gets sent when the event dispatch thread of a
+ * {@link JShellPanel} stalls and when the stall is over.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellStallEvent
+  extends EventObject {
+
+  /** the type of event. */
+  public enum EventType {
+    STALL_STARTED,
+    STALL_FINISHED,
+  }
+
+  /** the event type. */
+  protected EventType m_Type;
+
+  /** the stall. */
+  protected EventThreadStall m_Stall;
+
+  /**
+   * Initializes the event.
+   *
+   * @param source	the panel the stall occurred in
+   * @param stall	the stall
+   */
+  public JShellStallEvent(JShellPanel source, EventThreadStall stall) {
+    super(source);
+    m_Stall = stall;
+    m_Type  = stall.isFinished() ? EventType.STALL_FINISHED : EventType.STALL_STARTED;
+  }
+
+  /**
+   * Returns the JShellPanel the stall occurred in.
+   *
+   * @return		the instance
+   */
+  public JShellPanel getJShellPanel() {
+    return (JShellPanel) getSource();
+  }
+
+  /**
+   * Returns the event type.
+   *
+   * @return		the event type
+   */
+  public EventType getType() {
+    return m_Type;
+  }
+
+  /**
+   * Returns the stall.
+   *
+   * @return		the stall
+   */
+  public EventThreadStall getStall() {
+    return m_Stall;
+  }
+
+  /**
+   * Returns a string representation of the event.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return getSource() + ", type=" + m_Type + ", stall=" + m_Stall;
+  }
+}
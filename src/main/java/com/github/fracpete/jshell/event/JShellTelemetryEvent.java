@@ -0,0 +1,69 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellTelemetryEvent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.event;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.telemetry.TelemetrySample;
+
+import java.util.EventObject;
+
+/**
+ * Event that gets sent at regular intervals with statistics of the JVM
+ * that executes the script.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellTelemetryEvent
+  extends EventObject {
+
+  /** the sample. */
+  protected TelemetrySample m_Sample;
+
+  /**
+   * Initializes the event.
+   *
+   * @param source	the execution the statistics are for
+   * @param sample	the statistics
+   */
+  public JShellTelemetryEvent(JShellExec source, TelemetrySample sample) {
+    super(source);
+    m_Sample = sample;
+  }
+
+  /**
+   * Returns the statistics.
+   *
+   * @return		the sample
+   */
+  public TelemetrySample getSample() {
+    return m_Sample;
+  }
+
+  /**
+   * Returns a string representation of the event.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return getSource() + ", sample=" + m_Sample;
+  }
+}
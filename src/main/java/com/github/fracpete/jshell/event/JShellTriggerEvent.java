@@ -0,0 +1,146 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellTriggerEvent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.event;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.trigger.Trigger;
+import com.github.fracpete.jshell.trigger.TriggerMatcher.Match;
+
+import java.util.EventObject;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event that gets sent if a trigger matched a line of the script output.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellTriggerEvent
+  extends EventObject {
+
+  /** the line that was matched. */
+  protected String m_Line;
+
+  /** whether the line came from stdout or stderr. */
+  protected boolean m_Stdout;
+
+  /** the match. */
+  protected Match m_Match;
+
+  /**
+   * Initializes the event.
+   *
+   * @param source	the execution that generated the output
+   * @param line	the line that was matched
+   * @param stdout	whether stdout or stderr
+   * @param match	the match
+   */
+  public JShellTriggerEvent(JShellExec source, String line, boolean stdout, Match match) {
+    super(source);
+    m_Line   = line;
+    m_Stdout = stdout;
+    m_Match  = match;
+  }
+
+  /**
+   * Returns the trigger that matched.
+   *
+   * @return		the trigger
+   */
+  public Trigger getTrigger() {
+    return m_Match.getTrigger();
+  }
+
+  /**
+   * Returns the line that was matched.
+   *
+   * @return		the line
+   */
+  public String getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Returns whether the line came from stdout or stderr.
+   *
+   * @return		true if stdout
+   */
+  public boolean isStdout() {
+    return m_Stdout;
+  }
+
+  /**
+   * Returns the start position of the match in the line.
+   *
+   * @return		the position
+   */
+  public int getStart() {
+    return m_Match.getStart();
+  }
+
+  /**
+   * Returns the captured groups, with group 0 being the complete match.
+   *
+   * @return		the groups
+   */
+  public List<String> getGroups() {
+    return m_Match.getGroups();
+  }
+
+  /**
+   * Returns the specified group.
+   *
+   * @param index	the index of the group, 0 is the complete match
+   * @return		the group, null if not captured
+   */
+  public String getGroup(int index) {
+    return m_Match.getGroups().get(index);
+  }
+
+  /**
+   * Returns the specified named group.
+   *
+   * @param name	the name of the group
+   * @return		the group, null if not captured
+   */
+  public String getGroup(String name) {
+    return m_Match.getNamedGroups().get(name);
+  }
+
+  /**
+   * Returns the named groups.
+   *
+   * @return		the groups
+   */
+  public Map<String,String> getNamedGroups() {
+    return m_Match.getNamedGroups();
+  }
+
+  /**
+   * Returns a string representation of the event.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return getSource() + ", trigger=" + getTrigger().getName() + ", groups=" + getGroups() + ", stdout=" + m_Stdout;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Daemon.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.examples;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.event.JShellExecEvent;
+import com.github.fracpete.jshell.target.DaemonTarget;
+
+/**
+ * Shows how to execute code via a running jshell daemon, which uses
+ * warm sessions. The daemon must have been started beforehand
+ * (com.github.fracpete.jshell.session.JShellDaemon).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Daemon {
+
+  public static void main(String[] args) {
+    String code = "System.out.println(\"Hello from the daemon!\")";
+    DaemonTarget target = new DaemonTarget();
+    if (!target.isAvailable()) {
+      System.err.println("No daemon running at: " + target.getSocket());
+      return;
+    }
+    JShellExec exec = new JShellExec();
+    exec.setExecutionTarget(target);
+    exec.addJShellExecListener((JShellExecEvent e) -> System.out.println("exec: " + e.getType()));
+    exec.runScript(code);
+  }
+}
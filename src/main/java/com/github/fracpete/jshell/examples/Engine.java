@@ -0,0 +1,47 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Engine.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.examples;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.event.JShellExecEvent;
+import com.github.fracpete.jshell.target.EngineTarget;
+
+/**
+ * Shows how to execute several scripts concurrently in a single, shared
+ * engine JVM.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Engine {
+
+  public static void main(String[] args) {
+    for (int i = 0; i < 5; i++) {
+      String code = "class Counter { static int value = " + i + "; }\n"
+	+ "System.out.println(\"Hello from session with counter \" + Counter.value)";
+      JShellExec exec = new JShellExec();
+      exec.setExecutionTarget(new EngineTarget());
+      exec.addJShellExecListener((JShellExecEvent e) -> System.out.println("exec: " + e.getType()));
+      exec.runScript(code);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Export.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package com.github.fracpete.jshell.examples;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.compile.ScriptCompiler;
+
+import java.io.File;
+
+/**
+ * Shows how to compile a script into a jar and execute it with plain java.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Export {
+
+  public static void main(String[] args) throws Exception {
+    String code = "for (int i = 0; i < 10; i++) System.out.println(i)";
+    File jar = File.createTempFile("jshell-", ".jar");
+    ScriptCompiler compiler = new ScriptCompiler();
+    String msg = compiler.compile(code, jar);
+    if (msg != null) {
+      System.err.println(msg);
+      return;
+    }
+    JShellExec exec = new JShellExec();
+    exec.runJar(jar, null);
+  }
+}
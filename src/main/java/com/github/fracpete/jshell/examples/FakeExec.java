@@ -0,0 +1,46 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FakeExec.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.examples;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.event.JShellExecEvent;
+import com.github.fracpete.jshell.fake.FakeJShellResolver;
+
+/**
+ * Shows how to use the fake jshell stand-in, which generates deterministic
+ * output without jshell's startup costs.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FakeExec {
+
+  public static void main(String[] args) {
+    FakeJShellResolver resolver = new FakeJShellResolver();
+    resolver.setLines(20);
+    resolver.setRate(10);
+    resolver.setStderr(5);
+    JShellExec exec = new JShellExec();
+    exec.setExecutableResolver(resolver);
+    exec.addJShellExecListener((JShellExecEvent e) -> System.out.println("exec: " + e.getType()));
+    exec.runScript("// the script is ignored, as it contains no //fake- directives");
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FakeJShell.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.fake;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Lightweight stand-in for the jshell executable, for testing and load
+ * simulation. Accepts (and ignores) jshell's arguments, with the last one
+ * being the script. Output is deterministic and either scripted via
+ * directives in the script:
+ * <pre>
+ * //fake-out: some text
+ * //fake-err: some error
+ * //fake-sleep: 100
+ * //fake-exit: 1
+ * </pre>
+ * or, if the script has no directives, generated according to the following
+ * options (which must precede the jshell arguments):
+ * <ul>
+ *   <li>{@code --fake-lines n} - the number of lines to output (default: 100)</li>
+ *   <li>{@code --fake-line-length n} - the length of a line (default: 80)</li>
+ *   <li>{@code --fake-rate n} - the lines per second, 0 for unthrottled (default: 0)</li>
+ *   <li>{@code --fake-stderr n} - every n-th line goes to stderr, 0 for none (default: 0)</li>
+ *   <li>{@code --fake-delay n} - the msec to wait before the first line (default: 0)</li>
+ *   <li>{@code --fake-exit-code n} - the exit code (default: 0)</li>
+ *   <li>{@code --fake-seed n} - the seed for generating the line content (default: 1)</li>
+ * </ul>
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see FakeJShellResolver
+ */
+public class FakeJShell {
+
+  /** the prefix for directives. */
+  public final static String DIRECTIVE = "//fake-";
+
+  /** the characters to generate lines from. */
+  protected final static String CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+  /** the number of lines. */
+  protected int m_Lines;
+
+  /** the line length. */
+  protected int m_LineLength;
+
+  /** the lines per second. */
+  protected int m_Rate;
+
+  /** every n-th line goes to stderr. */
+  protected int m_Stderr;
+
+  /** the initial delay in msec. */
+  protected int m_Delay;
+
+  /** the exit code. */
+  protected int m_ExitCode;
+
+  /** the seed. */
+  protected long m_Seed;
+
+  /** the script, null if none. */
+  protected File m_Script;
+
+  /** for stdout. */
+  protected PrintStream m_Out;
+
+  /** for stderr. */
+  protected PrintStream m_Err;
+
+  /**
+   * Initializes the stand-in.
+   */
+  public FakeJShell() {
+    m_Lines      = 100;
+    m_LineLength = 80;
+    m_Rate       = 0;
+    m_Stderr     = 0;
+    m_Delay      = 0;
+    m_ExitCode   = 0;
+    m_Seed       = 1;
+    m_Script     = null;
+    m_Out        = new PrintStream(new BufferedOutputStream(System.out, 65536), false);
+    m_Err        = new PrintStream(new BufferedOutputStream(System.err, 65536), false);
+  }
+
+  /**
+   * Parses the options.
+   *
+   * @param args	the options
+   */
+  protected void parse(String[] args) {
+    int		i;
+
+    for (i = 0; i < args.length; i++) {
+      switch (args[i]) {
+	case "--fake-lines":
+	  m_Lines = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-line-length":
+	  m_LineLength = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-rate":
+	  m_Rate = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-stderr":
+	  m_Stderr = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-delay":
+	  m_Delay = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-exit-code":
+	  m_ExitCode = Integer.parseInt(args[++i]);
+	  break;
+	case "--fake-seed":
+	  m_Seed = Long.parseLong(args[++i]);
+	  break;
+	case "--class-path":
+	case "--startup":
+	case "-cp":
+	  i++;
+	  break;
+	default:
+	  // jshell flags (-J, -R, -C) get ignored, last argument is the script
+	  if ((i == args.length - 1) && !args[i].startsWith("-"))
+	    m_Script = new File(args[i]);
+      }
+    }
+  }
+
+  /**
+   * Waits the specified time.
+   *
+   * @param msec	the time in msec
+   */
+  protected void sleep(long msec) {
+    if (msec <= 0)
+      return;
+    m_Out.flush();
+    m_Err.flush();
+    try {
+      Thread.sleep(msec);
+    }
+    catch (InterruptedException e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Executes the directives in the script.
+   *
+   * @param lines	the lines of the script
+   * @return		the exit code, -1 if no directives found
+   */
+  protected int runDirectives(List<String> lines) {
+    int		result;
+    String	key;
+    String	value;
+
+    result = -1;
+    for (String line: lines) {
+      line = line.trim();
+      if (!line.startsWith(DIRECTIVE) || !line.contains(":"))
+	continue;
+      if (result == -1)
+	result = 0;
+      key   = line.substring(DIRECTIVE.length(), line.indexOf(':'));
+      value = line.substring(line.indexOf(':') + 1);
+      if (value.startsWith(" "))
+	value = value.substring(1);
+      switch (key) {
+	case "out":
+	  m_Out.println(value);
+	  break;
+	case "err":
+	  m_Err.println(value);
+	  break;
+	case "sleep":
+	  sleep(Long.parseLong(value.trim()));
+	  break;
+	case "exit":
+	  return Integer.parseInt(value.trim());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates the lines.
+   *
+   * @return		the exit code
+   */
+  protected int generate() {
+    Random		rnd;
+    StringBuilder	line;
+    long		start;
+    long		due;
+    int			i;
+    int			n;
+
+    rnd   = new Random(m_Seed);
+    line  = new StringBuilder();
+    start = System.nanoTime();
+    for (i = 1; i <= m_Lines; i++) {
+      if (m_Rate > 0) {
+	due = start + (long) (i - 1) * 1000000000L / m_Rate;
+	sleep((due - System.nanoTime()) / 1000000);
+      }
+      line.setLength(0);
+      line.append(i).append(":");
+      for (n = line.length(); n < m_LineLength; n++)
+	line.append(CHARS.charAt(rnd.nextInt(CHARS.length())));
+      if ((m_Stderr > 0) && (i % m_Stderr == 0))
+	m_Err.println(line);
+      else
+	m_Out.println(line);
+    }
+
+    return m_ExitCode;
+  }
+
+  /**
+   * Executes the script.
+   *
+   * @return		the exit code
+   * @throws Exception	if reading the script fails
+   */
+  public int execute() throws Exception {
+    int		result;
+
+    sleep(m_Delay);
+    result = -1;
+    if ((m_Script != null) && m_Script.exists())
+      result = runDirectives(Files.readAllLines(m_Script.toPath()));
+    if (result == -1)
+      result = generate();
+    m_Out.flush();
+    m_Err.flush();
+
+    return result;
+  }
+
+  /**
+   * Runs the stand-in.
+   *
+   * @param args	the options, followed by the jshell arguments
+   * @throws Exception	if execution fails
+   */
+  public static void main(String[] args) throws Exception {
+    FakeJShell	fake;
+
+    fake = new FakeJShell();
+    fake.parse(args);
+    System.exit(fake.execute());
+  }
+}
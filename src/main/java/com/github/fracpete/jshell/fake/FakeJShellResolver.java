@@ -0,0 +1,242 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FakeJShellResolver.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.fake;
+
+import com.github.fracpete.jshell.process.ExecutableResolver;
+import com.github.fracpete.jshell.process.JdkExecutableResolver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launches the {@link FakeJShell} stand-in instead of jshell, for testing
+ * and load simulation without jshell's startup costs.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FakeJShellResolver
+  implements ExecutableResolver {
+
+  /** the number of lines. */
+  protected int m_Lines;
+
+  /** the line length. */
+  protected int m_LineLength;
+
+  /** the lines per second, 0 for unthrottled. */
+  protected int m_Rate;
+
+  /** every n-th line goes to stderr, 0 for none. */
+  protected int m_Stderr;
+
+  /** the initial delay in msec. */
+  protected int m_Delay;
+
+  /** the exit code. */
+  protected int m_ExitCode;
+
+  /** the seed. */
+  protected long m_Seed;
+
+  /**
+   * Initializes the resolver with the defaults of {@link FakeJShell}.
+   */
+  public FakeJShellResolver() {
+    m_Lines      = 100;
+    m_LineLength = 80;
+    m_Rate       = 0;
+    m_Stderr     = 0;
+    m_Delay      = 0;
+    m_ExitCode   = 0;
+    m_Seed       = 1;
+  }
+
+  /**
+   * Sets the number of lines to generate.
+   *
+   * @param value	the number of lines
+   */
+  public void setLines(int value) {
+    m_Lines = value;
+  }
+
+  /**
+   * Returns the number of lines to generate.
+   *
+   * @return		the number of lines
+   */
+  public int getLines() {
+    return m_Lines;
+  }
+
+  /**
+   * Sets the length of the lines.
+   *
+   * @param value	the length
+   */
+  public void setLineLength(int value) {
+    m_LineLength = value;
+  }
+
+  /**
+   * Returns the length of the lines.
+   *
+   * @return		the length
+   */
+  public int getLineLength() {
+    return m_LineLength;
+  }
+
+  /**
+   * Sets the lines per second.
+   *
+   * @param value	the rate, 0 for unthrottled
+   */
+  public void setRate(int value) {
+    m_Rate = value;
+  }
+
+  /**
+   * Returns the lines per second.
+   *
+   * @return		the rate, 0 for unthrottled
+   */
+  public int getRate() {
+    return m_Rate;
+  }
+
+  /**
+   * Sets how often lines go to stderr.
+   *
+   * @param value	every n-th line, 0 for none
+   */
+  public void setStderr(int value) {
+    m_Stderr = value;
+  }
+
+  /**
+   * Returns how often lines go to stderr.
+   *
+   * @return		every n-th line, 0 for none
+   */
+  public int getStderr() {
+    return m_Stderr;
+  }
+
+  /**
+   * Sets the delay before the first line.
+   *
+   * @param value	the delay in msec
+   */
+  public void setDelay(int value) {
+    m_Delay = value;
+  }
+
+  /**
+   * Returns the delay before the first line.
+   *
+   * @return		the delay in msec
+   */
+  public int getDelay() {
+    return m_Delay;
+  }
+
+  /**
+   * Sets the exit code.
+   *
+   * @param value	the exit code
+   */
+  public void setExitCode(int value) {
+    m_ExitCode = value;
+  }
+
+  /**
+   * Returns the exit code.
+   *
+   * @return		the exit code
+   */
+  public int getExitCode() {
+    return m_ExitCode;
+  }
+
+  /**
+   * Sets the seed for generating the line content.
+   *
+   * @param value	the seed
+   */
+  public void setSeed(long value) {
+    m_Seed = value;
+  }
+
+  /**
+   * Returns the seed for generating the line content.
+   *
+   * @return		the seed
+   */
+  public long getSeed() {
+    return m_Seed;
+  }
+
+  /**
+   * Returns the command for launching the stand-in.
+   *
+   * @return		the command
+   */
+  public List<String> getCommand() {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    result.add(JdkExecutableResolver.getExecutable("java"));
+    // minimize startup
+    result.add("-Xshare:auto");
+    result.add("-XX:TieredStopAtLevel=1");
+    result.add("-cp");
+    result.add(System.getProperty("java.class.path"));
+    result.add(FakeJShell.class.getName());
+    result.add("--fake-lines");
+    result.add("" + m_Lines);
+    result.add("--fake-line-length");
+    result.add("" + m_LineLength);
+    result.add("--fake-rate");
+    result.add("" + m_Rate);
+    result.add("--fake-stderr");
+    result.add("" + m_Stderr);
+    result.add("--fake-delay");
+    result.add("" + m_Delay);
+    result.add("--fake-exit-code");
+    result.add("" + m_ExitCode);
+    result.add("--fake-seed");
+    result.add("" + m_Seed);
+
+    return result;
+  }
+
+  /**
+   * Returns whether the java executable is available.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    return new File(JdkExecutableResolver.getExecutable("java")).exists();
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * HistoryPanel.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.history;
+
+import nz.ac.waikato.cms.gui.core.BasePanel;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BasicStroke;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Displays the runs of a script: a chart with the trend of duration and
+ * CPU time at the top and the individual runs in a table below.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class HistoryPanel
+  extends BasePanel {
+
+  /**
+   * The table model for the runs.
+   */
+  public static class RecordTableModel
+    extends AbstractTableModel {
+
+    /** the column names. */
+    protected final static String[] COLUMNS = {"Start", "Duration (ms)", "CPU (ms)", "Peak RSS (MB)", "Output (bytes)", "Exit", "Flags"};
+
+    /** the records. */
+    protected List<RunRecord> m_Records;
+
+    /** for formatting the start. */
+    protected SimpleDateFormat m_Format;
+
+    /**
+     * Initializes the model.
+     *
+     * @param records	the records to display
+     */
+    public RecordTableModel(List<RunRecord> records) {
+      m_Records = records;
+      m_Format  = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    }
+
+    /**
+     * Returns the number of runs.
+     *
+     * @return		the number of runs
+     */
+    public int getRowCount() {
+      return m_Records.size();
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return		the number of columns
+     */
+    public int getColumnCount() {
+      return COLUMNS.length;
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @param column	the column
+     * @return		the name
+     */
+    public String getColumnName(int column) {
+      return COLUMNS[column];
+    }
+
+    /**
+     * Returns the value at the specified location, most recent run first.
+     *
+     * @param rowIndex	the row
+     * @param columnIndex	the column
+     * @return		the value
+     */
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      RunRecord	record;
+
+      record = m_Records.get(m_Records.size() - 1 - rowIndex);
+      switch (columnIndex) {
+	case 0:
+	  return m_Format.format(new Date(record.getTimestamp()));
+	case 1:
+	  return record.getDuration();
+	case 2:
+	  return (record.getCpuTime() < 0) ? "" : "" + (record.getCpuTime() / 1000000);
+	case 3:
+	  return (record.getPeakRSS() < 0) ? "" : "" + (record.getPeakRSS() / 1024 / 1024);
+	case 4:
+	  return record.getOutputBytes();
+	case 5:
+	  return record.getExitCode();
+	case 6:
+	  return record.getFlags();
+	default:
+	  return null;
+      }
+    }
+  }
+
+  /**
+   * Plots the duration and CPU time of the runs over time.
+   */
+  public static class TrendChart
+    extends JPanel {
+
+    /** the margin in pixels. */
+    protected final static int MARGIN = 10;
+
+    /** the records. */
+    protected List<RunRecord> m_Records;
+
+    /**
+     * Initializes the chart.
+     */
+    public TrendChart() {
+      m_Records = new ArrayList<>();
+      setPreferredSize(new Dimension(400, 150));
+      setBackground(Color.WHITE);
+      setToolTipText("Duration (blue) and CPU time (red) of the runs, oldest first");
+    }
+
+    /**
+     * Sets the records to plot.
+     *
+     * @param value	the records
+     */
+    public void setRecords(List<RunRecord> value) {
+      m_Records = value;
+      repaint();
+    }
+
+    /**
+     * Plots the values, scaled by the maximum.
+     *
+     * @param g		the graphics context
+     * @param max	the maximum value
+     * @param value	extracts the value from the record
+     */
+    protected void plot(Graphics2D g, long max, ToLongFunction<RunRecord> value) {
+      int	width;
+      int	height;
+      int	prevX;
+      int	prevY;
+      int	x;
+      int	y;
+      int	i;
+
+      width  = getWidth() - 2 * MARGIN;
+      height = getHeight() - 2 * MARGIN;
+      prevX  = -1;
+      prevY  = -1;
+      for (i = 0; i < m_Records.size(); i++) {
+	if (value.applyAsLong(m_Records.get(i)) < 0)
+	  continue;
+	x = MARGIN + ((m_Records.size() == 1) ? width / 2 : (int) ((long) i * width / (m_Records.size() - 1)));
+	y = MARGIN + height - (int) (value.applyAsLong(m_Records.get(i)) * height / max);
+	g.fillOval(x - 2, y - 2, 5, 5);
+	if (prevX > -1)
+	  g.drawLine(prevX, prevY, x, y);
+	prevX = x;
+	prevY = y;
+      }
+    }
+
+    /**
+     * Paints the chart.
+     *
+     * @param g		the graphics context
+     */
+    protected void paintComponent(Graphics g) {
+      Graphics2D	g2d;
+      long		max;
+
+      super.paintComponent(g);
+      if (m_Records.isEmpty())
+	return;
+
+      max = 1;
+      for (RunRecord record: m_Records)
+	max = Math.max(max, Math.max(record.getDuration(), record.getCpuTime() / 1000000));
+
+      g2d = (Graphics2D) g;
+      g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g2d.setStroke(new BasicStroke(1.5f));
+      g2d.setColor(Color.RED);
+      plot(g2d, max, (RunRecord r) -> (r.getCpuTime() < 0) ? -1 : r.getCpuTime() / 1000000);
+      g2d.setColor(Color.BLUE);
+      plot(g2d, max, RunRecord::getDuration);
+      g2d.setColor(Color.GRAY);
+      g2d.drawString(max + " ms", MARGIN, MARGIN + g2d.getFontMetrics().getAscent());
+    }
+  }
+
+  /** the chart. */
+  protected TrendChart m_Chart;
+
+  /** the table. */
+  protected JTable m_Table;
+
+  /**
+   * Initializes the widgets.
+   */
+  protected void initGUI() {
+    super.initGUI();
+
+    setLayout(new BorderLayout());
+    m_Chart = new TrendChart();
+    add(m_Chart, BorderLayout.NORTH);
+    m_Table = new JTable(new RecordTableModel(new ArrayList<>()));
+    add(new JScrollPane(m_Table), BorderLayout.CENTER);
+  }
+
+  /**
+   * Sets the runs to display.
+   *
+   * @param value	the runs, oldest first
+   */
+  public void setRecords(List<RunRecord> value) {
+    m_Chart.setRecords(value);
+    m_Table.setModel(new RecordTableModel(value));
+  }
+}
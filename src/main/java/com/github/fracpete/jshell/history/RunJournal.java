@@ -0,0 +1,350 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RunJournal.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.history;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of script runs, stored in a compact binary format:
+ * a header (magic number and version), followed by records consisting of
+ * length, CRC32 checksum and payload. Appending locks the file, so several
+ * processes can share a journal. Reading stops at the first corrupt record.
+ * An incomplete trailing record (eg from a crash) gets ignored when reading
+ * and truncated by the next append.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see RunRecord
+ */
+public class RunJournal
+  implements Serializable {
+
+  /** the default location of the journal. */
+  public final static File DEFAULT_FILE = new File(System.getProperty("user.home") + File.separator + ".jshell-scripting" + File.separator + "history.bin");
+
+  /** the magic number ("JSRJ"). */
+  public final static int MAGIC = 0x4A53524A;
+
+  /** the format version. */
+  public final static byte VERSION = 2;
+
+  /** the size of the header in bytes. */
+  public final static int HEADER_SIZE = 4 + 1;
+
+  /** the size of the length and checksum preceding each record in bytes. */
+  public final static int RECORD_HEADER_SIZE = 4 + 4;
+
+  /** the maximum length of a record in bytes, anything larger is corrupt. */
+  public final static int MAX_RECORD_LENGTH = 1024 * 1024;
+
+  /** the file to use. */
+  protected File m_File;
+
+  /** the end of the last complete record seen by this instance, 0 if none. */
+  protected long m_ValidEnd;
+
+  /**
+   * Initializes the journal with the default file.
+   */
+  public RunJournal() {
+    this(DEFAULT_FILE);
+  }
+
+  /**
+   * Initializes the journal.
+   *
+   * @param file	the file to use
+   */
+  public RunJournal(File file) {
+    m_File = file;
+  }
+
+  /**
+   * Returns the file in use.
+   *
+   * @return		the file
+   */
+  public File getFile() {
+    return m_File;
+  }
+
+  /**
+   * Computes the hash of a script.
+   *
+   * @param code	the script
+   * @return		the hash (the first 8 bytes of the SHA-256 digest)
+   */
+  public static long hash(String code) {
+    MessageDigest	digest;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+      return ByteBuffer.wrap(digest.digest(code.trim().getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+    catch (Exception e) {
+      // SHA-256 is always available
+      return code.trim().hashCode();
+    }
+  }
+
+  /**
+   * Computes the checksum of a record.
+   *
+   * @param payload	the serialized record
+   * @return		the checksum
+   */
+  protected static int checksum(byte[] payload) {
+    CRC32	crc;
+
+    crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Reads an int at the specified position.
+   *
+   * @param channel	the channel to read from
+   * @param pos		the position
+   * @return		the int
+   * @throws IOException	if reading fails or end of file reached
+   */
+  protected int readInt(FileChannel channel, long pos) throws IOException {
+    ByteBuffer	buffer;
+
+    buffer = ByteBuffer.allocate(4);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, pos + buffer.position()) < 0)
+	throw new EOFException();
+    }
+    buffer.flip();
+
+    return buffer.getInt();
+  }
+
+  /**
+   * Determines the end of the last complete record, skipping from record
+   * to record via their lengths. Only records appended after the last
+   * known valid end get checked, unless the file has shrunk in the meantime.
+   *
+   * @param channel	the channel of the journal
+   * @return		the position after the last complete record
+   * @throws IOException	if reading fails or not a journal
+   */
+  protected long validLength(FileChannel channel) throws IOException {
+    ByteBuffer	header;
+    long	size;
+    long	pos;
+    int		length;
+
+    size   = channel.size();
+    header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0)
+	return 0;
+    }
+    header.flip();
+    if (header.getInt() != MAGIC)
+      throw new IOException("Not a run journal: " + m_File);
+    if (header.get() != VERSION)
+      throw new IOException("Unsupported journal version: " + m_File);
+
+    // records never change once written, ie only the tail needs checking
+    if ((m_ValidEnd > HEADER_SIZE) && (m_ValidEnd <= size))
+      pos = m_ValidEnd;
+    else
+      pos = HEADER_SIZE;
+    while (pos + RECORD_HEADER_SIZE <= size) {
+      length = readInt(channel, pos);
+      if ((length <= 0) || (length > MAX_RECORD_LENGTH) || (pos + RECORD_HEADER_SIZE + length > size))
+	break;
+      pos += RECORD_HEADER_SIZE + length;
+    }
+
+    return pos;
+  }
+
+  /**
+   * Appends the record to the journal. Any incomplete record at the end of
+   * the journal gets truncated first.
+   *
+   * @param record	the record to append
+   * @return		null if successful, otherwise error message
+   */
+  public synchronized String append(RunRecord record) {
+    ByteArrayOutputStream	bytes;
+    DataOutputStream		data;
+    ByteBuffer			buffer;
+    byte[]			payload;
+    long			end;
+
+    try {
+      bytes = new ByteArrayOutputStream();
+      data  = new DataOutputStream(bytes);
+      record.write(data);
+      data.flush();
+      payload = bytes.toByteArray();
+      buffer  = ByteBuffer.allocate(HEADER_SIZE + RECORD_HEADER_SIZE + payload.length);
+
+      if (!m_File.getParentFile().exists() && !m_File.getParentFile().mkdirs())
+	return "Failed to create directory for journal: " + m_File.getParentFile();
+
+      try (FileChannel channel = FileChannel.open(m_File.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+	// released when the channel gets closed
+	channel.lock();
+	end = validLength(channel);
+	if (end < channel.size())
+	  channel.truncate(end);
+	if (end == 0) {
+	  buffer.putInt(MAGIC);
+	  buffer.put(VERSION);
+	}
+	buffer.putInt(payload.length);
+	buffer.putInt(checksum(payload));
+	buffer.put(payload);
+	buffer.flip();
+	while (buffer.hasRemaining())
+	  end += channel.write(buffer, end);
+	m_ValidEnd = end;
+      }
+    }
+    catch (Exception e) {
+      return "Failed to append to journal " + m_File + ": " + e;
+    }
+
+    return null;
+  }
+
+  /**
+   * Reads all records that satisfy the condition. Reading stops at the
+   * first incomplete or corrupt record.
+   *
+   * @param condition	the condition, null for all
+   * @return		the records, in the order they were written
+   * @throws IOException	if reading fails or not a journal
+   */
+  public List<RunRecord> query(Predicate<RunRecord> condition) throws IOException {
+    List<RunRecord>	result;
+    RunRecord		record;
+    int			length;
+    int			checksum;
+    byte[]		payload;
+
+    result = new ArrayList<>();
+    if (!m_File.exists())
+      return result;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(m_File)))) {
+      try {
+	if (in.readInt() != MAGIC)
+	  throw new IOException("Not a run journal: " + m_File);
+	if (in.readByte() != VERSION)
+	  throw new IOException("Unsupported journal version: " + m_File);
+      }
+      catch (EOFException e) {
+	return result;
+      }
+      while (true) {
+	try {
+	  length = in.readInt();
+	  if ((length <= 0) || (length > MAX_RECORD_LENGTH))
+	    break;
+	  checksum = in.readInt();
+	  payload  = new byte[length];
+	  in.readFully(payload);
+	}
+	catch (EOFException e) {
+	  // end of journal or incomplete record
+	  break;
+	}
+	// corrupt record, but its length is intact: skip it, like append does
+	if (checksum(payload) != checksum)
+	  continue;
+	try {
+	  record = RunRecord.read(new DataInputStream(new ByteArrayInputStream(payload)));
+	}
+	catch (IOException e) {
+	  continue;
+	}
+	if ((condition == null) || condition.test(record))
+	  result.add(record);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads all records of the specified script.
+   *
+   * @param scriptHash	the hash of the script
+   * @return		the records, in the order they were written
+   * @throws IOException	if reading fails or not a journal
+   * @see		#hash(String)
+   */
+  public List<RunRecord> query(long scriptHash) throws IOException {
+    return query((RunRecord r) -> r.getScriptHash() == scriptHash);
+  }
+
+  /**
+   * Returns the median duration of the successful runs of the specified
+   * script, eg for estimating how long the next run will take.
+   *
+   * @param scriptHash	the hash of the script
+   * @return		the median in msec, -1 if no successful runs
+   * @throws IOException	if reading fails or not a journal
+   */
+  public long medianDuration(long scriptHash) throws IOException {
+    List<RunRecord>	records;
+    long[]		durations;
+    int			i;
+
+    records   = query((RunRecord r) -> (r.getScriptHash() == scriptHash) && r.isSuccess());
+    durations = new long[records.size()];
+    if (durations.length == 0)
+      return -1;
+    for (i = 0; i < durations.length; i++)
+      durations[i] = records.get(i).getDuration();
+    Arrays.sort(durations);
+
+    return durations[durations.length / 2];
+  }
+}
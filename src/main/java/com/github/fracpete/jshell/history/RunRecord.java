@@ -0,0 +1,210 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RunRecord.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * A single run stored in the {@link RunJournal}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class RunRecord
+  implements Serializable {
+
+  /** the start of the run (msec since epoch). */
+  protected long m_Timestamp;
+
+  /** the hash of the script. */
+  protected long m_ScriptHash;
+
+  /** the flags, blank-separated. */
+  protected String m_Flags;
+
+  /** the duration in msec. */
+  protected long m_Duration;
+
+  /** the exit code. */
+  protected int m_ExitCode;
+
+  /** the number of bytes output. */
+  protected long m_OutputBytes;
+
+  /** the CPU time in nanoseconds, -1 if not available. */
+  protected long m_CpuTime;
+
+  /** the peak resident set size in bytes, -1 if not available. */
+  protected long m_PeakRSS;
+
+  /**
+   * Initializes the record.
+   *
+   * @param timestamp	the start of the run (msec since epoch)
+   * @param scriptHash	the hash of the script
+   * @param flags	the flags, blank-separated
+   * @param duration	the duration in msec
+   * @param exitCode	the exit code
+   * @param outputBytes	the number of bytes output
+   * @param cpuTime	the CPU time in nanoseconds, -1 if not available
+   * @param peakRSS	the peak resident set size in bytes, -1 if not available
+   */
+  public RunRecord(long timestamp, long scriptHash, String flags, long duration, int exitCode, long outputBytes, long cpuTime, long peakRSS) {
+    m_Timestamp   = timestamp;
+    m_ScriptHash  = scriptHash;
+    m_Flags       = (flags == null) ? "" : flags;
+    m_Duration    = duration;
+    m_ExitCode    = exitCode;
+    m_OutputBytes = outputBytes;
+    m_CpuTime     = cpuTime;
+    m_PeakRSS     = peakRSS;
+  }
+
+  /**
+   * Returns the start of the run.
+   *
+   * @return		the msec since epoch
+   */
+  public long getTimestamp() {
+    return m_Timestamp;
+  }
+
+  /**
+   * Returns the hash of the script.
+   *
+   * @return		the hash
+   * @see		RunJournal#hash(String)
+   */
+  public long getScriptHash() {
+    return m_ScriptHash;
+  }
+
+  /**
+   * Returns the flags.
+   *
+   * @return		the flags, blank-separated
+   */
+  public String getFlags() {
+    return m_Flags;
+  }
+
+  /**
+   * Returns the duration of the run.
+   *
+   * @return		the duration in msec
+   */
+  public long getDuration() {
+    return m_Duration;
+  }
+
+  /**
+   * Returns the exit code.
+   *
+   * @return		the exit code
+   */
+  public int getExitCode() {
+    return m_ExitCode;
+  }
+
+  /**
+   * Returns whether the run was successful.
+   *
+   * @return		true if successful
+   */
+  public boolean isSuccess() {
+    return (m_ExitCode == 0);
+  }
+
+  /**
+   * Returns the number of bytes that were output.
+   *
+   * @return		the number of bytes
+   */
+  public long getOutputBytes() {
+    return m_OutputBytes;
+  }
+
+  /**
+   * Returns the CPU time.
+   *
+   * @return		the time in nanoseconds, -1 if not available
+   */
+  public long getCpuTime() {
+    return m_CpuTime;
+  }
+
+  /**
+   * Returns the peak resident set size.
+   *
+   * @return		the bytes, -1 if not available
+   */
+  public long getPeakRSS() {
+    return m_PeakRSS;
+  }
+
+  /**
+   * Writes the record.
+   *
+   * @param out		the output to write to
+   * @throws IOException	if writing fails
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeLong(m_Timestamp);
+    out.writeLong(m_ScriptHash);
+    out.writeUTF(m_Flags);
+    out.writeLong(m_Duration);
+    out.writeInt(m_ExitCode);
+    out.writeLong(m_OutputBytes);
+    out.writeLong(m_CpuTime);
+    out.writeLong(m_PeakRSS);
+  }
+
+  /**
+   * Reads a record.
+   *
+   * @param in		the input to read from
+   * @return		the record
+   * @throws IOException	if reading fails
+   */
+  public static RunRecord read(DataInput in) throws IOException {
+    return new RunRecord(in.readLong(), in.readLong(), in.readUTF(), in.readLong(), in.readInt(), in.readLong(), in.readLong(), in.readLong());
+  }
+
+  /**
+   * Returns a short description of the record.
+   *
+   * @return		the description
+   */
+  public String toString() {
+    return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(m_Timestamp))
+      + ", hash: " + Long.toHexString(m_ScriptHash)
+      + ", duration: " + m_Duration + " ms"
+      + ", exit: " + m_ExitCode
+      + ", output: " + m_OutputBytes
+      + ", cpu: " + ((m_CpuTime < 0) ? "n/a" : (m_CpuTime / 1000000) + " ms")
+      + ", peak rss: " + ((m_PeakRSS < 0) ? "n/a" : (m_PeakRSS / 1024) + " kB");
+  }
+}
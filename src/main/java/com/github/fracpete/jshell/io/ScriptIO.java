@@ -0,0 +1,259 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptIO.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.io;
+
+import org.fife.ui.rsyntaxtextarea.RSyntaxDocument;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads and writes (large) scripts in chunks, reporting the progress.
+ * Meant to be called from a background thread: reading builds a new
+ * document that isn't attached to any component yet, writing takes a
+ * snapshot of the document under its read lock.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptIO {
+
+  /** the size of the chunks in bytes/characters. */
+  public final static int CHUNK_SIZE = 1024 * 1024;
+
+  /**
+   * Reads the script (UTF-8) into a new document. Line endings get
+   * normalized to \n and a trailing line ending gets dropped.
+   *
+   * @param file	the file to read
+   * @param syntaxStyle	the syntax style for the document
+   * @param progress	receives the progress in percent, can be null
+   * @return		the document
+   * @throws IOException	if reading fails
+   */
+  public static RSyntaxDocument read(File file, String syntaxStyle, IntConsumer progress) throws IOException {
+    RSyntaxDocument	result;
+    CharsetDecoder	decoder;
+    ByteBuffer		bytes;
+    CharBuffer		chars;
+    StringBuilder	chunk;
+    CoderResult		coder;
+    boolean		cr;
+    boolean		eof;
+    long		size;
+    long		read;
+    int			n;
+    char		c;
+
+    result  = new RSyntaxDocument(syntaxStyle);
+    decoder = StandardCharsets.UTF_8.newDecoder();
+    bytes   = ByteBuffer.allocate(CHUNK_SIZE);
+    chars   = CharBuffer.allocate(CHUNK_SIZE);
+    chunk   = new StringBuilder(CHUNK_SIZE);
+    cr      = false;
+    read    = 0;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      size = Math.max(1, channel.size());
+      eof  = false;
+      while (!eof) {
+	n   = channel.read(bytes);
+	eof = (n == -1);
+	if (n > 0)
+	  read += n;
+	bytes.flip();
+	coder = decoder.decode(bytes, chars, eof);
+	if (coder.isError())
+	  coder.throwException();
+	if (eof)
+	  decoder.flush(chars);
+	bytes.compact();
+	chars.flip();
+	chunk.setLength(0);
+	while (chars.hasRemaining()) {
+	  c = chars.get();
+	  if (c == '\r') {
+	    chunk.append('\n');
+	    cr = true;
+	    continue;
+	  }
+	  if ((c != '\n') || !cr)
+	    chunk.append(c);
+	  cr = false;
+	}
+	chars.clear();
+	result.insertString(result.getLength(), chunk.toString(), null);
+	if (progress != null)
+	  progress.accept((int) (read * 100 / size));
+      }
+      // like reading all lines
+      if ((result.getLength() > 0) && result.getText(result.getLength() - 1, 1).equals("\n"))
+	result.remove(result.getLength() - 1, 1);
+    }
+    catch (BadLocationException e) {
+      throw new IOException("Failed to build document from: " + file, e);
+    }
+
+    return result;
+  }
+
+  /**
+   * Copies the permissions and ownership (POSIX) or the attributes (DOS) of
+   * a file to another one. Ownership is copied on a best effort basis, as
+   * it may require privileges.
+   *
+   * @param source	the file to copy the attributes from
+   * @param target	the file to copy the attributes to
+   * @throws IOException	if copying the permissions/attributes fails
+   */
+  protected static void copyAttributes(Path source, Path target) throws IOException {
+    PosixFileAttributeView	posix;
+    PosixFileAttributes		posixAttrs;
+    DosFileAttributeView	dos;
+    DosFileAttributes		dosAttrs;
+
+    posix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+    if (posix != null) {
+      posixAttrs = posix.readAttributes();
+      posix      = Files.getFileAttributeView(target, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+      posix.setPermissions(posixAttrs.permissions());
+      try {
+	posix.setGroup(posixAttrs.group());
+	posix.setOwner(posixAttrs.owner());
+      }
+      catch (IOException e) {
+	// not permitted
+      }
+      return;
+    }
+
+    dos = Files.getFileAttributeView(source, DosFileAttributeView.class);
+    if (dos != null) {
+      dosAttrs = dos.readAttributes();
+      dos      = Files.getFileAttributeView(target, DosFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+      dos.setArchive(dosAttrs.isArchive());
+      dos.setHidden(dosAttrs.isHidden());
+      dos.setSystem(dosAttrs.isSystem());
+    }
+  }
+
+  /**
+   * Writes the document (UTF-8) to the file. The content gets written to a
+   * temporary file first, which then replaces the file. If the file is a
+   * symbolic link, its target gets replaced instead. The permissions of an
+   * existing file are retained.
+   *
+   * @param document	the document to write
+   * @param file	the file to write to
+   * @param progress	receives the progress in percent, can be null
+   * @throws IOException	if writing fails
+   */
+  public static void write(AbstractDocument document, File file, IntConsumer progress) throws IOException {
+    final String[]	text;
+    CharsetEncoder	encoder;
+    CharBuffer		chars;
+    ByteBuffer		bytes;
+    Path		target;
+    Path		tmpFile;
+    CoderResult		coder;
+    int			length;
+    boolean		exists;
+
+    text = new String[1];
+    document.render(() -> {
+      try {
+	text[0] = document.getText(0, document.getLength());
+      }
+      catch (BadLocationException e) {
+	// can't happen
+      }
+    });
+    if (text[0] == null)
+      throw new IOException("Failed to obtain content of document!");
+
+    target = file.toPath().toAbsolutePath();
+    exists = Files.exists(target);
+    if (exists)
+      target = target.toRealPath();
+    // unique name, ie concurrent saves don't write to the same file
+    tmpFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+    encoder = StandardCharsets.UTF_8.newEncoder();
+    bytes   = ByteBuffer.allocate(CHUNK_SIZE * 3);
+    length  = text[0].length();
+    chars   = CharBuffer.wrap(text[0]);
+    try {
+      try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+	// a surrogate pair split by the chunk boundary remains in the buffer
+	// and gets encoded with the next chunk
+	do {
+	  chars.limit(Math.min(length, chars.position() + CHUNK_SIZE));
+	  coder = encoder.encode(chars, bytes, chars.limit() == length);
+	  if (coder.isError())
+	    coder.throwException();
+	  bytes.flip();
+	  while (bytes.hasRemaining())
+	    channel.write(bytes);
+	  bytes.clear();
+	  if ((progress != null) && (length > 0))
+	    progress.accept((int) ((long) chars.position() * 100 / length));
+	}
+	while (chars.limit() < length);
+	encoder.flush(bytes);
+	bytes.flip();
+	while (bytes.hasRemaining())
+	  channel.write(bytes);
+      }
+      if (exists)
+	copyAttributes(target, tmpFile);
+    }
+    catch (IOException e) {
+      tmpFile.toFile().delete();
+      throw e;
+    }
+
+    try {
+      Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
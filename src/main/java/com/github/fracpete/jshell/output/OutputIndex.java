@@ -0,0 +1,540 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OutputIndex.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Case-insensitive trigram index over {@link OutputRecords}, for finding
+ * the records that contain a text or match a regular expression without
+ * scanning all of them. The index gets extended incrementally with the
+ * records that were added since the last update. Candidates from the index
+ * always get verified against the actual text. For regular expressions,
+ * only literal runs that every match must contain are used for narrowing
+ * down the candidates; expressions without such runs (e.g., alternations)
+ * get evaluated against all records.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class OutputIndex {
+
+  /**
+   * The sorted record numbers of a trigram, stored as variable-length
+   * encoded deltas.
+   */
+  protected static class Postings {
+
+    /** the encoded deltas. */
+    protected byte[] m_Data;
+
+    /** the number of bytes used. */
+    protected int m_Length;
+
+    /** the last record number, -1 if none. */
+    protected int m_Last;
+
+    /** the number of record numbers. */
+    protected int m_Count;
+
+    /**
+     * Initializes the postings.
+     */
+    protected Postings() {
+      m_Data   = new byte[8];
+      m_Length = 0;
+      m_Last   = -1;
+      m_Count  = 0;
+    }
+
+    /**
+     * Adds the record number, ignored if the same as the last one.
+     *
+     * @param index	the record number, must not be smaller than the last one
+     */
+    protected void add(int index) {
+      int	delta;
+
+      if (index == m_Last)
+	return;
+      delta  = index - m_Last;
+      m_Last = index;
+      m_Count++;
+      if (m_Length + 5 > m_Data.length)
+	m_Data = Arrays.copyOf(m_Data, m_Data.length * 2);
+      while ((delta & ~0x7F) != 0) {
+	m_Data[m_Length++] = (byte) ((delta & 0x7F) | 0x80);
+	delta >>>= 7;
+      }
+      m_Data[m_Length++] = (byte) delta;
+    }
+
+    /**
+     * Returns the candidates that are contained in the postings.
+     *
+     * @param candidates	the sorted candidates, null for all record numbers
+     * @return		the sorted intersection
+     */
+    protected int[] intersect(int[] candidates) {
+      int[]	result;
+      int	size;
+      int	pos;
+      int	current;
+      int	delta;
+      int	shift;
+      int	i;
+      byte	b;
+
+      result  = new int[(candidates == null) ? m_Count : Math.min(m_Count, candidates.length)];
+      size    = 0;
+      pos     = 0;
+      current = -1;
+      i       = 0;
+      while (pos < m_Length) {
+	delta = 0;
+	shift = 0;
+	do {
+	  b      = m_Data[pos++];
+	  delta |= (b & 0x7F) << shift;
+	  shift += 7;
+	}
+	while ((b & 0x80) != 0);
+	current += delta;
+	if (candidates == null) {
+	  result[size++] = current;
+	}
+	else {
+	  while ((i < candidates.length) && (candidates[i] < current))
+	    i++;
+	  if (i == candidates.length)
+	    break;
+	  if (candidates[i] == current)
+	    result[size++] = current;
+	}
+      }
+
+      return (size == result.length) ? result : Arrays.copyOf(result, size);
+    }
+  }
+
+  /** the initial capacity of the trigram table. */
+  protected final static int INITIAL_CAPACITY = 4096;
+
+  /** the records to index. */
+  protected OutputRecords m_Records;
+
+  /** the trigrams (open addressing, empty slots have no postings). */
+  protected long[] m_Keys;
+
+  /** the postings of the trigrams. */
+  protected Postings[] m_Postings;
+
+  /** the number of trigrams. */
+  protected int m_Trigrams;
+
+  /** the number of records indexed so far. */
+  protected int m_Indexed;
+
+  /** the generation of the records that got indexed. */
+  protected int m_Generation;
+
+  /**
+   * Initializes the index.
+   *
+   * @param records	the records to index
+   */
+  public OutputIndex(OutputRecords records) {
+    m_Records = records;
+    reset();
+  }
+
+  /**
+   * Removes all trigrams.
+   */
+  protected void reset() {
+    m_Keys       = new long[INITIAL_CAPACITY];
+    m_Postings   = new Postings[INITIAL_CAPACITY];
+    m_Trigrams   = 0;
+    m_Indexed    = 0;
+    m_Generation = m_Records.getGeneration();
+  }
+
+  /**
+   * Returns the key for the trigram.
+   *
+   * @param text	the text
+   * @param pos		the position of the trigram
+   * @return		the key
+   */
+  protected static long key(CharSequence text, int pos) {
+    return ((long) Character.toLowerCase(text.charAt(pos)) << 32)
+      | ((long) Character.toLowerCase(text.charAt(pos + 1)) << 16)
+      | Character.toLowerCase(text.charAt(pos + 2));
+  }
+
+  /**
+   * Returns the slot for the trigram in the table.
+   *
+   * @param keys	the trigrams
+   * @param postings	the postings
+   * @param key		the trigram to look for
+   * @return		the slot, either containing the trigram or empty
+   */
+  protected static int slot(long[] keys, Postings[] postings, long key) {
+    int		result;
+    int		mask;
+
+    mask   = keys.length - 1;
+    result = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    while ((postings[result] != null) && (keys[result] != key))
+      result = (result + 1) & mask;
+
+    return result;
+  }
+
+  /**
+   * Returns the postings for the trigram.
+   *
+   * @param key		the trigram
+   * @return		the postings, null if not present
+   */
+  protected Postings get(long key) {
+    return m_Postings[slot(m_Keys, m_Postings, key)];
+  }
+
+  /**
+   * Returns the postings for the trigram, adds them if necessary.
+   *
+   * @param key		the trigram
+   * @return		the postings
+   */
+  protected Postings obtain(long key) {
+    long[]	keys;
+    Postings[]	postings;
+    int		slot;
+    int		i;
+
+    slot = slot(m_Keys, m_Postings, key);
+    if (m_Postings[slot] != null)
+      return m_Postings[slot];
+
+    // keep load factor below 0.5
+    if (2 * (m_Trigrams + 1) > m_Keys.length) {
+      keys     = new long[m_Keys.length * 2];
+      postings = new Postings[m_Keys.length * 2];
+      for (i = 0; i < m_Keys.length; i++) {
+	if (m_Postings[i] != null) {
+	  slot           = slot(keys, postings, m_Keys[i]);
+	  keys[slot]     = m_Keys[i];
+	  postings[slot] = m_Postings[i];
+	}
+      }
+      m_Keys     = keys;
+      m_Postings = postings;
+      slot       = slot(m_Keys, m_Postings, key);
+    }
+    m_Keys[slot]     = key;
+    m_Postings[slot] = new Postings();
+    m_Trigrams++;
+
+    return m_Postings[slot];
+  }
+
+  /**
+   * Indexes the records that were added since the last update. Starts
+   * from scratch if the records got cleared in the meantime.
+   *
+   * @return		the number of records that got indexed
+   */
+  public synchronized int update() {
+    int		result;
+    int		size;
+    String	text;
+    char[]	lower;
+    long	key;
+    int		i;
+
+    if (m_Generation != m_Records.getGeneration())
+      reset();
+
+    result = 0;
+    size   = m_Records.size();
+    try {
+      for (; m_Indexed < size; m_Indexed++) {
+	text = m_Records.getText(m_Indexed);
+	if (text.length() >= 3) {
+	  lower = text.toCharArray();
+	  for (i = 0; i < lower.length; i++)
+	    lower[i] = Character.toLowerCase(lower[i]);
+	  // rolling key of the last three characters
+	  key = ((long) lower[0] << 16) | lower[1];
+	  for (i = 2; i < lower.length; i++) {
+	    key = ((key << 16) | lower[i]) & 0xFFFFFFFFFFFFL;
+	    obtain(key).add(m_Indexed);
+	  }
+	}
+	result++;
+      }
+    }
+    catch (IndexOutOfBoundsException e) {
+      // records got cleared in the meantime
+      reset();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the number of records that have been indexed.
+   *
+   * @return		the number of records
+   */
+  public synchronized int getIndexed() {
+    return m_Indexed;
+  }
+
+  /**
+   * Returns the indexed records that contain all the literals.
+   *
+   * @param literals	the literals, only ones with at least three characters get used
+   * @return		the sorted record numbers, null if all indexed records are candidates
+   */
+  protected synchronized int[] candidates(List<String> literals) {
+    int[]		result;
+    List<Postings>	all;
+    Postings		postings;
+    int			i;
+
+    all = new ArrayList<>();
+    for (String literal: literals) {
+      for (i = 0; i < literal.length() - 2; i++) {
+	postings = get(key(literal, i));
+	if (postings == null)
+	  return new int[0];
+	all.add(postings);
+      }
+    }
+
+    // rarest trigrams first, keeps the candidates small
+    all.sort((Postings p1, Postings p2) -> Integer.compare(p1.m_Count, p2.m_Count));
+    result = null;
+    for (Postings p: all) {
+      result = p.intersect(result);
+      if (result.length == 0)
+	break;
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether the text contains the query.
+   *
+   * @param text	the text to check
+   * @param query	the text to look for
+   * @param caseSensitive	whether to match case-sensitive
+   * @return		true if contained
+   */
+  public static boolean contains(String text, String query, boolean caseSensitive) {
+    int		i;
+
+    if (caseSensitive)
+      return text.contains(query);
+    for (i = 0; i <= text.length() - query.length(); i++) {
+      if (text.regionMatches(true, i, query, 0, query.length()))
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the records that contain the text.
+   *
+   * @param query	the text to look for
+   * @param caseSensitive	whether to match case-sensitive
+   * @return		the sorted record numbers
+   */
+  public int[] search(String query, boolean caseSensitive) {
+    List<String>	literals;
+
+    literals = new ArrayList<>();
+    literals.add(query);
+    return verify(literals, (String text) -> contains(text, query, caseSensitive));
+  }
+
+  /**
+   * Returns the records that match the regular expression (partial match).
+   *
+   * @param pattern	the expression
+   * @return		the sorted record numbers
+   */
+  public int[] search(Pattern pattern) {
+    return verify(literals(pattern), (String text) -> pattern.matcher(text).find());
+  }
+
+  /**
+   * Updates the index and verifies the candidates for the literals.
+   *
+   * @param literals	the literals that matching records must contain
+   * @param matcher	for verifying the candidates
+   * @return		the sorted record numbers
+   */
+  protected int[] verify(List<String> literals, Predicate<String> matcher) {
+    int[]	candidates;
+    int[]	result;
+    int		generation;
+    int		size;
+    int		i;
+
+    generation = m_Records.getGeneration();
+    update();
+    candidates = candidates(literals);
+    size       = 0;
+    try {
+      if (candidates == null) {
+	result = new int[getIndexed()];
+	for (i = 0; i < result.length; i++) {
+	  if (matcher.test(m_Records.getText(i)))
+	    result[size++] = i;
+	}
+      }
+      else {
+	result = new int[candidates.length];
+	for (int index: candidates) {
+	  if (matcher.test(m_Records.getText(index)))
+	    result[size++] = index;
+	}
+      }
+    }
+    catch (IndexOutOfBoundsException e) {
+      return new int[0];
+    }
+    if (generation != m_Records.getGeneration())
+      return new int[0];
+
+    return Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Determines the literal runs that every match of the expression must
+   * contain. Conservative, i.e., returns no literals if unsure.
+   *
+   * @param pattern	the expression
+   * @return		the literals
+   */
+  public static List<String> literals(Pattern pattern) {
+    List<String>	result;
+    StringBuilder	current;
+    String		regex;
+    char		c;
+    char		next;
+    int			i;
+
+    result = new ArrayList<>();
+    regex  = pattern.pattern();
+    if ((pattern.flags() & (Pattern.LITERAL | Pattern.COMMENTS)) != 0)
+      return result;
+    // alternatives, inline flags and optional groups
+    if (regex.contains("|") || regex.contains("(?") || regex.matches(".*\\)[?*{].*"))
+      return result;
+
+    current = new StringBuilder();
+    i       = 0;
+    while (i < regex.length()) {
+      c = regex.charAt(i);
+      if (c == '\\') {
+	if (i + 1 == regex.length())
+	  break;
+	next = regex.charAt(i + 1);
+	if (!Character.isLetterOrDigit(next)) {
+	  current.append(next);
+	  i += 2;
+	  continue;
+	}
+	// escapes with arguments
+	if ("xu0cpPkNQ".indexOf(next) > -1)
+	  return new ArrayList<>();
+	// character classes, anchors and control characters
+	addLiteral(result, current);
+	i += 2;
+	continue;
+      }
+      switch (c) {
+	case '*':
+	case '?':
+	case '{':
+	  // previous character is optional
+	  if (current.length() > 0)
+	    current.setLength(current.length() - 1);
+	  addLiteral(result, current);
+	  if (c == '{') {
+	    while ((i < regex.length()) && (regex.charAt(i) != '}'))
+	      i++;
+	  }
+	  break;
+	case '[':
+	  addLiteral(result, current);
+	  i++;
+	  if ((i < regex.length()) && (regex.charAt(i) == '^'))
+	    i++;
+	  if ((i < regex.length()) && (regex.charAt(i) == ']'))
+	    i++;
+	  while ((i < regex.length()) && (regex.charAt(i) != ']')) {
+	    if (regex.charAt(i) == '\\')
+	      i++;
+	    i++;
+	  }
+	  // quantifier applies to the class, nothing to remove
+	  break;
+	case '+':
+	case '.':
+	case '^':
+	case '$':
+	case '(':
+	case ')':
+	  addLiteral(result, current);
+	  break;
+	default:
+	  current.append(c);
+      }
+      i++;
+    }
+    addLiteral(result, current);
+
+    return result;
+  }
+
+  /**
+   * Adds the current literal run if long enough and starts a new one.
+   *
+   * @param literals	the literals to add to
+   * @param current	the current run, gets reset
+   */
+  protected static void addLiteral(List<String> literals, StringBuilder current) {
+    if (current.length() >= 3)
+      literals.add(current.toString());
+    current.setLength(0);
+  }
+}
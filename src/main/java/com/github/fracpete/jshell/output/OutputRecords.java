@@ -0,0 +1,267 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OutputRecords.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.output;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Stores output lines as records (stream, timestamp, sequence, text) in
+ * primitive arrays. The text of all lines is kept in a single buffer, with
+ * the records referencing it via offsets, i.e., no objects get created per
+ * line. The sequence number of a record is its index.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class OutputRecords
+  implements Serializable {
+
+  /** the initial capacity. */
+  public final static int INITIAL_CAPACITY = 1024;
+
+  /** the number of records. */
+  protected int m_Size;
+
+  /** the offsets of the records in the text buffer. */
+  protected int[] m_Offsets;
+
+  /** the timestamps of the records (msec since epoch). */
+  protected long[] m_Timestamps;
+
+  /** the records that are from stderr. */
+  protected BitSet m_Stderr;
+
+  /** the text of all records. */
+  protected StringBuilder m_Text;
+
+  /** gets incremented whenever the records get cleared. */
+  protected int m_Generation;
+
+  /**
+   * Initializes the storage.
+   */
+  public OutputRecords() {
+    clear();
+  }
+
+  /**
+   * Removes all records.
+   */
+  public synchronized void clear() {
+    m_Size       = 0;
+    m_Offsets    = new int[INITIAL_CAPACITY];
+    m_Timestamps = new long[INITIAL_CAPACITY];
+    m_Stderr     = new BitSet();
+    m_Text       = new StringBuilder();
+    m_Generation++;
+  }
+
+  /**
+   * Returns the generation of the records, which changes whenever they get
+   * cleared.
+   *
+   * @return		the generation
+   */
+  public synchronized int getGeneration() {
+    return m_Generation;
+  }
+
+  /**
+   * Adds the line.
+   *
+   * @param text	the line, without line feed
+   * @param stdout	whether stdout or stderr
+   * @param timestamp	the timestamp (msec since epoch)
+   * @return		the sequence number of the record
+   */
+  public synchronized int add(String text, boolean stdout, long timestamp) {
+    if (m_Size == m_Offsets.length) {
+      m_Offsets    = Arrays.copyOf(m_Offsets, m_Size * 2);
+      m_Timestamps = Arrays.copyOf(m_Timestamps, m_Size * 2);
+    }
+    m_Offsets[m_Size]    = m_Text.length();
+    m_Timestamps[m_Size] = timestamp;
+    if (!stdout)
+      m_Stderr.set(m_Size);
+    m_Text.append(text);
+
+    return m_Size++;
+  }
+
+  /**
+   * Returns the number of records.
+   *
+   * @return		the number
+   */
+  public synchronized int size() {
+    return m_Size;
+  }
+
+  /**
+   * Returns the number of records in the view.
+   *
+   * @param view	the view
+   * @return		the number
+   */
+  public synchronized int count(OutputView view) {
+    switch (view) {
+      case STDOUT:
+	return m_Size - m_Stderr.cardinality();
+      case STDERR:
+	return m_Stderr.cardinality();
+      default:
+	return m_Size;
+    }
+  }
+
+  /**
+   * Returns the number of records in the view that precede the record,
+   * i.e., its position within the view.
+   *
+   * @param index	the sequence number of the record
+   * @param view	the view
+   * @return		the number of preceding records
+   */
+  public synchronized int rank(int index, OutputView view) {
+    int		stderr;
+
+    check(index);
+    stderr = m_Stderr.get(0, index).cardinality();
+    switch (view) {
+      case STDOUT:
+	return index - stderr;
+      case STDERR:
+	return stderr;
+      default:
+	return index;
+    }
+  }
+
+  /**
+   * Returns whether the record is from stdout.
+   *
+   * @param index	the sequence number of the record
+   * @return		true if stdout, false if stderr
+   */
+  public synchronized boolean isStdout(int index) {
+    check(index);
+    return !m_Stderr.get(index);
+  }
+
+  /**
+   * Returns the timestamp of the record.
+   *
+   * @param index	the sequence number of the record
+   * @return		the timestamp (msec since epoch)
+   */
+  public synchronized long getTimestamp(int index) {
+    check(index);
+    return m_Timestamps[index];
+  }
+
+  /**
+   * Returns the text of the record.
+   *
+   * @param index	the sequence number of the record
+   * @return		the line, without line feed
+   */
+  public synchronized String getText(int index) {
+    check(index);
+    return m_Text.substring(m_Offsets[index], end(index));
+  }
+
+  /**
+   * Appends the text of the records in the view, one line per record.
+   *
+   * @param from	the first sequence number (incl)
+   * @param to		the last sequence number (excl)
+   * @param view	the view
+   * @param stdout	whether to append stdout or stderr records, stops at the first record of the other stream
+   * @param buffer	the buffer to append to
+   * @return		the sequence number of the first record that was not appended
+   */
+  public synchronized int append(int from, int to, OutputView view, boolean stdout, StringBuilder buffer) {
+    int		i;
+
+    to = Math.min(to, m_Size);
+    for (i = from; i < to; i++) {
+      if (!view.accept(!m_Stderr.get(i)))
+	continue;
+      if (m_Stderr.get(i) == stdout)
+	break;
+      buffer.append(m_Text, m_Offsets[i], end(i)).append('\n');
+    }
+
+    return i;
+  }
+
+  /**
+   * Returns the text of the records in the view, one line per record.
+   *
+   * @param view	the view
+   * @return		the text
+   */
+  public synchronized String toString(OutputView view) {
+    StringBuilder	result;
+    int			i;
+
+    result = new StringBuilder();
+    for (i = 0; i < m_Size; i++) {
+      if (view.accept(!m_Stderr.get(i)))
+	result.append(m_Text, m_Offsets[i], end(i)).append('\n');
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the text of all records, one line per record.
+   *
+   * @return		the text
+   */
+  @Override
+  public String toString() {
+    return toString(OutputView.ALL);
+  }
+
+  /**
+   * Returns the end offset of the record in the text buffer.
+   *
+   * @param index	the sequence number of the record
+   * @return		the offset (excl)
+   */
+  protected int end(int index) {
+    return (index == m_Size - 1) ? m_Text.length() : m_Offsets[index + 1];
+  }
+
+  /**
+   * Checks the sequence number.
+   *
+   * @param index	the sequence number to check
+   * @throws IndexOutOfBoundsException	if invalid
+   */
+  protected void check(int index) {
+    if ((index < 0) || (index >= m_Size))
+      throw new IndexOutOfBoundsException("Invalid record: " + index + " (size: " + m_Size + ")");
+  }
+}
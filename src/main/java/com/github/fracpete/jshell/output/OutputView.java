@@ -0,0 +1,72 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OutputView.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.output;
+
+/**
+ * The streams to show of the output.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public enum OutputView {
+  ALL("All output"),
+  STDOUT("stdout only"),
+  STDERR("stderr only");
+
+  /** the display string. */
+  private final String m_Display;
+
+  /**
+   * Initializes the view.
+   *
+   * @param display	the display string
+   */
+  OutputView(String display) {
+    m_Display = display;
+  }
+
+  /**
+   * Returns whether records of the stream are part of the view.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		true if part of the view
+   */
+  public boolean accept(boolean stdout) {
+    switch (this) {
+      case STDOUT:
+	return stdout;
+      case STDERR:
+	return !stdout;
+      default:
+	return true;
+    }
+  }
+
+  /**
+   * Returns the display string.
+   *
+   * @return		the display string
+   */
+  @Override
+  public String toString() {
+    return m_Display;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PipelineInput.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.pipeline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Gives a script that runs as stage of a {@link ScriptPipeline} access to
+ * the output of the previous stage. Lives in the JVM that executes the code,
+ * which connects to the host via the loopback port supplied with the system
+ * property {@link #PROPERTY_PORT}. For example:
+ * <pre>
+ * import com.github.fracpete.jshell.pipeline.PipelineInput;
+ * PipelineInput.lines().map(String::toUpperCase).forEach(System.out::println);
+ * </pre>
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class PipelineInput {
+
+  /** the system property with the port to connect to. */
+  public final static String PROPERTY_PORT = "jshell.pipeline.port";
+
+  /** the reader for the input. */
+  protected static BufferedReader m_Reader;
+
+  /**
+   * Returns whether the script runs as stage of a pipeline that receives
+   * input.
+   *
+   * @return		true if input available
+   */
+  public static boolean isAvailable() {
+    return (System.getProperty(PROPERTY_PORT) != null);
+  }
+
+  /**
+   * Returns the reader for the output of the previous stage. Connects on
+   * first call.
+   *
+   * @return		the reader, empty if not running in a pipeline
+   * @throws IOException	if connecting fails
+   */
+  public static synchronized BufferedReader reader() throws IOException {
+    Socket	socket;
+
+    if (m_Reader == null) {
+      if (isAvailable()) {
+	socket   = new Socket(InetAddress.getLoopbackAddress(), Integer.getInteger(PROPERTY_PORT));
+	m_Reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      }
+      else {
+	m_Reader = new BufferedReader(new StringReader(""));
+      }
+    }
+
+    return m_Reader;
+  }
+
+  /**
+   * Returns the lines output by the previous stage. The stream blocks until
+   * lines become available and ends once the previous stage has finished.
+   *
+   * @return		the lines
+   * @throws UncheckedIOException	if connecting fails
+   */
+  public static Stream<String> lines() {
+    try {
+      return reader().lines();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
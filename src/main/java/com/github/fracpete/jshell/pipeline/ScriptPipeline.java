@@ -0,0 +1,422 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptPipeline.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.pipeline;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.event.JShellExecEvent;
+import com.github.fracpete.jshell.prelude.Prelude;
+import com.github.fracpete.jshell.process.FlowControlledOwner;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs several scripts concurrently, each in its own jshell process, with
+ * the stdout of one stage streamed into the next stage, which reads it via
+ * {@link PipelineInput}. The stdout of the last stage and the stderr of all
+ * stages get forwarded to the owning {@link JShellExec}. If a stage fails,
+ * all other stages get stopped. A stage producing output faster than the
+ * next one consumes it gets throttled once {@link Link#CAPACITY} lines are
+ * queued up. Output for a stage that has already finished gets discarded.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see JShellExec#runPipeline(List, List, List, List)
+ */
+public class ScriptPipeline {
+
+  /**
+   * Forwards the output of a stage to the next one, via a loopback
+   * connection.
+   */
+  protected static class Link
+    implements Runnable {
+
+    /** the end-of-stream marker. */
+    protected final static String EOF = new String("EOF");
+
+    /** the maximum number of queued lines before throttling the stage. */
+    public final static int CAPACITY = 1024;
+
+    /** the server socket the next stage connects to. */
+    protected ServerSocket m_Server;
+
+    /** the lines to forward. */
+    protected BlockingQueue<String> m_Lines;
+
+    /** whether the link got closed. */
+    protected volatile boolean m_Closed;
+
+    /**
+     * Initializes the link.
+     *
+     * @throws IOException	if the server socket cannot be created
+     */
+    protected Link() throws IOException {
+      m_Server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+      m_Lines  = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Returns the port the next stage has to connect to.
+     *
+     * @return		the port
+     */
+    protected int getPort() {
+      return m_Server.getLocalPort();
+    }
+
+    /**
+     * Returns whether more lines can be queued. Always true once closed,
+     * as lines get discarded then.
+     *
+     * @return		true if lines can be queued
+     */
+    protected boolean canAccept() {
+      return m_Closed || (m_Lines.size() < CAPACITY);
+    }
+
+    /**
+     * Queues the line for forwarding. Discarded if the link is closed.
+     * The capacity is enforced by the reading of the process being paused,
+     * so the line never gets rejected.
+     *
+     * @param line	the line
+     * @see		#canAccept()
+     */
+    protected void add(String line) {
+      if (!m_Closed)
+	m_Lines.add(line);
+    }
+
+    /**
+     * Signals that the previous stage has finished.
+     */
+    protected void finish() {
+      m_Lines.add(EOF);
+    }
+
+    /**
+     * Closes the link, discarding any queued lines.
+     */
+    protected void close() {
+      m_Closed = true;
+      m_Lines.clear();
+      m_Lines.add(EOF);
+      try {
+	m_Server.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+
+    /**
+     * Waits for the next stage to connect and forwards the lines until the
+     * previous stage has finished.
+     */
+    public void run() {
+      String	line;
+
+      try (Socket socket = m_Server.accept(); OutputStream out = socket.getOutputStream()) {
+	m_Server.close();
+	while ((line = m_Lines.take()) != EOF) {
+	  out.write(line.getBytes(StandardCharsets.UTF_8));
+	  out.write('\n');
+	  if (m_Lines.isEmpty())
+	    out.flush();
+	}
+      }
+      catch (Exception e) {
+	// stopped or next stage terminated
+      }
+      finally {
+	close();
+      }
+    }
+  }
+
+  /**
+   * Routes the output of a stage.
+   */
+  protected class Router
+    implements StreamingProcessOwner, FlowControlledOwner {
+
+    /** the link to the next stage, null if last stage. */
+    protected Link m_Next;
+
+    /**
+     * Initializes the router.
+     *
+     * @param next	the link to the next stage, null if last stage
+     */
+    protected Router(Link next) {
+      m_Next = next;
+    }
+
+    /**
+     * Returns what output from the process to forward.
+     *
+     * @return 		the output type
+     */
+    public StreamingProcessOutputType getOutputType() {
+      return StreamingProcessOutputType.BOTH;
+    }
+
+    /**
+     * Returns whether more output can be accepted at the moment.
+     *
+     * @param stdout	whether stdout or stderr
+     * @return		false if stdout and the next stage is lagging behind
+     */
+    public boolean canAcceptOutput(boolean stdout) {
+      return !stdout || (m_Next == null) || m_Next.canAccept();
+    }
+
+    /**
+     * Processes the incoming line.
+     *
+     * @param line	the line to process
+     * @param stdout	whether stdout or stderr
+     */
+    public void processOutput(String line, boolean stdout) {
+      if (stdout && (m_Next != null))
+	m_Next.add(line);
+      else
+	m_Owner.processOutput(line, stdout);
+    }
+  }
+
+  /** the owner. */
+  protected JShellExec m_Owner;
+
+  /** the scripts of the stages. */
+  protected List<String> m_Scripts;
+
+  /** the executions of the stages. */
+  protected List<JShellExec> m_Stages;
+
+  /** the links between the stages. */
+  protected List<Link> m_Links;
+
+  /** the number of stages still running. */
+  protected int m_Running;
+
+  /** whether a stage failed. */
+  protected boolean m_Failed;
+
+  /** whether the pipeline got stopped. */
+  protected volatile boolean m_Stopped;
+
+  /**
+   * Initializes the pipeline.
+   *
+   * @param owner	the owner to forward output and the result to
+   * @param scripts	the scripts of the stages, in order
+   */
+  public ScriptPipeline(JShellExec owner, List<String> scripts) {
+    m_Owner   = owner;
+    m_Scripts = new ArrayList<>(scripts);
+    m_Stages  = new ArrayList<>();
+    m_Links   = new ArrayList<>();
+    m_Running = 0;
+    m_Failed  = false;
+    m_Stopped = false;
+  }
+
+  /**
+   * Returns the number of stages.
+   *
+   * @return		the number
+   */
+  public int size() {
+    return m_Scripts.size();
+  }
+
+  /**
+   * Starts all stages.
+   *
+   * @param runtimeFlags 	optional runtime flags for JShell
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code
+   * @param compilerFlags 	optional compiler flags
+   * @return		null if successfully started, otherwise error message
+   */
+  public String start(List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    Link		link;
+    Thread		thread;
+    JShellExec		stage;
+    int			i;
+
+    try {
+      for (i = 0; i < m_Scripts.size() - 1; i++) {
+	link = new Link();
+	m_Links.add(link);
+	thread = new Thread(link, "jshell-pipeline-" + (i + 1));
+	thread.setDaemon(true);
+	thread.start();
+      }
+    }
+    catch (Exception e) {
+      stop();
+      return "Failed to set up links between stages: " + e;
+    }
+
+    for (i = 0; i < m_Scripts.size(); i++) {
+      final int index = i;
+      stage = new JShellExec();
+      stage.setDebug(m_Owner.getDebug());
+      stage.setCoresPerRun(m_Owner.getCoresPerRun());
+      stage.setExecutableResolver(m_Owner.getExecutableResolver());
+      for (Prelude prelude: m_Owner.getPreludes())
+	stage.addPrelude(prelude);
+      stage.setStreamingProcessOwner(new Router((i < m_Links.size()) ? m_Links.get(i) : null));
+      stage.addJShellErrorListener(m_Owner::notifyJShellErrorListeners);
+      stage.addJShellExecListener((JShellExecEvent e) -> stageEvent(e, index));
+      m_Stages.add(stage);
+    }
+
+    synchronized (this) {
+      m_Running = m_Stages.size();
+    }
+    for (i = 0; i < m_Stages.size(); i++) {
+      m_Stages.get(i).runScript(m_Scripts.get(i), runtimeFlags, (i > 0) ? withPort(remoteRuntimeFlags, m_Links.get(i - 1)) : remoteRuntimeFlags, compilerFlags);
+      if (!m_Stages.get(i).isRunning()) {
+	stop();
+	return "Failed to start stage #" + (i + 1);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Adds the port of the link to the remote runtime flags.
+   *
+   * @param flags	the flags, can be null
+   * @param link	the link to the previous stage
+   * @return		the extended flags
+   */
+  protected List<String> withPort(List<String> flags, Link link) {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    if (flags != null)
+      result.addAll(flags);
+    result.add("-D" + PipelineInput.PROPERTY_PORT + "=" + link.getPort());
+
+    return result;
+  }
+
+  /**
+   * Handles the events of the stages.
+   *
+   * @param e		the event
+   * @param index	the index of the stage
+   */
+  protected void stageEvent(JShellExecEvent e, int index) {
+    boolean	finished;
+    boolean	success;
+    boolean	failed;
+
+    finished = false;
+    success  = false;
+    failed   = false;
+    synchronized (this) {
+      switch (e.getType()) {
+	case SCRIPT_RUN_FAILURE:
+	  failed   = !m_Failed && !m_Stopped;
+	  m_Failed = true;
+	  break;
+
+	case SCRIPT_FINISHED:
+	  // end of input for next stage
+	  if (index < m_Links.size())
+	    m_Links.get(index).finish();
+	  // nobody reads the output of the previous stage anymore
+	  if (index > 0)
+	    m_Links.get(index - 1).close();
+	  m_Running--;
+	  finished = (m_Running == 0);
+	  success  = !m_Failed && !m_Stopped;
+	  break;
+      }
+    }
+
+    if (failed) {
+      m_Owner.debugMsg("Pipeline stage #" + (index + 1) + " failed, stopping others");
+      stopStages(index);
+    }
+    if (finished) {
+      closeLinks();
+      m_Owner.pipelineFinished(this, success);
+    }
+  }
+
+  /**
+   * Stops all stages apart from the specified one.
+   *
+   * @param skip	the index of the stage to skip, -1 for none
+   */
+  protected void stopStages(int skip) {
+    int		i;
+
+    for (i = 0; i < m_Stages.size(); i++) {
+      if (i != skip)
+	m_Stages.get(i).stopScript();
+    }
+    closeLinks();
+  }
+
+  /**
+   * Closes all links, which terminates their threads.
+   */
+  protected void closeLinks() {
+    for (Link link: m_Links)
+      link.close();
+  }
+
+  /**
+   * Stops the pipeline.
+   */
+  public void stop() {
+    m_Stopped = true;
+    stopStages(-1);
+  }
+
+  /**
+   * Returns whether the pipeline is still running.
+   *
+   * @return		true if running
+   */
+  public synchronized boolean isRunning() {
+    return !m_Stopped && (m_Running > 0);
+  }
+}
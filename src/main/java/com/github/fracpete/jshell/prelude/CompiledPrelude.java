@@ -0,0 +1,117 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CompiledPrelude.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.prelude;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * A prelude that has been compiled into a jar, along with the startup
+ * snippets (imports and initialization) for jshell.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class CompiledPrelude
+  implements Serializable {
+
+  /** the prelude. */
+  protected Prelude m_Prelude;
+
+  /** the fingerprint. */
+  protected String m_Fingerprint;
+
+  /** the jar with the declarations. */
+  protected File m_Jar;
+
+  /** the jshell startup file. */
+  protected File m_Startup;
+
+  /**
+   * Initializes the compiled prelude.
+   *
+   * @param prelude	the prelude
+   * @param fingerprint	the fingerprint
+   * @param jar		the jar with the declarations
+   * @param startup	the jshell startup file
+   */
+  public CompiledPrelude(Prelude prelude, String fingerprint, File jar, File startup) {
+    m_Prelude     = prelude;
+    m_Fingerprint = fingerprint;
+    m_Jar         = jar;
+    m_Startup     = startup;
+  }
+
+  /**
+   * Returns the prelude.
+   *
+   * @return		the prelude
+   */
+  public Prelude getPrelude() {
+    return m_Prelude;
+  }
+
+  /**
+   * Returns the fingerprint.
+   *
+   * @return		the fingerprint
+   */
+  public String getFingerprint() {
+    return m_Fingerprint;
+  }
+
+  /**
+   * Returns the jar with the declarations.
+   *
+   * @return		the jar
+   */
+  public File getJar() {
+    return m_Jar;
+  }
+
+  /**
+   * Returns the jshell startup file (imports and initialization).
+   *
+   * @return		the file
+   */
+  public File getStartup() {
+    return m_Startup;
+  }
+
+  /**
+   * Returns whether the files are still present.
+   *
+   * @return		true if present
+   */
+  public boolean isValid() {
+    return m_Jar.exists() && m_Startup.exists();
+  }
+
+  /**
+   * Returns a short description of the compiled prelude.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Prelude.getName() + " -> " + m_Jar;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Prelude.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.prelude;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * A named block of jshell code (imports, helper methods and classes,
+ * variables) that gets loaded into every session before the actual script.
+ * The declarations get compiled once into a jar by the {@link PreludeCache}
+ * and only the imports are left for jshell to evaluate.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Prelude
+  implements Serializable {
+
+  /** the name of the prelude. */
+  protected String m_Name;
+
+  /** the code. */
+  protected String m_Code;
+
+  /** whether to keep jshell's default startup snippets. */
+  protected boolean m_DefaultStartup;
+
+  /**
+   * Initializes the prelude, keeping jshell's default startup.
+   *
+   * @param name	the name of the prelude
+   * @param code	the code
+   */
+  public Prelude(String name, String code) {
+    this(name, code, true);
+  }
+
+  /**
+   * Initializes the prelude.
+   *
+   * @param name	the name of the prelude
+   * @param code	the code
+   * @param defaultStartup	whether to keep jshell's default startup snippets (--startup DEFAULT vs --no-startup)
+   */
+  public Prelude(String name, String code, boolean defaultStartup) {
+    if ((name == null) || name.isEmpty())
+      throw new IllegalArgumentException("Prelude requires a name!");
+    m_Name           = name;
+    m_Code           = (code == null) ? "" : code;
+    m_DefaultStartup = defaultStartup;
+  }
+
+  /**
+   * Returns the name of the prelude.
+   *
+   * @return		the name
+   */
+  public String getName() {
+    return m_Name;
+  }
+
+  /**
+   * Returns the code.
+   *
+   * @return		the code
+   */
+  public String getCode() {
+    return m_Code;
+  }
+
+  /**
+   * Returns whether jshell's default startup snippets are kept.
+   *
+   * @return		true if kept
+   */
+  public boolean getDefaultStartup() {
+    return m_DefaultStartup;
+  }
+
+  /**
+   * Returns the fingerprint of the prelude, which changes whenever the
+   * compiled prelude needs regenerating: the code, the Java version and the
+   * classpath it gets compiled against.
+   *
+   * @param classPath	the classpath to compile against
+   * @return		the fingerprint (hex)
+   */
+  public String getFingerprint(String classPath) {
+    MessageDigest	digest;
+    byte[]		hash;
+    StringBuilder	result;
+    int			i;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (Exception e) {
+      throw new IllegalStateException("SHA-256 not available!", e);
+    }
+    digest.update(m_Name.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(m_Code.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(System.getProperty("java.version").getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(classPath.getBytes(StandardCharsets.UTF_8));
+    hash   = digest.digest();
+    result = new StringBuilder();
+    for (i = 0; i < 8; i++)
+      result.append(String.format("%02x", hash[i]));
+
+    return result.toString();
+  }
+
+  /**
+   * Returns a short description of the prelude.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Name + " (" + m_Code.length() + " chars, " + (m_DefaultStartup ? "default startup" : "no startup") + ")";
+  }
+}
@@ -0,0 +1,394 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * PreludeCache.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.prelude;
+
+import com.github.fracpete.jshell.compile.ScriptCompiler;
+import com.github.fracpete.jshell.compile.ScriptParser;
+import com.github.fracpete.jshell.compile.ScriptSnippet;
+import com.github.fracpete.jshell.session.SessionSettings;
+import nz.ac.waikato.cms.core.FileUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles preludes into jars and caches them on disk, keyed by their
+ * fingerprint. A prelude only gets recompiled if its code, the Java version
+ * or the classpath changes; the files of outdated versions get removed.
+ * <br>
+ * The declarations of a prelude become public static members of a generated
+ * class, which the startup file imports statically, along with the imports
+ * of the prelude. Any statements get executed by calling the
+ * {@link ScriptCompiler#LIBRARY_INIT} method of the class.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class PreludeCache {
+
+  /** the default directory for the compiled preludes. */
+  public final static File DEFAULT_DIR = new File(System.getProperty("user.home") + File.separator + ".jshell-scripting" + File.separator + "preludes");
+
+  /** the package for the generated classes. */
+  public final static String PACKAGE = "jshellscripting.prelude";
+
+  /** the singleton. */
+  protected static PreludeCache m_Singleton;
+
+  /** the directory to store the compiled preludes in. */
+  protected File m_Directory;
+
+  /** the compiled preludes (name-classpath hash / compiled). */
+  protected Map<String,CompiledPrelude> m_Compiled;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param dir		the directory to store the compiled preludes in
+   */
+  public PreludeCache(File dir) {
+    m_Directory = dir;
+    m_Compiled  = new HashMap<>();
+  }
+
+  /**
+   * Returns the directory the compiled preludes are stored in.
+   *
+   * @return		the directory
+   */
+  public File getDirectory() {
+    return m_Directory;
+  }
+
+  /**
+   * Turns the name of the prelude into a valid Java identifier.
+   *
+   * @param name	the name to convert
+   * @return		the identifier
+   */
+  public static String toIdentifier(String name) {
+    return "Prelude_" + name.replaceAll("[^A-Za-z0-9_]", "_");
+  }
+
+  /**
+   * Returns a short hash of the classpath. Preludes compiled against
+   * different classpaths (eg due to different //DEPS) are kept side by side.
+   *
+   * @param classPath	the classpath to hash
+   * @return		the hash
+   */
+  public static String hashClassPath(String classPath) {
+    MessageDigest	digest;
+    byte[]		hash;
+    StringBuilder	result;
+    int			i;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (Exception e) {
+      throw new IllegalStateException("SHA-256 not available!", e);
+    }
+    hash   = digest.digest(classPath.getBytes(StandardCharsets.UTF_8));
+    result = new StringBuilder();
+    for (i = 0; i < 4; i++)
+      result.append(String.format("%02x", hash[i]));
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the compiled prelude, compiling it if necessary.
+   *
+   * @param prelude	the prelude to compile
+   * @param classPath	the classpath to compile against
+   * @return		the compiled prelude
+   * @throws Exception	if compilation fails
+   */
+  public synchronized CompiledPrelude compile(Prelude prelude, String classPath) throws Exception {
+    CompiledPrelude	result;
+    String		fingerprint;
+    String		prefix;
+    String		key;
+    File		jar;
+    File		startup;
+
+    fingerprint = prelude.getFingerprint(classPath);
+    prefix      = toIdentifier(prelude.getName()) + "-" + hashClassPath(classPath);
+    key         = prelude.getName() + "-" + hashClassPath(classPath);
+    jar         = new File(m_Directory, prefix + "-" + fingerprint + ".jar");
+    startup     = new File(m_Directory, prefix + "-" + fingerprint + ".jsh");
+    result      = m_Compiled.get(key);
+    if ((result == null) || !result.getFingerprint().equals(fingerprint) || !result.isValid()) {
+      // compiled by a previous session?
+      if (!jar.exists() || !startup.exists()) {
+	if (!m_Directory.exists() && !m_Directory.mkdirs())
+	  throw new IllegalStateException("Failed to create directory for preludes: " + m_Directory);
+	generateJar(prelude, classPath, jar);
+	generateStartup(prelude, startup);
+      }
+      invalidate(prefix, fingerprint);
+    }
+
+    // the startup choice isn't part of the fingerprint
+    result = new CompiledPrelude(prelude, fingerprint, jar, startup);
+    m_Compiled.put(key, result);
+
+    return result;
+  }
+
+  /**
+   * Compiles the declarations of the prelude into the jar.
+   *
+   * @param prelude	the prelude to compile
+   * @param classPath	the classpath to compile against
+   * @param jar		the jar to generate
+   * @throws Exception	if compilation fails
+   */
+  protected void generateJar(Prelude prelude, String classPath, File jar) throws Exception {
+    ScriptCompiler	compiler;
+    File		tmpFile;
+    String		msg;
+
+    compiler = new ScriptCompiler();
+    compiler.setPackageName(PACKAGE);
+    compiler.setClassName(toIdentifier(prelude.getName()));
+    compiler.setLibrary(true);
+    compiler.setClassPath(classPath);
+    tmpFile = new File(jar.getAbsolutePath() + ".tmp");
+    msg     = compiler.compile(prelude.getCode(), tmpFile);
+    if (msg != null) {
+      tmpFile.delete();
+      throw new IllegalStateException("Failed to compile prelude '" + prelude.getName() + "':\n" + msg);
+    }
+    move(tmpFile, jar);
+  }
+
+  /**
+   * Generates the jshell startup file with the imports of the prelude, the
+   * static import of the generated class and the initialization.
+   *
+   * @param prelude	the prelude to generate the startup file for
+   * @param startup	the file to generate
+   * @throws Exception	if writing fails
+   */
+  protected void generateStartup(Prelude prelude, File startup) throws Exception {
+    StringBuilder	code;
+    String		cls;
+    String		source;
+    File		tmpFile;
+    String		msg;
+
+    code = new StringBuilder();
+    for (ScriptSnippet snippet: ScriptParser.parse(prelude.getCode())) {
+      source = snippet.getSource().trim();
+      if (source.matches("(?s)^import\\s.*"))
+	code.append(source.endsWith(";") ? source : source + ";").append("\n");
+    }
+    cls = PACKAGE + "." + toIdentifier(prelude.getName());
+    code.append("import static ").append(cls).append(".*;\n");
+    code.append(cls).append(".").append(ScriptCompiler.LIBRARY_INIT).append("();\n");
+
+    tmpFile = new File(startup.getAbsolutePath() + ".tmp");
+    msg     = FileUtils.writeToFileMsg(tmpFile.getAbsolutePath(), code.toString(), false, "UTF-8");
+    if (msg != null) {
+      tmpFile.delete();
+      throw new IllegalStateException("Failed to write startup file for prelude '" + prelude.getName() + "': " + msg);
+    }
+    move(tmpFile, startup);
+  }
+
+  /**
+   * Moves the file into place, atomically if possible (other JVMs might be
+   * compiling the same prelude).
+   *
+   * @param source	the file to move
+   * @param target	the target
+   * @throws Exception	if moving fails
+   */
+  protected void move(File source, File target) throws Exception {
+    try {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (AtomicMoveNotSupportedException e) {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Removes the files of other versions of the prelude.
+   *
+   * @param prefix	the file prefix of the prelude (incl classpath hash)
+   * @param fingerprint	the current fingerprint
+   */
+  protected void invalidate(String prefix, String fingerprint) {
+    File[]	files;
+    String	name;
+
+    files = m_Directory.listFiles();
+    if (files == null)
+      return;
+    for (File file: files) {
+      name = file.getName();
+      // identifiers contain no "-", ie no clash with other preludes;
+      // the prefix contains the classpath hash, ie only outdated versions
+      // for the same classpath get removed
+      if (!name.startsWith(prefix + "-") || name.startsWith(prefix + "-" + fingerprint + "."))
+	continue;
+      // possibly still being written by another JVM
+      if (name.endsWith(".tmp"))
+	continue;
+      file.delete();
+    }
+  }
+
+  /**
+   * Removes all compiled preludes.
+   */
+  public synchronized void clear() {
+    File[]	files;
+
+    m_Compiled.clear();
+    files = m_Directory.listFiles();
+    if (files == null)
+      return;
+    for (File file: files) {
+      if (file.getName().startsWith("Prelude_"))
+	file.delete();
+    }
+  }
+
+  /**
+   * Returns whether jshell's default startup snippets should be kept: if
+   * there are no preludes or at least one of them requests it.
+   *
+   * @param preludes	the compiled preludes
+   * @return		true if the default startup is kept
+   */
+  public static boolean getDefaultStartup(List<CompiledPrelude> preludes) {
+    if (preludes.isEmpty())
+      return true;
+    for (CompiledPrelude prelude: preludes) {
+      if (prelude.getPrelude().getDefaultStartup())
+	return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the classpath with the jars of the preludes appended.
+   *
+   * @param classPath	the classpath to extend
+   * @param preludes	the compiled preludes
+   * @return		the classpath
+   */
+  public static String getClassPath(String classPath, List<CompiledPrelude> preludes) {
+    StringBuilder	result;
+
+    result = new StringBuilder(classPath);
+    for (CompiledPrelude prelude: preludes) {
+      if (result.length() > 0)
+	result.append(File.pathSeparator);
+      result.append(prelude.getJar().getAbsolutePath());
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns the jshell commandline options for the preludes
+   * (--startup ...).
+   *
+   * @param preludes	the compiled preludes
+   * @return		the options
+   */
+  public static List<String> getStartupOptions(List<CompiledPrelude> preludes) {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    if (preludes.isEmpty())
+      return result;
+    if (getDefaultStartup(preludes)) {
+      result.add("--startup");
+      result.add("DEFAULT");
+    }
+    for (CompiledPrelude prelude: preludes) {
+      result.add("--startup");
+      result.add(prelude.getStartup().getAbsolutePath());
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the paths of the startup files of the preludes.
+   *
+   * @param preludes	the compiled preludes
+   * @return		the paths
+   */
+  public static List<String> getStartupFiles(List<CompiledPrelude> preludes) {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    for (CompiledPrelude prelude: preludes)
+      result.add(prelude.getStartup().getAbsolutePath());
+
+    return result;
+  }
+
+  /**
+   * Returns the session flags for the preludes (--startup=..., --no-startup).
+   *
+   * @param preludes	the compiled preludes
+   * @return		the flags
+   * @see		SessionSettings
+   */
+  public static List<String> getSessionFlags(List<CompiledPrelude> preludes) {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    if (!getDefaultStartup(preludes))
+      result.add(SessionSettings.NO_STARTUP);
+    for (String file: getStartupFiles(preludes))
+      result.add(SessionSettings.STARTUP + file);
+
+    return result;
+  }
+
+  /**
+   * Returns the singleton, using {@link #DEFAULT_DIR}.
+   *
+   * @return		the singleton
+   */
+  public static synchronized PreludeCache getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new PreludeCache(DEFAULT_DIR);
+    return m_Singleton;
+  }
+}
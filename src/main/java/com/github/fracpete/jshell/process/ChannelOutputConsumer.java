@@ -0,0 +1,49 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ChannelOutputConsumer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Interface for raw output consumers that can read the output straight
+ * from the channel of the process, e.g., via
+ * {@link java.nio.channels.FileChannel#transferFrom(ReadableByteChannel, long, long)},
+ * without it being copied into an intermediate buffer first.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface ChannelOutputConsumer
+  extends RawOutputConsumer {
+
+  /**
+   * Transfers the output from the channel. The channel has at least
+   * {@code count} bytes available, i.e., reading them does not block.
+   *
+   * @param channel	the channel to read from
+   * @param count	the number of bytes to transfer
+   * @param stdout	whether stdout or stderr
+   * @return		the number of bytes transferred
+   * @throws IOException	if transfer fails
+   */
+  public long transferFrom(ReadableByteChannel channel, long count, boolean stdout) throws IOException;
+}
@@ -0,0 +1,303 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CoreAllocator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assigns disjoint sets of CPUs to concurrently running processes, to avoid
+ * oversubscription. Processes get pinned to their CPUs via {@code taskset}
+ * (Linux only), which is inherited by any processes they spawn. Once all
+ * CPUs are in use, the least used ones get shared.
+ * <br>
+ * The CPUs available for allocation are the ones the current process is
+ * allowed to run on. They can be restricted further with the system property
+ * {@link #PROPERTY_CPUS}, using taskset's list format (eg "0-3,8").
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class CoreAllocator {
+
+  /**
+   * A set of allocated CPUs.
+   */
+  public static class CoreSet {
+
+    /** the CPUs. */
+    protected int[] m_CPUs;
+
+    /**
+     * Initializes the set.
+     *
+     * @param cpus	the CPUs
+     */
+    protected CoreSet(int[] cpus) {
+      m_CPUs = cpus;
+    }
+
+    /**
+     * Returns the CPUs.
+     *
+     * @return		the CPUs
+     */
+    public int[] getCPUs() {
+      return m_CPUs.clone();
+    }
+
+    /**
+     * Returns the number of CPUs.
+     *
+     * @return		the number
+     */
+    public int size() {
+      return m_CPUs.length;
+    }
+
+    /**
+     * Returns the command to prefix a command with for pinning it to the CPUs.
+     *
+     * @return		the command
+     */
+    public List<String> getAffinityCommand() {
+      return Arrays.asList(TASKSET, "-c", toString());
+    }
+
+    /**
+     * Returns the JVM option that makes the JVM size its GC and compiler
+     * threads according to the number of CPUs.
+     *
+     * @return		the option
+     */
+    public String getJVMOption() {
+      return "-XX:ActiveProcessorCount=" + m_CPUs.length;
+    }
+
+    /**
+     * Returns the CPUs as comma-separated list.
+     *
+     * @return		the list
+     */
+    public String toString() {
+      StringBuilder	result;
+
+      result = new StringBuilder();
+      for (int cpu: m_CPUs) {
+	if (result.length() > 0)
+	  result.append(",");
+	result.append(cpu);
+      }
+
+      return result.toString();
+    }
+  }
+
+  /** the system property for restricting the CPUs to allocate. */
+  public final static String PROPERTY_CPUS = "jshell.cpus";
+
+  /** the executable for setting the affinity. */
+  public final static String TASKSET = "taskset";
+
+  /** the singleton. */
+  protected static CoreAllocator m_Singleton;
+
+  /** the CPUs available for allocation. */
+  protected int[] m_CPUs;
+
+  /** the number of allocations per CPU. */
+  protected int[] m_Usage;
+
+  /** whether pinning is supported. */
+  protected boolean m_Supported;
+
+  /**
+   * Initializes the allocator.
+   *
+   * @param cpus	the CPUs available for allocation
+   * @param supported	whether pinning is supported
+   */
+  public CoreAllocator(int[] cpus, boolean supported) {
+    m_CPUs      = cpus.clone();
+    m_Usage     = new int[cpus.length];
+    m_Supported = supported && (cpus.length > 0);
+  }
+
+  /**
+   * Returns whether processes can be pinned to CPUs.
+   *
+   * @return		true if supported
+   */
+  public boolean isSupported() {
+    return m_Supported;
+  }
+
+  /**
+   * Returns the CPUs available for allocation.
+   *
+   * @return		the CPUs
+   */
+  public int[] getCPUs() {
+    return m_CPUs.clone();
+  }
+
+  /**
+   * Allocates the specified number of CPUs, preferring ones that are not in
+   * use yet.
+   *
+   * @param num		the number of CPUs, gets capped at the available ones
+   * @return		the allocated CPUs, null if not supported
+   */
+  public synchronized CoreSet allocate(int num) {
+    Integer[]	indices;
+    int[]	cpus;
+    int		i;
+
+    if (!m_Supported || (num < 1))
+      return null;
+
+    num     = Math.min(num, m_CPUs.length);
+    indices = new Integer[m_CPUs.length];
+    for (i = 0; i < indices.length; i++)
+      indices[i] = i;
+    // stable sort, i.e., CPUs with same usage stay in order
+    Arrays.sort(indices, (Integer o1, Integer o2) -> Integer.compare(m_Usage[o1], m_Usage[o2]));
+    cpus = new int[num];
+    for (i = 0; i < num; i++) {
+      m_Usage[indices[i]]++;
+      cpus[i] = m_CPUs[indices[i]];
+    }
+    Arrays.sort(cpus);
+
+    return new CoreSet(cpus);
+  }
+
+  /**
+   * Releases the CPUs again.
+   *
+   * @param cores	the CPUs to release, ignored if null
+   */
+  public synchronized void release(CoreSet cores) {
+    int		i;
+
+    if (cores == null)
+      return;
+    for (int cpu: cores.m_CPUs) {
+      for (i = 0; i < m_CPUs.length; i++) {
+	if ((m_CPUs[i] == cpu) && (m_Usage[i] > 0)) {
+	  m_Usage[i]--;
+	  break;
+	}
+      }
+    }
+  }
+
+  /**
+   * Parses a CPU list in taskset's format, eg "0-3,8".
+   *
+   * @param list	the list to parse
+   * @return		the CPUs
+   * @throws NumberFormatException	if the list is invalid
+   */
+  public static int[] parseList(String list) {
+    List<Integer>	result;
+    String[]		range;
+    int			i;
+
+    result = new ArrayList<>();
+    for (String part: list.trim().split(",")) {
+      if (part.isEmpty())
+	continue;
+      range = part.split("-");
+      if (range.length == 1) {
+	result.add(Integer.parseInt(range[0].trim()));
+      }
+      else {
+	for (i = Integer.parseInt(range[0].trim()); i <= Integer.parseInt(range[1].trim()); i++)
+	  result.add(i);
+      }
+    }
+
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Determines the CPUs the current process is allowed to run on.
+   *
+   * @return		the CPUs
+   */
+  protected static int[] determineCPUs() {
+    File	status;
+
+    if (System.getProperty(PROPERTY_CPUS) != null)
+      return parseList(System.getProperty(PROPERTY_CPUS));
+
+    status = new File("/proc/self/status");
+    if (status.exists()) {
+      try {
+	for (String line: Files.readAllLines(status.toPath())) {
+	  if (line.startsWith("Cpus_allowed_list:"))
+	    return parseList(line.substring(line.indexOf(':') + 1));
+	}
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+
+    return parseList("0-" + (Runtime.getRuntime().availableProcessors() - 1));
+  }
+
+  /**
+   * Checks whether the taskset executable is available on the path.
+   *
+   * @return		true if available
+   */
+  protected static boolean hasTaskset() {
+    String	path;
+
+    if (!System.getProperty("os.name").toLowerCase().contains("linux"))
+      return false;
+    path = System.getenv("PATH");
+    if (path == null)
+      return false;
+    for (String dir: path.split(File.pathSeparator)) {
+      if (new File(dir, TASKSET).canExecute())
+	return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the singleton.
+   *
+   * @return		the singleton
+   */
+  public static synchronized CoreAllocator getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new CoreAllocator(determineCPUs(), hasTaskset());
+    return m_Singleton;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExecutableResolver.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Determines the command for launching jshell. The jshell arguments (flags,
+ * classpath, script file) get appended to the command.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface ExecutableResolver
+  extends Serializable {
+
+  /**
+   * Returns the command for launching jshell.
+   *
+   * @return		the executable and any arguments that precede the jshell ones
+   */
+  public List<String> getCommand();
+
+  /**
+   * Returns whether the command can be executed.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable();
+}
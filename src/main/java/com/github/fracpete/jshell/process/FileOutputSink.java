@@ -0,0 +1,192 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FileOutputSink.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the raw output to files. Output of processes gets transferred via
+ * {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}, i.e.,
+ * without being decoded or copied onto the heap.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FileOutputSink
+  implements ChannelOutputConsumer, Closeable {
+
+  /** the file for stdout. */
+  protected File m_Stdout;
+
+  /** the file for stderr, null if same as stdout. */
+  protected File m_Stderr;
+
+  /** whether to append to the files. */
+  protected boolean m_Append;
+
+  /** the channel for stdout. */
+  protected FileChannel m_StdoutChannel;
+
+  /** the channel for stderr. */
+  protected FileChannel m_StderrChannel;
+
+  /**
+   * Initializes the sink, writing stdout and stderr to the same file.
+   *
+   * @param file	the file to write to
+   * @param append	whether to append to the file
+   */
+  public FileOutputSink(File file, boolean append) {
+    this(file, null, append);
+  }
+
+  /**
+   * Initializes the sink.
+   *
+   * @param stdout	the file for stdout
+   * @param stderr	the file for stderr, null for writing it to the stdout file
+   * @param append	whether to append to the files
+   */
+  public FileOutputSink(File stdout, File stderr, boolean append) {
+    m_Stdout = stdout;
+    m_Stderr = stderr;
+    m_Append = append;
+  }
+
+  /**
+   * Returns the file for stdout.
+   *
+   * @return		the file
+   */
+  public File getStdout() {
+    return m_Stdout;
+  }
+
+  /**
+   * Returns the file for stderr.
+   *
+   * @return		the file, null if same as stdout
+   */
+  public File getStderr() {
+    return m_Stderr;
+  }
+
+  /**
+   * Opens the file for writing.
+   *
+   * @param file	the file to open
+   * @return		the channel
+   * @throws IOException	if opening fails
+   */
+  protected FileChannel open(File file) throws IOException {
+    FileChannel		result;
+
+    result = FileChannel.open(
+      file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      m_Append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    // position at the end, as transferFrom ignores the append mode
+    result.position(result.size());
+
+    return result;
+  }
+
+  /**
+   * Returns the channel for the stream, opens it if necessary.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		the channel
+   * @throws IOException	if opening fails
+   */
+  protected FileChannel getChannel(boolean stdout) throws IOException {
+    if (m_StdoutChannel == null)
+      m_StdoutChannel = open(m_Stdout);
+    if (stdout || (m_Stderr == null))
+      return m_StdoutChannel;
+    if (m_StderrChannel == null)
+      m_StderrChannel = open(m_Stderr);
+    return m_StderrChannel;
+  }
+
+  /**
+   * Writes the chunk of output to the file.
+   *
+   * @param data	the data
+   * @param stdout	whether stdout or stderr
+   */
+  public synchronized void processOutput(ByteBuffer data, boolean stdout) {
+    FileChannel		channel;
+
+    try {
+      channel = getChannel(stdout);
+      while (data.hasRemaining())
+	channel.write(data);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to write output to " + (stdout ? m_Stdout : m_Stderr), e);
+    }
+  }
+
+  /**
+   * Transfers the output from the channel into the file.
+   *
+   * @param channel	the channel to read from
+   * @param count	the number of bytes to transfer
+   * @param stdout	whether stdout or stderr
+   * @return		the number of bytes transferred
+   * @throws IOException	if transfer fails
+   */
+  public synchronized long transferFrom(ReadableByteChannel channel, long count, boolean stdout) throws IOException {
+    FileChannel		file;
+    long		pos;
+    long		result;
+
+    file   = getChannel(stdout);
+    pos    = file.position();
+    result = file.transferFrom(channel, pos, count);
+    file.position(pos + result);
+
+    return result;
+  }
+
+  /**
+   * Closes the files.
+   */
+  public synchronized void close() {
+    try {
+      if (m_StdoutChannel != null)
+	m_StdoutChannel.close();
+      if (m_StderrChannel != null)
+	m_StderrChannel.close();
+    }
+    catch (IOException e) {
+      // ignored
+    }
+    m_StdoutChannel = null;
+    m_StderrChannel = null;
+  }
+}
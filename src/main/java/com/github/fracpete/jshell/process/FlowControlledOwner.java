@@ -0,0 +1,42 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FlowControlledOwner.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+/**
+ * Interface for owners of a {@link MonitoredProcess} that can apply
+ * backpressure: while an owner cannot accept any more output, the
+ * {@link ProcessMultiplexer} stops reading from the corresponding stream,
+ * which eventually blocks the process once the pipe buffer is full.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface FlowControlledOwner {
+
+  /**
+   * Returns whether more output can be accepted at the moment. Must not
+   * block, as it gets called from the reader threads of the multiplexer.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		true if output can be accepted
+   */
+  public boolean canAcceptOutput(boolean stdout);
+}
@@ -0,0 +1,80 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JdkExecutableResolver.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import org.apache.commons.lang3.JavaVersion;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uses the jshell executable of the JDK that the current JVM belongs to.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JdkExecutableResolver
+  implements ExecutableResolver {
+
+  /** whether jshell is available, null if not checked yet. */
+  protected static Boolean m_Available;
+
+  /**
+   * Returns the path of the executable in the bin directory of the JDK.
+   *
+   * @param name	the name of the executable, without extension
+   * @return		the path
+   */
+  public static String getExecutable(String name) {
+    String	result;
+
+    result = System.getProperty("java.home") + File.separator + "bin" + File.separator + name;
+    if (SystemUtils.IS_OS_WINDOWS)
+      result += ".exe";
+
+    return result;
+  }
+
+  /**
+   * Returns the command for launching jshell.
+   *
+   * @return		the jshell executable
+   */
+  public List<String> getCommand() {
+    return Collections.singletonList(getExecutable("jshell"));
+  }
+
+  /**
+   * Returns whether the JDK is recent enough and contains jshell. Only
+   * gets checked once per JVM.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    synchronized (JdkExecutableResolver.class) {
+      if (m_Available == null)
+	m_Available = JavaVersion.JAVA_RECENT.atLeast(JavaVersion.JAVA_9) && new File(getExecutable("jshell")).exists();
+      return m_Available;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LineForwardingOutputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Output stream that forwards the data line by line to a
+ * {@link StreamingProcessOwner}, for code that is executed without a
+ * separate process.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class LineForwardingOutputStream
+  extends OutputStream {
+
+  /** the owner to forward the lines to. */
+  protected StreamingProcessOwner m_Owner;
+
+  /** whether stdout or stderr. */
+  protected boolean m_Stdout;
+
+  /** the incomplete line. */
+  protected ByteArrayOutputStream m_Line;
+
+  /** the charset to use. */
+  protected Charset m_Charset;
+
+  /**
+   * Initializes the stream.
+   *
+   * @param owner	the owner to forward the lines to
+   * @param stdout	whether stdout or stderr
+   */
+  public LineForwardingOutputStream(StreamingProcessOwner owner, boolean stdout) {
+    m_Owner   = owner;
+    m_Stdout  = stdout;
+    m_Line    = new ByteArrayOutputStream();
+    m_Charset = Charset.defaultCharset();
+  }
+
+  /**
+   * Writes the byte, forwards the line when a line feed is encountered.
+   *
+   * @param b		the byte to write
+   */
+  @Override
+  public synchronized void write(int b) {
+    if (b == '\n')
+      forward();
+    else
+      m_Line.write(b);
+  }
+
+  /**
+   * Writes the bytes, forwards any complete lines.
+   *
+   * @param b		the bytes
+   * @param off		the offset
+   * @param len		the number of bytes
+   */
+  @Override
+  public synchronized void write(byte[] b, int off, int len) {
+    int		i;
+    int		start;
+
+    start = off;
+    for (i = off; i < off + len; i++) {
+      if (b[i] == '\n') {
+	m_Line.write(b, start, i - start);
+	forward();
+	start = i + 1;
+      }
+    }
+    m_Line.write(b, start, off + len - start);
+  }
+
+  /**
+   * Forwards the current line.
+   */
+  protected void forward() {
+    String	line;
+
+    line = new String(m_Line.toByteArray(), m_Charset);
+    m_Line.reset();
+    if (line.endsWith("\r"))
+      line = line.substring(0, line.length() - 1);
+    m_Owner.processOutput(line, m_Stdout);
+  }
+
+  /**
+   * Forwards any incomplete line.
+   */
+  @Override
+  public synchronized void close() {
+    if (m_Line.size() > 0)
+      forward();
+  }
+}
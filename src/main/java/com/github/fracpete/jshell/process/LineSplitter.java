@@ -0,0 +1,130 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * LineSplitter.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/**
+ * Splits raw output into lines. Only complete lines get decoded, the
+ * bytes of an incomplete line are kept until its line feed arrives.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class LineSplitter {
+
+  /** the consumer of the lines. */
+  protected Consumer<String> m_Consumer;
+
+  /** the charset to use. */
+  protected Charset m_Charset;
+
+  /** the incomplete line. */
+  protected ByteArrayOutputStream m_Line;
+
+  /**
+   * Initializes the splitter using the default charset.
+   *
+   * @param consumer	the consumer of the lines
+   */
+  public LineSplitter(Consumer<String> consumer) {
+    this(consumer, Charset.defaultCharset());
+  }
+
+  /**
+   * Initializes the splitter.
+   *
+   * @param consumer	the consumer of the lines
+   * @param charset	the charset to decode the lines with
+   */
+  public LineSplitter(Consumer<String> consumer, Charset charset) {
+    m_Consumer = consumer;
+    m_Charset  = charset;
+    m_Line     = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Splits the data into lines, without changing the buffer's position.
+   *
+   * @param data	the data
+   */
+  public synchronized void feed(ByteBuffer data) {
+    int		i;
+    int		start;
+    int		end;
+
+    start = data.position();
+    end   = data.limit();
+    for (i = start; i < end; i++) {
+      if (data.get(i) == '\n') {
+	append(data, start, i);
+	forward();
+	start = i + 1;
+      }
+    }
+    append(data, start, end);
+  }
+
+  /**
+   * Appends the range of the buffer to the incomplete line.
+   *
+   * @param data	the data
+   * @param from	the first position (incl)
+   * @param to		the last position (excl)
+   */
+  protected void append(ByteBuffer data, int from, int to) {
+    int		i;
+
+    if (from >= to)
+      return;
+    if (data.hasArray()) {
+      m_Line.write(data.array(), data.arrayOffset() + from, to - from);
+    }
+    else {
+      for (i = from; i < to; i++)
+	m_Line.write(data.get(i));
+    }
+  }
+
+  /**
+   * Decodes and forwards the current line.
+   */
+  protected void forward() {
+    String	line;
+
+    line = new String(m_Line.toByteArray(), m_Charset);
+    m_Line.reset();
+    if (line.endsWith("\r"))
+      line = line.substring(0, line.length() - 1);
+    m_Consumer.accept(line);
+  }
+
+  /**
+   * Forwards any incomplete line.
+   */
+  public synchronized void flush() {
+    if (m_Line.size() > 0)
+      forward();
+  }
+}
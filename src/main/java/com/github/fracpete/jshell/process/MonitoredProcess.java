@@ -0,0 +1,354 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * MonitoredProcess.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.function.Consumer;
+
+/**
+ * A process whose output gets read by the {@link ProcessMultiplexer}.
+ * Output is forwarded line by line to the owner (or as is to the raw
+ * consumer, if any) and the finished callback gets called once all output
+ * has been forwarded (by the multiplexer, outside its reader threads).
+ * Owners implementing {@link FlowControlledOwner} can pause the reading.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class MonitoredProcess {
+
+  /**
+   * Line-based reader for one of the process streams.
+   */
+  protected class StreamReader {
+
+    /** the stream to read from. */
+    protected InputStream m_Stream;
+
+    /** whether stdout or stderr. */
+    protected boolean m_Stdout;
+
+    /** the incomplete line. */
+    protected ByteArrayOutputStream m_Line;
+
+    /** the channel for transferring raw output, null if not used. */
+    protected ReadableByteChannel m_Channel;
+
+    /** whether reading got paused, as the owner cannot accept more output. */
+    protected boolean m_Paused;
+
+    /**
+     * Initializes the reader.
+     *
+     * @param stream	the stream to read from, null if discarded
+     * @param stdout	whether stdout or stderr
+     */
+    protected StreamReader(InputStream stream, boolean stdout) {
+      m_Stream = stream;
+      m_Stdout = stdout;
+      m_Line   = new ByteArrayOutputStream();
+      if ((stream != null) && (m_Raw instanceof ChannelOutputConsumer))
+	m_Channel = Channels.newChannel(stream);
+    }
+
+    /**
+     * Returns whether the owner can accept more output, i.e., whether to
+     * continue reading.
+     *
+     * @return		true if to continue reading
+     */
+    protected boolean accepting() {
+      m_Paused = (m_Owner instanceof FlowControlledOwner)
+	&& !((FlowControlledOwner) m_Owner).canAcceptOutput(m_Stdout);
+      return !m_Paused;
+    }
+
+    /**
+     * Reads whatever data is available without blocking and forwards
+     * complete lines. Stops reading while the owner cannot accept any more
+     * output.
+     *
+     * @param buffer	the buffer to use for reading
+     * @return		the number of bytes read
+     * @throws IOException	if reading fails
+     */
+    protected int poll(byte[] buffer) throws IOException {
+      int	result;
+      int	available;
+      int	read;
+      int	start;
+      int	i;
+
+      result   = 0;
+      m_Paused = false;
+      if (m_Stream == null)
+	return result;
+
+      if (m_Raw != null)
+	return pollRaw(buffer);
+
+      while (accepting() && ((available = m_Stream.available()) > 0)) {
+	read = m_Stream.read(buffer, 0, Math.min(available, buffer.length));
+	if (read <= 0)
+	  break;
+	result += read;
+	start   = 0;
+	for (i = 0; i < read; i++) {
+	  if (buffer[i] == '\n') {
+	    m_Line.write(buffer, start, i - start);
+	    flush();
+	    start = i + 1;
+	  }
+	}
+	m_Line.write(buffer, start, read - start);
+      }
+
+      return result;
+    }
+
+    /**
+     * Reads whatever data is available without blocking and forwards it
+     * as is to the raw consumer.
+     *
+     * @param buffer	the buffer to use for reading
+     * @return		the number of bytes read
+     * @throws IOException	if reading fails
+     */
+    protected int pollRaw(byte[] buffer) throws IOException {
+      int	result;
+      int	available;
+      long	transferred;
+      int	read;
+
+      result = 0;
+      while (accepting() && ((available = m_Stream.available()) > 0)) {
+	if (m_Channel != null) {
+	  transferred = ((ChannelOutputConsumer) m_Raw).transferFrom(m_Channel, available, m_Stdout);
+	  if (transferred <= 0)
+	    break;
+	  result += (int) transferred;
+	}
+	else {
+	  read = m_Stream.read(buffer, 0, Math.min(available, buffer.length));
+	  if (read <= 0)
+	    break;
+	  result += read;
+	  m_Raw.processOutput(ByteBuffer.wrap(buffer, 0, read), m_Stdout);
+	}
+      }
+
+      return result;
+    }
+
+    /**
+     * Forwards the incomplete line, if any.
+     */
+    protected void flush() {
+      String	line;
+
+      line = new String(m_Line.toByteArray(), m_Charset);
+      m_Line.reset();
+      if (line.endsWith("\r"))
+	line = line.substring(0, line.length() - 1);
+      m_Owner.processOutput(line, m_Stdout);
+    }
+
+    /**
+     * Forwards any incomplete line and closes the stream.
+     */
+    protected void close() {
+      if (m_Stream == null)
+	return;
+      if (m_Line.size() > 0)
+	flush();
+      try {
+	m_Stream.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+      m_Stream = null;
+    }
+  }
+
+  /** the process. */
+  protected Process m_Process;
+
+  /** the owner to forward the output to. */
+  protected StreamingProcessOwner m_Owner;
+
+  /** the consumer of the raw output, null if forwarded line by line. */
+  protected RawOutputConsumer m_Raw;
+
+  /** the callback for when the process has finished. */
+  protected Consumer<MonitoredProcess> m_FinishedCallback;
+
+  /** the charset to use for decoding the output. */
+  protected Charset m_Charset;
+
+  /** the reader for stdout. */
+  protected StreamReader m_Stdout;
+
+  /** the reader for stderr. */
+  protected StreamReader m_Stderr;
+
+  /** whether the process has exited. */
+  protected volatile boolean m_Exited;
+
+  /** whether all output has been forwarded. */
+  protected volatile boolean m_Finished;
+
+  /** the process and its descendants. */
+  protected ProcessTree m_ProcessTree;
+
+  /**
+   * Initializes the monitored process.
+   *
+   * @param process	the process to monitor
+   * @param owner	the owner to forward the output to
+   * @param stdout	whether stdout gets forwarded
+   * @param stderr	whether stderr gets forwarded
+   * @param raw		the consumer of the raw output, null for forwarding the output line by line to the owner
+   * @param finished	the callback for when the process has finished, can be null
+   */
+  protected MonitoredProcess(Process process, StreamingProcessOwner owner, boolean stdout, boolean stderr, RawOutputConsumer raw, Consumer<MonitoredProcess> finished) {
+    m_Process          = process;
+    m_Owner            = owner;
+    m_Raw              = raw;
+    m_FinishedCallback = finished;
+    m_Charset          = Charset.defaultCharset();
+    m_Stdout           = new StreamReader(stdout ? process.getInputStream() : null, true);
+    m_Stderr           = new StreamReader(stderr ? process.getErrorStream() : null, false);
+    m_Exited           = false;
+    m_Finished         = false;
+    m_ProcessTree      = new ProcessTree(process.toHandle());
+    m_ProcessTree.start();
+  }
+
+  /**
+   * Returns the underlying process.
+   *
+   * @return		the process
+   */
+  public Process getProcess() {
+    return m_Process;
+  }
+
+  /**
+   * Returns the tree of the process and its descendants.
+   *
+   * @return		the tree
+   */
+  public ProcessTree getProcessTree() {
+    return m_ProcessTree;
+  }
+
+  /**
+   * Returns the exit code of the process.
+   *
+   * @return		the exit code, -1 if not finished yet
+   */
+  public int getExitCode() {
+    if (!m_Finished)
+      return -1;
+    return m_Process.exitValue();
+  }
+
+  /**
+   * Returns whether the process has finished and all its output been
+   * forwarded.
+   *
+   * @return		true if finished
+   */
+  public boolean isFinished() {
+    return m_Finished;
+  }
+
+  /**
+   * Kills the process and all its descendants. The finished callback still
+   * gets called once the process has terminated.
+   */
+  public void destroy() {
+    m_ProcessTree.destroy(ProcessTree.GRACE_PERIOD);
+  }
+
+  /**
+   * Called when the process has exited.
+   */
+  protected void exited() {
+    m_Exited = true;
+  }
+
+  /**
+   * Calls the finished callback, if any.
+   */
+  protected void finished() {
+    if (m_FinishedCallback != null)
+      m_FinishedCallback.accept(this);
+  }
+
+  /**
+   * Reads the available output of the process without blocking. Once the
+   * process has exited and the owner accepted the remaining output, the
+   * streams get closed. The finished callback is left to the caller.
+   *
+   * @see		#finished()
+   *
+   * @param buffer	the buffer to use for reading
+   * @return		the number of bytes read, -1 if finished
+   */
+  protected int poll(byte[] buffer) {
+    int		result;
+    boolean	exited;
+
+    if (m_Finished)
+      return -1;
+
+    // read the flag first, so no output written before the exit gets missed
+    exited = m_Exited;
+    try {
+      result = m_Stdout.poll(buffer) + m_Stderr.poll(buffer);
+    }
+    catch (IOException e) {
+      // stream no longer readable, wait for the exit
+      m_Stdout.close();
+      m_Stderr.close();
+      result = 0;
+    }
+
+    if (exited && !m_Stdout.m_Paused && !m_Stderr.m_Paused) {
+      m_Stdout.close();
+      m_Stderr.close();
+      m_Finished = true;
+      return -1;
+    }
+
+    return result;
+  }
+}
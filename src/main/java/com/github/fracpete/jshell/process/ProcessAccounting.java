@@ -0,0 +1,144 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProcessAccounting.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The resources consumed by a process and all its descendants.
+ * <br>
+ * The figures are sampled every {@link ProcessTree#INTERVAL} msec while the
+ * processes are alive, i.e., the CPU time is a lower bound: it lacks the
+ * time each process consumed after its last sample (including the root
+ * process, which has exited by the time the accounting gets created) and
+ * descendants that lived shorter than an interval are missing altogether.
+ * Likewise, the peak resident set size can miss short spikes.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see ProcessTree
+ */
+public class ProcessAccounting
+  implements Serializable {
+
+  /** the process ID of the root process. */
+  protected long m_PID;
+
+  /** the number of processes in the tree. */
+  protected int m_NumProcesses;
+
+  /** the total CPU time in nanoseconds. */
+  protected long m_CpuTime;
+
+  /** the peak resident set size of the tree in bytes, -1 if not available. */
+  protected long m_PeakRSS;
+
+  /** the IDs of the processes that outlived the root process. */
+  protected List<Long> m_Leaked;
+
+  /**
+   * Initializes the accounting.
+   *
+   * @param pid		the process ID of the root process
+   * @param numProcesses	the number of processes in the tree
+   * @param cpuTime	the total CPU time in nanoseconds
+   * @param peakRSS	the peak resident set size in bytes, -1 if not available
+   * @param leaked	the IDs of the processes that outlived the root process
+   */
+  public ProcessAccounting(long pid, int numProcesses, long cpuTime, long peakRSS, List<Long> leaked) {
+    m_PID          = pid;
+    m_NumProcesses = numProcesses;
+    m_CpuTime      = cpuTime;
+    m_PeakRSS      = peakRSS;
+    m_Leaked       = new ArrayList<>(leaked);
+  }
+
+  /**
+   * Returns the process ID of the root process.
+   *
+   * @return		the ID
+   */
+  public long getPID() {
+    return m_PID;
+  }
+
+  /**
+   * Returns the number of processes in the tree.
+   *
+   * @return		the number
+   */
+  public int getNumProcesses() {
+    return m_NumProcesses;
+  }
+
+  /**
+   * Returns the total CPU time of all processes, as sampled.
+   *
+   * @return		the time in nanoseconds, a lower bound
+   */
+  public long getCpuTime() {
+    return m_CpuTime;
+  }
+
+  /**
+   * Returns the peak resident set size of the tree.
+   *
+   * @return		the bytes, -1 if not available
+   */
+  public long getPeakRSS() {
+    return m_PeakRSS;
+  }
+
+  /**
+   * Returns the IDs of the processes that outlived the root process and
+   * had to be killed.
+   *
+   * @return		the IDs
+   */
+  public List<Long> getLeaked() {
+    return Collections.unmodifiableList(m_Leaked);
+  }
+
+  /**
+   * Returns whether any processes outlived the root process.
+   *
+   * @return		true if leaked processes
+   */
+  public boolean hasLeaked() {
+    return !m_Leaked.isEmpty();
+  }
+
+  /**
+   * Returns a short summary.
+   *
+   * @return		the summary
+   */
+  public String toString() {
+    return String.format(Locale.ENGLISH, "pid: %d, processes: %d, cpu: %.1f s, peak rss: %s, leaked: %s",
+      m_PID, m_NumProcesses, m_CpuTime / 1000000000.0,
+      (m_PeakRSS < 0) ? "n/a" : (m_PeakRSS / 1024 / 1024) + " MB",
+      m_Leaked.isEmpty() ? "none" : m_Leaked.toString());
+  }
+}
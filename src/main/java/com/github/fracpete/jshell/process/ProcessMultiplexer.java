@@ -0,0 +1,345 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProcessMultiplexer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Reads the output of any number of processes with a small, fixed number
+ * of threads. Process pipes cannot be used with selectors, hence the
+ * threads poll the streams without blocking and back off while there is
+ * no output. The exit of a process gets detected via
+ * {@link ProcessHandle#onExit()}. The reader threads only perform I/O, the
+ * finished callbacks get executed by a separate executor, so that slow
+ * callbacks cannot hold up the output of other processes.
+ * <br>
+ * The number of threads can be set with the system property
+ * {@link #PROPERTY_THREADS}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ProcessMultiplexer {
+
+  /** the system property for the number of reader threads. */
+  public final static String PROPERTY_THREADS = "jshell.process.threads";
+
+  /** the default number of reader threads. */
+  public final static int DEFAULT_THREADS = 2;
+
+  /** the size of the read buffer. */
+  public final static int BUFFER_SIZE = 8192;
+
+  /** the maximum time in msec to wait between polls. */
+  public final static int MAX_WAIT = 20;
+
+  /** the singleton. */
+  protected static ProcessMultiplexer m_Singleton;
+
+  /** the processes per reader thread. */
+  protected List<List<MonitoredProcess>> m_Processes;
+
+  /** the reader threads. */
+  protected List<Thread> m_Threads;
+
+  /** the index of the next reader to assign a process to. */
+  protected int m_Next;
+
+  /** for executing the finished callbacks. */
+  protected ExecutorService m_Callbacks;
+
+  /**
+   * Initializes the multiplexer.
+   *
+   * @param numThreads	the number of reader threads
+   */
+  public ProcessMultiplexer(int numThreads) {
+    int		i;
+    Thread	thread;
+
+    if (numThreads < 1)
+      numThreads = 1;
+    m_Processes = new ArrayList<>();
+    m_Threads   = new ArrayList<>();
+    m_Next      = 0;
+    m_Callbacks = Executors.newCachedThreadPool((Runnable r) -> {
+      Thread t = new Thread(r, "jshell-process-finished");
+      t.setDaemon(true);
+      return t;
+    });
+    for (i = 0; i < numThreads; i++) {
+      final List<MonitoredProcess> processes = new ArrayList<>();
+      m_Processes.add(processes);
+      thread = new Thread(() -> read(processes));
+      thread.setName("jshell-process-reader-" + i);
+      thread.setDaemon(true);
+      m_Threads.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * Returns the number of reader threads.
+   *
+   * @return		the number of threads
+   */
+  public int getNumThreads() {
+    return m_Threads.size();
+  }
+
+  /**
+   * Returns the number of processes currently being monitored.
+   *
+   * @return		the number of processes
+   */
+  public int getNumProcesses() {
+    int		result;
+
+    result = 0;
+    for (List<MonitoredProcess> processes: m_Processes) {
+      synchronized (processes) {
+	result += processes.size();
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Starts the process and monitors its output. Output that the owner is
+   * not interested in gets discarded by the operating system.
+   *
+   * @param builder	the process to start
+   * @param owner	the owner to forward the output to
+   * @param finished	the callback for when the process has finished and all output was forwarded, can be null
+   * @return		the monitored process
+   * @throws IOException	if starting the process fails
+   */
+  public MonitoredProcess start(ProcessBuilder builder, StreamingProcessOwner owner, Consumer<MonitoredProcess> finished) throws IOException {
+    return start(builder, owner, null, finished);
+  }
+
+  /**
+   * Starts the process and monitors its output. Output that the owner is
+   * not interested in gets discarded by the operating system.
+   *
+   * @param builder	the process to start
+   * @param owner	the owner that determines the output to forward
+   * @param raw		the consumer of the raw output, null for forwarding the output line by line to the owner
+   * @param finished	the callback for when the process has finished and all output was forwarded, can be null
+   * @return		the monitored process
+   * @throws IOException	if starting the process fails
+   */
+  public MonitoredProcess start(ProcessBuilder builder, StreamingProcessOwner owner, RawOutputConsumer raw, Consumer<MonitoredProcess> finished) throws IOException {
+    return monitor(create(builder, owner, raw, finished));
+  }
+
+  /**
+   * Starts the process, but does not monitor its output yet, which allows
+   * the caller to register the process before the finished callback can
+   * get called. Output that the owner is not interested in gets discarded
+   * by the operating system.
+   *
+   * @param builder	the process to start
+   * @param owner	the owner that determines the output to forward
+   * @param raw		the consumer of the raw output, null for forwarding the output line by line to the owner
+   * @param finished	the callback for when the process has finished and all output was forwarded, can be null
+   * @return		the process, still needs to be monitored
+   * @throws IOException	if starting the process fails
+   * @see		#monitor(MonitoredProcess)
+   */
+  public MonitoredProcess create(ProcessBuilder builder, StreamingProcessOwner owner, RawOutputConsumer raw, Consumer<MonitoredProcess> finished) throws IOException {
+    StreamingProcessOutputType	type;
+    boolean			stdout;
+    boolean			stderr;
+    Process			process;
+
+    type   = owner.getOutputType();
+    stdout = (type == StreamingProcessOutputType.BOTH) || (type == StreamingProcessOutputType.STDOUT);
+    stderr = (type == StreamingProcessOutputType.BOTH) || (type == StreamingProcessOutputType.STDERR);
+    if (!stdout)
+      builder.redirectOutput(Redirect.DISCARD);
+    if (!stderr)
+      builder.redirectError(Redirect.DISCARD);
+    process = builder.start();
+
+    return new MonitoredProcess(process, owner, stdout, stderr, raw, finished);
+  }
+
+  /**
+   * Monitors the output of an already started process.
+   *
+   * @param process	the process to monitor
+   * @param owner	the owner to forward the output to
+   * @param stdout	whether to forward stdout
+   * @param stderr	whether to forward stderr
+   * @param finished	the callback for when the process has finished and all output was forwarded, can be null
+   * @return		the monitored process
+   */
+  public MonitoredProcess monitor(Process process, StreamingProcessOwner owner, boolean stdout, boolean stderr, Consumer<MonitoredProcess> finished) {
+    return monitor(process, owner, stdout, stderr, null, finished);
+  }
+
+  /**
+   * Monitors the output of an already started process.
+   *
+   * @param process	the process to monitor
+   * @param owner	the owner to forward the output to
+   * @param stdout	whether to forward stdout
+   * @param stderr	whether to forward stderr
+   * @param raw		the consumer of the raw output, null for forwarding the output line by line to the owner
+   * @param finished	the callback for when the process has finished and all output was forwarded, can be null
+   * @return		the monitored process
+   */
+  public MonitoredProcess monitor(Process process, StreamingProcessOwner owner, boolean stdout, boolean stderr, RawOutputConsumer raw, Consumer<MonitoredProcess> finished) {
+    return monitor(new MonitoredProcess(process, owner, stdout, stderr, raw, finished));
+  }
+
+  /**
+   * Starts monitoring the output of the process.
+   *
+   * @param process	the process to monitor
+   * @return		the process
+   * @see		#create(ProcessBuilder, StreamingProcessOwner, RawOutputConsumer, Consumer)
+   */
+  public MonitoredProcess monitor(final MonitoredProcess process) {
+    List<MonitoredProcess>	processes;
+
+    synchronized (this) {
+      processes = m_Processes.get(m_Next);
+      m_Next    = (m_Next + 1) % m_Processes.size();
+    }
+    synchronized (processes) {
+      processes.add(process);
+      processes.notifyAll();
+    }
+    process.getProcess().onExit().thenRun(() -> {
+      process.exited();
+      synchronized (processes) {
+	processes.notifyAll();
+      }
+    });
+
+    return process;
+  }
+
+  /**
+   * Calls the finished callback of the process in the executor.
+   *
+   * @param process	the finished process
+   */
+  protected void finished(final MonitoredProcess process) {
+    m_Callbacks.submit(() -> {
+      try {
+	process.finished();
+      }
+      catch (Throwable t) {
+	System.err.println("Failed to finish process " + process.getProcess().pid() + ": " + t);
+      }
+    });
+  }
+
+  /**
+   * Polls the processes of a reader thread.
+   *
+   * @param processes	the processes to poll
+   */
+  protected void read(List<MonitoredProcess> processes) {
+    byte[]			buffer;
+    List<MonitoredProcess>	current;
+    int				read;
+    int				total;
+    int				wait;
+
+    buffer = new byte[BUFFER_SIZE];
+    wait   = 1;
+    while (true) {
+      synchronized (processes) {
+	while (processes.isEmpty()) {
+	  try {
+	    processes.wait();
+	  }
+	  catch (InterruptedException e) {
+	    return;
+	  }
+	}
+	current = new ArrayList<>(processes);
+      }
+
+      total = 0;
+      for (MonitoredProcess process: current) {
+	try {
+	  read = process.poll(buffer);
+	}
+	catch (Throwable t) {
+	  System.err.println("Failed to process output of process " + process.getProcess().pid() + ": " + t);
+	  read = -1;
+	}
+	if (read == -1) {
+	  synchronized (processes) {
+	    processes.remove(process);
+	  }
+	  if (process.isFinished())
+	    finished(process);
+	}
+	else {
+	  total += read;
+	}
+      }
+
+      // back off while there is no output
+      if (total > 0) {
+	wait = 1;
+      }
+      else {
+	synchronized (processes) {
+	  try {
+	    processes.wait(wait);
+	  }
+	  catch (InterruptedException e) {
+	    return;
+	  }
+	}
+	wait = Math.min(wait * 2, MAX_WAIT);
+      }
+    }
+  }
+
+  /**
+   * Returns the singleton, creates it if necessary.
+   *
+   * @return		the singleton
+   */
+  public static synchronized ProcessMultiplexer getSingleton() {
+    if (m_Singleton == null)
+      m_Singleton = new ProcessMultiplexer(Integer.getInteger(PROPERTY_THREADS, DEFAULT_THREADS));
+    return m_Singleton;
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProcessTree.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of a process and all its descendants, even after they got
+ * re-parented because their parent died. Periodically records the CPU time
+ * and resident set size (from /proc, Linux only) of all processes, and
+ * ensures that the whole tree gets killed when stopping or finishing, or
+ * when the JVM shuts down.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ProcessTree {
+
+  /** the interval in msec for sampling the processes. */
+  public final static int INTERVAL = 500;
+
+  /** the time in msec to wait for processes to terminate gracefully. */
+  public final static int GRACE_PERIOD = 2000;
+
+  /** the shared scheduler. */
+  protected static ScheduledExecutorService m_Scheduler;
+
+  /** the trees that are currently active, killed on shutdown. */
+  protected static Set<ProcessTree> m_Active = Collections.synchronizedSet(new HashSet<>());
+
+  /** the root process. */
+  protected ProcessHandle m_Root;
+
+  /** all processes seen so far. */
+  protected Map<Long,ProcessHandle> m_Processes;
+
+  /** the last recorded CPU time in nanoseconds per process. */
+  protected Map<Long,Long> m_CpuTimes;
+
+  /** the peak resident set size of the tree in bytes, -1 if not available. */
+  protected long m_PeakRSS;
+
+  /** whether the tree got destroyed explicitly. */
+  protected volatile boolean m_Destroyed;
+
+  /** the sampling task. */
+  protected ScheduledFuture<?> m_Task;
+
+  /**
+   * Initializes the tree.
+   *
+   * @param root	the root process
+   */
+  public ProcessTree(ProcessHandle root) {
+    m_Root      = root;
+    m_Processes = new LinkedHashMap<>();
+    m_CpuTimes  = new LinkedHashMap<>();
+    m_PeakRSS   = -1;
+    m_Destroyed = false;
+    m_Processes.put(root.pid(), root);
+  }
+
+  /**
+   * Returns the shared scheduler, creates it if necessary. Also installs the
+   * shutdown hook for killing any active trees.
+   *
+   * @return		the scheduler
+   */
+  protected static synchronized ScheduledExecutorService getScheduler() {
+    if (m_Scheduler == null) {
+      m_Scheduler = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+	Thread t = new Thread(r, "jshell-process-tree");
+	t.setDaemon(true);
+	return t;
+      });
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+	List<ProcessTree> trees;
+	synchronized (m_Active) {
+	  trees = new ArrayList<>(m_Active);
+	}
+	for (ProcessTree tree: trees)
+	  tree.destroy(0);
+      }, "jshell-process-tree-shutdown"));
+    }
+    return m_Scheduler;
+  }
+
+  /**
+   * Returns the root process.
+   *
+   * @return		the root
+   */
+  public ProcessHandle getRoot() {
+    return m_Root;
+  }
+
+  /**
+   * Starts monitoring the tree.
+   */
+  public synchronized void start() {
+    if (m_Task != null)
+      return;
+    m_Active.add(this);
+    m_Task = getScheduler().scheduleWithFixedDelay(this::refresh, 0, INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Reads the specified value (in kB) from /proc/PID/status.
+   *
+   * @param pid		the process ID
+   * @param key		the key, eg VmRSS
+   * @return		the value in bytes, -1 if not available
+   */
+  protected static long readStatus(long pid, String key) {
+    File	status;
+
+    status = new File("/proc/" + pid + "/status");
+    if (!status.exists())
+      return -1;
+    try {
+      for (String line: Files.readAllLines(status.toPath())) {
+	if (line.startsWith(key + ":"))
+	  return Long.parseLong(line.substring(key.length() + 1).replace("kB", "").trim()) * 1024;
+      }
+    }
+    catch (Exception e) {
+      // process terminated
+    }
+    return -1;
+  }
+
+  /**
+   * Adds any new descendants and records CPU time and memory of all live
+   * processes.
+   */
+  public synchronized void refresh() {
+    long	total;
+    long	rss;
+    boolean	available;
+
+    m_Root.descendants().forEach((ProcessHandle h) -> m_Processes.putIfAbsent(h.pid(), h));
+
+    total     = 0;
+    available = false;
+    for (ProcessHandle handle: m_Processes.values()) {
+      if (!handle.isAlive())
+	continue;
+      handle.info().totalCpuDuration().ifPresent((Duration d) -> m_CpuTimes.put(handle.pid(), d.toNanos()));
+      rss = readStatus(handle.pid(), "VmRSS");
+      if (rss > -1) {
+	total    += rss;
+	available = true;
+      }
+    }
+    if (available)
+      m_PeakRSS = Math.max(m_PeakRSS, total);
+  }
+
+  /**
+   * Returns the live processes of the tree.
+   *
+   * @param includeRoot	whether to include the root process
+   * @return		the processes, descendants before their ancestors
+   */
+  public synchronized List<ProcessHandle> getAlive(boolean includeRoot) {
+    List<ProcessHandle>	result;
+
+    result = new ArrayList<>();
+    for (ProcessHandle handle: m_Processes.values()) {
+      if (!includeRoot && (handle == m_Root))
+	continue;
+      if (handle.isAlive())
+	result.add(0, handle);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the total CPU time recorded so far, i.e., the last sample of
+   * each process.
+   *
+   * @return		the time in nanoseconds, a lower bound
+   * @see		ProcessAccounting
+   */
+  public synchronized long getCpuTime() {
+    long	result;
+
+    result = 0;
+    for (long time: m_CpuTimes.values())
+      result += time;
+
+    return result;
+  }
+
+  /**
+   * Returns the peak resident set size of the tree recorded so far.
+   *
+   * @return		the bytes, -1 if not available
+   */
+  public synchronized long getPeakRSS() {
+    return m_PeakRSS;
+  }
+
+  /**
+   * Kills all processes of the tree, first gracefully. Any processes still
+   * alive after the grace period get killed forcibly. Does not block.
+   *
+   * @param gracePeriod	the time in msec to wait for the processes to terminate gracefully, 0 to kill forcibly right away
+   */
+  public void destroy(int gracePeriod) {
+    List<ProcessHandle>	alive;
+
+    m_Destroyed = true;
+    refresh();
+    alive = getAlive(true);
+    for (ProcessHandle handle: alive) {
+      if (gracePeriod > 0)
+	handle.destroy();
+      else
+	handle.destroyForcibly();
+    }
+    if (gracePeriod > 0) {
+      getScheduler().schedule(() -> {
+	for (ProcessHandle handle: alive) {
+	  if (handle.isAlive())
+	    handle.destroyForcibly();
+	}
+      }, gracePeriod, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops monitoring, kills any processes that outlived the root process
+   * and returns the accounting. Processes that are still terminating after
+   * an explicit {@link #destroy(int)} are not considered leaked.
+   *
+   * @return		the accounting
+   */
+  public ProcessAccounting finish() {
+    List<Long>	leaked;
+
+    refresh();
+    synchronized (this) {
+      if (m_Task != null) {
+	m_Task.cancel(false);
+	m_Task = null;
+      }
+    }
+    leaked = new ArrayList<>();
+    if (!m_Destroyed) {
+      for (ProcessHandle handle: getAlive(false))
+	leaked.add(handle.pid());
+    }
+    destroy(GRACE_PERIOD);
+    m_Active.remove(this);
+
+    return new ProcessAccounting(m_Root.pid(), m_Processes.size(), getCpuTime(), getPeakRSS(), leaked);
+  }
+}
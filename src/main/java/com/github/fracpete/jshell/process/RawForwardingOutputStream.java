@@ -0,0 +1,76 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RawForwardingOutputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream that forwards the data as is to a {@link RawOutputConsumer},
+ * for code that is executed without a separate process.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see LineForwardingOutputStream
+ */
+public class RawForwardingOutputStream
+  extends OutputStream {
+
+  /** the consumer to forward the data to. */
+  protected RawOutputConsumer m_Consumer;
+
+  /** whether stdout or stderr. */
+  protected boolean m_Stdout;
+
+  /**
+   * Initializes the stream.
+   *
+   * @param consumer	the consumer to forward the data to
+   * @param stdout	whether stdout or stderr
+   */
+  public RawForwardingOutputStream(RawOutputConsumer consumer, boolean stdout) {
+    m_Consumer = consumer;
+    m_Stdout   = stdout;
+  }
+
+  /**
+   * Forwards the byte.
+   *
+   * @param b		the byte to write
+   */
+  @Override
+  public void write(int b) {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  /**
+   * Forwards the bytes.
+   *
+   * @param b		the bytes
+   * @param off		the offset
+   * @param len		the number of bytes
+   */
+  @Override
+  public synchronized void write(byte[] b, int off, int len) {
+    if (len > 0)
+      m_Consumer.processOutput(ByteBuffer.wrap(b, off, len), m_Stdout);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RawOutputConsumer.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.process;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for classes that receive the output of a script as raw bytes,
+ * without decoding it into lines.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface RawOutputConsumer {
+
+  /**
+   * Processes the chunk of output. The buffer only remains valid for the
+   * duration of the call, i.e., the data must be consumed or copied.
+   *
+   * @param data	the data (from the buffer's position up to its limit)
+   * @param stdout	whether stdout or stderr
+   */
+  public void processOutput(ByteBuffer data, boolean stdout);
+}
@@ -0,0 +1,95 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProfileIcon.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.profile;
+
+import javax.swing.Icon;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Icon for the gutter of the code editor, indicating the relative cost of a
+ * snippet: green (cheap), orange, red (expensive).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ProfileIcon
+  implements Icon {
+
+  /** the size of the icon. */
+  public final static int SIZE = 10;
+
+  /** the color to use. */
+  protected Color m_Color;
+
+  /**
+   * Initializes the icon.
+   *
+   * @param fraction	the cost relative to the most expensive snippet (0-1)
+   */
+  public ProfileIcon(double fraction) {
+    if (fraction >= 0.5)
+      m_Color = Color.RED;
+    else if (fraction >= 0.1)
+      m_Color = Color.ORANGE;
+    else
+      m_Color = new Color(0, 160, 0);
+  }
+
+  /**
+   * Draws the icon.
+   *
+   * @param c		the component to draw on
+   * @param g		the graphics context
+   * @param x		the x coordinate
+   * @param y		the y coordinate
+   */
+  public void paintIcon(Component c, Graphics g, int x, int y) {
+    Graphics2D	g2d;
+
+    g2d = (Graphics2D) g.create();
+    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g2d.setColor(m_Color);
+    g2d.fillOval(x + 1, y + 1, SIZE - 2, SIZE - 2);
+    g2d.dispose();
+  }
+
+  /**
+   * Returns the width of the icon.
+   *
+   * @return		the width
+   */
+  public int getIconWidth() {
+    return SIZE;
+  }
+
+  /**
+   * Returns the height of the icon.
+   *
+   * @return		the height
+   */
+  public int getIconHeight() {
+    return SIZE;
+  }
+}
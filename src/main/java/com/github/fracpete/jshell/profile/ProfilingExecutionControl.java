@@ -0,0 +1,247 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProfilingExecutionControl.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.profile;
+
+import com.github.fracpete.jshell.compile.JarUtils;
+import com.github.fracpete.jshell.remote.SnippetProbe;
+import jdk.jshell.spi.ExecutionControl;
+
+/**
+ * Wraps an execution control and measures every invocation of snippet code
+ * in the JVM that runs the code, using the {@link SnippetProbe}. The
+ * bytecode of the probe gets loaded into that JVM just like snippet classes,
+ * as the execution control only invokes classes that it loaded itself.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ProfilingExecutionControl
+  implements ExecutionControl {
+
+  /** the probe class. */
+  public final static String PROBE = SnippetProbe.class.getName();
+
+  /** the execution control to wrap. */
+  protected ExecutionControl m_Delegate;
+
+  /** whether the probe is available, null if not yet loaded. */
+  protected Boolean m_ProbeAvailable;
+
+  /** the accumulated measurements since the last retrieval (wall, cpu, allocated), null if none. */
+  protected long[] m_Measurement;
+
+  /**
+   * Initializes the wrapper.
+   *
+   * @param delegate	the execution control to wrap
+   */
+  public ProfilingExecutionControl(ExecutionControl delegate) {
+    m_Delegate       = delegate;
+    m_ProbeAvailable = null;
+    m_Measurement    = null;
+  }
+
+  /**
+   * Loads the probe into the JVM that runs the code, if necessary.
+   *
+   * @return		true if the probe is available
+   */
+  protected boolean loadProbe() {
+    if (m_ProbeAvailable == null) {
+      try {
+	m_Delegate.load(new ClassBytecodes[]{new ClassBytecodes(PROBE, JarUtils.readClass(SnippetProbe.class))});
+	m_ProbeAvailable = true;
+      }
+      catch (Exception e) {
+	m_ProbeAvailable = false;
+      }
+    }
+    return m_ProbeAvailable;
+  }
+
+  /**
+   * Returns the process ID of the JVM that runs the code.
+   *
+   * @return		the ID, -1 if not available
+   */
+  public long getRemotePID() {
+    String	value;
+
+    if (!loadProbe())
+      return -1;
+    try {
+      value = m_Delegate.invoke(PROBE, "pid");
+      return Long.parseLong(value.replace("\"", ""));
+    }
+    catch (Exception e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the measurements accumulated since the last call and resets them.
+   *
+   * @return		wall time, CPU time (nanoseconds) and allocated bytes, null if no code was invoked
+   */
+  public synchronized long[] takeMeasurement() {
+    long[]	result;
+
+    result        = m_Measurement;
+    m_Measurement = null;
+
+    return result;
+  }
+
+  /**
+   * Adds the measurement to the accumulated ones.
+   *
+   * @param value	the measurement returned by the probe
+   */
+  protected synchronized void addMeasurement(String value) {
+    String[]	parts;
+    long	current;
+    long	added;
+    int		i;
+
+    if (value.startsWith("\"") && value.endsWith("\""))
+      value = value.substring(1, value.length() - 1);
+    parts = value.split(",");
+    if (parts.length != 3)
+      return;
+    if (m_Measurement == null)
+      m_Measurement = new long[]{0, 0, 0};
+    for (i = 0; i < parts.length; i++) {
+      current = m_Measurement[i];
+      added   = Long.parseLong(parts[i]);
+      m_Measurement[i] = ((current == -1) || (added == -1)) ? -1 : current + added;
+    }
+  }
+
+  /**
+   * Loads the classes.
+   *
+   * @param cbcs	the class bytecodes
+   */
+  @Override
+  public void load(ClassBytecodes[] cbcs) throws ClassInstallException, NotImplementedException, EngineTerminationException {
+    m_Delegate.load(cbcs);
+  }
+
+  /**
+   * Redefines the classes.
+   *
+   * @param cbcs	the class bytecodes
+   */
+  @Override
+  public void redefine(ClassBytecodes[] cbcs) throws ClassInstallException, NotImplementedException, EngineTerminationException {
+    m_Delegate.redefine(cbcs);
+  }
+
+  /**
+   * Invokes the snippet code, surrounded by calls to the probe.
+   *
+   * @param className	the class to invoke
+   * @param methodName	the method to invoke
+   * @return		the result of the invocation
+   */
+  @Override
+  public String invoke(String className, String methodName) throws RunException, EngineTerminationException, InternalException {
+    boolean	marked;
+
+    marked = false;
+    if (loadProbe()) {
+      try {
+	m_Delegate.invoke(PROBE, "mark");
+	marked = true;
+      }
+      catch (EngineTerminationException e) {
+	throw e;
+      }
+      catch (Exception e) {
+	m_ProbeAvailable = false;
+      }
+    }
+
+    try {
+      return m_Delegate.invoke(className, methodName);
+    }
+    finally {
+      if (marked) {
+	try {
+	  addMeasurement(m_Delegate.invoke(PROBE, "measure"));
+	}
+	catch (Exception e) {
+	  // eg stopped
+	}
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the variable.
+   *
+   * @param className	the class of the variable
+   * @param varName	the name of the variable
+   * @return		the value
+   */
+  @Override
+  public String varValue(String className, String varName) throws RunException, EngineTerminationException, InternalException {
+    return m_Delegate.varValue(className, varName);
+  }
+
+  /**
+   * Adds the path to the classpath.
+   *
+   * @param path	the path to add
+   */
+  @Override
+  public void addToClasspath(String path) throws EngineTerminationException, InternalException {
+    m_Delegate.addToClasspath(path);
+  }
+
+  /**
+   * Stops the current invocation.
+   */
+  @Override
+  public void stop() throws EngineTerminationException, InternalException {
+    m_Delegate.stop();
+  }
+
+  /**
+   * Executes an extension command.
+   *
+   * @param command	the command
+   * @param arg		the argument
+   * @return		the result
+   */
+  @Override
+  public Object extensionCommand(String command, Object arg) throws RunException, EngineTerminationException, InternalException {
+    return m_Delegate.extensionCommand(command, arg);
+  }
+
+  /**
+   * Closes the execution control.
+   */
+  @Override
+  public void close() {
+    m_Delegate.close();
+  }
+}
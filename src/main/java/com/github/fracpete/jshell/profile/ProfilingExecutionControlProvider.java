@@ -0,0 +1,96 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProfilingExecutionControlProvider.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.profile;
+
+import jdk.jshell.execution.JdiExecutionControlProvider;
+import jdk.jshell.spi.ExecutionControl;
+import jdk.jshell.spi.ExecutionControlProvider;
+import jdk.jshell.spi.ExecutionEnv;
+
+import java.util.Map;
+
+/**
+ * Provides a {@link ProfilingExecutionControl} around the default (JDI)
+ * execution control, i.e., code gets executed in a separate JVM.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ProfilingExecutionControlProvider
+  implements ExecutionControlProvider {
+
+  /** the provider to wrap. */
+  protected JdiExecutionControlProvider m_Provider;
+
+  /** the last generated execution control. */
+  protected ProfilingExecutionControl m_Control;
+
+  /**
+   * Initializes the provider.
+   */
+  public ProfilingExecutionControlProvider() {
+    m_Provider = new JdiExecutionControlProvider();
+    m_Control  = null;
+  }
+
+  /**
+   * Returns the name of the provider.
+   *
+   * @return		the name
+   */
+  @Override
+  public String name() {
+    return "profiling";
+  }
+
+  /**
+   * Returns the default parameters, as used by the JDI provider.
+   *
+   * @return		the parameters
+   */
+  @Override
+  public Map<String,String> defaultParameters() {
+    return m_Provider.defaultParameters();
+  }
+
+  /**
+   * Generates the wrapped execution control.
+   *
+   * @param env		the execution environment
+   * @param parameters	the parameters
+   * @return		the execution control
+   * @throws Throwable	if generation fails
+   */
+  @Override
+  public ExecutionControl generate(ExecutionEnv env, Map<String,String> parameters) throws Throwable {
+    m_Control = new ProfilingExecutionControl(m_Provider.generate(env, parameters));
+    return m_Control;
+  }
+
+  /**
+   * Returns the last generated execution control.
+   *
+   * @return		the control, null if none generated yet
+   */
+  public ProfilingExecutionControl getControl() {
+    return m_Control;
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SnippetProfile.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.profile;
+
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * The measurements for executing a single snippet: wall time, CPU time and
+ * allocated bytes.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SnippetProfile
+  implements Serializable {
+
+  /** the line (0-based) the snippet starts on. */
+  protected int m_Line;
+
+  /** the source of the snippet. */
+  protected String m_Source;
+
+  /** the wall time in nanoseconds. */
+  protected long m_WallTime;
+
+  /** the CPU time in nanoseconds, -1 if not available. */
+  protected long m_CpuTime;
+
+  /** the allocated bytes, -1 if not available. */
+  protected long m_AllocatedBytes;
+
+  /**
+   * Initializes the profile.
+   *
+   * @param line	the line the snippet starts on (0-based)
+   * @param source	the source of the snippet
+   * @param wallTime	the wall time in nanoseconds
+   * @param cpuTime	the CPU time in nanoseconds, -1 if not available
+   * @param allocatedBytes	the allocated bytes, -1 if not available
+   */
+  public SnippetProfile(int line, String source, long wallTime, long cpuTime, long allocatedBytes) {
+    m_Line           = line;
+    m_Source         = source;
+    m_WallTime       = wallTime;
+    m_CpuTime        = cpuTime;
+    m_AllocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Returns the line the snippet starts on.
+   *
+   * @return		the line (0-based)
+   */
+  public int getLine() {
+    return m_Line;
+  }
+
+  /**
+   * Returns the source of the snippet.
+   *
+   * @return		the source
+   */
+  public String getSource() {
+    return m_Source;
+  }
+
+  /**
+   * Returns the wall time.
+   *
+   * @return		the time in nanoseconds
+   */
+  public long getWallTime() {
+    return m_WallTime;
+  }
+
+  /**
+   * Returns the CPU time.
+   *
+   * @return		the time in nanoseconds, -1 if not available
+   */
+  public long getCpuTime() {
+    return m_CpuTime;
+  }
+
+  /**
+   * Returns the allocated bytes.
+   *
+   * @return		the bytes, -1 if not available
+   */
+  public long getAllocatedBytes() {
+    return m_AllocatedBytes;
+  }
+
+  /**
+   * Formats nanoseconds as milliseconds.
+   *
+   * @param nanos	the time to format
+   * @return		the formatted time
+   */
+  public static String formatTime(long nanos) {
+    if (nanos < 0)
+      return "n/a";
+    return String.format(Locale.ENGLISH, "%.1f ms", nanos / 1000000.0);
+  }
+
+  /**
+   * Formats the number of bytes.
+   *
+   * @param bytes	the bytes to format
+   * @return		the formatted bytes
+   */
+  public static String formatBytes(long bytes) {
+    if (bytes < 0)
+      return "n/a";
+    if (bytes < 1024)
+      return bytes + " B";
+    if (bytes < 1024 * 1024)
+      return String.format(Locale.ENGLISH, "%.1f KB", bytes / 1024.0);
+    return String.format(Locale.ENGLISH, "%.1f MB", bytes / 1024.0 / 1024.0);
+  }
+
+  /**
+   * Returns a short summary of the measurements.
+   *
+   * @return		the summary
+   */
+  public String toString() {
+    return "wall: " + formatTime(m_WallTime) + ", cpu: " + formatTime(m_CpuTime) + ", alloc: " + formatBytes(m_AllocatedBytes);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Connection.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+/**
+ * A connection for exchanging frames, either via a socket or a channel
+ * (eg a Unix domain socket).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see Protocol
+ */
+public class Connection
+  implements Closeable {
+
+  /** the underlying resource. */
+  protected Closeable m_Resource;
+
+  /** for reading frames. */
+  protected DataInputStream m_Input;
+
+  /** for writing frames. */
+  protected DataOutputStream m_Output;
+
+  /**
+   * For sub-classes that exchange the frames in a different way.
+   */
+  protected Connection() {
+  }
+
+  /**
+   * Initializes the connection from a socket.
+   *
+   * @param socket	the socket to use
+   * @throws IOException	if streams cannot be obtained
+   */
+  public Connection(Socket socket) throws IOException {
+    m_Resource = socket;
+    m_Input    = new DataInputStream(socket.getInputStream());
+    m_Output   = new DataOutputStream(socket.getOutputStream());
+  }
+
+  /**
+   * Initializes the connection from a blocking channel. Reads and writes
+   * go straight to the channel, so that they can happen concurrently.
+   *
+   * @param channel	the channel to use
+   */
+  public Connection(final ByteChannel channel) {
+    m_Resource = channel;
+    m_Input    = new DataInputStream(new InputStream() {
+      @Override
+      public int read() throws IOException {
+	byte[] b = new byte[1];
+	return (read(b, 0, 1) == -1) ? -1 : (b[0] & 0xff);
+      }
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+	return channel.read(ByteBuffer.wrap(b, off, len));
+      }
+    });
+    m_Output   = new DataOutputStream(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+	write(new byte[]{(byte) b}, 0, 1);
+      }
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+	ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+	while (buffer.hasRemaining())
+	  channel.write(buffer);
+      }
+    });
+  }
+
+  /**
+   * Returns the stream for reading frames.
+   *
+   * @return		the stream
+   */
+  public DataInputStream getInput() {
+    return m_Input;
+  }
+
+  /**
+   * Returns the stream for writing frames.
+   *
+   * @return		the stream
+   */
+  public DataOutputStream getOutput() {
+    return m_Output;
+  }
+
+  /**
+   * Reads the next frame.
+   *
+   * @return		the frame
+   * @throws IOException	if reading fails or connection closed
+   */
+  public Frame read() throws IOException {
+    return Protocol.read(m_Input);
+  }
+
+  /**
+   * Writes a frame.
+   *
+   * @param type	the type of frame
+   * @param id		the session ID
+   * @param payload	the payload, can be null
+   * @throws IOException	if writing fails
+   */
+  public void write(byte type, int id, String payload) throws IOException {
+    Protocol.write(m_Output, type, id, payload);
+  }
+
+  /**
+   * Closes the connection.
+   */
+  public void close() {
+    try {
+      m_Resource.close();
+    }
+    catch (Exception e) {
+      // ignored
+    }
+  }
+}
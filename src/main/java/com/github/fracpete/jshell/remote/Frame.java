@@ -0,0 +1,93 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Frame.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.Serializable;
+
+/**
+ * A single message exchanged between host and remote side.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see Protocol
+ */
+public class Frame
+  implements Serializable {
+
+  /** the type of frame. */
+  protected byte m_Type;
+
+  /** the session ID. */
+  protected int m_ID;
+
+  /** the payload. */
+  protected String m_Payload;
+
+  /**
+   * Initializes the frame.
+   *
+   * @param type	the type of frame
+   * @param id		the session ID
+   * @param payload	the payload
+   */
+  public Frame(byte type, int id, String payload) {
+    m_Type    = type;
+    m_ID      = id;
+    m_Payload = payload;
+  }
+
+  /**
+   * Returns the type of frame.
+   *
+   * @return		the type
+   * @see		Protocol
+   */
+  public byte getType() {
+    return m_Type;
+  }
+
+  /**
+   * Returns the session ID.
+   *
+   * @return		the ID
+   */
+  public int getID() {
+    return m_ID;
+  }
+
+  /**
+   * Returns the payload.
+   *
+   * @return		the payload
+   */
+  public String getPayload() {
+    return m_Payload;
+  }
+
+  /**
+   * Returns a string representation of the frame.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return "type=" + m_Type + ", id=" + m_ID + ", payload=" + m_Payload;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FrameOutputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output stream that sends each completed line as a frame.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FrameOutputStream
+  extends OutputStream {
+
+  /** the stream to send the frames to. */
+  protected DataOutputStream m_Output;
+
+  /** the type of frame to send. */
+  protected byte m_Type;
+
+  /** the session ID. */
+  protected int m_ID;
+
+  /** the current line. */
+  protected ByteArrayOutputStream m_Line;
+
+  /**
+   * Initializes the stream.
+   *
+   * @param output	the stream to write the frames to
+   * @param type	the frame type to use
+   * @param id		the session ID
+   */
+  public FrameOutputStream(DataOutputStream output, byte type, int id) {
+    m_Output = output;
+    m_Type   = type;
+    m_ID     = id;
+    m_Line   = new ByteArrayOutputStream();
+  }
+
+  /**
+   * Writes the byte, sends a frame whenever a line is complete.
+   *
+   * @param b		the byte to write
+   * @throws IOException	if sending fails
+   */
+  @Override
+  public synchronized void write(int b) throws IOException {
+    if (b == '\n')
+      sendLine();
+    else if (b != '\r')
+      m_Line.write(b);
+  }
+
+  /**
+   * Sends the current line.
+   *
+   * @throws IOException	if sending fails
+   */
+  protected void sendLine() throws IOException {
+    Protocol.write(m_Output, m_Type, m_ID, new String(m_Line.toByteArray(), StandardCharsets.UTF_8));
+    m_Line.reset();
+  }
+
+  /**
+   * Sends any incomplete line.
+   *
+   * @throws IOException	if sending fails
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (m_Line.size() > 0)
+      sendLine();
+  }
+}
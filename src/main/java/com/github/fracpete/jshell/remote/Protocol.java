@@ -0,0 +1,112 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Protocol.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Simple framed protocol for exchanging scripts and output between
+ * host and remote side: type (byte), session ID (int), payload length (int),
+ * payload (UTF-8).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class Protocol {
+
+  /** authentication token (remote to host). */
+  public final static byte TOKEN = 1;
+
+  /** compiler flag (host to remote). */
+  public final static byte FLAG = 2;
+
+  /** the script to execute (host to remote). */
+  public final static byte SCRIPT = 3;
+
+  /** stops the execution (host to remote). */
+  public final static byte STOP = 4;
+
+  /** line of stdout (remote to host). */
+  public final static byte OUT = 5;
+
+  /** line of stderr (remote to host). */
+  public final static byte ERR = 6;
+
+  /** execution finished, payload is exit code (remote to host). */
+  public final static byte DONE = 7;
+
+  /** the maximum length of a payload in bytes, anything larger is corrupt. */
+  public final static int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+
+  /**
+   * Writes a frame.
+   *
+   * @param out		the stream to write to
+   * @param type	the type of frame
+   * @param id		the session ID
+   * @param payload	the payload, can be null
+   * @throws IOException	if writing fails or payload too large
+   */
+  public static void write(DataOutputStream out, byte type, int id, String payload) throws IOException {
+    byte[]	bytes;
+
+    bytes = (payload == null) ? new byte[0] : payload.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_PAYLOAD_LENGTH)
+      throw new IOException("Payload too large: " + bytes.length + " > " + MAX_PAYLOAD_LENGTH);
+    synchronized(out) {
+      out.writeByte(type);
+      out.writeInt(id);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+      out.flush();
+    }
+  }
+
+  /**
+   * Reads the next frame.
+   *
+   * @param in		the stream to read from
+   * @return		the frame
+   * @throws IOException	if reading fails, stream closed or invalid payload length
+   */
+  public static Frame read(DataInputStream in) throws IOException {
+    byte	type;
+    int		id;
+    int		length;
+    byte[]	bytes;
+
+    synchronized(in) {
+      type   = in.readByte();
+      id     = in.readInt();
+      length = in.readInt();
+      // don't allocate arbitrary amounts of memory for a corrupt stream
+      if ((length < 0) || (length > MAX_PAYLOAD_LENGTH))
+	throw new IOException("Invalid payload length: " + length);
+      bytes  = new byte[length];
+      in.readFully(bytes);
+    }
+
+    return new Frame(type, id, new String(bytes, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * RoutingPrintStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Print stream that forwards the output to a per-thread target (inherited
+ * by threads spawned from that thread), or to the original stream if none
+ * set. Used as System.out/err replacement when executing code in-process.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class RoutingPrintStream
+  extends PrintStream {
+
+  /** the installed stdout router. */
+  protected static RoutingPrintStream m_Out;
+
+  /** the installed stderr router. */
+  protected static RoutingPrintStream m_Err;
+
+  /** the original stream. */
+  protected PrintStream m_Original;
+
+  /** the per-thread target. */
+  protected InheritableThreadLocal<OutputStream> m_Target;
+
+  /**
+   * Initializes the router.
+   *
+   * @param original	the stream to use if no target set for thread
+   */
+  public RoutingPrintStream(PrintStream original) {
+    super(original, true);
+    m_Original = original;
+    m_Target   = new InheritableThreadLocal<>();
+  }
+
+  /**
+   * Sets the target for the current thread and threads spawned from it.
+   *
+   * @param value	the target, null to use the original stream
+   */
+  public void setTarget(OutputStream value) {
+    if (value == null)
+      m_Target.remove();
+    else
+      m_Target.set(value);
+  }
+
+  /**
+   * Writes the byte to the current target.
+   *
+   * @param b		the byte
+   */
+  @Override
+  public void write(int b) {
+    OutputStream	target;
+
+    target = m_Target.get();
+    if (target == null) {
+      m_Original.write(b);
+      return;
+    }
+    try {
+      target.write(b);
+    }
+    catch (IOException e) {
+      setError();
+    }
+  }
+
+  /**
+   * Writes the bytes to the current target.
+   *
+   * @param buf		the bytes
+   * @param off		the offset
+   * @param len		the number of bytes
+   */
+  @Override
+  public void write(byte[] buf, int off, int len) {
+    OutputStream	target;
+
+    target = m_Target.get();
+    if (target == null) {
+      m_Original.write(buf, off, len);
+      return;
+    }
+    try {
+      target.write(buf, off, len);
+    }
+    catch (IOException e) {
+      setError();
+    }
+  }
+
+  /**
+   * Flushes the current target.
+   */
+  @Override
+  public void flush() {
+    OutputStream	target;
+
+    target = m_Target.get();
+    if (target == null) {
+      m_Original.flush();
+      return;
+    }
+    try {
+      target.flush();
+    }
+    catch (IOException e) {
+      setError();
+    }
+  }
+
+  /**
+   * Installs the routers as System.out/err, if not already installed.
+   */
+  public static synchronized void install() {
+    if (m_Out == null) {
+      m_Out = new RoutingPrintStream(System.out);
+      m_Err = new RoutingPrintStream(System.err);
+      System.setOut(m_Out);
+      System.setErr(m_Err);
+    }
+  }
+
+  /**
+   * Returns the stdout router.
+   *
+   * @return		the router, null if not installed
+   */
+  public static RoutingPrintStream getOut() {
+    return m_Out;
+  }
+
+  /**
+   * Returns the stderr router.
+   *
+   * @return		the router, null if not installed
+   */
+  public static RoutingPrintStream getErr() {
+    return m_Err;
+  }
+}
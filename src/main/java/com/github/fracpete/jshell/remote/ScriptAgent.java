@@ -0,0 +1,191 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptAgent.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import jdk.jshell.JShell;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Agent that gets loaded into a running JVM via the attach API. It connects
+ * back to the host, receives the script and evaluates it with an in-process
+ * JShell instance, sending the output back to the host.
+ * <br>
+ * Expects the following arguments: port=&lt;port&gt;,token=&lt;token&gt;
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptAgent {
+
+  /**
+   * Connects to the host, executes the script and sends back the output.
+   *
+   * @param port	the port the host is listening on (loopback)
+   * @param token	the token to authenticate with
+   */
+  protected static void serve(int port, String token) {
+    Socket			socket;
+    DataInputStream		in;
+    DataOutputStream		out;
+    Frame			frame;
+    List<String>		flags;
+    String			script;
+    FrameOutputStream		frameOut;
+    FrameOutputStream		frameErr;
+    PrintStream			printOut;
+    PrintStream			printErr;
+    JShell			jshell;
+    ScriptEvaluator		evaluator;
+    Thread			watcher;
+    int				exitCode;
+
+    try {
+      socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    }
+    catch (Exception e) {
+      System.err.println("Failed to connect to jshell host on port " + port + ": " + e);
+      return;
+    }
+
+    try {
+      in  = new DataInputStream(socket.getInputStream());
+      out = new DataOutputStream(socket.getOutputStream());
+      Protocol.write(out, Protocol.TOKEN, 0, token);
+
+      // receive script
+      flags  = new ArrayList<>();
+      script = null;
+      while (script == null) {
+	frame = Protocol.read(in);
+	switch (frame.getType()) {
+	  case Protocol.FLAG:
+	    // only compiler flags apply
+	    if (frame.getPayload().startsWith("-C"))
+	      flags.add(frame.getPayload().substring(2));
+	    break;
+	  case Protocol.SCRIPT:
+	    script = frame.getPayload();
+	    break;
+	  case Protocol.STOP:
+	    return;
+	}
+      }
+
+      // execute
+      frameOut  = new FrameOutputStream(out, Protocol.OUT, 0);
+      frameErr  = new FrameOutputStream(out, Protocol.ERR, 0);
+      printOut  = new PrintStream(frameOut, true, "UTF-8");
+      printErr  = new PrintStream(frameErr, true, "UTF-8");
+      jshell    = JShell.builder()
+	.executionEngine("local")
+	.out(printOut)
+	.err(printErr)
+	.compilerOptions(flags.toArray(new String[0]))
+	.build();
+      evaluator = new ScriptEvaluator(jshell, printErr);
+      watcher   = new Thread(() -> {
+	try {
+	  while (Protocol.read(in).getType() != Protocol.STOP) {
+	    // ignored
+	  }
+	}
+	catch (IOException e) {
+	  // host disconnected
+	}
+	evaluator.stop();
+      }, "jshell-agent-watcher");
+      watcher.setDaemon(true);
+      watcher.start();
+
+      RoutingPrintStream.getOut().setTarget(printOut);
+      RoutingPrintStream.getErr().setTarget(printErr);
+      try {
+	jshell.addToClasspath(System.getProperty("java.class.path"));
+	evaluator.importDefaults();
+	exitCode = evaluator.evaluate(script);
+      }
+      catch (Throwable t) {
+	t.printStackTrace(printErr);
+	exitCode = 1;
+      }
+      finally {
+	RoutingPrintStream.getOut().setTarget(null);
+	RoutingPrintStream.getErr().setTarget(null);
+	printOut.flush();
+	printErr.flush();
+	frameOut.close();
+	frameErr.close();
+	jshell.close();
+      }
+      Protocol.write(out, Protocol.DONE, 0, "" + exitCode);
+    }
+    catch (Exception e) {
+      System.err.println("Failed to execute script from jshell host: " + e);
+    }
+    finally {
+      try {
+	socket.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+  }
+
+  /**
+   * Gets called when the agent is loaded into a running JVM.
+   *
+   * @param args	the arguments: port=&lt;port&gt;,token=&lt;token&gt;
+   */
+  public static void agentmain(String args) {
+    int		port;
+    String	token;
+    Thread	thread;
+
+    port  = -1;
+    token = null;
+    for (String arg: args.split(",")) {
+      if (arg.startsWith("port="))
+	port = Integer.parseInt(arg.substring(5));
+      else if (arg.startsWith("token="))
+	token = arg.substring(6);
+    }
+    if ((port == -1) || (token == null)) {
+      System.err.println("Expected port=<port>,token=<token> but got: " + args);
+      return;
+    }
+
+    RoutingPrintStream.install();
+    final int fPort = port;
+    final String fToken = token;
+    thread = new Thread(() -> serve(fPort, fToken), "jshell-agent");
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptEvaluator.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import com.github.fracpete.jshell.compile.ScriptCompiler;
+import com.github.fracpete.jshell.compile.ScriptParser;
+import com.github.fracpete.jshell.compile.ScriptSnippet;
+import jdk.jshell.Diag;
+import jdk.jshell.EvalException;
+import jdk.jshell.JShell;
+import jdk.jshell.JShellException;
+import jdk.jshell.Snippet.Status;
+import jdk.jshell.SnippetEvent;
+import jdk.jshell.UnresolvedReferenceException;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates scripts snippet by snippet in a JShell instance, reporting
+ * errors and exceptions similar to the jshell tool.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptEvaluator {
+
+  /** the exit code when the execution got stopped. */
+  public final static int EXIT_STOPPED = -1;
+
+  /** the JShell instance to use. */
+  protected JShell m_JShell;
+
+  /** for outputting errors. */
+  protected PrintStream m_Err;
+
+  /** whether the evaluation was stopped. */
+  protected volatile boolean m_Stopped;
+
+  /** gets notified after each snippet, can be null. */
+  protected BiConsumer<ScriptSnippet,List<SnippetEvent>> m_SnippetListener;
+
+  /**
+   * Initializes the evaluator.
+   *
+   * @param jshell	the JShell instance to use
+   * @param err		for outputting errors
+   */
+  public ScriptEvaluator(JShell jshell, PrintStream err) {
+    m_JShell          = jshell;
+    m_Err             = err;
+    m_Stopped         = false;
+    m_SnippetListener = null;
+  }
+
+  /**
+   * Returns the underlying JShell instance.
+   *
+   * @return		the instance
+   */
+  public JShell getJShell() {
+    return m_JShell;
+  }
+
+  /**
+   * Sets the stream for outputting errors.
+   *
+   * @param value	the stream
+   */
+  public void setErr(PrintStream value) {
+    m_Err = value;
+  }
+
+  /**
+   * Sets the listener that gets notified after each evaluated snippet.
+   *
+   * @param value	the listener, null to remove
+   */
+  public void setSnippetListener(BiConsumer<ScriptSnippet,List<SnippetEvent>> value) {
+    m_SnippetListener = value;
+  }
+
+  /**
+   * Performs the default imports of the jshell tool.
+   */
+  public void importDefaults() {
+    for (String imp: ScriptCompiler.DEFAULT_IMPORTS)
+      m_JShell.eval("import " + imp + ";");
+  }
+
+  /**
+   * Performs the startup: the default imports (if enabled) followed by
+   * the content of the startup files (eg compiled preludes).
+   *
+   * @param defaults	whether to perform the default imports
+   * @param files	the startup files to evaluate, can be null
+   * @return		the exit code (0 if all successful)
+   * @throws IOException	if reading of a startup file fails
+   */
+  public int startup(boolean defaults, List<String> files) throws IOException {
+    int		result;
+
+    if (defaults)
+      importDefaults();
+    if (files == null)
+      return 0;
+    for (String file: files) {
+      result = evaluate(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+      if (result != 0)
+	return result;
+    }
+
+    return 0;
+  }
+
+  /**
+   * Evaluates the script.
+   *
+   * @param code	the script to evaluate
+   * @return		the exit code (0 unless set via /exit, {@link #EXIT_STOPPED} if stopped)
+   */
+  public int evaluate(String code) {
+    List<ScriptSnippet>	snippets;
+    String		source;
+
+    m_Stopped = false;
+    snippets  = ScriptParser.parse(m_JShell.sourceCodeAnalysis(), code);
+    for (ScriptSnippet snippet: snippets) {
+      if (m_Stopped)
+	return EXIT_STOPPED;
+      source = snippet.getSource();
+      if (snippet.isCommand()) {
+	if (source.equals("/exit"))
+	  return 0;
+	if (source.startsWith("/exit ")) {
+	  try {
+	    return Integer.parseInt(source.substring(6).trim());
+	  }
+	  catch (Exception e) {
+	    m_Err.println("Invalid exit code: " + source);
+	    return 1;
+	  }
+	}
+	m_Err.println("Unsupported command: " + source);
+	continue;
+      }
+      evaluate(snippet);
+    }
+
+    return m_Stopped ? EXIT_STOPPED : 0;
+  }
+
+  /**
+   * Evaluates a single snippet.
+   *
+   * @param snippet	the snippet to evaluate
+   * @return		the events generated by the snippet
+   */
+  public List<SnippetEvent> evaluate(ScriptSnippet snippet) {
+    List<SnippetEvent>	result;
+
+    result = m_JShell.eval(snippet.getSource());
+    for (SnippetEvent event: result) {
+      if (event.causeSnippet() != null)
+	continue;
+      if (event.status() == Status.REJECTED)
+	printDiagnostics(event);
+      if (event.exception() != null)
+	printException(event.exception());
+    }
+    if (m_SnippetListener != null)
+      m_SnippetListener.accept(snippet, result);
+
+    return result;
+  }
+
+  /**
+   * Outputs the diagnostics of a rejected snippet.
+   *
+   * @param event	the event of the snippet
+   */
+  protected void printDiagnostics(SnippetEvent event) {
+    String		source;
+    List<Diag>		diags;
+    StringBuilder	caret;
+    int			pos;
+    int			start;
+    int			end;
+    int			i;
+
+    source = event.snippet().source();
+    diags  = m_JShell.diagnostics(event.snippet()).collect(Collectors.toList());
+    for (Diag diag: diags) {
+      m_Err.println(diag.isError() ? "Error:" : "Warning:");
+      m_Err.println(diag.getMessage(Locale.getDefault()));
+      if (diag.getPosition() == Diag.NOPOS)
+	continue;
+      pos   = (int) Math.min(diag.getPosition(), source.length());
+      start = source.lastIndexOf('\n', Math.max(0, pos - 1)) + 1;
+      end   = source.indexOf('\n', pos);
+      if (end == -1)
+	end = source.length();
+      m_Err.println(source.substring(start, end));
+      caret = new StringBuilder();
+      for (i = start; i < pos; i++)
+	caret.append(source.charAt(i) == '\t' ? '\t' : ' ');
+      m_Err.println(caret + "^");
+    }
+  }
+
+  /**
+   * Outputs the exception thrown by a snippet.
+   *
+   * @param ex		the exception
+   */
+  protected void printException(JShellException ex) {
+    if (ex instanceof EvalException) {
+      m_Err.println("Exception " + ((EvalException) ex).getExceptionClassName()
+	+ ((ex.getMessage() == null) ? "" : ": " + ex.getMessage()));
+      for (StackTraceElement element: ex.getStackTrace())
+	m_Err.println("      at " + element);
+    }
+    else if (ex instanceof UnresolvedReferenceException) {
+      m_Err.println("Attempted to use unresolved reference: "
+	+ ((UnresolvedReferenceException) ex).getSnippet().source().trim());
+    }
+    else {
+      m_Err.println("Exception: " + ex);
+    }
+  }
+
+  /**
+   * Stops the evaluation.
+   */
+  public void stop() {
+    m_Stopped = true;
+    m_JShell.stop();
+  }
+
+  /**
+   * Returns whether the evaluation was stopped.
+   *
+   * @return		true if stopped
+   */
+  public boolean isStopped() {
+    return m_Stopped;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SnippetProbe.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the execution of snippets inside the JVM that runs the code.
+ * Gets invoked directly by the execution control before and after each
+ * snippet, on the same thread as the snippet itself. Must not depend on
+ * any other classes of this library.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see com.github.fracpete.jshell.profile.ProfilingExecutionControl
+ */
+public class SnippetProbe {
+
+  /** the wall time when marked. */
+  protected static long m_Wall;
+
+  /** the thread CPU time when marked. */
+  protected static long m_Cpu;
+
+  /** the bytes allocated by the thread when marked. */
+  protected static long m_Allocated;
+
+  /**
+   * Returns the CPU time of the current thread.
+   *
+   * @return		the time in nanoseconds, -1 if not available
+   */
+  protected static long cpuTime() {
+    ThreadMXBean	bean;
+
+    bean = ManagementFactory.getThreadMXBean();
+    if (bean.isCurrentThreadCpuTimeSupported())
+      return bean.getCurrentThreadCpuTime();
+    return -1;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the current thread.
+   *
+   * @return		the bytes, -1 if not available
+   */
+  protected static long allocatedBytes() {
+    ThreadMXBean	bean;
+
+    bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean)
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    return -1;
+  }
+
+  /**
+   * Returns the process ID of the JVM.
+   *
+   * @return		the ID
+   */
+  public static String pid() {
+    return "" + ProcessHandle.current().pid();
+  }
+
+  /**
+   * Marks the start of a snippet execution.
+   *
+   * @return		always empty
+   */
+  public static String mark() {
+    m_Cpu       = cpuTime();
+    m_Allocated = allocatedBytes();
+    m_Wall      = System.nanoTime();
+    return "";
+  }
+
+  /**
+   * Measures the snippet execution since the last mark.
+   *
+   * @return		wall time, CPU time (both nanoseconds) and allocated bytes, separated by commas; -1 if not available
+   */
+  public static String measure() {
+    long	wall;
+    long	cpu;
+    long	allocated;
+
+    wall      = System.nanoTime() - m_Wall;
+    cpu       = cpuTime();
+    allocated = allocatedBytes();
+    cpu       = ((cpu == -1) || (m_Cpu == -1)) ? -1 : cpu - m_Cpu;
+    allocated = ((allocated == -1) || (m_Allocated == -1)) ? -1 : allocated - m_Allocated;
+    return wall + "," + cpu + "," + allocated;
+  }
+}
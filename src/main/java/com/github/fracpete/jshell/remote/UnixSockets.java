@@ -0,0 +1,133 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * UnixSockets.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.remote;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Helper for Unix domain sockets. These require Java 16 or later, hence the
+ * API gets accessed via reflection to keep the project compiling with older
+ * JDKs.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class UnixSockets {
+
+  /**
+   * Checks whether Unix domain sockets are supported by the JVM.
+   *
+   * @return		true if supported
+   */
+  public static boolean isSupported() {
+    try {
+      getFamily();
+      Class.forName("java.net.UnixDomainSocketAddress");
+      return true;
+    }
+    catch (Throwable t) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the UNIX protocol family.
+   *
+   * @return		the family
+   */
+  protected static ProtocolFamily getFamily() {
+    return StandardProtocolFamily.valueOf("UNIX");
+  }
+
+  /**
+   * Creates the socket address for the path.
+   *
+   * @param path	the path of the socket file
+   * @return		the address
+   * @throws IOException	if not supported
+   */
+  protected static SocketAddress getAddress(Path path) throws IOException {
+    Class<?>	cls;
+    Method	method;
+
+    try {
+      cls    = Class.forName("java.net.UnixDomainSocketAddress");
+      method = cls.getMethod("of", Path.class);
+      return (SocketAddress) method.invoke(null, path);
+    }
+    catch (Exception e) {
+      throw new IOException("Unix domain sockets not supported (requires Java 16+)!", e);
+    }
+  }
+
+  /**
+   * Opens a server channel listening on the specified socket file.
+   *
+   * @param path	the socket file
+   * @return		the channel
+   * @throws IOException	if not supported or failed to bind
+   */
+  public static ServerSocketChannel bind(Path path) throws IOException {
+    ServerSocketChannel		result;
+    Method			method;
+
+    try {
+      method = ServerSocketChannel.class.getMethod("open", ProtocolFamily.class);
+      result = (ServerSocketChannel) method.invoke(null, getFamily());
+    }
+    catch (Exception e) {
+      throw new IOException("Unix domain sockets not supported (requires Java 16+)!", e);
+    }
+    result.bind(getAddress(path));
+
+    return result;
+  }
+
+  /**
+   * Connects to the specified socket file.
+   *
+   * @param path	the socket file
+   * @return		the channel
+   * @throws IOException	if not supported or failed to connect
+   */
+  public static SocketChannel connect(Path path) throws IOException {
+    SocketChannel	result;
+    Method		method;
+
+    try {
+      method = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+      result = (SocketChannel) method.invoke(null, getFamily());
+    }
+    catch (Exception e) {
+      throw new IOException("Unix domain sockets not supported (requires Java 16+)!", e);
+    }
+    result.connect(getAddress(path));
+
+    return result;
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * CronSchedule.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Executes the script according to a cron expression with the five
+ * standard fields (in the local timezone):
+ * <pre>
+ * minute hour day-of-month month day-of-week
+ * </pre>
+ * Fields support lists ({@code 1,15}), ranges ({@code 1-5}), steps
+ * ({@code *}{@code /10}, {@code 0-30/5}), month and day names
+ * ({@code JAN}, {@code MON}) and 0 or 7 for Sunday. If both day-of-month
+ * and day-of-week are restricted, either of them has to match. The macros
+ * {@code @yearly}, {@code @annually}, {@code @monthly}, {@code @weekly},
+ * {@code @daily}, {@code @midnight} and {@code @hourly} are supported as well.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class CronSchedule
+  implements Schedule {
+
+  /** the maximum number of steps for finding the next time. */
+  protected final static int MAX_STEPS = 100000;
+
+  /** the macros. */
+  protected final static Map<String,String> MACROS;
+  static {
+    MACROS = new HashMap<>();
+    MACROS.put("@yearly", "0 0 1 1 *");
+    MACROS.put("@annually", "0 0 1 1 *");
+    MACROS.put("@monthly", "0 0 1 * *");
+    MACROS.put("@weekly", "0 0 * * 0");
+    MACROS.put("@daily", "0 0 * * *");
+    MACROS.put("@midnight", "0 0 * * *");
+    MACROS.put("@hourly", "0 * * * *");
+  }
+
+  /** the month names. */
+  protected final static String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+
+  /** the day names. */
+  protected final static String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+  /** the expression. */
+  protected String m_Expression;
+
+  /** the minutes (0-59). */
+  protected BitSet m_Minutes;
+
+  /** the hours (0-23). */
+  protected BitSet m_Hours;
+
+  /** the days of the month (1-31). */
+  protected BitSet m_DaysOfMonth;
+
+  /** the months (1-12). */
+  protected BitSet m_Months;
+
+  /** the days of the week (0-6, Sunday is 0). */
+  protected BitSet m_DaysOfWeek;
+
+  /** whether the day of the month is unrestricted. */
+  protected boolean m_AnyDayOfMonth;
+
+  /** whether the day of the week is unrestricted. */
+  protected boolean m_AnyDayOfWeek;
+
+  /** the timezone. */
+  protected ZoneId m_Zone;
+
+  /**
+   * Initializes the schedule using the local timezone.
+   *
+   * @param expression	the cron expression
+   * @throws IllegalArgumentException	if the expression is invalid
+   */
+  public CronSchedule(String expression) {
+    this(expression, ZoneId.systemDefault());
+  }
+
+  /**
+   * Initializes the schedule.
+   *
+   * @param expression	the cron expression
+   * @param zone	the timezone to interpret the expression in
+   * @throws IllegalArgumentException	if the expression is invalid
+   */
+  public CronSchedule(String expression, ZoneId zone) {
+    String[]	fields;
+    String	expr;
+
+    m_Expression = expression.trim();
+    m_Zone       = zone;
+    expr         = m_Expression;
+    if (MACROS.containsKey(expr.toLowerCase()))
+      expr = MACROS.get(expr.toLowerCase());
+    fields = expr.split("\\s+");
+    if (fields.length != 5)
+      throw new IllegalArgumentException("Expected 5 fields in cron expression, found " + fields.length + ": " + expression);
+
+    m_Minutes       = parse(fields[0], 0, 59, null);
+    m_Hours         = parse(fields[1], 0, 23, null);
+    m_DaysOfMonth   = parse(fields[2], 1, 31, null);
+    m_Months        = parse(fields[3], 1, 12, MONTHS);
+    m_DaysOfWeek    = parse(fields[4], 0, 7, DAYS);
+    m_AnyDayOfMonth = fields[2].equals("*") || fields[2].equals("?");
+    m_AnyDayOfWeek  = fields[4].equals("*") || fields[4].equals("?");
+    // 7 is Sunday as well
+    if (m_DaysOfWeek.get(7)) {
+      m_DaysOfWeek.clear(7);
+      m_DaysOfWeek.set(0);
+    }
+  }
+
+  /**
+   * Parses a single value, either numeric or a name.
+   *
+   * @param value	the value to parse
+   * @param min		the minimum value
+   * @param names	the names, null if none
+   * @return		the numeric value
+   */
+  protected static int parseValue(String value, int min, String[] names) {
+    int		i;
+
+    if (names != null) {
+      for (i = 0; i < names.length; i++) {
+	if (names[i].equalsIgnoreCase(value))
+	  return i + min;
+      }
+    }
+    return Integer.parseInt(value);
+  }
+
+  /**
+   * Parses a field of the expression.
+   *
+   * @param field	the field to parse
+   * @param min		the minimum value
+   * @param max		the maximum value
+   * @param names	the names for the values (starting at min), null if none
+   * @return		the allowed values
+   * @throws IllegalArgumentException	if the field is invalid
+   */
+  protected static BitSet parse(String field, int min, int max, String[] names) {
+    BitSet	result;
+    String	range;
+    int		step;
+    int		from;
+    int		to;
+    int		i;
+
+    result = new BitSet(max + 1);
+    for (String part: field.split(",")) {
+      try {
+	range = part;
+	step  = 1;
+	if (part.contains("/")) {
+	  range = part.substring(0, part.indexOf('/'));
+	  step  = Integer.parseInt(part.substring(part.indexOf('/') + 1));
+	  if (step <= 0)
+	    throw new IllegalArgumentException("Step must be positive");
+	}
+	if (range.equals("*") || range.equals("?")) {
+	  from = min;
+	  to   = max;
+	}
+	else if (range.contains("-")) {
+	  from = parseValue(range.substring(0, range.indexOf('-')), min, names);
+	  to   = parseValue(range.substring(range.indexOf('-') + 1), min, names);
+	}
+	else {
+	  from = parseValue(range, min, names);
+	  to   = part.contains("/") ? max : from;
+	}
+	if ((from < min) || (to > max) || (from > to))
+	  throw new IllegalArgumentException("Range must be within " + min + "-" + max);
+	for (i = from; i <= to; i += step)
+	  result.set(i);
+      }
+      catch (IllegalArgumentException e) {
+	throw new IllegalArgumentException("Invalid cron field '" + field + "': " + e.getMessage(), e);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the expression.
+   *
+   * @return		the expression
+   */
+  public String getExpression() {
+    return m_Expression;
+  }
+
+  /**
+   * Checks whether the day matches.
+   *
+   * @param time	the time to check
+   * @return		true if the day matches
+   */
+  protected boolean matchesDay(ZonedDateTime time) {
+    boolean	dom;
+    boolean	dow;
+
+    dom = m_DaysOfMonth.get(time.getDayOfMonth());
+    dow = m_DaysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+    if (m_AnyDayOfMonth)
+      return dow;
+    if (m_AnyDayOfWeek)
+      return dom;
+    return dom || dow;
+  }
+
+  /**
+   * Returns the first matching time after the specified one.
+   *
+   * @param after	the time (msec since epoch)
+   * @return		the matching time (msec since epoch)
+   * @throws IllegalStateException	if no matching time can be found
+   */
+  public long after(long after) {
+    ZonedDateTime	time;
+    int			i;
+
+    time = Instant.ofEpochMilli(after).atZone(m_Zone).truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+    for (i = 0; i < MAX_STEPS; i++) {
+      if (!m_Months.get(time.getMonthValue())) {
+	time = time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).plusMonths(1);
+	continue;
+      }
+      if (!matchesDay(time)) {
+	time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+	continue;
+      }
+      if (!m_Hours.get(time.getHour())) {
+	time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+	continue;
+      }
+      if (!m_Minutes.get(time.getMinute())) {
+	time = time.plusMinutes(1);
+	continue;
+      }
+      return time.toInstant().toEpochMilli();
+    }
+
+    throw new IllegalStateException("Cron expression never matches: " + m_Expression);
+  }
+
+  /**
+   * Returns the time of the first execution.
+   *
+   * @param now		the current time (msec since epoch)
+   * @return		the time (msec since epoch)
+   */
+  public long first(long now) {
+    return after(now);
+  }
+
+  /**
+   * Returns the time of the next execution.
+   *
+   * @param scheduled	the time the previous execution was scheduled for (msec since epoch)
+   * @param end		ignored
+   * @return		the time (msec since epoch)
+   */
+  public long next(long scheduled, long end) {
+    return after(scheduled);
+  }
+
+  /**
+   * Returns whether the next execution gets determined relative to the end
+   * of the previous one.
+   *
+   * @return		always false
+   */
+  public boolean isRelativeToEnd() {
+    return false;
+  }
+
+  /**
+   * Returns a short description of the schedule.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "cron '" + m_Expression + "'";
+  }
+}
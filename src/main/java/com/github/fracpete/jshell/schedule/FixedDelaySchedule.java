@@ -0,0 +1,90 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FixedDelaySchedule.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+/**
+ * Executes the script with a fixed delay between the end of an execution
+ * and the start of the next one, ie executions never overlap.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FixedDelaySchedule
+  implements Schedule {
+
+  /** the delay in msec. */
+  protected long m_Delay;
+
+  /** the initial delay in msec. */
+  protected long m_InitialDelay;
+
+  /**
+   * Initializes the schedule.
+   *
+   * @param delay	the delay in msec
+   * @param initialDelay	the initial delay in msec
+   */
+  public FixedDelaySchedule(long delay, long initialDelay) {
+    m_Delay        = Math.max(0, delay);
+    m_InitialDelay = Math.max(0, initialDelay);
+  }
+
+  /**
+   * Returns the time of the first execution.
+   *
+   * @param now		the current time (msec since epoch)
+   * @return		the time (msec since epoch)
+   */
+  public long first(long now) {
+    return now + m_InitialDelay;
+  }
+
+  /**
+   * Returns the time of the next execution.
+   *
+   * @param scheduled	ignored
+   * @param end		the time the previous execution finished (msec since epoch)
+   * @return		the time (msec since epoch)
+   */
+  public long next(long scheduled, long end) {
+    return end + m_Delay;
+  }
+
+  /**
+   * Returns whether the next execution gets determined relative to the end
+   * of the previous one.
+   *
+   * @return		always true
+   */
+  public boolean isRelativeToEnd() {
+    return true;
+  }
+
+  /**
+   * Returns a short description of the schedule.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Delay + "ms after each run (initial delay " + m_InitialDelay + "ms)";
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * FixedRateSchedule.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+/**
+ * Executes the script at a fixed rate, regardless of how long the
+ * executions take (overlaps are handled by the overlap policy).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class FixedRateSchedule
+  implements Schedule {
+
+  /** the period in msec. */
+  protected long m_Period;
+
+  /** the initial delay in msec. */
+  protected long m_InitialDelay;
+
+  /**
+   * Initializes the schedule.
+   *
+   * @param period	the period in msec
+   * @param initialDelay	the initial delay in msec
+   */
+  public FixedRateSchedule(long period, long initialDelay) {
+    if (period <= 0)
+      throw new IllegalArgumentException("Period must be positive: " + period);
+    m_Period       = period;
+    m_InitialDelay = Math.max(0, initialDelay);
+  }
+
+  /**
+   * Returns the time of the first execution.
+   *
+   * @param now		the current time (msec since epoch)
+   * @return		the time (msec since epoch)
+   */
+  public long first(long now) {
+    return now + m_InitialDelay;
+  }
+
+  /**
+   * Returns the time of the next execution.
+   *
+   * @param scheduled	the time the previous execution was scheduled for (msec since epoch)
+   * @param end		ignored
+   * @return		the time (msec since epoch)
+   */
+  public long next(long scheduled, long end) {
+    return scheduled + m_Period;
+  }
+
+  /**
+   * Returns whether the next execution gets determined relative to the end
+   * of the previous one.
+   *
+   * @return		always false
+   */
+  public boolean isRelativeToEnd() {
+    return false;
+  }
+
+  /**
+   * Returns a short description of the schedule.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "every " + m_Period + "ms (initial delay " + m_InitialDelay + "ms)";
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * OverlapPolicy.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+/**
+ * Determines what happens if a script is due while its previous execution
+ * is still running.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public enum OverlapPolicy {
+  /** the tick gets skipped. */
+  SKIP,
+  /** the tick gets executed once the current one finishes (at most one gets queued, further ones are skipped). */
+  QUEUE,
+}
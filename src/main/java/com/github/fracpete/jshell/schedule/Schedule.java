@@ -0,0 +1,59 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Schedule.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+import java.io.Serializable;
+
+/**
+ * Determines when a scheduled script gets executed.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface Schedule
+  extends Serializable {
+
+  /**
+   * Returns the time of the first execution.
+   *
+   * @param now		the current time (msec since epoch)
+   * @return		the time (msec since epoch)
+   */
+  public long first(long now);
+
+  /**
+   * Returns the time of the next execution.
+   *
+   * @param scheduled	the time the previous execution was scheduled for (msec since epoch)
+   * @param end		the time the previous execution finished (msec since epoch), only
+   * 			available if {@link #isRelativeToEnd()} returns true, otherwise -1
+   * @return		the time (msec since epoch)
+   */
+  public long next(long scheduled, long end);
+
+  /**
+   * Returns whether the next execution gets determined relative to the end
+   * of the previous one, ie executions cannot overlap.
+   *
+   * @return		true if relative to end
+   */
+  public boolean isRelativeToEnd();
+}
@@ -0,0 +1,161 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScheduledScript.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+import com.github.fracpete.jshell.session.SessionSettings;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+/**
+ * A script that gets executed by the {@link ScriptScheduler}.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScheduledScript {
+
+  /** the unique name. */
+  protected String m_Name;
+
+  /** the script code. */
+  protected String m_Code;
+
+  /** the schedule. */
+  protected Schedule m_Schedule;
+
+  /** the overlap policy. */
+  protected OverlapPolicy m_Policy;
+
+  /** the session settings, null for the scheduler to determine them. */
+  protected SessionSettings m_Settings;
+
+  /** the owner to forward the output to, null to discard output. */
+  protected StreamingProcessOwner m_Owner;
+
+  /**
+   * Initializes the script, skipping overlapping ticks.
+   *
+   * @param name	the unique name
+   * @param code	the script code
+   * @param schedule	the schedule
+   */
+  public ScheduledScript(String name, String code, Schedule schedule) {
+    this(name, code, schedule, OverlapPolicy.SKIP);
+  }
+
+  /**
+   * Initializes the script.
+   *
+   * @param name	the unique name
+   * @param code	the script code
+   * @param schedule	the schedule
+   * @param policy	the overlap policy
+   */
+  public ScheduledScript(String name, String code, Schedule schedule, OverlapPolicy policy) {
+    m_Name     = name;
+    m_Code     = code;
+    m_Schedule = schedule;
+    m_Policy   = policy;
+    m_Settings = null;
+    m_Owner    = null;
+  }
+
+  /**
+   * Returns the unique name.
+   *
+   * @return		the name
+   */
+  public String getName() {
+    return m_Name;
+  }
+
+  /**
+   * Returns the script code.
+   *
+   * @return		the code
+   */
+  public String getCode() {
+    return m_Code;
+  }
+
+  /**
+   * Returns the schedule.
+   *
+   * @return		the schedule
+   */
+  public Schedule getSchedule() {
+    return m_Schedule;
+  }
+
+  /**
+   * Returns the overlap policy.
+   *
+   * @return		the policy
+   */
+  public OverlapPolicy getPolicy() {
+    return m_Policy;
+  }
+
+  /**
+   * Sets the session settings to use.
+   *
+   * @param value	the settings, null for the scheduler to determine them
+   */
+  public void setSettings(SessionSettings value) {
+    m_Settings = value;
+  }
+
+  /**
+   * Returns the session settings to use.
+   *
+   * @return		the settings, null for the scheduler to determine them
+   */
+  public SessionSettings getSettings() {
+    return m_Settings;
+  }
+
+  /**
+   * Sets the owner to forward the output to.
+   *
+   * @param value	the owner, null to discard output
+   */
+  public void setOwner(StreamingProcessOwner value) {
+    m_Owner = value;
+  }
+
+  /**
+   * Returns the owner to forward the output to.
+   *
+   * @return		the owner, null to discard output
+   */
+  public StreamingProcessOwner getOwner() {
+    return m_Owner;
+  }
+
+  /**
+   * Returns a short description of the script.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return m_Name + " (" + m_Schedule + ", " + m_Policy + ")";
+  }
+}
@@ -0,0 +1,526 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptScheduler.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.schedule;
+
+import com.github.fracpete.jshell.deps.ClassPathCache;
+import com.github.fracpete.jshell.deps.DependencyDirective;
+import com.github.fracpete.jshell.event.JShellScheduleEvent;
+import com.github.fracpete.jshell.event.JShellScheduleEvent.EventType;
+import com.github.fracpete.jshell.event.JShellScheduleListener;
+import com.github.fracpete.jshell.process.LineForwardingOutputStream;
+import com.github.fracpete.jshell.session.JShellSession;
+import com.github.fracpete.jshell.session.SessionSettings;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes scripts repeatedly according to their {@link Schedule}. Each
+ * script gets its own session, which gets launched when the script is added
+ * and then reused for all its ticks, ie the state of the script (variables,
+ * imports) persists between ticks. Ticks that are due while the previous one
+ * is still running get handled according to the script's
+ * {@link OverlapPolicy}. Listeners get notified about every tick, including
+ * the latency and the drift (how late the tick started).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptScheduler
+  implements Closeable {
+
+  /**
+   * The state of a scheduled script.
+   */
+  protected class Job {
+
+    /** the script. */
+    protected ScheduledScript m_Script;
+
+    /** the session settings. */
+    protected SessionSettings m_Settings;
+
+    /** the session, null if not launched yet. */
+    protected volatile JShellSession m_Session;
+
+    /** the next tick. */
+    protected ScheduledFuture<?> m_Future;
+
+    /** whether a tick is currently running. */
+    protected boolean m_Busy;
+
+    /** the scheduled time of the queued tick, -1 if none. */
+    protected long m_Queued;
+
+    /** whether the script got removed. */
+    protected volatile boolean m_Removed;
+
+    /**
+     * Initializes the job.
+     *
+     * @param script	the script
+     * @param settings	the session settings
+     */
+    protected Job(ScheduledScript script, SessionSettings settings) {
+      m_Script   = script;
+      m_Settings = settings;
+      m_Busy     = false;
+      m_Queued   = -1;
+      m_Removed  = false;
+    }
+
+    /**
+     * Returns the session, launching a new one if necessary.
+     *
+     * @return		the session
+     * @throws Exception	if launching fails
+     */
+    protected synchronized JShellSession getSession() throws Exception {
+      if ((m_Session == null) || !m_Session.isAlive()) {
+	if (m_Session != null)
+	  m_Session.close();
+	m_Session = new JShellSession(m_Settings);
+      }
+      return m_Session;
+    }
+
+    /**
+     * Launches the session in the background.
+     */
+    protected void warmUp() {
+      m_Executor.execute(() -> {
+	try {
+	  getSession();
+	}
+	catch (Exception e) {
+	  System.err.println("Failed to launch session for scheduled script '" + m_Script.getName() + "': " + e);
+	}
+      });
+    }
+
+    /**
+     * Stops the running tick, if any.
+     */
+    protected void stop() {
+      JShellSession	session;
+
+      session = m_Session;
+      if (session != null)
+	session.stop();
+    }
+
+    /**
+     * Closes the session.
+     */
+    protected synchronized void close() {
+      if (m_Session != null) {
+	m_Session.close();
+	m_Session = null;
+      }
+    }
+  }
+
+  /**
+   * Discards all output.
+   */
+  protected static class DiscardingOutputStream
+    extends OutputStream {
+
+    /**
+     * Discards the byte.
+     *
+     * @param b		the byte
+     */
+    @Override
+    public void write(int b) {
+    }
+
+    /**
+     * Discards the bytes.
+     *
+     * @param b		the data
+     * @param off	the offset
+     * @param len	the number of bytes
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+
+  /** for timing the ticks. */
+  protected ScheduledExecutorService m_Timer;
+
+  /** for executing the ticks. */
+  protected ExecutorService m_Executor;
+
+  /** the scripts (name - job). */
+  protected Map<String,Job> m_Jobs;
+
+  /** the listeners. */
+  protected Set<JShellScheduleListener> m_Listeners;
+
+  /** whether the scheduler is running. */
+  protected boolean m_Running;
+
+  /** whether the scheduler has been closed. */
+  protected boolean m_Closed;
+
+  /**
+   * Initializes the scheduler (not started yet).
+   */
+  public ScriptScheduler() {
+    m_Timer     = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+      Thread t = new Thread(r, "jshell-scheduler");
+      t.setDaemon(true);
+      return t;
+    });
+    m_Executor  = Executors.newCachedThreadPool((Runnable r) -> {
+      Thread t = new Thread(r, "jshell-scheduler-run");
+      t.setDaemon(true);
+      return t;
+    });
+    m_Jobs      = new LinkedHashMap<>();
+    m_Listeners = new HashSet<>();
+    m_Running   = false;
+    m_Closed    = false;
+  }
+
+  /**
+   * Determines the session settings for the script: either the ones of the
+   * script or the classpath of the dependencies declared in the script
+   * (//DEPS ...), falling back on the classpath of the current JVM.
+   *
+   * @param script	the script
+   * @return		the settings
+   * @throws Exception	if resolving the dependencies fails
+   */
+  protected SessionSettings getSettings(ScheduledScript script) throws Exception {
+    String	classPath;
+
+    if (script.getSettings() != null)
+      return script.getSettings();
+
+    if (DependencyDirective.hasDirective(script.getCode()))
+      classPath = ClassPathCache.getSingleton().getClassPath(DependencyDirective.parse(script.getCode()));
+    else
+      classPath = System.getProperty("java.class.path");
+
+    return new SessionSettings(classPath, null, null);
+  }
+
+  /**
+   * Adds the script and launches its session. Gets scheduled immediately
+   * if the scheduler is running.
+   *
+   * @param script	the script to add
+   * @throws IllegalArgumentException	if a script with the same name is already present
+   * @throws Exception	if resolving the dependencies of the script fails
+   */
+  public synchronized void add(ScheduledScript script) throws Exception {
+    Job		job;
+
+    if (m_Closed)
+      throw new IllegalStateException("Scheduler has been closed!");
+    if (m_Jobs.containsKey(script.getName()))
+      throw new IllegalArgumentException("Script already scheduled: " + script.getName());
+
+    job = new Job(script, getSettings(script));
+    m_Jobs.put(script.getName(), job);
+    job.warmUp();
+    if (m_Running)
+      schedule(job, script.getSchedule().first(System.currentTimeMillis()));
+  }
+
+  /**
+   * Removes the script, stopping its current tick and closing its session.
+   *
+   * @param name	the name of the script
+   * @return		true if the script was present
+   */
+  public boolean remove(String name) {
+    Job		job;
+
+    synchronized(this) {
+      job = m_Jobs.remove(name);
+      if (job == null)
+	return false;
+      job.m_Removed = true;
+      if (job.m_Future != null)
+	job.m_Future.cancel(false);
+    }
+    job.stop();
+    job.close();
+
+    return true;
+  }
+
+  /**
+   * Returns the scheduled scripts.
+   *
+   * @return		the scripts
+   */
+  public synchronized List<ScheduledScript> getScripts() {
+    List<ScheduledScript>	result;
+
+    result = new ArrayList<>();
+    for (Job job: m_Jobs.values())
+      result.add(job.m_Script);
+
+    return result;
+  }
+
+  /**
+   * Starts scheduling the scripts. Scripts scheduled relative to the end
+   * of their ticks that are still running a tick (eg after a quick stop and
+   * start) get scheduled once that tick has finished.
+   */
+  public synchronized void start() {
+    long	now;
+
+    if (m_Closed)
+      throw new IllegalStateException("Scheduler has been closed!");
+    if (m_Running)
+      return;
+
+    m_Running = true;
+    now       = System.currentTimeMillis();
+    for (Job job: m_Jobs.values()) {
+      // the running tick schedules the next one when it finishes
+      if (job.m_Busy && job.m_Script.getSchedule().isRelativeToEnd())
+	continue;
+      schedule(job, job.m_Script.getSchedule().first(now));
+    }
+  }
+
+  /**
+   * Returns whether the scheduler is running.
+   *
+   * @return		true if running
+   */
+  public synchronized boolean isRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Stops scheduling the scripts and stops any running ticks. The sessions
+   * are kept for when the scheduler gets started again.
+   */
+  public void stop() {
+    List<Job>	jobs;
+
+    synchronized(this) {
+      m_Running = false;
+      jobs      = new ArrayList<>(m_Jobs.values());
+      for (Job job: jobs) {
+	if (job.m_Future != null)
+	  job.m_Future.cancel(false);
+	job.m_Future = null;
+	job.m_Queued = -1;
+      }
+    }
+    for (Job job: jobs)
+      job.stop();
+  }
+
+  /**
+   * Stops the scheduler and closes all sessions.
+   */
+  public void close() {
+    List<Job>	jobs;
+
+    stop();
+    synchronized(this) {
+      m_Closed = true;
+      jobs     = new ArrayList<>(m_Jobs.values());
+      m_Jobs.clear();
+    }
+    for (Job job: jobs)
+      job.close();
+    m_Timer.shutdownNow();
+    m_Executor.shutdownNow();
+  }
+
+  /**
+   * Schedules the next tick of the job.
+   *
+   * @param job		the job
+   * @param time	the time of the tick (msec since epoch)
+   */
+  protected synchronized void schedule(Job job, long time) {
+    if (!m_Running || job.m_Removed)
+      return;
+    job.m_Future = m_Timer.schedule(
+      () -> trigger(job, time),
+      Math.max(0, time - System.currentTimeMillis()),
+      TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gets called when a tick is due. Schedules the next tick (unless relative
+   * to the end of this one) and either executes, queues or skips this tick.
+   *
+   * @param job		the job
+   * @param scheduled	the time the tick was scheduled for (msec since epoch)
+   */
+  protected void trigger(Job job, long scheduled) {
+    EventType	type;
+
+    synchronized(this) {
+      if (!m_Running || job.m_Removed)
+	return;
+      if (!job.m_Script.getSchedule().isRelativeToEnd())
+	schedule(job, job.m_Script.getSchedule().next(scheduled, -1));
+      if (!job.m_Busy) {
+	job.m_Busy = true;
+	type       = null;
+      }
+      else if ((job.m_Script.getPolicy() == OverlapPolicy.QUEUE) && (job.m_Queued == -1)) {
+	job.m_Queued = scheduled;
+	type         = EventType.TICK_QUEUED;
+      }
+      else {
+	type = EventType.TICK_SKIPPED;
+      }
+    }
+
+    if (type == null)
+      m_Executor.execute(() -> execute(job, scheduled));
+    else
+      notifyJShellScheduleListeners(new JShellScheduleEvent(this, job.m_Script, type, scheduled, -1, -1, -1, null));
+  }
+
+  /**
+   * Executes the tick and any tick that got queued in the meantime.
+   *
+   * @param job		the job
+   * @param scheduled	the time the tick was scheduled for (msec since epoch)
+   */
+  protected void execute(Job job, long scheduled) {
+    long	started;
+    long	finished;
+    int		exitCode;
+    Throwable	error;
+
+    while (true) {
+      started  = System.currentTimeMillis();
+      exitCode = -1;
+      error    = null;
+      notifyJShellScheduleListeners(new JShellScheduleEvent(this, job.m_Script, EventType.TICK_STARTED, scheduled, started, -1, -1, null));
+      try {
+	exitCode = evaluate(job);
+      }
+      catch (Throwable t) {
+	error = t;
+      }
+      finished = System.currentTimeMillis();
+      notifyJShellScheduleListeners(new JShellScheduleEvent(
+	this, job.m_Script, (error == null) ? EventType.TICK_FINISHED : EventType.TICK_FAILED,
+	scheduled, started, finished, exitCode, error));
+
+      synchronized(this) {
+	if (m_Running && !job.m_Removed && (job.m_Queued != -1)) {
+	  scheduled    = job.m_Queued;
+	  job.m_Queued = -1;
+	  continue;
+	}
+	job.m_Busy = false;
+	if (job.m_Script.getSchedule().isRelativeToEnd())
+	  schedule(job, job.m_Script.getSchedule().next(scheduled, finished));
+      }
+      break;
+    }
+  }
+
+  /**
+   * Evaluates the script in the session of the job.
+   *
+   * @param job		the job
+   * @return		the exit code
+   * @throws Exception	if launching the session fails
+   */
+  protected int evaluate(Job job) throws Exception {
+    JShellSession	session;
+    OutputStream	out;
+    OutputStream	err;
+
+    session = job.getSession();
+    if (job.m_Script.getOwner() != null) {
+      out = new LineForwardingOutputStream(job.m_Script.getOwner(), true);
+      err = new LineForwardingOutputStream(job.m_Script.getOwner(), false);
+    }
+    else {
+      out = new DiscardingOutputStream();
+      err = new DiscardingOutputStream();
+    }
+    try {
+      return session.evaluate(job.m_Script.getCode(), out, err);
+    }
+    finally {
+      out.close();
+      err.close();
+    }
+  }
+
+  /**
+   * Adds the listener to the internal list.
+   *
+   * @param l		the listener to add
+   */
+  public void addJShellScheduleListener(JShellScheduleListener l) {
+    synchronized(m_Listeners) {
+      m_Listeners.add(l);
+    }
+  }
+
+  /**
+   * Removes the listener from the internal list.
+   *
+   * @param l		the listener to remove
+   */
+  public void removeJShellScheduleListener(JShellScheduleListener l) {
+    synchronized(m_Listeners) {
+      m_Listeners.remove(l);
+    }
+  }
+
+  /**
+   * Notifies all the listeners with the specified event.
+   *
+   * @param e		the event to send
+   */
+  public void notifyJShellScheduleListeners(JShellScheduleEvent e) {
+    synchronized(m_Listeners) {
+      for (JShellScheduleListener l: m_Listeners)
+	l.jshellScheduleOccurred(e);
+    }
+  }
+}
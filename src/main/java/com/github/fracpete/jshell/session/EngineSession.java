@@ -0,0 +1,196 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * EngineSession.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.session;
+
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.Protocol;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A logical session within a {@link SharedEngine}, which behaves like a
+ * connection of its own: frames written get tagged with the session ID,
+ * and only frames for this session can be read. The streams for reading
+ * and writing frames directly are not available.
+ * <br>
+ * Only up to {@link #MAX_FRAMES} received frames get buffered. If the
+ * session does not keep up with reading them, the engine stops dispatching,
+ * which eventually blocks the output of the engine.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class EngineSession
+  extends Connection {
+
+  /** the maximum number of received frames to buffer. */
+  public final static int MAX_FRAMES = 1024;
+
+  /** the interval in msec for checking whether to stop waiting. */
+  protected final static int POLL_INTERVAL = 100;
+
+  /** the engine the session belongs to. */
+  protected SharedEngine m_Engine;
+
+  /** the session ID. */
+  protected int m_ID;
+
+  /** the frames received for this session. */
+  protected BlockingQueue<Frame> m_Frames;
+
+  /** whether the execution finished. */
+  protected volatile boolean m_Done;
+
+  /** whether the session has been closed. */
+  protected volatile boolean m_Closed;
+
+  /** whether the engine terminated. */
+  protected volatile boolean m_Terminated;
+
+  /**
+   * Initializes the session.
+   *
+   * @param engine	the engine the session belongs to
+   * @param id		the session ID
+   */
+  protected EngineSession(SharedEngine engine, int id) {
+    super();
+    m_Engine = engine;
+    m_ID     = id;
+    m_Frames     = new LinkedBlockingQueue<>(MAX_FRAMES);
+    m_Done       = false;
+    m_Closed     = false;
+    m_Terminated = false;
+  }
+
+  /**
+   * Returns the engine the session belongs to.
+   *
+   * @return		the engine
+   */
+  public SharedEngine getEngine() {
+    return m_Engine;
+  }
+
+  /**
+   * Returns the session ID.
+   *
+   * @return		the ID
+   */
+  public int getID() {
+    return m_ID;
+  }
+
+  /**
+   * Hands over a frame received by the engine. Blocks while the buffer is
+   * full, frames for a closed session get discarded.
+   *
+   * @param frame	the frame
+   */
+  protected void deliver(Frame frame) {
+    if (frame.getType() == Protocol.DONE)
+      m_Done = true;
+    try {
+      while (!m_Closed) {
+	if (m_Frames.offer(frame, POLL_INTERVAL, TimeUnit.MILLISECONDS))
+	  break;
+      }
+    }
+    catch (InterruptedException e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Signals that the engine terminated. Frames that were already received
+   * can still be read.
+   */
+  protected void terminate() {
+    m_Terminated = true;
+  }
+
+  /**
+   * Reads the next frame for this session, blocks until available.
+   *
+   * @return		the frame
+   * @throws IOException	if the engine terminated or interrupted
+   */
+  @Override
+  public Frame read() throws IOException {
+    Frame	result;
+
+    try {
+      while (true) {
+	result = m_Frames.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+	if (result != null)
+	  break;
+	if (m_Terminated && m_Frames.isEmpty())
+	  throw new EOFException("Shared engine terminated (eg System.exit called by a script)");
+      }
+    }
+    catch (InterruptedException e) {
+      throw new InterruptedIOException("Interrupted while waiting for session " + m_ID);
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes a frame, using the ID of this session.
+   *
+   * @param type	the type of frame
+   * @param id		ignored
+   * @param payload	the payload, can be null
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public void write(byte type, int id, String payload) throws IOException {
+    if (m_Closed)
+      throw new IOException("Session " + m_ID + " already closed");
+    m_Engine.write(type, m_ID, payload);
+  }
+
+  /**
+   * Closes the session, stops the execution if still running.
+   */
+  @Override
+  public void close() {
+    if (m_Closed)
+      return;
+    if (!m_Done) {
+      try {
+	m_Engine.write(Protocol.STOP, m_ID, null);
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+    m_Closed = true;
+    m_Engine.release(m_ID);
+  }
+}
@@ -0,0 +1,365 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellDaemon.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.session;
+
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.FrameOutputStream;
+import com.github.fracpete.jshell.remote.Protocol;
+import com.github.fracpete.jshell.remote.UnixSockets;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long-lived local daemon that keeps warm JShell sessions and executes
+ * scripts submitted by clients (see {@link com.github.fracpete.jshell.target.DaemonTarget})
+ * via a Unix domain socket. For each distinct combination of classpath and
+ * flags a separate pool of sessions is maintained.
+ * <br>
+ * Requires Java 16 or later for Unix domain sockets.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellDaemon {
+
+  /** the default socket file. */
+  public final static File DEFAULT_SOCKET = new File(System.getProperty("user.home") + File.separator + ".jshell-scripting" + File.separator + "daemon.sock");
+
+  /** the default number of warm sessions per pool. */
+  public final static int DEFAULT_POOL_SIZE = 2;
+
+  /** the socket file. */
+  protected File m_Socket;
+
+  /** the number of warm sessions per pool. */
+  protected int m_PoolSize;
+
+  /** whether to reuse sessions. */
+  protected boolean m_Reuse;
+
+  /** whether debugging is on. */
+  protected boolean m_Debug;
+
+  /** the pools per settings. */
+  protected Map<SessionSettings,SessionPool> m_Pools;
+
+  /** the server channel. */
+  protected ServerSocketChannel m_Server;
+
+  /** for handling the clients. */
+  protected ExecutorService m_Clients;
+
+  /**
+   * Initializes the daemon.
+   */
+  public JShellDaemon() {
+    m_Socket   = DEFAULT_SOCKET;
+    m_PoolSize = DEFAULT_POOL_SIZE;
+    m_Reuse    = false;
+    m_Debug    = false;
+    m_Pools    = new HashMap<>();
+  }
+
+  /**
+   * Sets the socket file to listen on.
+   *
+   * @param value	the socket file
+   */
+  public void setSocket(File value) {
+    m_Socket = value;
+  }
+
+  /**
+   * Returns the socket file to listen on.
+   *
+   * @return		the socket file
+   */
+  public File getSocket() {
+    return m_Socket;
+  }
+
+  /**
+   * Sets the number of warm sessions to keep per pool.
+   *
+   * @param value	the number of sessions
+   */
+  public void setPoolSize(int value) {
+    m_PoolSize = value;
+  }
+
+  /**
+   * Returns the number of warm sessions to keep per pool.
+   *
+   * @return		the number of sessions
+   */
+  public int getPoolSize() {
+    return m_PoolSize;
+  }
+
+  /**
+   * Sets whether to reuse sessions rather than using them only once.
+   *
+   * @param value	true if to reuse
+   */
+  public void setReuse(boolean value) {
+    m_Reuse = value;
+  }
+
+  /**
+   * Returns whether to reuse sessions rather than using them only once.
+   *
+   * @return		true if to reuse
+   */
+  public boolean getReuse() {
+    return m_Reuse;
+  }
+
+  /**
+   * Sets the debugging flag.
+   *
+   * @param value	true if to turn debugging output on
+   */
+  public void setDebug(boolean value) {
+    m_Debug = value;
+  }
+
+  /**
+   * Returns the debugging flag.
+   *
+   * @return		true if debugging output on
+   */
+  public boolean getDebug() {
+    return m_Debug;
+  }
+
+  /**
+   * Outputs the debugging message if debugging is enabled.
+   *
+   * @param msg		the message output
+   */
+  protected void debugMsg(String msg) {
+    if (m_Debug)
+      System.out.println("[DEBUG] " + msg);
+  }
+
+  /**
+   * Returns the pool for the settings, creates it if necessary.
+   *
+   * @param settings	the settings
+   * @return		the pool
+   */
+  protected synchronized SessionPool getPool(SessionSettings settings) {
+    if (!m_Pools.containsKey(settings)) {
+      debugMsg("New pool: " + settings);
+      m_Pools.put(settings, new SessionPool(settings, m_PoolSize, m_Reuse));
+    }
+    return m_Pools.get(settings);
+  }
+
+  /**
+   * Handles a single client: receives the script, executes it in a
+   * warm session and sends back the output.
+   *
+   * @param conn	the connection to the client
+   */
+  protected void handle(Connection conn) {
+    List<String>	flags;
+    String		script;
+    Frame		frame;
+    SessionPool		pool;
+    JShellSession	session;
+    FrameOutputStream	out;
+    FrameOutputStream	err;
+    Thread		watcher;
+    final AtomicBoolean	evaluating;
+    int			exitCode;
+
+    try {
+      flags  = new ArrayList<>();
+      script = null;
+      while (script == null) {
+	frame = conn.read();
+	switch (frame.getType()) {
+	  case Protocol.FLAG:
+	    flags.add(frame.getPayload());
+	    break;
+	  case Protocol.SCRIPT:
+	    script = frame.getPayload();
+	    break;
+	  case Protocol.STOP:
+	    return;
+	}
+      }
+
+      pool    = getPool(SessionSettings.fromFlags(flags));
+      session = pool.acquire();
+      debugMsg("Executing script, idle sessions left: " + pool.getIdle());
+      // the session may only get stopped while evaluating this client's
+      // script, once released it may already run the script of another one
+      evaluating = new AtomicBoolean(true);
+      watcher = new Thread(() -> {
+	try {
+	  while (conn.read().getType() != Protocol.STOP) {
+	    // ignored
+	  }
+	}
+	catch (IOException e) {
+	  // client disconnected
+	}
+	synchronized (evaluating) {
+	  if (evaluating.get())
+	    session.stop();
+	}
+      }, "jshell-daemon-watcher");
+      watcher.setDaemon(true);
+      watcher.start();
+
+      out = new FrameOutputStream(conn.getOutput(), Protocol.OUT, 0);
+      err = new FrameOutputStream(conn.getOutput(), Protocol.ERR, 0);
+      try {
+	exitCode = session.evaluate(script, out, err);
+      }
+      finally {
+	synchronized (evaluating) {
+	  evaluating.set(false);
+	}
+	out.close();
+	err.close();
+	pool.release(session);
+      }
+      conn.write(Protocol.DONE, 0, "" + exitCode);
+      debugMsg("Finished script with exit code " + exitCode);
+    }
+    catch (Exception e) {
+      System.err.println("Failed to handle client: " + e);
+    }
+    finally {
+      conn.close();
+    }
+  }
+
+  /**
+   * Starts listening for clients, blocks until the daemon gets stopped.
+   *
+   * @throws Exception	if setting up the socket fails
+   */
+  public void execute() throws Exception {
+    Path		socket;
+    SocketChannel	channel;
+
+    socket = m_Socket.toPath();
+    Files.createDirectories(socket.getParent());
+    Files.deleteIfExists(socket);
+    m_Server = UnixSockets.bind(socket);
+    try {
+      Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+    }
+    catch (UnsupportedOperationException e) {
+      // not a POSIX file system
+    }
+    m_Clients = Executors.newCachedThreadPool();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+
+    // warm up pool for the daemon's own classpath
+    getPool(new SessionSettings(null, null, null));
+
+    debugMsg("Listening on " + socket);
+    while (m_Server.isOpen()) {
+      try {
+	channel = m_Server.accept();
+      }
+      catch (IOException e) {
+	break;
+      }
+      final Connection conn = new Connection(channel);
+      m_Clients.submit(() -> handle(conn));
+    }
+  }
+
+  /**
+   * Stops the daemon, closes all pools and removes the socket file.
+   */
+  public synchronized void stop() {
+    try {
+      if (m_Server != null)
+	m_Server.close();
+    }
+    catch (Exception e) {
+      // ignored
+    }
+    if (m_Clients != null)
+      m_Clients.shutdownNow();
+    for (SessionPool pool: m_Pools.values())
+      pool.close();
+    m_Pools.clear();
+    m_Socket.delete();
+  }
+
+  /**
+   * Starts the daemon.
+   * <br>
+   * Options: [-socket &lt;file&gt;] [-pool-size &lt;n&gt;] [-reuse] [-debug]
+   *
+   * @param args	the options
+   * @throws Exception	if daemon fails to start
+   */
+  public static void main(String[] args) throws Exception {
+    JShellDaemon	daemon;
+    int			i;
+
+    daemon = new JShellDaemon();
+    for (i = 0; i < args.length; i++) {
+      switch (args[i]) {
+	case "-socket":
+	  daemon.setSocket(new File(args[++i]));
+	  break;
+	case "-pool-size":
+	  daemon.setPoolSize(Integer.parseInt(args[++i]));
+	  break;
+	case "-reuse":
+	  daemon.setReuse(true);
+	  break;
+	case "-debug":
+	  daemon.setDebug(true);
+	  break;
+	default:
+	  System.err.println("Unknown option: " + args[i]);
+	  System.err.println("Options: [-socket <file>] [-pool-size <n>] [-reuse] [-debug]");
+	  System.exit(1);
+      }
+    }
+    daemon.execute();
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellEngine.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.session;
+
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.FrameOutputStream;
+import com.github.fracpete.jshell.remote.Protocol;
+import com.github.fracpete.jshell.remote.RoutingPrintStream;
+import com.github.fracpete.jshell.remote.ScriptEvaluator;
+import jdk.jshell.JShell;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Execution engine that runs in a single JVM shared by many logical
+ * sessions (see {@link SharedEngine}). Each session is an in-process JShell
+ * instance with its own class loader, so that snippets of different
+ * sessions cannot see each other, while JDK classes, JIT-compiled code and
+ * heap are shared. The output of each session gets routed back to the host
+ * via {@link RoutingPrintStream}.
+ * <br>
+ * Frames are exchanged via stdin/stdout of the engine process, using the
+ * frame ID as session ID. Output that cannot be attributed to a session
+ * (eg from threads not spawned by a session) goes to stderr.
+ * <br>
+ * As the snippets get executed within the engine's JVM ("local" execution
+ * engine), a script calling System.exit terminates the engine and all its
+ * sessions. The host notices the termination and fails the open sessions.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellEngine {
+
+  /**
+   * Container for a logical session.
+   */
+  protected static class Session {
+
+    /** the jshell-style flags. */
+    protected List<String> flags = new ArrayList<>();
+
+    /** whether the session got stopped. */
+    protected volatile boolean stopped;
+
+    /** the evaluator, null if not yet started. */
+    protected volatile ScriptEvaluator evaluator;
+
+    /**
+     * Stops the session.
+     */
+    protected void stop() {
+      stopped = true;
+      if (evaluator != null)
+	evaluator.stop();
+    }
+  }
+
+  /** for reading frames from the host. */
+  protected DataInputStream m_Input;
+
+  /** for writing frames to the host. */
+  protected DataOutputStream m_Output;
+
+  /** whether debugging is on. */
+  protected boolean m_Debug;
+
+  /** the sessions. */
+  protected Map<Integer,Session> m_Sessions;
+
+  /**
+   * Initializes the engine.
+   */
+  public JShellEngine() {
+    m_Debug    = false;
+    m_Sessions = new HashMap<>();
+  }
+
+  /**
+   * Sets the debugging flag.
+   *
+   * @param value	true if to turn debugging output on
+   */
+  public void setDebug(boolean value) {
+    m_Debug = value;
+  }
+
+  /**
+   * Returns the debugging flag.
+   *
+   * @return		true if debugging output on
+   */
+  public boolean getDebug() {
+    return m_Debug;
+  }
+
+  /**
+   * Outputs the debugging message if debugging is enabled. As stdout is used
+   * for the frames, the message goes to stderr.
+   *
+   * @param msg		the message output
+   */
+  protected void debugMsg(String msg) {
+    if (m_Debug)
+      System.err.println("[DEBUG] " + msg);
+  }
+
+  /**
+   * Returns the session for the ID.
+   *
+   * @param id		the session ID
+   * @param create	whether to create the session if not available
+   * @return		the session, null if not available and not created
+   */
+  protected synchronized Session getSession(int id, boolean create) {
+    if (create && !m_Sessions.containsKey(id))
+      m_Sessions.put(id, new Session());
+    return m_Sessions.get(id);
+  }
+
+  /**
+   * Removes the session.
+   *
+   * @param id		the session ID
+   */
+  protected synchronized void removeSession(int id) {
+    m_Sessions.remove(id);
+  }
+
+  /**
+   * Executes the script in a fresh JShell instance and sends back the
+   * output and the exit code.
+   *
+   * @param id		the session ID
+   * @param session	the session
+   * @param script	the script to execute
+   */
+  protected void run(int id, Session session, String script) {
+    SessionSettings	settings;
+    FrameOutputStream	frameOut;
+    FrameOutputStream	frameErr;
+    PrintStream		printOut;
+    PrintStream		printErr;
+    JShell		jshell;
+    ScriptEvaluator	evaluator;
+    long		start;
+    int			exitCode;
+
+    jshell   = null;
+    exitCode = 1;
+    start    = System.currentTimeMillis();
+    settings = SessionSettings.fromFlags(session.flags);
+    frameOut = new FrameOutputStream(m_Output, Protocol.OUT, id);
+    frameErr = new FrameOutputStream(m_Output, Protocol.ERR, id);
+    try {
+      printOut = new PrintStream(frameOut, true, "UTF-8");
+      printErr = new PrintStream(frameErr, true, "UTF-8");
+      RoutingPrintStream.getOut().setTarget(printOut);
+      RoutingPrintStream.getErr().setTarget(printErr);
+      try {
+	jshell    = JShell.builder()
+	  .executionEngine("local")
+	  .in(new ByteArrayInputStream(new byte[0]))
+	  .out(printOut)
+	  .err(printErr)
+	  .compilerOptions(settings.getCompilerFlags().toArray(new String[0]))
+	  .build();
+	for (String path: settings.getClassPath().split(File.pathSeparator)) {
+	  if (!path.isEmpty())
+	    jshell.addToClasspath(path);
+	}
+	evaluator         = new ScriptEvaluator(jshell, printErr);
+	session.evaluator = evaluator;
+	if (session.stopped)
+	  exitCode = ScriptEvaluator.EXIT_STOPPED;
+	else
+	  exitCode = evaluator.startup(settings.getDefaultStartup(), settings.getStartup());
+	if (exitCode == 0)
+	  exitCode = evaluator.evaluate(script);
+      }
+      catch (Throwable t) {
+	t.printStackTrace(printErr);
+	exitCode = 1;
+      }
+      finally {
+	RoutingPrintStream.getOut().setTarget(null);
+	RoutingPrintStream.getErr().setTarget(null);
+	printOut.flush();
+	printErr.flush();
+	frameOut.close();
+	frameErr.close();
+	if (jshell != null)
+	  jshell.close();
+      }
+      Protocol.write(m_Output, Protocol.DONE, id, "" + exitCode);
+    }
+    catch (Exception e) {
+      System.err.println("Failed to execute script of session " + id + ": " + e);
+    }
+    finally {
+      removeSession(id);
+    }
+    debugMsg("Session " + id + " finished with exit code " + exitCode + " after " + (System.currentTimeMillis() - start) + "ms");
+  }
+
+  /**
+   * Reads the frames from stdin and dispatches them to the sessions, until
+   * the host closes the stream.
+   *
+   * @throws Exception	if setting up the streams fails
+   */
+  public void execute() throws Exception {
+    Frame	frame;
+    Session	session;
+    Thread	thread;
+
+    m_Input  = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+    m_Output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+    // stdout is reserved for the frames
+    System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+    RoutingPrintStream.install();
+
+    debugMsg("Engine started");
+    while (true) {
+      try {
+	frame = Protocol.read(m_Input);
+      }
+      catch (IOException e) {
+	break;
+      }
+      final int id = frame.getID();
+      switch (frame.getType()) {
+	case Protocol.FLAG:
+	  getSession(id, true).flags.add(frame.getPayload());
+	  break;
+	case Protocol.SCRIPT:
+	  final Session fSession = getSession(id, true);
+	  final String script = frame.getPayload();
+	  debugMsg("Starting session " + id);
+	  thread = new Thread(() -> run(id, fSession, script), "jshell-engine-" + id);
+	  thread.setDaemon(true);
+	  thread.start();
+	  break;
+	case Protocol.STOP:
+	  debugMsg("Stopping session " + id);
+	  session = getSession(id, false);
+	  if (session != null)
+	    session.stop();
+	  break;
+      }
+    }
+    debugMsg("Host disconnected");
+  }
+
+  /**
+   * Starts the engine. Gets launched by {@link SharedEngine}.
+   * <br>
+   * Options: [-debug]
+   *
+   * @param args	the options
+   * @throws Exception	if engine fails to start
+   */
+  public static void main(String[] args) throws Exception {
+    JShellEngine	engine;
+    int			i;
+
+    engine = new JShellEngine();
+    for (i = 0; i < args.length; i++) {
+      switch (args[i]) {
+	case "-debug":
+	  engine.setDebug(true);
+	  break;
+	default:
+	  System.err.println("Unknown option: " + args[i]);
+	  System.err.println("Options: [-debug]");
+	  System.exit(1);
+      }
+    }
+    engine.execute();
+    System.exit(0);
+  }
+}
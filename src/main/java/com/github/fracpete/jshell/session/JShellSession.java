@@ -0,0 +1,182 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * JShellSession.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.session;
+
+import com.github.fracpete.jshell.remote.ScriptEvaluator;
+import jdk.jshell.JShell;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * A JShell session with its own remote JVM, which can be launched ahead of
+ * time (including the startup, eg preludes) and then used for evaluating
+ * scripts. The output of the remote JVM gets forwarded to the streams
+ * supplied for the evaluation.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class JShellSession
+  implements Closeable {
+
+  /** the settings used for launching the session. */
+  protected SessionSettings m_Settings;
+
+  /** the JShell instance. */
+  protected JShell m_JShell;
+
+  /** the stdout target. */
+  protected SwitchableOutputStream m_Out;
+
+  /** the stderr target. */
+  protected SwitchableOutputStream m_Err;
+
+  /** the stdout stream handed to JShell. */
+  protected PrintStream m_PrintOut;
+
+  /** the stderr stream handed to JShell. */
+  protected PrintStream m_PrintErr;
+
+  /** for evaluating scripts. */
+  protected ScriptEvaluator m_Evaluator;
+
+  /** whether the session has been closed. */
+  protected volatile boolean m_Closed;
+
+  /** the number of scripts that were evaluated. */
+  protected int m_Uses;
+
+  /**
+   * Launches the session.
+   *
+   * @param settings	the settings to use
+   * @throws Exception	if launching fails
+   */
+  public JShellSession(SessionSettings settings) throws Exception {
+    m_Settings = settings;
+    m_Out      = new SwitchableOutputStream();
+    m_Err      = new SwitchableOutputStream();
+    m_PrintOut = new PrintStream(m_Out, true);
+    m_PrintErr = new PrintStream(m_Err, true);
+    m_Closed   = false;
+    m_Uses     = 0;
+    m_JShell   = JShell.builder()
+      .in(new ByteArrayInputStream(new byte[0]))
+      .out(m_PrintOut)
+      .err(m_PrintErr)
+      .remoteVMOptions(settings.getRemoteRuntimeFlags().toArray(new String[0]))
+      .compilerOptions(settings.getCompilerFlags().toArray(new String[0]))
+      .build();
+    m_JShell.onShutdown((JShell jshell) -> m_Closed = true);
+    for (String path: settings.getClassPath().split(File.pathSeparator)) {
+      if (!path.isEmpty())
+	m_JShell.addToClasspath(path);
+    }
+    m_Evaluator = new ScriptEvaluator(m_JShell, m_PrintErr);
+    m_Evaluator.startup(settings.getDefaultStartup(), settings.getStartup());
+  }
+
+  /**
+   * Returns the settings used for launching the session.
+   *
+   * @return		the settings
+   */
+  public SessionSettings getSettings() {
+    return m_Settings;
+  }
+
+  /**
+   * Returns the underlying JShell instance.
+   *
+   * @return		the instance
+   */
+  public JShell getJShell() {
+    return m_JShell;
+  }
+
+  /**
+   * Returns the number of scripts that were evaluated.
+   *
+   * @return		the number of scripts
+   */
+  public int getUses() {
+    return m_Uses;
+  }
+
+  /**
+   * Evaluates the script.
+   *
+   * @param code	the script to evaluate
+   * @param out		the stream for stdout
+   * @param err		the stream for stderr
+   * @return		the exit code
+   * @see		ScriptEvaluator#evaluate(String)
+   */
+  public synchronized int evaluate(String code, OutputStream out, OutputStream err) {
+    m_Out.setTarget(out);
+    m_Err.setTarget(err);
+    try {
+      m_Uses++;
+      return m_Evaluator.evaluate(code);
+    }
+    catch (Exception e) {
+      // eg remote JVM terminated
+      e.printStackTrace(m_PrintErr);
+      return 1;
+    }
+    finally {
+      m_PrintOut.flush();
+      m_PrintErr.flush();
+      m_Out.setTarget(null);
+      m_Err.setTarget(null);
+    }
+  }
+
+  /**
+   * Stops the current evaluation.
+   */
+  public void stop() {
+    m_Evaluator.stop();
+  }
+
+  /**
+   * Returns whether the session is still usable.
+   *
+   * @return		true if usable
+   */
+  public boolean isAlive() {
+    return !m_Closed;
+  }
+
+  /**
+   * Closes the session and its remote JVM.
+   */
+  public void close() {
+    if (!m_Closed) {
+      m_Closed = true;
+      m_JShell.close();
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SessionPool.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.session;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Keeps a number of warm sessions (remote JVM launched, startup
+ * evaluated) for the same settings ready. Sessions get replaced in the
+ * background once they have been handed out. By default, sessions are used
+ * only once to isolate scripts from each other; with reuse enabled,
+ * sessions get returned to the pool after use.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SessionPool
+  implements Closeable {
+
+  /** the settings for the sessions. */
+  protected SessionSettings m_Settings;
+
+  /** the number of warm sessions to keep. */
+  protected int m_Size;
+
+  /** whether to reuse sessions. */
+  protected boolean m_Reuse;
+
+  /** the idle sessions. */
+  protected LinkedBlockingDeque<JShellSession> m_Idle;
+
+  /** for launching sessions in the background. */
+  protected transient ExecutorService m_Warmer;
+
+  /** the number of sessions currently being launched. */
+  protected int m_Pending;
+
+  /** whether the pool has been closed. */
+  protected boolean m_Closed;
+
+  /**
+   * Initializes the pool and starts warming up sessions.
+   *
+   * @param settings	the settings for the sessions
+   * @param size	the number of warm sessions to keep
+   * @param reuse	whether to reuse sessions after a script finished
+   */
+  public SessionPool(SessionSettings settings, int size, boolean reuse) {
+    m_Settings = settings;
+    m_Size     = size;
+    m_Reuse    = reuse;
+    m_Idle     = new LinkedBlockingDeque<>();
+    m_Pending  = 0;
+    m_Closed   = false;
+    m_Warmer   = Executors.newCachedThreadPool((Runnable r) -> {
+      Thread t = new Thread(r, "jshell-session-warmer");
+      t.setDaemon(true);
+      return t;
+    });
+    refill();
+  }
+
+  /**
+   * Returns the settings for the sessions.
+   *
+   * @return		the settings
+   */
+  public SessionSettings getSettings() {
+    return m_Settings;
+  }
+
+  /**
+   * Returns the number of warm sessions to keep.
+   *
+   * @return		the number
+   */
+  public int getSize() {
+    return m_Size;
+  }
+
+  /**
+   * Returns whether sessions get reused.
+   *
+   * @return		true if reused
+   */
+  public boolean getReuse() {
+    return m_Reuse;
+  }
+
+  /**
+   * Returns the number of warm sessions currently available.
+   *
+   * @return		the number of idle sessions
+   */
+  public int getIdle() {
+    return m_Idle.size();
+  }
+
+  /**
+   * Launches sessions in the background until the pool is full.
+   */
+  protected synchronized void refill() {
+    while (!m_Closed && (m_Idle.size() + m_Pending < m_Size)) {
+      m_Pending++;
+      m_Warmer.submit(this::warmUp);
+    }
+  }
+
+  /**
+   * Launches a single session and adds it to the pool.
+   */
+  protected void warmUp() {
+    JShellSession	session;
+
+    try {
+      session = new JShellSession(m_Settings);
+      synchronized(this) {
+	if (m_Closed)
+	  session.close();
+	else
+	  m_Idle.add(session);
+      }
+    }
+    catch (Exception e) {
+      System.err.println("Failed to launch JShell session: " + e);
+    }
+    finally {
+      synchronized(this) {
+	m_Pending--;
+      }
+    }
+  }
+
+  /**
+   * Returns a session, a warm one if available, otherwise a newly launched one.
+   *
+   * @return		the session
+   * @throws Exception	if launching of session fails
+   */
+  public JShellSession acquire() throws Exception {
+    JShellSession	result;
+
+    if (m_Closed)
+      throw new IllegalStateException("Session pool has been closed!");
+
+    result = null;
+    while (result == null) {
+      result = m_Idle.poll();
+      if (result == null)
+	break;
+      if (!result.isAlive())
+	result = null;
+    }
+    refill();
+    if (result == null)
+      result = new JShellSession(m_Settings);
+
+    return result;
+  }
+
+  /**
+   * Returns the session after use. Gets closed unless reused.
+   *
+   * @param session	the session to return
+   */
+  public void release(JShellSession session) {
+    boolean	keep;
+
+    synchronized(this) {
+      keep = m_Reuse && !m_Closed && session.isAlive() && (m_Idle.size() < m_Size);
+      if (keep)
+	m_Idle.addFirst(session);
+    }
+    if (!keep)
+      session.close();
+    refill();
+  }
+
+  /**
+   * Closes all idle sessions and stops warming up new ones.
+   */
+  public void close() {
+    JShellSession	session;
+
+    synchronized(this) {
+      m_Closed = true;
+    }
+    m_Warmer.shutdownNow();
+    while ((session = m_Idle.poll()) != null)
+      session.close();
+  }
+}
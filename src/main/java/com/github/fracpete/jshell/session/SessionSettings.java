@@ -0,0 +1,238 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SessionSettings.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.session;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The settings for launching a JShell session, used for determining whether
+ * a warm session can be used for a script.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SessionSettings
+  implements Serializable {
+
+  /** the prefix for the classpath flag. */
+  public final static String CLASSPATH = "--class-path=";
+
+  /** the prefix for the startup file flag. */
+  public final static String STARTUP = "--startup=";
+
+  /** the flag for suppressing the default startup. */
+  public final static String NO_STARTUP = "--no-startup";
+
+  /** the classpath. */
+  protected String m_ClassPath;
+
+  /** the runtime flags for the remote JVM. */
+  protected List<String> m_RemoteRuntimeFlags;
+
+  /** the compiler flags. */
+  protected List<String> m_CompilerFlags;
+
+  /** the startup files to evaluate. */
+  protected List<String> m_Startup;
+
+  /** whether to perform the default imports. */
+  protected boolean m_DefaultStartup;
+
+  /**
+   * Initializes the settings.
+   *
+   * @param classPath	the classpath, null for the one of the current JVM
+   * @param remoteRuntimeFlags	the runtime flags for the remote JVM, can be null
+   * @param compilerFlags	the compiler flags, can be null
+   */
+  public SessionSettings(String classPath, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    this(classPath, remoteRuntimeFlags, compilerFlags, null, true);
+  }
+
+  /**
+   * Initializes the settings.
+   *
+   * @param classPath	the classpath, null for the one of the current JVM
+   * @param remoteRuntimeFlags	the runtime flags for the remote JVM, can be null
+   * @param compilerFlags	the compiler flags, can be null
+   * @param startup	the startup files to evaluate (eg preludes), can be null
+   * @param defaultStartup	whether to perform the default imports
+   */
+  public SessionSettings(String classPath, List<String> remoteRuntimeFlags, List<String> compilerFlags, List<String> startup, boolean defaultStartup) {
+    m_ClassPath          = (classPath == null) ? System.getProperty("java.class.path") : classPath;
+    m_RemoteRuntimeFlags = new ArrayList<>();
+    m_CompilerFlags      = new ArrayList<>();
+    m_Startup            = new ArrayList<>();
+    m_DefaultStartup     = defaultStartup;
+    if (remoteRuntimeFlags != null)
+      m_RemoteRuntimeFlags.addAll(remoteRuntimeFlags);
+    if (compilerFlags != null)
+      m_CompilerFlags.addAll(compilerFlags);
+    if (startup != null)
+      m_Startup.addAll(startup);
+  }
+
+  /**
+   * Returns the classpath.
+   *
+   * @return		the classpath
+   */
+  public String getClassPath() {
+    return m_ClassPath;
+  }
+
+  /**
+   * Returns the runtime flags for the remote JVM.
+   *
+   * @return		the flags
+   */
+  public List<String> getRemoteRuntimeFlags() {
+    return m_RemoteRuntimeFlags;
+  }
+
+  /**
+   * Returns the compiler flags.
+   *
+   * @return		the flags
+   */
+  public List<String> getCompilerFlags() {
+    return m_CompilerFlags;
+  }
+
+  /**
+   * Returns the startup files to evaluate after the default imports.
+   *
+   * @return		the files
+   */
+  public List<String> getStartup() {
+    return m_Startup;
+  }
+
+  /**
+   * Returns whether the default imports are performed.
+   *
+   * @return		true if performed
+   */
+  public boolean getDefaultStartup() {
+    return m_DefaultStartup;
+  }
+
+  /**
+   * Turns the settings into jshell-style flags (--class-path=..., -R..., -C...,
+   * --startup=..., --no-startup).
+   *
+   * @return		the flags
+   */
+  public List<String> toFlags() {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    result.add(CLASSPATH + m_ClassPath);
+    for (String flag: m_RemoteRuntimeFlags)
+      result.add("-R" + flag);
+    for (String flag: m_CompilerFlags)
+      result.add("-C" + flag);
+    for (String file: m_Startup)
+      result.add(STARTUP + file);
+    if (!m_DefaultStartup)
+      result.add(NO_STARTUP);
+
+    return result;
+  }
+
+  /**
+   * Parses jshell-style flags (--class-path=..., -R..., -C..., --startup=...,
+   * --no-startup), other flags get ignored.
+   *
+   * @param flags	the flags to parse
+   * @return		the settings
+   */
+  public static SessionSettings fromFlags(List<String> flags) {
+    String		classPath;
+    List<String>	remote;
+    List<String>	compiler;
+    List<String>	startup;
+    boolean		defaultStartup;
+
+    classPath      = null;
+    remote         = new ArrayList<>();
+    compiler       = new ArrayList<>();
+    startup        = new ArrayList<>();
+    defaultStartup = true;
+    for (String flag: flags) {
+      if (flag.startsWith(CLASSPATH))
+	classPath = flag.substring(CLASSPATH.length());
+      else if (flag.startsWith("-R"))
+	remote.add(flag.substring(2));
+      else if (flag.startsWith("-C"))
+	compiler.add(flag.substring(2));
+      else if (flag.startsWith(STARTUP))
+	startup.add(flag.substring(STARTUP.length()));
+      else if (flag.equals(NO_STARTUP))
+	defaultStartup = false;
+    }
+
+    return new SessionSettings(classPath, remote, compiler, startup, defaultStartup);
+  }
+
+  /**
+   * Compares the settings with the other object.
+   *
+   * @param obj		the object to compare with
+   * @return		true if the same settings
+   */
+  @Override
+  public boolean equals(Object obj) {
+    SessionSettings	other;
+
+    if (!(obj instanceof SessionSettings))
+      return false;
+    other = (SessionSettings) obj;
+    return m_ClassPath.equals(other.m_ClassPath)
+      && m_RemoteRuntimeFlags.equals(other.m_RemoteRuntimeFlags)
+      && m_CompilerFlags.equals(other.m_CompilerFlags)
+      && m_Startup.equals(other.m_Startup)
+      && (m_DefaultStartup == other.m_DefaultStartup);
+  }
+
+  /**
+   * Returns the hashcode of the settings.
+   *
+   * @return		the hashcode
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(m_ClassPath, m_RemoteRuntimeFlags, m_CompilerFlags, m_Startup, m_DefaultStartup);
+  }
+
+  /**
+   * Returns a string representation of the settings.
+   *
+   * @return		the representation
+   */
+  @Override
+  public String toString() {
+    return "classpath=" + m_ClassPath + ", remote=" + m_RemoteRuntimeFlags + ", compiler=" + m_CompilerFlags + ", startup=" + m_Startup + ", defaultStartup=" + m_DefaultStartup;
+  }
+}
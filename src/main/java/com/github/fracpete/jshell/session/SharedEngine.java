@@ -0,0 +1,348 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SharedEngine.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.session;
+
+import com.github.fracpete.jshell.process.JdkExecutableResolver;
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.Protocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Host side of a single execution JVM that is shared by many logical
+ * sessions (see {@link JShellEngine}). Each session gets its own JShell
+ * instance and class loader within the engine, but JDK classes, JIT-compiled
+ * code and heap are shared, which allows for far more concurrent scripts
+ * than launching a jshell process and remote JVM per script.
+ * <br>
+ * The engine JVM gets launched on demand, when the first session gets
+ * opened, and relaunched if it terminated. It exits automatically when the
+ * host JVM goes away.
+ * <br>
+ * The engine JVM only has its own classes on the classpath, the classpath of
+ * a session gets added to its JShell instance.
+ * <br>
+ * As all sessions live in the same JVM, runtime flags for the remote JVM
+ * do not apply on a per-session basis and global state (eg system
+ * properties) is visible to all sessions. In particular, a script calling
+ * System.exit terminates the engine JVM and therefore fails all open
+ * sessions; the engine gets relaunched for the next session.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see com.github.fracpete.jshell.target.EngineTarget
+ */
+public class SharedEngine
+  implements Closeable {
+
+  /** the default engine. */
+  protected static SharedEngine m_Default;
+
+  /** the classpath of the engine JVM. */
+  protected String m_ClassPath;
+
+  /** the runtime flags for the engine JVM. */
+  protected List<String> m_RuntimeFlags;
+
+  /** whether debugging is on. */
+  protected boolean m_Debug;
+
+  /** the engine process. */
+  protected Process m_Process;
+
+  /** for reading frames from the engine. */
+  protected DataInputStream m_Input;
+
+  /** for writing frames to the engine. */
+  protected DataOutputStream m_Output;
+
+  /** the thread dispatching the frames to the sessions. */
+  protected Thread m_Reader;
+
+  /** the open sessions. */
+  protected Map<Integer,EngineSession> m_Sessions;
+
+  /** the last session ID. */
+  protected int m_LastID;
+
+  /**
+   * Initializes the engine with its own classes as classpath and no
+   * runtime flags.
+   *
+   * @see		#getEngineClassPath()
+   */
+  public SharedEngine() {
+    this(null, null);
+  }
+
+  /**
+   * Initializes the engine.
+   *
+   * @param classPath	the classpath for the engine JVM, null for the engine's own classes
+   * @param runtimeFlags	the runtime flags for the engine JVM (eg -Xmx4g), can be null
+   */
+  public SharedEngine(String classPath, List<String> runtimeFlags) {
+    m_ClassPath    = (classPath == null) ? getEngineClassPath() : classPath;
+    m_RuntimeFlags = (runtimeFlags == null) ? new ArrayList<>() : new ArrayList<>(runtimeFlags);
+    m_Debug        = false;
+    m_Sessions     = new HashMap<>();
+    m_LastID       = 0;
+  }
+
+  /**
+   * Returns the location of the engine's own classes (jar or directory),
+   * which is all that the engine JVM requires. Falls back on the classpath
+   * of the current JVM if the location cannot be determined.
+   *
+   * @return		the classpath
+   */
+  public static String getEngineClassPath() {
+    CodeSource	source;
+
+    source = JShellEngine.class.getProtectionDomain().getCodeSource();
+    if ((source == null) || (source.getLocation() == null))
+      return System.getProperty("java.class.path");
+    try {
+      return new File(source.getLocation().toURI()).getAbsolutePath();
+    }
+    catch (Exception e) {
+      return System.getProperty("java.class.path");
+    }
+  }
+
+  /**
+   * Returns the classpath of the engine JVM.
+   *
+   * @return		the classpath
+   */
+  public String getClassPath() {
+    return m_ClassPath;
+  }
+
+  /**
+   * Returns the runtime flags for the engine JVM.
+   *
+   * @return		the flags
+   */
+  public List<String> getRuntimeFlags() {
+    return m_RuntimeFlags;
+  }
+
+  /**
+   * Sets the debugging flag, passed on to the engine when it gets launched.
+   *
+   * @param value	true if to turn debugging output on
+   */
+  public void setDebug(boolean value) {
+    m_Debug = value;
+  }
+
+  /**
+   * Returns the debugging flag.
+   *
+   * @return		true if debugging output on
+   */
+  public boolean getDebug() {
+    return m_Debug;
+  }
+
+  /**
+   * Returns whether the engine JVM is running.
+   *
+   * @return		true if running
+   */
+  public synchronized boolean isAlive() {
+    return (m_Process != null) && m_Process.isAlive();
+  }
+
+  /**
+   * Returns the process ID of the engine JVM.
+   *
+   * @return		the PID, -1 if not running
+   */
+  public synchronized long getPID() {
+    return isAlive() ? m_Process.pid() : -1;
+  }
+
+  /**
+   * Returns the number of open sessions.
+   *
+   * @return		the number of sessions
+   */
+  public synchronized int getSessionCount() {
+    return m_Sessions.size();
+  }
+
+  /**
+   * Launches the engine JVM.
+   *
+   * @throws IOException	if launching fails
+   */
+  protected void launch() throws IOException {
+    ProcessBuilder	builder;
+    List<String>	cmd;
+
+    cmd = new ArrayList<>();
+    cmd.add(JdkExecutableResolver.getExecutable("java"));
+    cmd.addAll(m_RuntimeFlags);
+    cmd.add("-cp");
+    cmd.add(m_ClassPath);
+    cmd.add(JShellEngine.class.getName());
+    if (m_Debug)
+      cmd.add("-debug");
+    builder = new ProcessBuilder(cmd);
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    m_Process = builder.start();
+    m_Input   = new DataInputStream(new BufferedInputStream(m_Process.getInputStream()));
+    m_Output  = new DataOutputStream(new BufferedOutputStream(m_Process.getOutputStream()));
+    final Process process = m_Process;
+    final DataInputStream input = m_Input;
+    m_Reader  = new Thread(() -> dispatch(process, input), "jshell-engine-reader");
+    m_Reader.setDaemon(true);
+    m_Reader.start();
+  }
+
+  /**
+   * Dispatches the frames received from the engine to the sessions, until
+   * the engine terminates.
+   *
+   * @param process	the engine process
+   * @param input	the stream to read the frames from
+   */
+  protected void dispatch(Process process, DataInputStream input) {
+    Frame		frame;
+    EngineSession	session;
+    List<EngineSession>	sessions;
+
+    while (true) {
+      try {
+	frame = Protocol.read(input);
+      }
+      catch (IOException e) {
+	break;
+      }
+      synchronized(this) {
+	session = m_Sessions.get(frame.getID());
+      }
+      if (session != null)
+	session.deliver(frame);
+    }
+
+    synchronized(this) {
+      if (m_Process != process)
+	return;
+      sessions = new ArrayList<>(m_Sessions.values());
+      m_Sessions.clear();
+      m_Process = null;
+    }
+    for (EngineSession s: sessions)
+      s.terminate();
+  }
+
+  /**
+   * Opens a new logical session, launches the engine JVM if necessary.
+   *
+   * @return		the session
+   * @throws IOException	if launching the engine fails
+   */
+  public synchronized EngineSession open() throws IOException {
+    EngineSession	result;
+
+    if (!isAlive())
+      launch();
+    m_LastID++;
+    result = new EngineSession(this, m_LastID);
+    m_Sessions.put(result.getID(), result);
+
+    return result;
+  }
+
+  /**
+   * Writes a frame to the engine.
+   *
+   * @param type	the type of frame
+   * @param id		the session ID
+   * @param payload	the payload, can be null
+   * @throws IOException	if writing fails
+   */
+  protected void write(byte type, int id, String payload) throws IOException {
+    DataOutputStream	output;
+
+    synchronized(this) {
+      if (!isAlive())
+	throw new IOException("Shared engine not running");
+      output = m_Output;
+    }
+    Protocol.write(output, type, id, payload);
+  }
+
+  /**
+   * Removes the session.
+   *
+   * @param id		the session ID
+   */
+  protected synchronized void release(int id) {
+    m_Sessions.remove(id);
+  }
+
+  /**
+   * Terminates the engine JVM, open sessions fail.
+   */
+  public void close() {
+    Process	process;
+
+    synchronized(this) {
+      process = m_Process;
+    }
+    if (process != null) {
+      process.destroy();
+      try {
+	process.waitFor();
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+  }
+
+  /**
+   * Returns the default engine, which only uses the engine's own classes.
+   *
+   * @return		the engine
+   */
+  public static synchronized SharedEngine getDefault() {
+    if (m_Default == null)
+      m_Default = new SharedEngine();
+    return m_Default;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SwitchableOutputStream.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.session;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that forwards the data to an exchangeable target. Data
+ * written while no target is set gets discarded.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SwitchableOutputStream
+  extends OutputStream {
+
+  /** the current target. */
+  protected OutputStream m_Target;
+
+  /**
+   * Sets the target.
+   *
+   * @param value	the target, null to discard data
+   */
+  public synchronized void setTarget(OutputStream value) {
+    m_Target = value;
+  }
+
+  /**
+   * Returns the target.
+   *
+   * @return		the target, null if none set
+   */
+  public synchronized OutputStream getTarget() {
+    return m_Target;
+  }
+
+  /**
+   * Writes the byte to the target.
+   *
+   * @param b		the byte
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public synchronized void write(int b) throws IOException {
+    if (m_Target != null)
+      m_Target.write(b);
+  }
+
+  /**
+   * Writes the bytes to the target.
+   *
+   * @param b		the bytes
+   * @param off		the offset
+   * @param len		the number of bytes
+   * @throws IOException	if writing fails
+   */
+  @Override
+  public synchronized void write(byte[] b, int off, int len) throws IOException {
+    if (m_Target != null)
+      m_Target.write(b, off, len);
+  }
+
+  /**
+   * Flushes the target.
+   *
+   * @throws IOException	if flushing fails
+   */
+  @Override
+  public synchronized void flush() throws IOException {
+    if (m_Target != null)
+      m_Target.flush();
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ResourceSnapshot.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.stress;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * The resources held by the current JVM at a point in time.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ResourceSnapshot
+  implements Serializable {
+
+  /** the prefixes of JDK-managed pool threads that expire by themselves. */
+  public final static String[] POOLED_THREADS = {"process reaper", "ForkJoinPool.commonPool-worker-"};
+
+  /** the timestamp (msec since epoch). */
+  protected long m_Timestamp;
+
+  /** the number of live threads (excluding JDK-managed pool threads). */
+  protected int m_Threads;
+
+  /** the number of open file descriptors, -1 if not available. */
+  protected long m_FileDescriptors;
+
+  /** the number of jshell temp files. */
+  protected int m_TempFiles;
+
+  /** the number of descendant processes. */
+  protected long m_ChildProcesses;
+
+  /** the used heap in bytes. */
+  protected long m_HeapUsed;
+
+  /**
+   * Initializes the snapshot.
+   *
+   * @param timestamp	the timestamp (msec since epoch)
+   * @param threads	the number of live threads (excluding JDK-managed pool threads)
+   * @param fds		the number of open file descriptors, -1 if not available
+   * @param tempFiles	the number of jshell temp files
+   * @param children	the number of descendant processes
+   * @param heapUsed	the used heap in bytes
+   */
+  public ResourceSnapshot(long timestamp, int threads, long fds, int tempFiles, long children, long heapUsed) {
+    m_Timestamp       = timestamp;
+    m_Threads         = threads;
+    m_FileDescriptors = fds;
+    m_TempFiles       = tempFiles;
+    m_ChildProcesses  = children;
+    m_HeapUsed        = heapUsed;
+  }
+
+  /**
+   * Returns the timestamp.
+   *
+   * @return		the msec since epoch
+   */
+  public long getTimestamp() {
+    return m_Timestamp;
+  }
+
+  /**
+   * Returns the number of live threads (excluding JDK-managed pool threads).
+   *
+   * @return		the number
+   */
+  public int getThreads() {
+    return m_Threads;
+  }
+
+  /**
+   * Returns the number of open file descriptors.
+   *
+   * @return		the number, -1 if not available
+   */
+  public long getFileDescriptors() {
+    return m_FileDescriptors;
+  }
+
+  /**
+   * Returns the number of jshell temp files.
+   *
+   * @return		the number
+   */
+  public int getTempFiles() {
+    return m_TempFiles;
+  }
+
+  /**
+   * Returns the number of descendant processes.
+   *
+   * @return		the number
+   */
+  public long getChildProcesses() {
+    return m_ChildProcesses;
+  }
+
+  /**
+   * Returns the used heap.
+   *
+   * @return		the bytes
+   */
+  public long getHeapUsed() {
+    return m_HeapUsed;
+  }
+
+  /**
+   * Counts the temp files that JShellExec creates for scripts.
+   *
+   * @return		the number of files
+   */
+  public static int countTempFiles() {
+    File[]	files;
+
+    files = new File(System.getProperty("java.io.tmpdir")).listFiles((File dir, String name) -> name.startsWith("jshell-") && name.endsWith(".jsh"));
+    return (files == null) ? 0 : files.length;
+  }
+
+  /**
+   * Counts the live threads, excluding JDK-managed pool threads like the
+   * process reapers, which only expire after being idle for a while.
+   *
+   * @return		the number of threads
+   * @see		#POOLED_THREADS
+   */
+  public static int countThreads() {
+    int		result;
+    boolean	pooled;
+
+    result = 0;
+    for (Thread thread: Thread.getAllStackTraces().keySet()) {
+      pooled = false;
+      for (String prefix: POOLED_THREADS) {
+	if (thread.getName().startsWith(prefix)) {
+	  pooled = true;
+	  break;
+	}
+      }
+      if (!pooled)
+	result++;
+    }
+
+    return result;
+  }
+
+  /**
+   * Takes a snapshot of the current JVM.
+   *
+   * @param gc		whether to run the garbage collector before measuring the heap
+   * @return		the snapshot
+   */
+  public static ResourceSnapshot take(boolean gc) {
+    OperatingSystemMXBean	os;
+    long			fds;
+
+    if (gc) {
+      System.gc();
+      System.runFinalization();
+      System.gc();
+    }
+    os  = ManagementFactory.getOperatingSystemMXBean();
+    fds = -1;
+    if (os instanceof com.sun.management.UnixOperatingSystemMXBean)
+      fds = ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+
+    return new ResourceSnapshot(
+      System.currentTimeMillis(),
+      countThreads(),
+      fds,
+      countTempFiles(),
+      ProcessHandle.current().descendants().count(),
+      ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+  }
+
+  /**
+   * Returns the header for {@link #toRow()}.
+   *
+   * @return		the header
+   */
+  public static String header() {
+    return "timestamp\tthreads\tfds\ttempfiles\tchildren\theap_kb";
+  }
+
+  /**
+   * Returns the snapshot as tab-separated row.
+   *
+   * @return		the row
+   */
+  public String toRow() {
+    return m_Timestamp + "\t" + m_Threads + "\t" + m_FileDescriptors + "\t" + m_TempFiles + "\t" + m_ChildProcesses + "\t" + (m_HeapUsed / 1024);
+  }
+}
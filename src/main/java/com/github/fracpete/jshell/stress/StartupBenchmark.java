@@ -0,0 +1,143 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StartupBenchmark.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.stress;
+
+import com.github.fracpete.jshell.JShellPanel;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long it takes to construct {@link JShellPanel}s and to
+ * switch themes, with or without pre-warming. Run it in a fresh JVM for
+ * each configuration, as the first panel includes the class loading costs.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see JShellPanel#prewarm()
+ */
+public class StartupBenchmark {
+
+  /**
+   * Constructs the panels on the event dispatch thread.
+   *
+   * @param num		the number of panels
+   * @param panels	for storing the panels
+   * @return		the construction times in nanoseconds
+   * @throws Exception	if construction fails
+   */
+  protected static long[] construct(int num, List<JShellPanel> panels) throws Exception {
+    long[]	result;
+
+    result = new long[num];
+    SwingUtilities.invokeAndWait(() -> {
+      long start;
+      for (int i = 0; i < num; i++) {
+	start     = System.nanoTime();
+	panels.add(new JShellPanel());
+	result[i] = System.nanoTime() - start;
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Switches the themes of the panel.
+   *
+   * @param panel	the panel to use
+   * @return		the time in nanoseconds for the first and second round
+   * @throws Exception	if switching fails
+   */
+  protected static long[] switchThemes(JShellPanel panel) throws Exception {
+    long[]	result;
+
+    result = new long[2];
+    SwingUtilities.invokeAndWait(() -> {
+      long start;
+      for (int round = 0; round < 2; round++) {
+	start = System.nanoTime();
+	for (String theme: JShellPanel.THEMES)
+	  panel.setCurrentTheme(theme);
+	result[round] = System.nanoTime() - start;
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args	the options: [-panels n] [-prewarm msec]
+   * @throws Exception	if benchmark fails
+   */
+  public static void main(String[] args) throws Exception {
+    List<JShellPanel>	panels;
+    long[]		times;
+    long[]		themes;
+    long		start;
+    long		rest;
+    int			num;
+    int			prewarm;
+    int			i;
+
+    num     = 5;
+    prewarm = -1;
+    for (i = 0; i < args.length; i++) {
+      switch (args[i]) {
+	case "-panels":
+	  num = Integer.parseInt(args[++i]);
+	  break;
+	case "-prewarm":
+	  prewarm = Integer.parseInt(args[++i]);
+	  break;
+	default:
+	  System.err.println("Unknown option: " + args[i]);
+	  System.err.println("Options: [-panels <n>] [-prewarm <msec to wait before constructing>]");
+	  System.exit(1);
+      }
+    }
+
+    start = System.nanoTime();
+    if (prewarm > -1) {
+      JShellPanel.prewarm();
+      // simulates the host doing other work in the meantime
+      Thread.sleep(prewarm);
+    }
+    panels = new ArrayList<>();
+    times  = construct(num, panels);
+    themes = switchThemes(panels.get(0));
+
+    rest = 0;
+    for (i = 1; i < times.length; i++)
+      rest += times[i];
+    System.out.println("prewarm:         " + ((prewarm > -1) ? prewarm + " ms" : "no"));
+    System.out.println("first panel:     " + (times[0] / 1000000.0) + " ms");
+    if (times.length > 1)
+      System.out.println("other panels:    " + (rest / (times.length - 1) / 1000000.0) + " ms (average)");
+    System.out.println("themes (parse):  " + (themes[0] / 1000000.0) + " ms");
+    System.out.println("themes (cached): " + (themes[1] / 1000000.0) + " ms");
+    System.out.println("total:           " + ((System.nanoTime() - start) / 1000000.0) + " ms");
+    System.exit(0);
+  }
+}
@@ -0,0 +1,493 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * StressHarness.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.stress;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.event.JShellExecEvent;
+import com.github.fracpete.jshell.event.JShellExecEvent.EventType;
+import com.github.fracpete.jshell.fake.FakeJShellResolver;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOutputType;
+import com.github.fracpete.processoutput4j.core.StreamingProcessOwner;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soak test for resource hygiene: workers fire interleaved
+ * runScript/stopScript calls concurrently for a given duration, while the
+ * threads, file descriptors, temp files, child processes and heap of the
+ * JVM get sampled. After the workers have finished, the final state is
+ * compared against the baseline and a report is output. Exits with 1 if
+ * any check failed.
+ * <br>
+ * Uses the {@link com.github.fracpete.jshell.fake.FakeJShell} stand-in by
+ * default, which allows for many more runs than the real jshell.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class StressHarness {
+
+  /**
+   * A worker that repeatedly runs and stops scripts with its own execution.
+   */
+  protected class Worker
+    implements Runnable, StreamingProcessOwner {
+
+    /** the execution. */
+    protected JShellExec m_Exec;
+
+    /** for generating the actions. */
+    protected Random m_Random;
+
+    /** gets released when a run finishes. */
+    protected Semaphore m_Finished;
+
+    /** the number of runs started whose finish hasn't been awaited yet. */
+    protected int m_Pending;
+
+    /**
+     * Initializes the worker.
+     *
+     * @param seed	the seed for the actions
+     */
+    protected Worker(long seed) {
+      m_Random   = new Random(seed);
+      m_Finished = new Semaphore(0);
+      m_Pending  = 0;
+      m_Exec     = new JShellExec();
+      if (m_Fake)
+	m_Exec.setExecutableResolver(m_Resolver);
+      m_Exec.setStreamingProcessOwner(this);
+      m_Exec.addJShellExecListener((JShellExecEvent e) -> {
+	if (e.getType() == EventType.SCRIPT_FINISHED)
+	  m_Finished.release();
+	else if (e.getType() == EventType.SCRIPT_RUN_SETUP_FAILURE)
+	  m_Errors.incrementAndGet();
+      });
+      m_Exec.addJShellErrorListener((e) -> m_Errors.incrementAndGet());
+    }
+
+    /**
+     * Returns what output from the process to forward.
+     *
+     * @return 		the output type
+     */
+    public StreamingProcessOutputType getOutputType() {
+      return StreamingProcessOutputType.BOTH;
+    }
+
+    /**
+     * Counts the output.
+     *
+     * @param line	the line
+     * @param stdout	whether stdout or stderr
+     */
+    public void processOutput(String line, boolean stdout) {
+      m_Lines.incrementAndGet();
+    }
+
+    /**
+     * Waits for all pending runs (including stopped and interrupted ones) to
+     * finish.
+     *
+     * @throws InterruptedException	if interrupted
+     */
+    protected void await() throws InterruptedException {
+      if (!m_Finished.tryAcquire(m_Pending, m_Timeout, TimeUnit.MILLISECONDS))
+	m_Timeouts.incrementAndGet();
+      m_Finished.drainPermits();
+      m_Pending = 0;
+    }
+
+    /**
+     * Runs and stops scripts until the time is up.
+     */
+    public void run() {
+      int	action;
+
+      while (System.currentTimeMillis() < m_End) {
+	m_Exec.runScript(m_Script);
+	m_Runs.incrementAndGet();
+	m_Pending++;
+	action = m_Random.nextInt(100);
+	try {
+	  if (action < m_StopPercentage) {
+	    // stop after a short while
+	    Thread.sleep(m_Random.nextInt(50));
+	    m_Exec.stopScript();
+	    m_Stops.incrementAndGet();
+	  }
+	  else if (action < m_StopPercentage + m_InterleavePercentage) {
+	    // start next run while current one is still running
+	    Thread.sleep(m_Random.nextInt(20));
+	    m_Interleaved.incrementAndGet();
+	    continue;
+	  }
+	  await();
+	}
+	catch (InterruptedException e) {
+	  break;
+	}
+      }
+      m_Exec.stopScript();
+      try {
+	await();
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+  }
+
+  /** the duration in msec. */
+  protected long m_Duration;
+
+  /** the number of concurrent workers. */
+  protected int m_Concurrency;
+
+  /** the percentage of runs that get stopped. */
+  protected int m_StopPercentage;
+
+  /** the percentage of runs that get interrupted by the next run. */
+  protected int m_InterleavePercentage;
+
+  /** the timeout in msec for a run to finish. */
+  protected int m_Timeout;
+
+  /** the interval in msec for sampling the resources. */
+  protected int m_SampleInterval;
+
+  /** whether to use the fake jshell. */
+  protected boolean m_Fake;
+
+  /** the resolver for the fake jshell. */
+  protected FakeJShellResolver m_Resolver;
+
+  /** the script to run. */
+  protected String m_Script;
+
+  /** the file to write the report to, null for stdout. */
+  protected File m_Report;
+
+  /** the tolerated increase in threads. */
+  protected int m_ThreadTolerance;
+
+  /** the tolerated increase in file descriptors. */
+  protected int m_FileDescriptorTolerance;
+
+  /** the tolerated heap growth in MB. */
+  protected int m_HeapTolerance;
+
+  /** the end of the test (msec since epoch). */
+  protected transient long m_End;
+
+  /** the number of runs. */
+  protected AtomicLong m_Runs;
+
+  /** the number of stops. */
+  protected AtomicLong m_Stops;
+
+  /** the number of interleaved runs. */
+  protected AtomicLong m_Interleaved;
+
+  /** the number of runs that didn't finish in time. */
+  protected AtomicLong m_Timeouts;
+
+  /** the number of errors. */
+  protected AtomicLong m_Errors;
+
+  /** the number of output lines. */
+  protected AtomicLong m_Lines;
+
+  /**
+   * Initializes the harness.
+   */
+  public StressHarness() {
+    m_Duration                = 60000;
+    m_Concurrency             = 8;
+    m_StopPercentage          = 30;
+    m_InterleavePercentage    = 10;
+    m_Timeout                 = 60000;
+    m_SampleInterval          = 5000;
+    m_Fake                    = true;
+    m_Resolver                = new FakeJShellResolver();
+    m_Resolver.setLines(500);
+    m_Resolver.setRate(2000);
+    m_Resolver.setStderr(10);
+    m_Script                  = "for (int i = 0; i < 100; i++) System.out.println(i);";
+    m_Report                  = null;
+    m_ThreadTolerance         = 2;
+    m_FileDescriptorTolerance = 5;
+    m_HeapTolerance           = 32;
+    m_Runs                    = new AtomicLong();
+    m_Stops                   = new AtomicLong();
+    m_Interleaved             = new AtomicLong();
+    m_Timeouts                = new AtomicLong();
+    m_Errors                  = new AtomicLong();
+    m_Lines                   = new AtomicLong();
+  }
+
+  /**
+   * Sets the duration of the test.
+   *
+   * @param value	the duration in msec
+   */
+  public void setDuration(long value) {
+    m_Duration = value;
+  }
+
+  /**
+   * Sets the number of concurrent workers.
+   *
+   * @param value	the number of workers
+   */
+  public void setConcurrency(int value) {
+    m_Concurrency = value;
+  }
+
+  /**
+   * Sets the percentage of runs that get stopped.
+   *
+   * @param value	the percentage (0-100)
+   */
+  public void setStopPercentage(int value) {
+    m_StopPercentage = value;
+  }
+
+  /**
+   * Sets the percentage of runs that get interrupted by the next run.
+   *
+   * @param value	the percentage (0-100)
+   */
+  public void setInterleavePercentage(int value) {
+    m_InterleavePercentage = value;
+  }
+
+  /**
+   * Sets the interval for sampling the resources.
+   *
+   * @param value	the interval in msec
+   */
+  public void setSampleInterval(int value) {
+    m_SampleInterval = value;
+  }
+
+  /**
+   * Sets whether to use the fake jshell or the real one.
+   *
+   * @param value	true for the fake one
+   */
+  public void setFake(boolean value) {
+    m_Fake = value;
+  }
+
+  /**
+   * Returns the resolver for the fake jshell, for configuring its output.
+   *
+   * @return		the resolver
+   */
+  public FakeJShellResolver getResolver() {
+    return m_Resolver;
+  }
+
+  /**
+   * Sets the script to run.
+   *
+   * @param value	the script
+   */
+  public void setScript(String value) {
+    m_Script = value;
+  }
+
+  /**
+   * Sets the file to write the report to.
+   *
+   * @param value	the file, null for stdout
+   */
+  public void setReport(File value) {
+    m_Report = value;
+  }
+
+  /**
+   * Checks the value against the baseline and appends the outcome to the
+   * report.
+   *
+   * @param report	the report to append to
+   * @param name	the name of the resource
+   * @param baseline	the baseline value
+   * @param value	the final value
+   * @param tolerance	the tolerated increase
+   * @return		true if within tolerance
+   */
+  protected boolean check(PrintWriter report, String name, long baseline, long value, long tolerance) {
+    boolean	result;
+
+    result = (value - baseline <= tolerance);
+    report.println(String.format("%-6s %-16s baseline: %8d, final: %8d, tolerance: %5d", result ? "OK" : "FAILED", name, baseline, value, tolerance));
+
+    return result;
+  }
+
+  /**
+   * Runs the test.
+   *
+   * @return		true if all checks passed
+   * @throws Exception	if test fails to execute
+   */
+  public boolean execute() throws Exception {
+    List<Thread>		workers;
+    List<ResourceSnapshot>	samples;
+    ResourceSnapshot		baseline;
+    ResourceSnapshot		last;
+    StringWriter		writer;
+    PrintWriter			report;
+    boolean			result;
+    long			start;
+    int				i;
+
+    // warm up, so lazily created threads (eg process readers) are part of the baseline
+    new Worker(0).m_Exec.runScript(m_Script);
+    Thread.sleep(2000);
+    baseline = ResourceSnapshot.take(true);
+    samples  = new ArrayList<>();
+    samples.add(baseline);
+
+    start   = System.currentTimeMillis();
+    m_End   = start + m_Duration;
+    workers = new ArrayList<>();
+    for (i = 0; i < m_Concurrency; i++) {
+      workers.add(new Thread(new Worker(i + 1), "stress-" + (i + 1)));
+      workers.get(i).start();
+    }
+    while (System.currentTimeMillis() < m_End) {
+      Thread.sleep(Math.min(m_SampleInterval, Math.max(1, m_End - System.currentTimeMillis())));
+      samples.add(ResourceSnapshot.take(false));
+      System.err.println("runs: " + m_Runs + ", " + samples.get(samples.size() - 1).toRow());
+    }
+    for (Thread worker: workers)
+      worker.join();
+
+    // let processes, readers and grace periods settle
+    Thread.sleep(5000);
+    last = ResourceSnapshot.take(true);
+    samples.add(last);
+
+    writer = new StringWriter();
+    report = new PrintWriter(writer);
+    report.println("Stress test");
+    report.println("-----------");
+    report.println("executable:  " + (m_Fake ? "fake jshell" : "jshell"));
+    report.println("duration:    " + (System.currentTimeMillis() - start) + " ms");
+    report.println("concurrency: " + m_Concurrency);
+    report.println("runs:        " + m_Runs);
+    report.println("stopped:     " + m_Stops);
+    report.println("interleaved: " + m_Interleaved);
+    report.println("timeouts:    " + m_Timeouts);
+    report.println("errors:      " + m_Errors);
+    report.println("lines:       " + m_Lines);
+    report.println();
+    result = check(report, "threads", baseline.getThreads(), last.getThreads(), m_ThreadTolerance);
+    if (baseline.getFileDescriptors() > -1)
+      result = check(report, "file descriptors", baseline.getFileDescriptors(), last.getFileDescriptors(), m_FileDescriptorTolerance) && result;
+    result = check(report, "temp files", baseline.getTempFiles(), last.getTempFiles(), 0) && result;
+    result = check(report, "child processes", 0, last.getChildProcesses(), 0) && result;
+    result = check(report, "heap (MB)", baseline.getHeapUsed() / 1024 / 1024, last.getHeapUsed() / 1024 / 1024, m_HeapTolerance) && result;
+    result = check(report, "timeouts", 0, m_Timeouts.get(), 0) && result;
+    report.println();
+    report.println("Samples");
+    report.println(ResourceSnapshot.header());
+    for (ResourceSnapshot sample: samples)
+      report.println(sample.toRow());
+    report.println();
+    report.println(result ? "PASSED" : "FAILED");
+    report.flush();
+
+    if (m_Report == null)
+      System.out.println(writer);
+    else
+      Files.write(m_Report.toPath(), writer.toString().getBytes(StandardCharsets.UTF_8));
+
+    return result;
+  }
+
+  /**
+   * Runs the stress test from the command-line.
+   *
+   * @param args	the options
+   * @throws Exception	if test fails
+   */
+  public static void main(String[] args) throws Exception {
+    StressHarness	harness;
+    int			i;
+
+    harness = new StressHarness();
+    for (i = 0; i < args.length; i++) {
+      switch (args[i]) {
+	case "-duration":
+	  harness.setDuration(Long.parseLong(args[++i]) * 1000);
+	  break;
+	case "-concurrency":
+	  harness.setConcurrency(Integer.parseInt(args[++i]));
+	  break;
+	case "-stop":
+	  harness.setStopPercentage(Integer.parseInt(args[++i]));
+	  break;
+	case "-interleave":
+	  harness.setInterleavePercentage(Integer.parseInt(args[++i]));
+	  break;
+	case "-sample":
+	  harness.setSampleInterval(Integer.parseInt(args[++i]) * 1000);
+	  break;
+	case "-lines":
+	  harness.getResolver().setLines(Integer.parseInt(args[++i]));
+	  break;
+	case "-rate":
+	  harness.getResolver().setRate(Integer.parseInt(args[++i]));
+	  break;
+	case "-real":
+	  harness.setFake(false);
+	  break;
+	case "-script":
+	  harness.setScript(new String(Files.readAllBytes(new File(args[++i]).toPath()), StandardCharsets.UTF_8));
+	  break;
+	case "-report":
+	  harness.setReport(new File(args[++i]));
+	  break;
+	default:
+	  System.err.println("Unknown option: " + args[i]);
+	  System.err.println("Options: [-duration <sec>] [-concurrency <n>] [-stop <percent>] [-interleave <percent>] "
+	    + "[-sample <sec>] [-lines <n>] [-rate <lines/sec>] [-real] [-script <file>] [-report <file>]");
+	  System.exit(1);
+      }
+    }
+    System.exit(harness.execute() ? 0 : 1);
+  }
+}
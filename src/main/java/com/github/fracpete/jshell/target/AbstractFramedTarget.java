@@ -0,0 +1,280 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AbstractFramedTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.prelude.PreludeCache;
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.Protocol;
+import com.github.fracpete.jshell.session.SessionSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ancestor for targets that send the script over a connection and receive
+ * the output as frames.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see Protocol
+ */
+public abstract class AbstractFramedTarget
+  implements ExecutionTarget {
+
+  /** the timeout in msec for connecting and stopping. */
+  protected int m_Timeout;
+
+  /** whether a script is running. */
+  protected transient volatile boolean m_Running;
+
+  /** whether the script got stopped. */
+  protected transient volatile boolean m_Stopped;
+
+  /** the thread executing the script. */
+  protected transient Thread m_Thread;
+
+  /** the current connection. */
+  protected transient Connection m_Connection;
+
+  /**
+   * Initializes the target.
+   */
+  protected AbstractFramedTarget() {
+    m_Timeout = 30000;
+    m_Running = false;
+    m_Stopped = false;
+  }
+
+  /**
+   * Sets the timeout for connecting and stopping.
+   *
+   * @param value	the timeout in msec
+   */
+  public void setTimeout(int value) {
+    m_Timeout = value;
+  }
+
+  /**
+   * Returns the timeout for connecting and stopping.
+   *
+   * @return		the timeout in msec
+   */
+  public int getTimeout() {
+    return m_Timeout;
+  }
+
+  /**
+   * Returns the name to use for the execution thread.
+   *
+   * @return		the name
+   */
+  protected abstract String getThreadName();
+
+  /**
+   * Establishes the connection.
+   *
+   * @param owner	the owning execution
+   * @return		the connection
+   * @throws Exception	if connecting fails
+   */
+  protected abstract Connection connect(JShellExec owner) throws Exception;
+
+  /**
+   * Aborts an attempt to connect. Default implementation does nothing.
+   */
+  protected void abortConnect() {
+  }
+
+  /**
+   * Returns the error message to use if the execution fails.
+   *
+   * @return		the message
+   */
+  protected abstract String getErrorMessage();
+
+  /**
+   * Returns whether the remote side supports preludes and dependencies, ie
+   * the classpath of the run and the startup files get sent along as flags.
+   *
+   * @return		true if supported
+   */
+  protected boolean supportsPreludes() {
+    return true;
+  }
+
+  /**
+   * Assembles the jshell-style flags to send along with the script.
+   *
+   * @param owner	the owning execution, for the preludes
+   * @param runtimeFlags 	optional runtime flags for JShell
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code
+   * @param compilerFlags 	optional compiler flags
+   * @return		the flags
+   */
+  protected List<String> getFlags(JShellExec owner, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    List<String>	result;
+
+    result = new ArrayList<>();
+    if (supportsPreludes())
+      result.add(SessionSettings.CLASSPATH + PreludeCache.getClassPath(owner.getActiveClassPath(), owner.getActivePreludes()));
+    else
+      result.add(SessionSettings.CLASSPATH + System.getProperty("java.class.path"));
+    if (runtimeFlags != null) {
+      for (String flag: runtimeFlags)
+	result.add("-J" + flag);
+    }
+    if (remoteRuntimeFlags != null) {
+      for (String flag: remoteRuntimeFlags)
+	result.add("-R" + flag);
+    }
+    if (compilerFlags != null) {
+      for (String flag: compilerFlags)
+	result.add("-C" + flag);
+    }
+    if (supportsPreludes())
+      result.addAll(PreludeCache.getSessionFlags(owner.getActivePreludes()));
+
+    return result;
+  }
+
+  /**
+   * Starts the execution of the script.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param runtimeFlags 	optional runtime flags for JShell (eg -verbose)
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code (eg -javaagent:...)
+   * @param compilerFlags 	optional compiler flags
+   * @return		true if successfully started
+   */
+  public boolean execute(JShellExec owner, String code, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    final List<String>	flags;
+
+    if (m_Running)
+      return false;
+
+    flags     = getFlags(owner, runtimeFlags, remoteRuntimeFlags, compilerFlags);
+    m_Running = true;
+    m_Stopped = false;
+    m_Thread  = new Thread(() -> run(owner, code, flags), getThreadName());
+    m_Thread.start();
+
+    return true;
+  }
+
+  /**
+   * Connects, sends the script and processes the output.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param flags 	the jshell-style flags
+   */
+  protected void run(JShellExec owner, String code, List<String> flags) {
+    Connection	conn;
+    Frame	frame;
+    boolean	success;
+    boolean	done;
+
+    success = false;
+    conn    = null;
+    try {
+      conn         = connect(owner);
+      m_Connection = conn;
+      if (m_Stopped)
+	throw new IllegalStateException("Stopped");
+      for (String flag: flags)
+	conn.write(Protocol.FLAG, 0, flag);
+      conn.write(Protocol.SCRIPT, 0, code);
+
+      done = false;
+      while (!done) {
+	frame = conn.read();
+	switch (frame.getType()) {
+	  case Protocol.OUT:
+	    owner.processOutput(frame.getPayload(), true);
+	    break;
+	  case Protocol.ERR:
+	    owner.processOutput(frame.getPayload(), false);
+	    break;
+	  case Protocol.DONE:
+	    success = frame.getPayload().equals("0");
+	    done    = true;
+	    break;
+	}
+      }
+    }
+    catch (Throwable t) {
+      if (!m_Stopped)
+	owner.showErrorMessage(getErrorMessage(), t);
+    }
+    finally {
+      if (conn != null)
+	conn.close();
+      m_Connection = null;
+      m_Thread     = null;
+      m_Running    = false;
+    }
+
+    owner.scriptFinished(success);
+  }
+
+  /**
+   * Returns whether a script is currently being executed.
+   *
+   * @return		true if running
+   */
+  public boolean isRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Stops the execution of the script and waits for the remote side to finish.
+   */
+  public void stop() {
+    Thread	thread;
+    Connection	conn;
+
+    thread    = m_Thread;
+    conn      = m_Connection;
+    m_Stopped = true;
+    if (conn != null) {
+      try {
+	conn.write(Protocol.STOP, 0, null);
+      }
+      catch (Exception e) {
+	conn.close();
+      }
+    }
+    else {
+      abortConnect();
+    }
+    if ((thread != null) && (thread != Thread.currentThread())) {
+      try {
+	thread.join(m_Timeout);
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AttachTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.compile.JarUtils;
+import com.github.fracpete.jshell.compile.ScriptCompiler;
+import com.github.fracpete.jshell.compile.ScriptParser;
+import com.github.fracpete.jshell.compile.ScriptSnippet;
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.remote.Frame;
+import com.github.fracpete.jshell.remote.FrameOutputStream;
+import com.github.fracpete.jshell.remote.Protocol;
+import com.github.fracpete.jshell.remote.RoutingPrintStream;
+import com.github.fracpete.jshell.remote.ScriptAgent;
+import com.github.fracpete.jshell.remote.ScriptEvaluator;
+import com.sun.tools.attach.VirtualMachine;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.jar.Manifest;
+
+/**
+ * Executes scripts inside an already running JVM on the local machine,
+ * by attaching to it via its process ID and loading an agent that hosts
+ * an in-process JShell instance. The output gets streamed back via a
+ * loopback connection.
+ * <br>
+ * Only compiler flags are used, runtime flags do not apply to a JVM that
+ * is already running.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class AttachTarget
+  extends AbstractFramedTarget {
+
+  /** the classes that make up the agent. */
+  protected final static Class<?>[] AGENT_CLASSES = new Class<?>[]{
+    ScriptAgent.class,
+    ScriptEvaluator.class,
+    Protocol.class,
+    Frame.class,
+    FrameOutputStream.class,
+    RoutingPrintStream.class,
+    ScriptParser.class,
+    ScriptSnippet.class,
+    ScriptCompiler.class,
+  };
+
+  /** the agent jar (generated on demand). */
+  protected static File m_AgentJar;
+
+  /** the process ID of the JVM to attach to. */
+  protected long m_PID;
+
+  /** the server socket waiting for the agent. */
+  protected transient ServerSocket m_Server;
+
+  /**
+   * Initializes the target.
+   *
+   * @param pid		the process ID of the JVM to attach to
+   */
+  public AttachTarget(long pid) {
+    super();
+    m_PID = pid;
+  }
+
+  /**
+   * Returns the process ID of the JVM to attach to.
+   *
+   * @return		the process ID
+   */
+  public long getPID() {
+    return m_PID;
+  }
+
+  /**
+   * Returns the process ID of the JVM that executes the code.
+   *
+   * @return		the ID
+   */
+  @Override
+  public long getProcessID() {
+    return m_PID;
+  }
+
+  /**
+   * Checks whether the attach API is available.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    try {
+      Class.forName("com.sun.tools.attach.VirtualMachine");
+      return true;
+    }
+    catch (Throwable t) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the agent jar, generates it if necessary.
+   *
+   * @return		the jar
+   * @throws Exception	if generation fails
+   */
+  protected static synchronized File getAgentJar() throws Exception {
+    Map<String,byte[]>	entries;
+    Manifest		manifest;
+    File		jar;
+    String		msg;
+
+    if ((m_AgentJar == null) || !m_AgentJar.exists()) {
+      entries = new LinkedHashMap<>();
+      for (Class<?> cls: AGENT_CLASSES)
+	JarUtils.addClass(entries, cls);
+      manifest = JarUtils.newManifest();
+      manifest.getMainAttributes().putValue("Agent-Class", ScriptAgent.class.getName());
+      jar = File.createTempFile("jshell-agent-", ".jar");
+      jar.deleteOnExit();
+      msg = JarUtils.writeJarMsg(jar, manifest, entries);
+      if (msg != null)
+	throw new IOException(msg);
+      m_AgentJar = jar;
+    }
+
+    return m_AgentJar;
+  }
+
+  /**
+   * Returns the name to use for the execution thread.
+   *
+   * @return		the name
+   */
+  @Override
+  protected String getThreadName() {
+    return "jshell-attach-" + m_PID;
+  }
+
+  /**
+   * Preludes and dependencies are not supported, as the code gets executed
+   * within the running JVM, using its classpath.
+   *
+   * @return		always false
+   */
+  @Override
+  protected boolean supportsPreludes() {
+    return false;
+  }
+
+  /**
+   * Returns the error message to use if the execution fails.
+   *
+   * @return		the message
+   */
+  @Override
+  protected String getErrorMessage() {
+    return "Failed to execute script in JVM " + m_PID + "!";
+  }
+
+  /**
+   * Attaches to the JVM, loads the agent and waits for it to connect back.
+   *
+   * @param owner	the owning execution
+   * @return		the connection
+   * @throws Exception	if attaching or connecting fails
+   */
+  @Override
+  protected Connection connect(JShellExec owner) throws Exception {
+    String		token;
+    VirtualMachine	vm;
+    Socket		socket;
+    Connection		result;
+    Frame		frame;
+
+    token    = UUID.randomUUID().toString();
+    m_Server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    try {
+      m_Server.setSoTimeout(m_Timeout);
+      owner.debugMsg("Attaching to JVM " + m_PID + ", listening on port " + m_Server.getLocalPort());
+      vm = VirtualMachine.attach("" + m_PID);
+      try {
+	vm.loadAgent(getAgentJar().getAbsolutePath(), "port=" + m_Server.getLocalPort() + ",token=" + token);
+      }
+      finally {
+	vm.detach();
+      }
+      socket = m_Server.accept();
+    }
+    finally {
+      m_Server.close();
+      m_Server = null;
+    }
+
+    result = new Connection(socket);
+    frame  = result.read();
+    if ((frame.getType() != Protocol.TOKEN) || !frame.getPayload().equals(token)) {
+      result.close();
+      throw new IOException("Agent failed to authenticate!");
+    }
+
+    return result;
+  }
+
+  /**
+   * Stops waiting for the agent to connect.
+   */
+  @Override
+  protected void abortConnect() {
+    ServerSocket	server;
+
+    server = m_Server;
+    if (server != null) {
+      try {
+	server.close();
+      }
+      catch (Exception e) {
+	// ignored
+      }
+    }
+  }
+}
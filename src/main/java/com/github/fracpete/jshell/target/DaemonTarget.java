@@ -0,0 +1,116 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * DaemonTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.remote.UnixSockets;
+import com.github.fracpete.jshell.session.JShellDaemon;
+
+import java.io.File;
+
+/**
+ * Submits scripts to a local {@link JShellDaemon}, which executes them in
+ * warm sessions and streams back the output. Runtime flags for JShell (-J)
+ * do not apply, as the daemon is already running.
+ * <br>
+ * Requires Java 16 or later for Unix domain sockets.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class DaemonTarget
+  extends AbstractFramedTarget {
+
+  /** the socket file of the daemon. */
+  protected File m_Socket;
+
+  /**
+   * Initializes the target with the default socket.
+   *
+   * @see JShellDaemon#DEFAULT_SOCKET
+   */
+  public DaemonTarget() {
+    this(JShellDaemon.DEFAULT_SOCKET);
+  }
+
+  /**
+   * Initializes the target.
+   *
+   * @param socket	the socket file of the daemon
+   */
+  public DaemonTarget(File socket) {
+    super();
+    m_Socket = socket;
+  }
+
+  /**
+   * Returns the socket file of the daemon.
+   *
+   * @return		the socket file
+   */
+  public File getSocket() {
+    return m_Socket;
+  }
+
+  /**
+   * Checks whether Unix domain sockets are supported and the daemon's
+   * socket file exists.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    return UnixSockets.isSupported() && m_Socket.exists();
+  }
+
+  /**
+   * Returns the name to use for the execution thread.
+   *
+   * @return		the name
+   */
+  @Override
+  protected String getThreadName() {
+    return "jshell-daemon-client";
+  }
+
+  /**
+   * Returns the error message to use if the execution fails.
+   *
+   * @return		the message
+   */
+  @Override
+  protected String getErrorMessage() {
+    return "Failed to execute script via daemon at " + m_Socket + "!";
+  }
+
+  /**
+   * Connects to the daemon.
+   *
+   * @param owner	the owning execution
+   * @return		the connection
+   * @throws Exception	if connecting fails
+   */
+  @Override
+  protected Connection connect(JShellExec owner) throws Exception {
+    owner.debugMsg("Connecting to daemon at " + m_Socket);
+    return new Connection(UnixSockets.connect(m_Socket.toPath()));
+  }
+}
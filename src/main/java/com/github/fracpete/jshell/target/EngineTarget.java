@@ -0,0 +1,122 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * EngineTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.process.JdkExecutableResolver;
+import com.github.fracpete.jshell.remote.Connection;
+import com.github.fracpete.jshell.session.EngineSession;
+import com.github.fracpete.jshell.session.SharedEngine;
+
+import java.io.File;
+
+/**
+ * Executes scripts as logical sessions in a {@link SharedEngine}, ie many
+ * scripts (and {@link JShellExec} instances) share a single execution JVM,
+ * each with its own class loader and output. Runtime flags for JShell (-J)
+ * and the remote JVM (-R) do not apply, as the engine JVM is shared.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class EngineTarget
+  extends AbstractFramedTarget {
+
+  /** the engine to use, null for the default one. */
+  protected transient SharedEngine m_Engine;
+
+  /**
+   * Initializes the target with the default engine.
+   *
+   * @see SharedEngine#getDefault()
+   */
+  public EngineTarget() {
+    this(null);
+  }
+
+  /**
+   * Initializes the target.
+   *
+   * @param engine	the engine to use, null for the default one
+   */
+  public EngineTarget(SharedEngine engine) {
+    super();
+    m_Engine = engine;
+  }
+
+  /**
+   * Returns the engine in use.
+   *
+   * @return		the engine
+   */
+  public SharedEngine getEngine() {
+    if (m_Engine == null)
+      m_Engine = SharedEngine.getDefault();
+    return m_Engine;
+  }
+
+  /**
+   * Checks whether the java executable for launching the engine exists.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    return new File(JdkExecutableResolver.getExecutable("java")).exists();
+  }
+
+  /**
+   * Returns the name to use for the execution thread.
+   *
+   * @return		the name
+   */
+  @Override
+  protected String getThreadName() {
+    return "jshell-engine-client";
+  }
+
+  /**
+   * Returns the error message to use if the execution fails.
+   *
+   * @return		the message
+   */
+  @Override
+  protected String getErrorMessage() {
+    return "Failed to execute script in shared engine!";
+  }
+
+  /**
+   * Opens a new session in the engine.
+   *
+   * @param owner	the owning execution
+   * @return		the session
+   * @throws Exception	if launching the engine fails
+   */
+  @Override
+  protected Connection connect(JShellExec owner) throws Exception {
+    EngineSession	result;
+
+    result = getEngine().open();
+    owner.debugMsg("Opened session " + result.getID() + " in shared engine");
+
+    return result;
+  }
+}
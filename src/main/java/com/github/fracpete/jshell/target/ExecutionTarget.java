@@ -0,0 +1,81 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ExecutionTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Interface for alternative targets for executing scripts, rather than
+ * spawning a new jshell process. Implementations execute the script
+ * asynchronously, forward the output to the owner via
+ * {@link JShellExec#processOutput(String, boolean)} and call
+ * {@link JShellExec#scriptFinished(boolean)} once the execution finished.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public interface ExecutionTarget
+  extends Serializable {
+
+  /**
+   * Checks whether the target is available.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable();
+
+  /**
+   * Starts the execution of the script.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param runtimeFlags 	optional runtime flags for JShell (eg -verbose)
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code (eg -javaagent:...)
+   * @param compilerFlags 	optional compiler flags
+   * @return		true if successfully started
+   */
+  public boolean execute(JShellExec owner, String code, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags);
+
+  /**
+   * Returns whether a script is currently being executed.
+   *
+   * @return		true if running
+   */
+  public boolean isRunning();
+
+  /**
+   * Stops the execution of the script.
+   */
+  public void stop();
+
+  /**
+   * Returns the process ID of the JVM that executes the code, eg for
+   * monitoring it.
+   *
+   * @return		the ID, -1 if not known (yet)
+   */
+  public default long getProcessID() {
+    return -1;
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ProfilingTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.prelude.PreludeCache;
+import com.github.fracpete.jshell.profile.ProfilingExecutionControl;
+import com.github.fracpete.jshell.profile.ProfilingExecutionControlProvider;
+import com.github.fracpete.jshell.profile.SnippetProfile;
+import com.github.fracpete.jshell.remote.ScriptEvaluator;
+import jdk.jshell.JShell;
+import nz.ac.waikato.cms.core.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Executes scripts via the JShell API rather than the jshell tool and
+ * measures wall time, CPU time and allocated bytes of each snippet in the
+ * JVM that runs the code. Runtime flags for JShell (-J) do not apply, as
+ * JShell runs inside the current JVM.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see #getProfiles()
+ */
+public class ProfilingTarget
+  implements ExecutionTarget {
+
+  /** whether a script is running. */
+  protected transient volatile boolean m_Running;
+
+  /** whether the script got stopped. */
+  protected transient volatile boolean m_Stopped;
+
+  /** the thread executing the script. */
+  protected transient Thread m_Thread;
+
+  /** the current evaluator. */
+  protected transient ScriptEvaluator m_Evaluator;
+
+  /** the process ID of the JVM that runs the code, -1 if not known. */
+  protected transient volatile long m_ProcessID;
+
+  /** the profiles of the last execution. */
+  protected transient List<SnippetProfile> m_Profiles;
+
+  /**
+   * Initializes the target.
+   */
+  public ProfilingTarget() {
+    m_Running   = false;
+    m_Stopped   = false;
+    m_ProcessID = -1;
+    m_Profiles  = new ArrayList<>();
+  }
+
+  /**
+   * Checks whether the target is available.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    return true;
+  }
+
+  /**
+   * Returns the profiles of the snippets of the last/current execution.
+   * Only snippets that executed code have a profile.
+   *
+   * @return		the profiles
+   */
+  public synchronized List<SnippetProfile> getProfiles() {
+    return Collections.unmodifiableList(new ArrayList<>(m_Profiles));
+  }
+
+  /**
+   * Starts the execution of the script.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param runtimeFlags 	ignored
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code (eg -javaagent:...)
+   * @param compilerFlags 	optional compiler flags
+   * @return		true if successfully started
+   */
+  public boolean execute(JShellExec owner, String code, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    if (m_Running)
+      return false;
+
+    synchronized (this) {
+      m_Profiles = new ArrayList<>();
+    }
+    m_Running = true;
+    m_Stopped = false;
+    m_Thread  = new Thread(() -> run(owner, code, remoteRuntimeFlags, compilerFlags), "jshell-profiling");
+    m_Thread.start();
+
+    return true;
+  }
+
+  /**
+   * Executes the script and records the profiles.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code
+   * @param compilerFlags 	optional compiler flags
+   */
+  protected void run(JShellExec owner, String code, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    ProfilingExecutionControlProvider	provider;
+    OutputStream		out;
+    OutputStream		err;
+    PrintStream				printErr;
+    JShell				jshell;
+    boolean				success;
+
+    success  = false;
+    jshell   = null;
+    out      = owner.createOutputStream(true);
+    err      = owner.createOutputStream(false);
+    printErr = new PrintStream(err, true);
+    provider = new ProfilingExecutionControlProvider();
+    try {
+      jshell = JShell.builder()
+	.in(new ByteArrayInputStream(new byte[0]))
+	.out(new PrintStream(out, true))
+	.err(printErr)
+	.remoteVMOptions((remoteRuntimeFlags == null) ? new String[0] : remoteRuntimeFlags.toArray(new String[0]))
+	.compilerOptions((compilerFlags == null) ? new String[0] : compilerFlags.toArray(new String[0]))
+	.executionEngine(provider, provider.defaultParameters())
+	.build();
+      for (String path: PreludeCache.getClassPath(owner.getActiveClassPath(), owner.getActivePreludes()).split(File.pathSeparator)) {
+	if (!path.isEmpty())
+	  jshell.addToClasspath(path);
+      }
+      m_Evaluator = new ScriptEvaluator(jshell, printErr);
+      m_Evaluator.startup(PreludeCache.getDefaultStartup(owner.getActivePreludes()), PreludeCache.getStartupFiles(owner.getActivePreludes()));
+      final ProfilingExecutionControl control = provider.getControl();
+      control.takeMeasurement();
+      m_ProcessID = control.getRemotePID();
+      m_Evaluator.setSnippetListener((snippet, events) -> {
+	long[] measurement = control.takeMeasurement();
+	if (measurement != null) {
+	  synchronized (ProfilingTarget.this) {
+	    m_Profiles.add(new SnippetProfile(snippet.getLine(), snippet.getSource(), measurement[0], measurement[1], measurement[2]));
+	  }
+	}
+      });
+      if (!m_Stopped)
+	success = (m_Evaluator.evaluate(code) == 0);
+    }
+    catch (Throwable t) {
+      owner.showErrorMessage("Failed to execute script!", t);
+    }
+    finally {
+      FileUtils.closeQuietly(out);
+      FileUtils.closeQuietly(err);
+      if (jshell != null)
+	jshell.close();
+      m_Evaluator = null;
+      m_ProcessID = -1;
+      m_Thread    = null;
+      m_Running   = false;
+    }
+
+    owner.scriptFinished(success);
+  }
+
+  /**
+   * Returns whether a script is currently being executed.
+   *
+   * @return		true if running
+   */
+  public boolean isRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Returns the process ID of the JVM that executes the code.
+   *
+   * @return		the ID, -1 if not known (yet)
+   */
+  @Override
+  public long getProcessID() {
+    return m_ProcessID;
+  }
+
+  /**
+   * Stops the execution of the script and waits for it to finish.
+   */
+  public void stop() {
+    Thread		thread;
+    ScriptEvaluator	evaluator;
+
+    thread    = m_Thread;
+    evaluator = m_Evaluator;
+    m_Stopped = true;
+    if (evaluator != null)
+      evaluator.stop();
+    if ((thread != null) && (thread != Thread.currentThread())) {
+      try {
+	thread.join(30000);
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+  }
+}
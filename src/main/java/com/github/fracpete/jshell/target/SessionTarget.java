@@ -0,0 +1,256 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * SessionTarget.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.target;
+
+import com.github.fracpete.jshell.JShellExec;
+import com.github.fracpete.jshell.prelude.PreludeCache;
+import com.github.fracpete.jshell.session.JShellSession;
+import com.github.fracpete.jshell.session.SessionPool;
+import com.github.fracpete.jshell.session.SessionSettings;
+import nz.ac.waikato.cms.core.FileUtils;
+
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Executes scripts in warm sessions of a {@link SessionPool} within the
+ * current JVM, ie the remote JVM of the next session is already running
+ * (with the startup evaluated) when a script gets executed. The pool gets
+ * replaced whenever the settings (classpath, flags, preludes) change.
+ * Runtime flags for JShell (-J) do not apply, as JShell runs inside the
+ * current JVM.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class SessionTarget
+  implements ExecutionTarget {
+
+  /** the default number of warm sessions. */
+  public final static int DEFAULT_SIZE = 1;
+
+  /** the number of warm sessions to keep. */
+  protected int m_Size;
+
+  /** whether to reuse sessions. */
+  protected boolean m_Reuse;
+
+  /** the pool. */
+  protected transient SessionPool m_Pool;
+
+  /** whether a script is running. */
+  protected transient volatile boolean m_Running;
+
+  /** whether the script got stopped. */
+  protected transient volatile boolean m_Stopped;
+
+  /** the thread executing the script. */
+  protected transient Thread m_Thread;
+
+  /** the session executing the script. */
+  protected transient volatile JShellSession m_Session;
+
+  /**
+   * Initializes the target with {@link #DEFAULT_SIZE} sessions that get
+   * used only once.
+   */
+  public SessionTarget() {
+    this(DEFAULT_SIZE, false);
+  }
+
+  /**
+   * Initializes the target.
+   *
+   * @param size	the number of warm sessions to keep
+   * @param reuse	whether to reuse sessions, ie keep the state between scripts
+   */
+  public SessionTarget(int size, boolean reuse) {
+    m_Size    = size;
+    m_Reuse   = reuse;
+    m_Running = false;
+    m_Stopped = false;
+  }
+
+  /**
+   * Checks whether the target is available.
+   *
+   * @return		true if available
+   */
+  public boolean isAvailable() {
+    return true;
+  }
+
+  /**
+   * Returns the settings for the sessions of the owner.
+   *
+   * @param owner	the owning execution, for classpath and preludes
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code
+   * @param compilerFlags 	optional compiler flags
+   * @return		the settings
+   */
+  public SessionSettings getSettings(JShellExec owner, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    return new SessionSettings(
+      PreludeCache.getClassPath(owner.getActiveClassPath(), owner.getActivePreludes()),
+      remoteRuntimeFlags,
+      compilerFlags,
+      PreludeCache.getStartupFiles(owner.getActivePreludes()),
+      PreludeCache.getDefaultStartup(owner.getActivePreludes()));
+  }
+
+  /**
+   * Returns the pool for the settings, replacing the current one if the
+   * settings differ.
+   *
+   * @param settings	the settings
+   * @return		the pool
+   */
+  protected synchronized SessionPool getPool(SessionSettings settings) {
+    if ((m_Pool != null) && !m_Pool.getSettings().equals(settings)) {
+      m_Pool.close();
+      m_Pool = null;
+    }
+    if (m_Pool == null)
+      m_Pool = new SessionPool(settings, m_Size, m_Reuse);
+    return m_Pool;
+  }
+
+  /**
+   * Launches sessions for the settings in the background, so that the
+   * next execution with the same settings doesn't have to wait.
+   *
+   * @param settings	the settings
+   * @see		#getSettings(JShellExec, List, List)
+   */
+  public void warmUp(SessionSettings settings) {
+    getPool(settings);
+  }
+
+  /**
+   * Starts the execution of the script.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param runtimeFlags 	ignored
+   * @param remoteRuntimeFlags 	optional runtime flags for JVM that runs code (eg -javaagent:...)
+   * @param compilerFlags 	optional compiler flags
+   * @return		true if successfully started
+   */
+  public boolean execute(JShellExec owner, String code, List<String> runtimeFlags, List<String> remoteRuntimeFlags, List<String> compilerFlags) {
+    final SessionSettings	settings;
+
+    if (m_Running)
+      return false;
+
+    settings  = getSettings(owner, remoteRuntimeFlags, compilerFlags);
+    m_Running = true;
+    m_Stopped = false;
+    m_Thread  = new Thread(() -> run(owner, code, settings), "jshell-session");
+    m_Thread.start();
+
+    return true;
+  }
+
+  /**
+   * Executes the script in a session of the pool.
+   *
+   * @param owner	the owning execution, for output and notifications
+   * @param code 	the script code to execute
+   * @param settings	the settings for the session
+   */
+  protected void run(JShellExec owner, String code, SessionSettings settings) {
+    SessionPool			pool;
+    JShellSession		session;
+    OutputStream	out;
+    OutputStream	err;
+    boolean			success;
+
+    success = false;
+    session = null;
+    pool    = null;
+    out     = owner.createOutputStream(true);
+    err     = owner.createOutputStream(false);
+    try {
+      pool      = getPool(settings);
+      session   = pool.acquire();
+      m_Session = session;
+      if (!m_Stopped)
+	success = (session.evaluate(code, out, err) == 0);
+    }
+    catch (Throwable t) {
+      owner.showErrorMessage("Failed to execute script in session!", t);
+    }
+    finally {
+      FileUtils.closeQuietly(out);
+      FileUtils.closeQuietly(err);
+      m_Session = null;
+      if (session != null)
+	pool.release(session);
+      m_Thread  = null;
+      m_Running = false;
+    }
+
+    owner.scriptFinished(success);
+  }
+
+  /**
+   * Returns whether a script is currently being executed.
+   *
+   * @return		true if running
+   */
+  public boolean isRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Stops the execution of the script and waits for it to finish.
+   */
+  public void stop() {
+    Thread		thread;
+    JShellSession	session;
+
+    thread    = m_Thread;
+    session   = m_Session;
+    m_Stopped = true;
+    if (session != null)
+      session.stop();
+    if ((thread != null) && (thread != Thread.currentThread())) {
+      try {
+	thread.join(30000);
+      }
+      catch (InterruptedException e) {
+	// ignored
+      }
+    }
+  }
+
+  /**
+   * Stops any execution and closes the pool.
+   */
+  public void close() {
+    stop();
+    synchronized(this) {
+      if (m_Pool != null) {
+	m_Pool.close();
+	m_Pool = null;
+      }
+    }
+  }
+}
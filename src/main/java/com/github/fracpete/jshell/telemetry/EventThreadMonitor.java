@@ -0,0 +1,341 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * EventThreadMonitor.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.telemetry;
+
+import java.awt.EventQueue;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the responsiveness of the event dispatch thread (EDT): posts a
+ * probe event at a fixed interval and records how long it takes until the
+ * probe gets processed. If the probe is pending for longer than the
+ * threshold, the EDT is considered stalled and its stack gets sampled until
+ * the probe finally gets processed.
+ * <br>
+ * The receiver gets notified from the monitor's thread (never the EDT) when
+ * a stall starts and when it is over, each time with a snapshot of the stall.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class EventThreadMonitor {
+
+  /** the default interval for probing in msec. */
+  public final static int DEFAULT_INTERVAL = 100;
+
+  /** the default interval for sampling the stack of a stalled EDT in msec. */
+  public final static int DEFAULT_SAMPLE_INTERVAL = 20;
+
+  /** the default maximum number of stack samples per stall. */
+  public final static int DEFAULT_MAX_SAMPLES = 500;
+
+  /** the threshold in msec after which the EDT is considered stalled. */
+  protected int m_Threshold;
+
+  /** the interval for probing in msec. */
+  protected int m_Interval;
+
+  /** the interval for sampling the stack in msec. */
+  protected int m_SampleInterval;
+
+  /** the maximum number of stack samples per stall. */
+  protected int m_MaxSamples;
+
+  /** the receiver of the stalls. */
+  protected Consumer<EventThreadStall> m_Receiver;
+
+  /** the thread performing the monitoring. */
+  protected transient Thread m_Thread;
+
+  /** whether the monitor is running. */
+  protected volatile boolean m_Running;
+
+  /** the event dispatch thread, as seen by the last probe. */
+  protected volatile Thread m_EventThread;
+
+  /** the number of probes. */
+  protected long m_Probes;
+
+  /** the sum of the latencies in nanoseconds. */
+  protected long m_LatencySum;
+
+  /** the maximum latency in nanoseconds. */
+  protected long m_LatencyMax;
+
+  /** the last latency in nanoseconds. */
+  protected long m_LatencyLast;
+
+  /** the number of stalls. */
+  protected long m_Stalls;
+
+  /**
+   * Initializes the monitor with default intervals.
+   *
+   * @param threshold	the threshold in msec after which the EDT is considered stalled
+   * @param receiver	the receiver of the stalls
+   */
+  public EventThreadMonitor(int threshold, Consumer<EventThreadStall> receiver) {
+    m_Threshold      = threshold;
+    m_Interval       = DEFAULT_INTERVAL;
+    m_SampleInterval = DEFAULT_SAMPLE_INTERVAL;
+    m_MaxSamples     = DEFAULT_MAX_SAMPLES;
+    m_Receiver       = receiver;
+    m_Running        = false;
+  }
+
+  /**
+   * Returns the threshold after which the EDT is considered stalled.
+   *
+   * @return		the threshold in msec
+   */
+  public int getThreshold() {
+    return m_Threshold;
+  }
+
+  /**
+   * Sets the interval for probing.
+   *
+   * @param value	the interval in msec
+   */
+  public void setInterval(int value) {
+    m_Interval = Math.max(1, value);
+  }
+
+  /**
+   * Returns the interval for probing.
+   *
+   * @return		the interval in msec
+   */
+  public int getInterval() {
+    return m_Interval;
+  }
+
+  /**
+   * Sets the interval for sampling the stack of a stalled EDT.
+   *
+   * @param value	the interval in msec
+   */
+  public void setSampleInterval(int value) {
+    m_SampleInterval = Math.max(1, value);
+  }
+
+  /**
+   * Returns the interval for sampling the stack of a stalled EDT.
+   *
+   * @return		the interval in msec
+   */
+  public int getSampleInterval() {
+    return m_SampleInterval;
+  }
+
+  /**
+   * Sets the maximum number of stack samples to keep per stall.
+   *
+   * @param value	the maximum
+   */
+  public void setMaxSamples(int value) {
+    m_MaxSamples = Math.max(1, value);
+  }
+
+  /**
+   * Returns the maximum number of stack samples to keep per stall.
+   *
+   * @return		the maximum
+   */
+  public int getMaxSamples() {
+    return m_MaxSamples;
+  }
+
+  /**
+   * Starts the monitoring.
+   */
+  public synchronized void start() {
+    if (m_Running)
+      return;
+    m_Running = true;
+    m_Thread  = new Thread(this::monitor, "jshell-edt-monitor");
+    m_Thread.setDaemon(true);
+    m_Thread.start();
+  }
+
+  /**
+   * Stops the monitoring.
+   */
+  public synchronized void stop() {
+    m_Running = false;
+    if (m_Thread != null) {
+      m_Thread.interrupt();
+      m_Thread = null;
+    }
+  }
+
+  /**
+   * Returns whether the monitor is running.
+   *
+   * @return		true if running
+   */
+  public boolean isRunning() {
+    return m_Running;
+  }
+
+  /**
+   * Returns the number of probes so far.
+   *
+   * @return		the number of probes
+   */
+  public synchronized long getProbes() {
+    return m_Probes;
+  }
+
+  /**
+   * Returns the mean latency of the probes.
+   *
+   * @return		the latency in msec
+   */
+  public synchronized double getMeanLatency() {
+    return (m_Probes == 0) ? 0 : (double) m_LatencySum / m_Probes / 1000000.0;
+  }
+
+  /**
+   * Returns the maximum latency of the probes.
+   *
+   * @return		the latency in msec
+   */
+  public synchronized double getMaxLatency() {
+    return m_LatencyMax / 1000000.0;
+  }
+
+  /**
+   * Returns the latency of the last probe.
+   *
+   * @return		the latency in msec
+   */
+  public synchronized double getLastLatency() {
+    return m_LatencyLast / 1000000.0;
+  }
+
+  /**
+   * Returns the number of stalls so far.
+   *
+   * @return		the number of stalls
+   */
+  public synchronized long getStalls() {
+    return m_Stalls;
+  }
+
+  /**
+   * Records the latency of a probe.
+   *
+   * @param latency	the latency in nanoseconds
+   */
+  protected synchronized void addLatency(long latency) {
+    m_Probes++;
+    m_LatencySum  += latency;
+    m_LatencyLast  = latency;
+    m_LatencyMax   = Math.max(m_LatencyMax, latency);
+  }
+
+  /**
+   * Returns the event dispatch thread: the one seen by the last probe or,
+   * if no probe got processed yet, the one found by name.
+   *
+   * @return		the thread, null if not found
+   */
+  protected Thread getEventThread() {
+    if (m_EventThread != null)
+      return m_EventThread;
+    for (Thread thread: Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith("AWT-EventQueue"))
+	return thread;
+    }
+    return null;
+  }
+
+  /**
+   * Posts the probes and samples the EDT while stalled.
+   */
+  protected void monitor() {
+    CountDownLatch	processed;
+    EventThreadStall	stall;
+    Thread		thread;
+    long		posted;
+    long		elapsed;
+    boolean		started;
+
+    while (m_Running) {
+      processed = new CountDownLatch(1);
+      stall     = null;
+      posted    = System.nanoTime();
+      final CountDownLatch fProcessed = processed;
+      EventQueue.invokeLater(() -> {
+	m_EventThread = Thread.currentThread();
+	fProcessed.countDown();
+      });
+
+      try {
+	while (!processed.await(m_SampleInterval, TimeUnit.MILLISECONDS)) {
+	  elapsed = (System.nanoTime() - posted) / 1000000;
+	  if (elapsed < m_Threshold)
+	    continue;
+	  started = (stall == null);
+	  if (started) {
+	    stall = new EventThreadStall(System.currentTimeMillis() - elapsed);
+	    synchronized(this) {
+	      m_Stalls++;
+	    }
+	  }
+	  stall.setDuration(elapsed);
+	  thread = getEventThread();
+	  if (thread != null)
+	    stall.addSample(thread.getStackTrace(), m_MaxSamples);
+	  if (started)
+	    m_Receiver.accept(stall.snapshot());
+	}
+	addLatency(System.nanoTime() - posted);
+	if (stall != null) {
+	  stall.setDuration((System.nanoTime() - posted) / 1000000);
+	  stall.finish();
+	  m_Receiver.accept(stall.snapshot());
+	}
+	Thread.sleep(m_Interval);
+      }
+      catch (InterruptedException e) {
+	break;
+      }
+    }
+  }
+
+  /**
+   * Returns a summary of the latencies.
+   *
+   * @return		the summary
+   */
+  @Override
+  public synchronized String toString() {
+    return String.format(Locale.ENGLISH,
+      "EDT latency: mean %.1f ms, max %.1f ms, last %.1f ms | probes: %d | stalls: %d",
+      getMeanLatency(), getMaxLatency(), getLastLatency(), m_Probes, m_Stalls);
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * EventThreadStall.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+
+package com.github.fracpete.jshell.telemetry;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A period during which the event dispatch thread did not process events
+ * in time, with the stack samples of the thread taken during that period.
+ * Only the monitor modifies the stall, listeners receive snapshots.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see EventThreadMonitor
+ */
+public class EventThreadStall
+  implements Serializable {
+
+  /** the package prefixes of frames that are not considered culprits. */
+  protected final static String[] PLATFORM_PACKAGES = new String[]{
+    "java.",
+    "javax.",
+    "sun.",
+    "jdk.",
+    "com.sun.",
+  };
+
+  /** the start of the stall (msec since epoch), ie when the probe got posted. */
+  protected long m_Start;
+
+  /** the duration so far in msec. */
+  protected long m_Duration;
+
+  /** whether the stall is over. */
+  protected boolean m_Finished;
+
+  /** the stack samples. */
+  protected List<StackTraceElement[]> m_Samples;
+
+  /** the number of samples that got dropped, due to the limit. */
+  protected int m_Dropped;
+
+  /**
+   * Initializes the stall.
+   *
+   * @param start	the start (msec since epoch)
+   */
+  public EventThreadStall(long start) {
+    m_Start    = start;
+    m_Duration = 0;
+    m_Finished = false;
+    m_Samples  = new ArrayList<>();
+    m_Dropped  = 0;
+  }
+
+  /**
+   * Initializes the stall as a snapshot of the specified one.
+   *
+   * @param other	the stall to copy
+   */
+  protected EventThreadStall(EventThreadStall other) {
+    m_Start    = other.m_Start;
+    m_Duration = other.m_Duration;
+    m_Finished = other.m_Finished;
+    m_Samples  = new ArrayList<>(other.m_Samples);
+    m_Dropped  = other.m_Dropped;
+  }
+
+  /**
+   * Returns a snapshot of the current state of the stall.
+   *
+   * @return		the snapshot
+   */
+  protected EventThreadStall snapshot() {
+    return new EventThreadStall(this);
+  }
+
+  /**
+   * Returns the start of the stall.
+   *
+   * @return		the start (msec since epoch)
+   */
+  public long getStart() {
+    return m_Start;
+  }
+
+  /**
+   * Sets the duration.
+   *
+   * @param value	the duration in msec
+   */
+  protected void setDuration(long value) {
+    m_Duration = value;
+  }
+
+  /**
+   * Returns the duration, so far if not yet finished.
+   *
+   * @return		the duration in msec
+   */
+  public long getDuration() {
+    return m_Duration;
+  }
+
+  /**
+   * Marks the stall as over.
+   */
+  protected void finish() {
+    m_Finished = true;
+  }
+
+  /**
+   * Returns whether the stall is over.
+   *
+   * @return		true if over
+   */
+  public boolean isFinished() {
+    return m_Finished;
+  }
+
+  /**
+   * Adds the stack sample.
+   *
+   * @param sample	the sample
+   * @param max		the maximum number of samples to keep
+   */
+  protected void addSample(StackTraceElement[] sample, int max) {
+    if (m_Samples.size() < max)
+      m_Samples.add(sample);
+    else
+      m_Dropped++;
+  }
+
+  /**
+   * Returns the stack samples of the event dispatch thread.
+   *
+   * @return		the samples
+   */
+  public List<StackTraceElement[]> getSamples() {
+    return Collections.unmodifiableList(m_Samples);
+  }
+
+  /**
+   * Returns the number of samples that got dropped, due to the limit.
+   *
+   * @return		the number of samples
+   */
+  public int getDropped() {
+    return m_Dropped;
+  }
+
+  /**
+   * Returns the culprit of the sample: the topmost frame that is not part
+   * of the platform, or the topmost frame if none.
+   *
+   * @param sample	the sample
+   * @return		the frame, null if empty sample
+   */
+  public static StackTraceElement getCulprit(StackTraceElement[] sample) {
+    boolean	platform;
+
+    for (StackTraceElement frame: sample) {
+      platform = false;
+      for (String pkg: PLATFORM_PACKAGES) {
+	if (frame.getClassName().startsWith(pkg)) {
+	  platform = true;
+	  break;
+	}
+      }
+      if (!platform)
+	return frame;
+    }
+
+    return (sample.length > 0) ? sample[0] : null;
+  }
+
+  /**
+   * Returns the culprits of the samples with their counts, most frequent
+   * first.
+   *
+   * @param max		the maximum number of culprits to return
+   * @return		the culprits and their counts
+   * @see		#getCulprit(StackTraceElement[])
+   */
+  public List<Map.Entry<String,Integer>> getCulprits(int max) {
+    List<Map.Entry<String,Integer>>	result;
+    Map<String,Integer>			counts;
+    StackTraceElement			culprit;
+
+    counts = new HashMap<>();
+    for (StackTraceElement[] sample: m_Samples) {
+      culprit = getCulprit(sample);
+      if (culprit != null)
+	counts.merge(culprit.toString(), 1, Integer::sum);
+    }
+    result = new ArrayList<>(counts.entrySet());
+    result.sort((Map.Entry<String,Integer> o1, Map.Entry<String,Integer> o2) -> Integer.compare(o2.getValue(), o1.getValue()));
+    if (result.size() > max)
+      result = new ArrayList<>(result.subList(0, max));
+
+    return result;
+  }
+
+  /**
+   * Returns a report of the stall: duration and the most frequent culprits,
+   * followed by the most recent stack sample.
+   *
+   * @return		the report
+   */
+  public String toReport() {
+    StringBuilder	result;
+
+    result = new StringBuilder(toString());
+    for (Map.Entry<String,Integer> culprit: getCulprits(5))
+      result.append("\n  ").append(culprit.getValue()).append("x ").append(culprit.getKey());
+    if (!m_Samples.isEmpty()) {
+      result.append("\n  last sample:");
+      for (StackTraceElement frame: m_Samples.get(m_Samples.size() - 1))
+	result.append("\n    at ").append(frame);
+    }
+
+    return result.toString();
+  }
+
+  /**
+   * Returns a short description of the stall.
+   *
+   * @return		the description
+   */
+  @Override
+  public String toString() {
+    return "Event dispatch thread " + (m_Finished ? "stalled" : "stalling") + " for " + m_Duration + "ms (samples: " + m_Samples.size() + ")";
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TelemetryMonitor.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.telemetry;
+
+import com.sun.tools.attach.VirtualMachine;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples heap, GC, CPU and thread statistics of a local JVM at a fixed
+ * interval. Connects to the JVM's local JMX agent via the attach API (the
+ * agent gets started if necessary), i.e., no network connection is needed.
+ * The process ID is determined lazily, as the JVM that runs the code may
+ * only get launched after the script started.
+ * <br>
+ * All monitors share a single scheduler thread. Connecting happens outside
+ * the monitor's lock, so that stopping never has to wait for an attach
+ * that is in progress.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class TelemetryMonitor {
+
+  /** the shared scheduler. */
+  protected static ScheduledExecutorService m_Scheduler;
+
+  /** supplies the process ID, -1 if not (yet) known. */
+  protected LongSupplier m_PID;
+
+  /** the interval in msec. */
+  protected int m_Interval;
+
+  /** the receiver of the samples. */
+  protected Consumer<TelemetrySample> m_Receiver;
+
+  /** the receiver of errors. */
+  protected Consumer<Exception> m_ErrorReceiver;
+
+  /** the scheduled task. */
+  protected volatile ScheduledFuture<?> m_Task;
+
+  /** the process ID of the connected JVM. */
+  protected long m_ConnectedPID;
+
+  /** the JMX connection. */
+  protected JMXConnector m_Connector;
+
+  /** the memory bean. */
+  protected MemoryMXBean m_Memory;
+
+  /** the thread bean. */
+  protected ThreadMXBean m_Threads;
+
+  /** the operating system bean. */
+  protected com.sun.management.OperatingSystemMXBean m_OperatingSystem;
+
+  /** the GC beans. */
+  protected List<GarbageCollectorMXBean> m_GarbageCollectors;
+
+  /** the GC count of the previous sample. */
+  protected long m_LastGcCount;
+
+  /** the GC time of the previous sample. */
+  protected long m_LastGcTime;
+
+  /** whether the monitor failed and gave up. */
+  protected boolean m_Failed;
+
+  /**
+   * Initializes the monitor.
+   *
+   * @param pid		supplies the process ID, -1 if not (yet) known
+   * @param interval	the sampling interval in msec
+   * @param receiver	the receiver of the samples
+   * @param errorReceiver	the receiver of errors (monitor stops after an error), can be null
+   */
+  public TelemetryMonitor(LongSupplier pid, int interval, Consumer<TelemetrySample> receiver, Consumer<Exception> errorReceiver) {
+    m_PID           = pid;
+    m_Interval      = interval;
+    m_Receiver      = receiver;
+    m_ErrorReceiver = errorReceiver;
+    m_ConnectedPID  = -1;
+    m_Failed        = false;
+  }
+
+  /**
+   * Returns the shared scheduler, creates it if necessary.
+   *
+   * @return		the scheduler
+   */
+  protected static synchronized ScheduledExecutorService getScheduler() {
+    if (m_Scheduler == null) {
+      m_Scheduler = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+	Thread t = new Thread(r, "jshell-telemetry");
+	t.setDaemon(true);
+	return t;
+      });
+    }
+    return m_Scheduler;
+  }
+
+  /**
+   * Starts the sampling.
+   */
+  public synchronized void start() {
+    if (m_Task != null)
+      return;
+    m_Task = getScheduler().scheduleWithFixedDelay(this::update, m_Interval, m_Interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the sampling and closes the connection, without waiting for a
+   * sample or connection attempt in progress (a connection that gets
+   * established afterwards is closed right away).
+   */
+  public void stop() {
+    JMXConnector	connector;
+
+    synchronized (this) {
+      if (m_Task != null) {
+	m_Task.cancel(false);
+	m_Task = null;
+      }
+      connector   = m_Connector;
+      m_Connector = null;
+    }
+    close(connector);
+  }
+
+  /**
+   * Closes the connector quietly.
+   *
+   * @param connector	the connector to close, can be null
+   */
+  protected void close(JMXConnector connector) {
+    if (connector == null)
+      return;
+    try {
+      connector.close();
+    }
+    catch (Exception e) {
+      // ignored
+    }
+  }
+
+  /**
+   * Returns the process ID of the connected JVM.
+   *
+   * @return		the ID, -1 if not connected
+   */
+  public long getConnectedPID() {
+    return m_ConnectedPID;
+  }
+
+  /**
+   * Connects to the local JMX agent of the JVM. Gets called without holding
+   * the lock, the connection only gets used if the monitor is still running.
+   *
+   * @param pid		the process ID of the JVM
+   * @return		true if connected, false if the monitor got stopped in the meantime
+   * @throws Exception	if connecting fails
+   */
+  protected boolean connect(long pid) throws Exception {
+    VirtualMachine		vm;
+    String			url;
+    JMXConnector		connector;
+    MBeanServerConnection	conn;
+
+    vm = VirtualMachine.attach("" + pid);
+    try {
+      url = vm.startLocalManagementAgent();
+    }
+    finally {
+      vm.detach();
+    }
+    connector = JMXConnectorFactory.connect(new JMXServiceURL(url));
+    synchronized (this) {
+      if (m_Task == null) {
+	close(connector);
+	return false;
+      }
+      conn                = connector.getMBeanServerConnection();
+      m_Connector         = connector;
+      m_Memory            = ManagementFactory.newPlatformMXBeanProxy(conn, ManagementFactory.MEMORY_MXBEAN_NAME, MemoryMXBean.class);
+      m_Threads           = ManagementFactory.newPlatformMXBeanProxy(conn, ManagementFactory.THREAD_MXBEAN_NAME, ThreadMXBean.class);
+      m_OperatingSystem   = ManagementFactory.newPlatformMXBeanProxy(conn, ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME, com.sun.management.OperatingSystemMXBean.class);
+      m_GarbageCollectors = ManagementFactory.getPlatformMXBeans(conn, GarbageCollectorMXBean.class);
+      m_ConnectedPID      = pid;
+      m_LastGcCount       = 0;
+      m_LastGcTime        = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Takes a sample and forwards it. The receivers get notified outside the
+   * lock of the monitor, so they can stop the monitor.
+   */
+  protected void update() {
+    Object	result;
+
+    result = sample();
+    if (result instanceof TelemetrySample)
+      m_Receiver.accept((TelemetrySample) result);
+    else if ((result instanceof Exception) && (m_ErrorReceiver != null))
+      m_ErrorReceiver.accept((Exception) result);
+  }
+
+  /**
+   * Takes a sample, connects first if necessary. Only gets called by the
+   * scheduler thread, the connection gets established without holding the
+   * lock.
+   *
+   * @return		the sample, the exception if sampling failed or null if not connected
+   */
+  protected Object sample() {
+    long		pid;
+    MemoryUsage		heap;
+    long		gcCount;
+    long		gcTime;
+    TelemetrySample	sample;
+
+    if (m_Failed || (m_Task == null))
+      return null;
+
+    try {
+      if (m_Connector == null) {
+	pid = m_PID.getAsLong();
+	if (pid <= 0)
+	  return null;
+	if (!connect(pid))
+	  return null;
+      }
+
+      heap    = m_Memory.getHeapMemoryUsage();
+      gcCount = 0;
+      gcTime  = 0;
+      for (GarbageCollectorMXBean gc: m_GarbageCollectors) {
+	gcCount += Math.max(0, gc.getCollectionCount());
+	gcTime  += Math.max(0, gc.getCollectionTime());
+      }
+      sample = new TelemetrySample(
+	m_ConnectedPID, System.currentTimeMillis(),
+	heap.getUsed(), heap.getCommitted(), heap.getMax(),
+	gcCount, gcTime, gcCount - m_LastGcCount, gcTime - m_LastGcTime,
+	m_OperatingSystem.getProcessCpuLoad(), m_Threads.getThreadCount(), m_Threads.getPeakThreadCount());
+      m_LastGcCount = gcCount;
+      m_LastGcTime  = gcTime;
+      return sample;
+    }
+    catch (Exception e) {
+      // JVM may have terminated in the meantime
+      synchronized (this) {
+	if (m_Task == null)
+	  return null;
+	m_Failed = true;
+	m_Task.cancel(false);
+	m_Task = null;
+      }
+      return e;
+    }
+  }
+}
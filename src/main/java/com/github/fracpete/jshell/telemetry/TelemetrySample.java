@@ -0,0 +1,243 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TelemetrySample.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.telemetry;
+
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * A snapshot of heap, GC, CPU and thread statistics of a JVM.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class TelemetrySample
+  implements Serializable {
+
+  /** the process ID of the JVM. */
+  protected long m_PID;
+
+  /** the time of the sample (msec since epoch). */
+  protected long m_Timestamp;
+
+  /** the used heap in bytes. */
+  protected long m_HeapUsed;
+
+  /** the committed heap in bytes. */
+  protected long m_HeapCommitted;
+
+  /** the maximum heap in bytes, -1 if undefined. */
+  protected long m_HeapMax;
+
+  /** the total number of garbage collections. */
+  protected long m_GcCount;
+
+  /** the total time spent in garbage collections (msec). */
+  protected long m_GcTime;
+
+  /** the number of garbage collections since the previous sample. */
+  protected long m_GcCountDelta;
+
+  /** the time spent in garbage collections since the previous sample (msec). */
+  protected long m_GcTimeDelta;
+
+  /** the CPU load of the process (0-1), negative if not available. */
+  protected double m_CpuLoad;
+
+  /** the number of live threads. */
+  protected int m_ThreadCount;
+
+  /** the peak number of live threads. */
+  protected int m_PeakThreadCount;
+
+  /**
+   * Initializes the sample.
+   *
+   * @param pid		the process ID of the JVM
+   * @param timestamp	the time of the sample
+   * @param heapUsed	the used heap in bytes
+   * @param heapCommitted	the committed heap in bytes
+   * @param heapMax	the maximum heap in bytes, -1 if undefined
+   * @param gcCount	the total number of garbage collections
+   * @param gcTime	the total time spent in garbage collections (msec)
+   * @param gcCountDelta	the number of garbage collections since the previous sample
+   * @param gcTimeDelta	the time spent in garbage collections since the previous sample (msec)
+   * @param cpuLoad	the CPU load of the process (0-1), negative if not available
+   * @param threadCount	the number of live threads
+   * @param peakThreadCount	the peak number of live threads
+   */
+  public TelemetrySample(long pid, long timestamp, long heapUsed, long heapCommitted, long heapMax,
+                         long gcCount, long gcTime, long gcCountDelta, long gcTimeDelta,
+                         double cpuLoad, int threadCount, int peakThreadCount) {
+    m_PID             = pid;
+    m_Timestamp       = timestamp;
+    m_HeapUsed        = heapUsed;
+    m_HeapCommitted   = heapCommitted;
+    m_HeapMax         = heapMax;
+    m_GcCount         = gcCount;
+    m_GcTime          = gcTime;
+    m_GcCountDelta    = gcCountDelta;
+    m_GcTimeDelta     = gcTimeDelta;
+    m_CpuLoad         = cpuLoad;
+    m_ThreadCount     = threadCount;
+    m_PeakThreadCount = peakThreadCount;
+  }
+
+  /**
+   * Returns the process ID of the JVM.
+   *
+   * @return		the ID
+   */
+  public long getPID() {
+    return m_PID;
+  }
+
+  /**
+   * Returns the time of the sample.
+   *
+   * @return		the time (msec since epoch)
+   */
+  public long getTimestamp() {
+    return m_Timestamp;
+  }
+
+  /**
+   * Returns the used heap.
+   *
+   * @return		the bytes
+   */
+  public long getHeapUsed() {
+    return m_HeapUsed;
+  }
+
+  /**
+   * Returns the committed heap.
+   *
+   * @return		the bytes
+   */
+  public long getHeapCommitted() {
+    return m_HeapCommitted;
+  }
+
+  /**
+   * Returns the maximum heap.
+   *
+   * @return		the bytes, -1 if undefined
+   */
+  public long getHeapMax() {
+    return m_HeapMax;
+  }
+
+  /**
+   * Returns the used heap relative to the maximum (or committed) heap.
+   *
+   * @return		the fraction (0-1)
+   */
+  public double getHeapUsage() {
+    long	max;
+
+    max = (m_HeapMax > 0) ? m_HeapMax : m_HeapCommitted;
+    if (max <= 0)
+      return 0;
+    return (double) m_HeapUsed / max;
+  }
+
+  /**
+   * Returns the total number of garbage collections.
+   *
+   * @return		the number
+   */
+  public long getGcCount() {
+    return m_GcCount;
+  }
+
+  /**
+   * Returns the total time spent in garbage collections.
+   *
+   * @return		the time in msec
+   */
+  public long getGcTime() {
+    return m_GcTime;
+  }
+
+  /**
+   * Returns the number of garbage collections since the previous sample.
+   *
+   * @return		the number
+   */
+  public long getGcCountDelta() {
+    return m_GcCountDelta;
+  }
+
+  /**
+   * Returns the time spent in garbage collections since the previous sample.
+   *
+   * @return		the time in msec
+   */
+  public long getGcTimeDelta() {
+    return m_GcTimeDelta;
+  }
+
+  /**
+   * Returns the CPU load of the process.
+   *
+   * @return		the load (0-1), negative if not available
+   */
+  public double getCpuLoad() {
+    return m_CpuLoad;
+  }
+
+  /**
+   * Returns the number of live threads.
+   *
+   * @return		the number
+   */
+  public int getThreadCount() {
+    return m_ThreadCount;
+  }
+
+  /**
+   * Returns the peak number of live threads.
+   *
+   * @return		the number
+   */
+  public int getPeakThreadCount() {
+    return m_PeakThreadCount;
+  }
+
+  /**
+   * Returns a compact summary of the sample.
+   *
+   * @return		the summary
+   */
+  public String toString() {
+    return String.format(Locale.ENGLISH,
+      "Heap: %d/%d MB (%.0f%%) | GC: %d (+%d, %d ms) | CPU: %s | Threads: %d",
+      m_HeapUsed / 1024 / 1024,
+      ((m_HeapMax > 0) ? m_HeapMax : m_HeapCommitted) / 1024 / 1024,
+      getHeapUsage() * 100,
+      m_GcCount,
+      m_GcCountDelta,
+      m_GcTimeDelta,
+      (m_CpuLoad < 0) ? "n/a" : String.format(Locale.ENGLISH, "%.0f%%", m_CpuLoad * 100),
+      m_ThreadCount);
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * AhoCorasick.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.trigger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton for finding any number of literal strings in a
+ * text with a single pass.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class AhoCorasick {
+
+  /** the sorted transition characters per state. */
+  protected char[][] m_Chars;
+
+  /** the target states per state, aligned with the characters. */
+  protected int[][] m_Targets;
+
+  /** the failure link per state. */
+  protected int[] m_Fail;
+
+  /** the indices of the strings that end in each state (including via failure links). */
+  protected int[][] m_Outputs;
+
+  /** the lengths of the strings. */
+  protected int[] m_Lengths;
+
+  /**
+   * Builds the automaton for the specified strings.
+   *
+   * @param strings	the strings to look for, must not be empty
+   */
+  public AhoCorasick(List<String> strings) {
+    List<Map<Character,Integer>>	transitions;
+    List<List<Integer>>		outputs;
+    Map<Character,Integer>		trans;
+    Deque<Integer>			queue;
+    String				s;
+    Integer				next;
+    int					state;
+    int					fail;
+    int					child;
+    int					i;
+    int					n;
+
+    transitions = new ArrayList<>();
+    outputs     = new ArrayList<>();
+    transitions.add(new TreeMap<>());
+    outputs.add(new ArrayList<>());
+    m_Lengths = new int[strings.size()];
+
+    // trie
+    for (n = 0; n < strings.size(); n++) {
+      s            = strings.get(n);
+      m_Lengths[n] = s.length();
+      state        = 0;
+      for (i = 0; i < s.length(); i++) {
+	trans = transitions.get(state);
+	next  = trans.get(s.charAt(i));
+	if (next == null) {
+	  next = transitions.size();
+	  trans.put(s.charAt(i), next);
+	  transitions.add(new TreeMap<>());
+	  outputs.add(new ArrayList<>());
+	}
+	state = next;
+      }
+      outputs.get(state).add(n);
+    }
+
+    // compact transitions
+    m_Chars   = new char[transitions.size()][];
+    m_Targets = new int[transitions.size()][];
+    for (state = 0; state < transitions.size(); state++) {
+      trans            = transitions.get(state);
+      m_Chars[state]   = new char[trans.size()];
+      m_Targets[state] = new int[trans.size()];
+      i = 0;
+      for (Character c: trans.keySet()) {
+	m_Chars[state][i]   = c;
+	m_Targets[state][i] = trans.get(c);
+	i++;
+      }
+    }
+
+    // failure links (breadth-first)
+    m_Fail = new int[transitions.size()];
+    queue  = new ArrayDeque<>();
+    for (i = 0; i < m_Targets[0].length; i++)
+      queue.add(m_Targets[0][i]);
+    while (!queue.isEmpty()) {
+      state = queue.poll();
+      for (i = 0; i < m_Chars[state].length; i++) {
+	child = m_Targets[state][i];
+	fail  = m_Fail[state];
+	while ((fail > 0) && (transition(fail, m_Chars[state][i]) == -1))
+	  fail = m_Fail[fail];
+	fail = transition(fail, m_Chars[state][i]);
+	if ((fail == -1) || (fail == child))
+	  fail = 0;
+	m_Fail[child] = fail;
+	outputs.get(child).addAll(outputs.get(fail));
+	queue.add(child);
+      }
+    }
+
+    m_Outputs = new int[outputs.size()][];
+    for (state = 0; state < outputs.size(); state++)
+      m_Outputs[state] = outputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Returns the next state for the character.
+   *
+   * @param state	the current state
+   * @param c		the character
+   * @return		the next state, -1 if no transition
+   */
+  protected int transition(int state, char c) {
+    int		index;
+
+    index = Arrays.binarySearch(m_Chars[state], c);
+    if (index < 0)
+      return -1;
+    return m_Targets[state][index];
+  }
+
+  /**
+   * Returns the number of strings in the automaton.
+   *
+   * @return		the number of strings
+   */
+  public int size() {
+    return m_Lengths.length;
+  }
+
+  /**
+   * Scans the text and records the position of the first occurrence of
+   * each of the strings.
+   *
+   * @param text	the text to scan
+   * @param first	the array for the start positions of the first occurrences, -1 if not found; must have the same length as number of strings
+   * @return		the number of strings found
+   */
+  public int search(CharSequence text, int[] first) {
+    int		result;
+    int		state;
+    int		next;
+    int		i;
+    char	c;
+
+    Arrays.fill(first, -1);
+    result = 0;
+    state  = 0;
+    for (i = 0; i < text.length(); i++) {
+      c = text.charAt(i);
+      while ((next = transition(state, c)) == -1) {
+	if (state == 0)
+	  break;
+	state = m_Fail[state];
+      }
+      state = Math.max(next, 0);
+      for (int n: m_Outputs[state]) {
+	if (first[n] == -1) {
+	  first[n] = i - m_Lengths[n] + 1;
+	  result++;
+	}
+      }
+      if (result == first.length)
+	break;
+    }
+
+    return result;
+  }
+}
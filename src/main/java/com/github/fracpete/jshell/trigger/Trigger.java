@@ -0,0 +1,221 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Trigger.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.trigger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A pattern to look for in the output of scripts, either a plain string
+ * or a regular expression.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ * @see TriggerMatcher
+ */
+public class Trigger
+  implements Serializable {
+
+  /**
+   * The output streams to inspect.
+   */
+  public enum Scope {
+    STDOUT,
+    STDERR,
+    BOTH,
+  }
+
+  /** for extracting the names of named groups. */
+  protected final static Pattern NAMED_GROUP = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+  /** the name of the trigger. */
+  protected String m_Name;
+
+  /** the literal string to look for, null if regular expression. */
+  protected String m_Literal;
+
+  /** the regular expression, null if literal. */
+  protected Pattern m_Pattern;
+
+  /** the streams to inspect. */
+  protected Scope m_Scope;
+
+  /** the names of the named groups in the regular expression. */
+  protected List<String> m_GroupNames;
+
+  /**
+   * Initializes the trigger.
+   *
+   * @param name	the name of the trigger
+   * @param literal	the literal string, null if regular expression
+   * @param pattern	the regular expression, null if literal
+   * @param scope	the streams to inspect
+   */
+  protected Trigger(String name, String literal, Pattern pattern, Scope scope) {
+    Matcher	matcher;
+
+    if ((literal == null) == (pattern == null))
+      throw new IllegalArgumentException("Either literal or regular expression must be provided!");
+    if ((literal != null) && literal.isEmpty())
+      throw new IllegalArgumentException("Literal cannot be empty!");
+
+    m_Name       = name;
+    m_Literal    = literal;
+    m_Pattern    = pattern;
+    m_Scope      = scope;
+    m_GroupNames = new ArrayList<>();
+    if (pattern != null) {
+      matcher = NAMED_GROUP.matcher(pattern.pattern());
+      while (matcher.find())
+	m_GroupNames.add(matcher.group(1));
+    }
+  }
+
+  /**
+   * Returns the name of the trigger.
+   *
+   * @return		the name
+   */
+  public String getName() {
+    return m_Name;
+  }
+
+  /**
+   * Returns whether the trigger is a literal string.
+   *
+   * @return		true if literal, false if regular expression
+   */
+  public boolean isLiteral() {
+    return (m_Literal != null);
+  }
+
+  /**
+   * Returns the literal string.
+   *
+   * @return		the literal, null if regular expression
+   */
+  public String getLiteral() {
+    return m_Literal;
+  }
+
+  /**
+   * Returns the regular expression.
+   *
+   * @return		the expression, null if literal
+   */
+  public Pattern getPattern() {
+    return m_Pattern;
+  }
+
+  /**
+   * Returns the streams to inspect.
+   *
+   * @return		the scope
+   */
+  public Scope getScope() {
+    return m_Scope;
+  }
+
+  /**
+   * Returns whether the trigger applies to the specified stream.
+   *
+   * @param stdout	whether stdout or stderr
+   * @return		true if applicable
+   */
+  public boolean appliesTo(boolean stdout) {
+    switch (m_Scope) {
+      case STDOUT:
+	return stdout;
+      case STDERR:
+	return !stdout;
+      default:
+	return true;
+    }
+  }
+
+  /**
+   * Returns the names of the named groups of the regular expression.
+   *
+   * @return		the names
+   */
+  public List<String> getGroupNames() {
+    return Collections.unmodifiableList(m_GroupNames);
+  }
+
+  /**
+   * Returns a string representation of the trigger.
+   *
+   * @return		the representation
+   */
+  public String toString() {
+    return m_Name + ": " + (isLiteral() ? "literal=" + m_Literal : "regexp=" + m_Pattern.pattern()) + ", scope=" + m_Scope;
+  }
+
+  /**
+   * Creates a trigger for a literal string, inspecting stdout and stderr.
+   *
+   * @param name	the name of the trigger
+   * @param literal	the string to look for
+   * @return		the trigger
+   */
+  public static Trigger literal(String name, String literal) {
+    return literal(name, literal, Scope.BOTH);
+  }
+
+  /**
+   * Creates a trigger for a literal string.
+   *
+   * @param name	the name of the trigger
+   * @param literal	the string to look for
+   * @param scope	the streams to inspect
+   * @return		the trigger
+   */
+  public static Trigger literal(String name, String literal, Scope scope) {
+    return new Trigger(name, literal, null, scope);
+  }
+
+  /**
+   * Creates a trigger for a regular expression, inspecting stdout and stderr.
+   *
+   * @param name	the name of the trigger
+   * @param regexp	the expression to look for
+   * @return		the trigger
+   */
+  public static Trigger regexp(String name, String regexp) {
+    return regexp(name, Pattern.compile(regexp), Scope.BOTH);
+  }
+
+  /**
+   * Creates a trigger for a regular expression.
+   *
+   * @param name	the name of the trigger
+   * @param pattern	the expression to look for
+   * @param scope	the streams to inspect
+   * @return		the trigger
+   */
+  public static Trigger regexp(String name, Pattern pattern, Scope scope) {
+    return new Trigger(name, null, pattern, scope);
+  }
+}
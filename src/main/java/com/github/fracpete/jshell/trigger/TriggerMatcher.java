@@ -0,0 +1,416 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * TriggerMatcher.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.trigger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles a set of triggers into a single matcher. All literal strings are
+ * located with one pass of an {@link AhoCorasick} automaton. Regular
+ * expressions get a required literal extracted (if possible), which is added
+ * to the automaton as well; the expression is only evaluated on lines that
+ * contain that literal. That way, the cost of scanning a line depends only
+ * little on the number of triggers.
+ * <br>
+ * Each trigger matches at most once per line (its first occurrence).
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class TriggerMatcher {
+
+  /**
+   * A single match of a trigger.
+   */
+  public static class Match {
+
+    /** the trigger that matched. */
+    protected Trigger m_Trigger;
+
+    /** the start of the match in the line. */
+    protected int m_Start;
+
+    /** the groups (0 is the complete match). */
+    protected List<String> m_Groups;
+
+    /** the named groups. */
+    protected Map<String,String> m_NamedGroups;
+
+    /**
+     * Initializes the match.
+     *
+     * @param trigger	the trigger that matched
+     * @param start	the start of the match
+     * @param groups	the groups
+     * @param namedGroups	the named groups
+     */
+    protected Match(Trigger trigger, int start, List<String> groups, Map<String,String> namedGroups) {
+      m_Trigger     = trigger;
+      m_Start       = start;
+      m_Groups      = groups;
+      m_NamedGroups = namedGroups;
+    }
+
+    /**
+     * Returns the trigger that matched.
+     *
+     * @return		the trigger
+     */
+    public Trigger getTrigger() {
+      return m_Trigger;
+    }
+
+    /**
+     * Returns the start position of the match.
+     *
+     * @return		the position
+     */
+    public int getStart() {
+      return m_Start;
+    }
+
+    /**
+     * Returns the groups, with group 0 being the complete match.
+     *
+     * @return		the groups
+     */
+    public List<String> getGroups() {
+      return m_Groups;
+    }
+
+    /**
+     * Returns the named groups.
+     *
+     * @return		the groups
+     */
+    public Map<String,String> getNamedGroups() {
+      return m_NamedGroups;
+    }
+  }
+
+  /** the triggers. */
+  protected List<Trigger> m_Triggers;
+
+  /** the automaton for the literals, null if no literals. */
+  protected AhoCorasick m_Automaton;
+
+  /** the index of the literal in the automaton per trigger, -1 if none. */
+  protected int[] m_Literals;
+
+  /**
+   * Compiles the triggers.
+   *
+   * @param triggers	the triggers to compile
+   */
+  public TriggerMatcher(List<Trigger> triggers) {
+    List<String>	literals;
+    Map<String,Integer>	indices;
+    String		literal;
+    int			i;
+
+    m_Triggers = new ArrayList<>(triggers);
+    m_Literals = new int[m_Triggers.size()];
+    literals   = new ArrayList<>();
+    indices    = new HashMap<>();
+    for (i = 0; i < m_Triggers.size(); i++) {
+      if (m_Triggers.get(i).isLiteral())
+	literal = m_Triggers.get(i).getLiteral();
+      else
+	literal = extractLiteral(m_Triggers.get(i).getPattern());
+      if (literal == null) {
+	m_Literals[i] = -1;
+	continue;
+      }
+      if (!indices.containsKey(literal)) {
+	indices.put(literal, literals.size());
+	literals.add(literal);
+      }
+      m_Literals[i] = indices.get(literal);
+    }
+    if (literals.isEmpty())
+      m_Automaton = null;
+    else
+      m_Automaton = new AhoCorasick(literals);
+  }
+
+  /**
+   * Returns the compiled triggers.
+   *
+   * @return		the triggers
+   */
+  public List<Trigger> getTriggers() {
+    return Collections.unmodifiableList(m_Triggers);
+  }
+
+  /**
+   * Scans the line and returns the matches.
+   *
+   * @param line	the line to scan
+   * @param stdout	whether the line is from stdout or stderr
+   * @return		the matches, empty if none
+   */
+  public List<Match> match(String line, boolean stdout) {
+    List<Match>		result;
+    int[]		first;
+    Trigger		trigger;
+    Matcher		matcher;
+    List<String>	groups;
+    Map<String,String>	named;
+    int			i;
+    int			n;
+
+    result = new ArrayList<>();
+    first  = null;
+    if (m_Automaton != null) {
+      first = new int[m_Automaton.size()];
+      m_Automaton.search(line, first);
+    }
+
+    for (i = 0; i < m_Triggers.size(); i++) {
+      trigger = m_Triggers.get(i);
+      if (!trigger.appliesTo(stdout))
+	continue;
+      // literal (prefilter) not present?
+      if ((m_Literals[i] > -1) && (first[m_Literals[i]] == -1))
+	continue;
+      if (trigger.isLiteral()) {
+	result.add(new Match(trigger, first[m_Literals[i]], Collections.singletonList(trigger.getLiteral()), Collections.emptyMap()));
+	continue;
+      }
+      matcher = trigger.getPattern().matcher(line);
+      if (!matcher.find())
+	continue;
+      groups = new ArrayList<>();
+      for (n = 0; n <= matcher.groupCount(); n++)
+	groups.add(matcher.group(n));
+      named = new HashMap<>();
+      for (String name: trigger.getGroupNames())
+	named.put(name, matcher.group(name));
+      result.add(new Match(trigger, matcher.start(), groups, named));
+    }
+
+    return result;
+  }
+
+  /**
+   * Extracts the longest literal string from the regular expression that
+   * any match must contain. Conservative, i.e., returns null if in doubt
+   * (alternatives, case-insensitive matching, etc).
+   *
+   * @param pattern	the expression to analyze
+   * @return		the literal, null if none could be determined
+   */
+  public static String extractLiteral(Pattern pattern) {
+    String		regexp;
+    StringBuilder	current;
+    String		longest;
+    int			depth;
+    int			i;
+    char		c;
+
+    // these apply to literal patterns as well
+    if ((pattern.flags() & (Pattern.CASE_INSENSITIVE | Pattern.CANON_EQ)) != 0)
+      return null;
+    if ((pattern.flags() & Pattern.LITERAL) != 0)
+      return pattern.pattern().isEmpty() ? null : pattern.pattern();
+    if ((pattern.flags() & Pattern.COMMENTS) != 0)
+      return null;
+
+    regexp  = pattern.pattern();
+    current = new StringBuilder();
+    longest = "";
+    depth   = 0;
+    for (i = 0; i < regexp.length(); i++) {
+      c = regexp.charAt(i);
+      switch (c) {
+	case '|':
+	  return null;
+
+	case '\\':
+	  i++;
+	  if (i >= regexp.length())
+	    return null;
+	  c = regexp.charAt(i);
+	  if (Character.isLetterOrDigit(c)) {
+	    // character class, back reference, quoting, etc
+	    if (c == 'Q')
+	      return null;
+	    longest = longer(longest, current);
+	    i = skipEscape(regexp, i);
+	  }
+	  else if (depth == 0) {
+	    current.append(c);
+	  }
+	  break;
+
+	case '[':
+	  longest = longer(longest, current);
+	  i = skipClass(regexp, i);
+	  if (i == -1)
+	    return null;
+	  break;
+
+	case '(':
+	  longest = longer(longest, current);
+	  // inline flags, eg (?i)
+	  if ((i + 1 < regexp.length()) && (regexp.charAt(i + 1) == '?')) {
+	    for (int n = i + 2; n < regexp.length(); n++) {
+	      c = regexp.charAt(n);
+	      if ((c == 'i') || (c == 'x') || (c == 'u'))
+		return null;
+	      if (!Character.isLetter(c) && (c != '-'))
+		break;
+	    }
+	  }
+	  depth++;
+	  break;
+
+	case ')':
+	  longest = longer(longest, current);
+	  depth--;
+	  break;
+
+	case '*':
+	case '?':
+	case '{':
+	  // preceding character is optional
+	  if (current.length() > 0)
+	    current.setLength(current.length() - 1);
+	  longest = longer(longest, current);
+	  if (c == '{') {
+	    i = regexp.indexOf('}', i);
+	    if (i == -1)
+	      return null;
+	  }
+	  break;
+
+	case '+':
+	case '.':
+	case '^':
+	case '$':
+	  longest = longer(longest, current);
+	  break;
+
+	default:
+	  if (depth == 0)
+	    current.append(c);
+      }
+    }
+    longest = longer(longest, current);
+
+    return longest.isEmpty() ? null : longest;
+  }
+
+  /**
+   * Returns the longer of the two strings and resets the buffer.
+   *
+   * @param longest	the longest string so far
+   * @param current	the current string, gets reset
+   * @return		the longer string
+   */
+  protected static String longer(String longest, StringBuilder current) {
+    String	result;
+
+    result = longest;
+    if (current.length() > longest.length())
+      result = current.toString();
+    current.setLength(0);
+
+    return result;
+  }
+
+  /**
+   * Skips the arguments of an escape sequence, eg the hex digits of \x41.
+   *
+   * @param regexp	the expression
+   * @param pos		the position of the escaped letter/digit
+   * @return		the position of the last character of the sequence
+   */
+  protected static int skipEscape(String regexp, int pos) {
+    int		end;
+
+    switch (regexp.charAt(pos)) {
+      case 'x':
+      case 'p':
+      case 'P':
+	if ((pos + 1 < regexp.length()) && (regexp.charAt(pos + 1) == '{')) {
+	  end = regexp.indexOf('}', pos);
+	  return (end == -1) ? regexp.length() : end;
+	}
+	return pos + ((regexp.charAt(pos) == 'x') ? 2 : 1);
+      case 'u':
+	return pos + 4;
+      case 'c':
+	return pos + 1;
+      case 'k':
+	end = regexp.indexOf('>', pos);
+	return (end == -1) ? regexp.length() : end;
+      default:
+	// octal values and back references
+	end = pos;
+	while ((end + 1 < regexp.length()) && Character.isDigit(regexp.charAt(end + 1)))
+	  end++;
+	return Character.isDigit(regexp.charAt(pos)) ? end : pos;
+    }
+  }
+
+  /**
+   * Skips a character class.
+   *
+   * @param regexp	the expression
+   * @param start	the position of the opening bracket
+   * @return		the position of the closing bracket, -1 if not found
+   */
+  protected static int skipClass(String regexp, int start) {
+    int		depth;
+    int		i;
+    char	c;
+
+    depth = 0;
+    for (i = start; i < regexp.length(); i++) {
+      c = regexp.charAt(i);
+      if (c == '\\') {
+	i++;
+      }
+      else if (c == '[') {
+	depth++;
+	// a leading ']' (or '^]') is a literal
+	if ((i + 1 < regexp.length()) && (regexp.charAt(i + 1) == '^'))
+	  i++;
+	if ((i + 1 < regexp.length()) && (regexp.charAt(i + 1) == ']'))
+	  i++;
+      }
+      else if (c == ']') {
+	depth--;
+	if (depth == 0)
+	  return i;
+      }
+    }
+
+    return -1;
+  }
+}
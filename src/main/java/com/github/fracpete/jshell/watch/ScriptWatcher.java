@@ -0,0 +1,233 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * ScriptWatcher.java
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+
+package com.github.fracpete.jshell.watch;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches a script file for changes via a {@link WatchService} on its
+ * directory. Bursts of events (eg editors writing a temporary file and
+ * renaming it) get debounced, ie the listener only gets notified once no
+ * further events arrived within the debounce period and the file's
+ * timestamp or size actually changed.
+ *
+ * @author FracPete (fracpete at waikato dot ac dot nz)
+ */
+public class ScriptWatcher
+  implements Closeable {
+
+  /** the default debounce period in msec. */
+  public final static int DEFAULT_DEBOUNCE = 250;
+
+  /** the file to watch. */
+  protected File m_File;
+
+  /** the debounce period in msec. */
+  protected int m_Debounce;
+
+  /** the listener to notify. */
+  protected Consumer<File> m_Listener;
+
+  /** the watch service. */
+  protected WatchService m_Service;
+
+  /** the thread processing the events. */
+  protected Thread m_Thread;
+
+  /** the last known timestamp. */
+  protected long m_LastModified;
+
+  /** the last known size. */
+  protected long m_LastLength;
+
+  /**
+   * Initializes the watcher.
+   *
+   * @param file	the file to watch
+   * @param debounce	the debounce period in msec
+   * @param listener	the listener to notify about changes (called from the watcher thread)
+   */
+  public ScriptWatcher(File file, int debounce, Consumer<File> listener) {
+    m_File     = file.getAbsoluteFile();
+    m_Debounce = debounce;
+    m_Listener = listener;
+    refresh();
+  }
+
+  /**
+   * Returns the file being watched.
+   *
+   * @return		the file
+   */
+  public File getFile() {
+    return m_File;
+  }
+
+  /**
+   * Returns the debounce period.
+   *
+   * @return		the period in msec
+   */
+  public int getDebounce() {
+    return m_Debounce;
+  }
+
+  /**
+   * Starts watching.
+   *
+   * @throws IOException	if watching the directory fails
+   */
+  public synchronized void start() throws IOException {
+    if (m_Service != null)
+      return;
+
+    m_Service = m_File.getParentFile().toPath().getFileSystem().newWatchService();
+    m_File.getParentFile().toPath().register(
+      m_Service,
+      StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY);
+    m_Thread = new Thread(() -> watch(m_Service), "jshell-script-watcher");
+    m_Thread.setDaemon(true);
+    m_Thread.start();
+  }
+
+  /**
+   * Returns whether the watcher is active.
+   *
+   * @return		true if active
+   */
+  public synchronized boolean isWatching() {
+    return (m_Service != null);
+  }
+
+  /**
+   * Records the current timestamp and size of the file, eg after saving
+   * the file oneself, so that this doesn't count as change.
+   */
+  public synchronized void refresh() {
+    m_LastModified = m_File.lastModified();
+    m_LastLength   = m_File.length();
+  }
+
+  /**
+   * Processes the events until the service gets closed.
+   *
+   * @param service	the service to take the events from
+   */
+  protected void watch(WatchService service) {
+    WatchKey	key;
+    boolean	pending;
+
+    pending = false;
+    try {
+      while (true) {
+	if (pending)
+	  key = service.poll(m_Debounce, TimeUnit.MILLISECONDS);
+	else
+	  key = service.take();
+	// quiet for long enough?
+	if (key == null) {
+	  pending = false;
+	  fire();
+	  continue;
+	}
+	if (isRelevant(key))
+	  pending = true;
+	key.reset();
+      }
+    }
+    catch (ClosedWatchServiceException | InterruptedException e) {
+      // stopped
+    }
+  }
+
+  /**
+   * Checks whether the events of the key concern the watched file.
+   *
+   * @param key		the key to check
+   * @return		true if relevant
+   */
+  protected boolean isRelevant(WatchKey key) {
+    boolean	result;
+
+    result = false;
+    for (WatchEvent<?> event: key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+	result = true;
+      else if (((Path) event.context()).getFileName().toString().equals(m_File.getName()))
+	result = true;
+    }
+
+    return result;
+  }
+
+  /**
+   * Notifies the listener if the file has changed.
+   */
+  protected void fire() {
+    synchronized(this) {
+      if (!m_File.exists())
+	return;
+      if ((m_File.lastModified() == m_LastModified) && (m_File.length() == m_LastLength))
+	return;
+      refresh();
+    }
+    try {
+      m_Listener.accept(m_File);
+    }
+    catch (Exception e) {
+      System.err.println("Failed to process change of " + m_File + ":");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Stops watching.
+   */
+  public void close() {
+    WatchService	service;
+
+    synchronized(this) {
+      service   = m_Service;
+      m_Service = null;
+      m_Thread  = null;
+    }
+    if (service != null) {
+      try {
+	service.close();
+      }
+      catch (IOException e) {
+	// ignored
+      }
+    }
+  }
+}
@@ -0,0 +1,6 @@
+@echo off
+
+set BASEDIR=%~dp0\..
+set MEMORY=1g
+
+java -Xmx%MEMORY% -cp "%BASEDIR%/lib/*" com.github.fracpete.jshell.stress.StressHarness %*